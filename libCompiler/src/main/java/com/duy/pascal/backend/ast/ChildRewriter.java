@@ -0,0 +1,45 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.ast;
+
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.backend.ast.instructions.Executable;
+import com.duy.pascal.backend.ast.runtime_value.value.AssignableValue;
+import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
+
+/**
+ * Receives the children of a {@link RewritableNode}. Each method returns the node to keep in
+ * place of the child, the child itself if nothing changes, and null for a null child
+ */
+public interface ChildRewriter {
+    /**
+     * @param child expression whose value is read
+     */
+    @Nullable
+    RuntimeValue value(@Nullable RuntimeValue child);
+
+    /**
+     * @param child expression which is written: the target of an assignment or of a for
+     *              loop, or a variable passed by reference
+     */
+    @Nullable
+    AssignableValue target(@Nullable AssignableValue child);
+
+    @Nullable
+    Executable statement(@Nullable Executable child);
+}
@@ -0,0 +1,29 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.ast;
+
+/**
+ * A statement or expression which gives its children to the optimizer. A node which does not
+ * implement it is opaque, the passes leave it as it is and assume it may read or write any
+ * variable
+ */
+public interface RewritableNode {
+    /**
+     * Gives each child to the rewriter and keeps the node it returns in place of the child
+     */
+    void rewriteChildren(ChildRewriter rewriter);
+}
@@ -5,18 +5,27 @@ import android.support.annotation.Nullable;
 
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContextMixin;
+import com.duy.pascal.backend.ast.expressioncontext.HierarchicalExpressionContext;
 import com.duy.pascal.backend.ast.instructions.Executable;
+import com.duy.pascal.backend.config.BodyParseMode;
 import com.duy.pascal.backend.config.ProgramConfig;
+import com.duy.pascal.backend.declaration.lang.function.FunctionBodyCompiler;
+import com.duy.pascal.backend.declaration.lang.function.FunctionDeclaration;
 import com.duy.pascal.backend.parse_exception.ParsingException;
 import com.duy.pascal.backend.parse_exception.UnrecognizedTokenException;
 import com.duy.pascal.backend.source_include.ScriptSource;
 import com.duy.pascal.backend.tokenizer.NewLexer;
+import com.duy.pascal.backend.tokenizer.Symbol;
 import com.duy.pascal.backend.tokens.Token;
+import com.duy.pascal.backend.tokens.WordToken;
 import com.duy.pascal.backend.tokens.grouping.GrouperToken;
 import com.duy.pascal.frontend.activities.IRunnablePascal;
 
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public abstract class CodeUnit {
     public ExpressionContextMixin context;
@@ -25,6 +34,16 @@ public abstract class CodeUnit {
     protected ProgramConfig config = new ProgramConfig();
     private String sourceName;
     private List<ScriptSource> includeDirectories;
+    /**
+     * functions whose bodies are parsed after the declarations of this unit
+     */
+    private final ArrayList<DeferredBody> deferredBodies = new ArrayList<>();
+    /**
+     * first error of the deferred bodies parsed before a declaration, see
+     * {@link #beforeDeclaration(ExpressionContext, Symbol)}
+     */
+    @Nullable
+    private ParsingException deferredError;
 
     @Override
     protected Object clone() throws CloneNotSupportedException {
@@ -42,13 +61,29 @@ public abstract class CodeUnit {
                     String sourceName, List<ScriptSource> includeDirectories,
                     @Nullable IRunnablePascal handler)
             throws ParsingException {
+        this(lex(program, sourceName, includeDirectories), sourceName, includeDirectories, handler,
+                BodyParseMode.EAGER);
+    }
+
+    /**
+     * Parse tokens that were already lexed and grouped
+     */
+    public CodeUnit(GrouperToken tokens,
+                    String sourceName, List<ScriptSource> includeDirectories,
+                    @Nullable IRunnablePascal handler, BodyParseMode bodyParseMode)
+            throws ParsingException {
         this(handler);
         this.sourceName = sourceName;
         this.includeDirectories = includeDirectories;
+        config.setBodyParseMode(bodyParseMode);
+        parseTree(tokens);
+    }
 
+    private static GrouperToken lex(Reader program, String sourceName,
+                                    List<ScriptSource> includeDirectories) throws ParsingException {
         NewLexer lexer = new NewLexer(program, sourceName, includeDirectories);
         lexer.parse();
-        parseTree(lexer.getTokenQueue());
+        return lexer.getTokenQueue();
     }
 
     public ProgramConfig getConfig() {
@@ -70,11 +105,63 @@ public abstract class CodeUnit {
     protected abstract ExpressionContextMixin getExpressionContextInstance(IRunnablePascal handler);
 
     private void parseTree(GrouperToken tokens) throws ParsingException {
-        while (tokens.hasNext()) {
-            context.addNextDeclaration(tokens);
+        try {
+            while (tokens.hasNext()) {
+                context.addNextDeclaration(tokens);
+            }
+        } catch (ParsingException e) {
+            //the deferred bodies come before the error, one of them may fail first
+            compileDeferredBodies();
+            throw e;
+        }
+        compileDeferredBodies();
+    }
+
+    /**
+     * Called when the parse of the body of a function is deferred
+     */
+    public void deferBody(FunctionDeclaration function, GrouperToken body) {
+        if (config.getBodyParseMode() == BodyParseMode.PARALLEL) {
+            deferredBodies.add(new DeferredBody(function, body));
+        }
+    }
+
+    /**
+     * Called before a name is declared in a context of this unit. A body only sees the
+     * declarations that come before it, so the deferred bodies are parsed now if one of them
+     * uses the name and is nested in the context
+     */
+    public void beforeDeclaration(ExpressionContext context, Symbol name) {
+        if (deferredError != null) {
+            return;
+        }
+        for (DeferredBody body : deferredBodies) {
+            if (body.names.contains(name) && body.isNestedIn(context)) {
+                try {
+                    compileDeferredBodies();
+                } catch (ParsingException e) {
+                    deferredError = e;
+                }
+                return;
+            }
         }
     }
 
+    private void compileDeferredBodies() throws ParsingException {
+        if (deferredError != null) {
+            throw deferredError;
+        }
+        if (deferredBodies.isEmpty()) {
+            return;
+        }
+        List<FunctionDeclaration> functions = new ArrayList<>(deferredBodies.size());
+        for (DeferredBody body : deferredBodies) {
+            functions.add(body.function);
+        }
+        deferredBodies.clear();
+        FunctionBodyCompiler.compileAll(functions);
+    }
+
     public abstract RuntimeCodeUnit<? extends CodeUnit> generate();
 
     @Nullable
@@ -109,4 +196,38 @@ public abstract class CodeUnit {
 
     }
 
+    private static class DeferredBody {
+        private final FunctionDeclaration function;
+        /**
+         * identifiers written in the body
+         */
+        private final Set<Symbol> names = new HashSet<>();
+
+        DeferredBody(FunctionDeclaration function, GrouperToken body) {
+            this.function = function;
+            collectNames(body);
+        }
+
+        private void collectNames(GrouperToken tokens) {
+            for (Token token : tokens.getRemainingTokens()) {
+                if (token instanceof WordToken) {
+                    names.add(((WordToken) token).getSymbol());
+                } else if (token instanceof GrouperToken) {
+                    collectNames((GrouperToken) token);
+                }
+            }
+        }
+
+        boolean isNestedIn(ExpressionContext context) {
+            ExpressionContext parent = function.declaration.getParentContext();
+            while (parent != null) {
+                if (parent == context) {
+                    return true;
+                }
+                parent = parent instanceof HierarchicalExpressionContext
+                        ? ((HierarchicalExpressionContext) parent).getParentContext() : null;
+            }
+            return false;
+        }
+    }
 }
@@ -1,7 +1,9 @@
 package com.duy.pascal.backend.ast.codeunit;
 
+import com.duy.pascal.backend.config.BodyParseMode;
 import com.duy.pascal.backend.parse_exception.ParsingException;
 import com.duy.pascal.backend.source_include.ScriptSource;
+import com.duy.pascal.backend.tokens.grouping.GrouperToken;
 import com.duy.pascal.frontend.activities.IRunnablePascal;
 
 import java.io.Reader;
@@ -17,6 +19,15 @@ public abstract class ExecutableCodeUnit extends CodeUnit {
         super(r, sourceName, includeDirectories, handler);
     }
 
+    public ExecutableCodeUnit(GrouperToken tokens,
+                              String sourceName,
+                              List<ScriptSource> includeDirectories,
+                              IRunnablePascal handler,
+                              BodyParseMode bodyParseMode)
+            throws ParsingException {
+        super(tokens, sourceName, includeDirectories, handler, bodyParseMode);
+    }
+
     public ExecutableCodeUnit(IRunnablePascal handler) {
         super(handler);
     }
@@ -18,6 +18,8 @@ package com.duy.pascal.backend.ast.codeunit;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
+import com.duy.pascal.backend.ast.runtime_value.value.NullValue;
 import com.duy.pascal.backend.ast.variablecontext.VariableContext;
 import com.duy.pascal.backend.declaration.lang.value.VariableDeclaration;
 import com.duy.pascal.backend.declaration.library.PascalUnitDeclaration;
@@ -26,22 +28,33 @@ import com.duy.pascal.backend.utils.NullSafety;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 public abstract class RuntimeCodeUnit<parent extends CodeUnit> extends VariableContext {
     public volatile RunMode mode;
     parent declaration;
-    private HashMap<String, Object> unitVariables = new HashMap<>();
+    /**
+     * global variables, index of each variable is its position in declaration list
+     */
+    private Object[] unitVariables;
     private HashMap<String, RuntimePascalClass> mRuntimePascalClassMap = new HashMap<>();
-    private HashMap<PascalUnitDeclaration, RuntimeUnitPascal> mRuntimeUnitMap = new HashMap<>();
+    /**
+     * units used by this run, in the order their initialization runs
+     */
+    private LinkedHashMap<PascalUnitDeclaration, RuntimeUnitPascal> mRuntimeUnitMap = new LinkedHashMap<>();
 
     public RuntimeCodeUnit(parent declaration) {
         this.declaration = declaration;
-        for (VariableDeclaration v : declaration.context.variables) v.initialize(unitVariables);
+        ArrayList<VariableDeclaration> variables = declaration.context.variables;
+        this.unitVariables = new Object[declaration.context.getFrameSize()];
+        for (int i = 0; i < variables.size(); i++) {
+            variables.get(i).initialize(unitVariables, i);
+        }
     }
 
-    public HashMap<PascalUnitDeclaration, RuntimeUnitPascal> getRuntimeUnitMap() {
+    public LinkedHashMap<PascalUnitDeclaration, RuntimeUnitPascal> getRuntimeUnitMap() {
         return mRuntimeUnitMap;
     }
 
@@ -53,16 +66,40 @@ public abstract class RuntimeCodeUnit<parent extends CodeUnit> extends VariableC
         return declaration;
     }
 
+    @NonNull
+    @Override
+    public Object getSlotValue(int slot) {
+        return NullSafety.zReturn(unitVariables[slot]);
+    }
+
+    @Override
+    public void setSlotValue(int slot, Object val) {
+        unitVariables[slot] = val;
+    }
+
+    @Override
+    public ExpressionContext getFrameOwner() {
+        return declaration.context;
+    }
+
     @NonNull
     @Override
     public Object getLocalVar(String name) {
-        Object o = unitVariables.get(name);
-        return NullSafety.zReturn(o);
+        int slot = declaration.context.getVariableSlotLocal(name);
+        if (slot < 0) {
+            return NullValue.get();
+        }
+        return getSlotValue(slot);
     }
 
     @Override
     public boolean setLocalVar(String name, Object val) {
-        return unitVariables.put(name, val) != null;
+        int slot = declaration.context.getVariableSlotLocal(name);
+        if (slot < 0) {
+            return false;
+        }
+        unitVariables[slot] = val;
+        return true;
     }
 
     @Override
@@ -82,6 +119,11 @@ public abstract class RuntimeCodeUnit<parent extends CodeUnit> extends VariableC
 
     @Override
     public HashMap<String, Object> getMapVars() {
-        return unitVariables;
+        ArrayList<VariableDeclaration> variables = declaration.context.variables;
+        HashMap<String, Object> map = new HashMap<>();
+        for (int i = 0; i < variables.size(); i++) {
+            map.put(variables.get(i).getName(), unitVariables[i]);
+        }
+        return map;
     }
 }
@@ -16,41 +16,110 @@
 
 package com.duy.pascal.backend.ast.codeunit;
 
+import android.support.annotation.Nullable;
+
 import com.duy.pascal.backend.declaration.lang.function.AbstractFunction;
 import com.duy.pascal.backend.declaration.lang.function.MethodDeclaration;
 import com.duy.pascal.backend.declaration.library.PascalUnitDeclaration;
 import com.duy.pascal.backend.ast.runtime_value.ScriptControl;
+import com.duy.pascal.backend.builtin_libraries.SystemLibrary;
+import com.duy.pascal.backend.builtin_libraries.file.FileLib;
+import com.duy.pascal.backend.builtin_libraries.io.IOLib;
 import com.duy.pascal.backend.config.DebugMode;
+import com.duy.pascal.backend.config.ExecutionBackend;
+import com.duy.pascal.backend.config.ExecutionMode;
+import com.duy.pascal.backend.config.ProgramConfig;
 import com.duy.pascal.backend.debugable.DebugListener;
 import com.duy.pascal.backend.linenumber.LineInfo;
 import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
 import com.duy.pascal.backend.runtime_exception.ScriptTerminatedException;
 import com.duy.pascal.backend.runtime_exception.StackOverflowException;
+import com.duy.pascal.frontend.activities.IRunnablePascal;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public abstract class RuntimeExecutableCodeUnit<parent extends ExecutableCodeUnit> extends RuntimeCodeUnit<parent>
         implements ScriptControl {
     private static final String TAG = "RuntimeExecutable";
 
+    /**
+     * max number of nested function calls
+     */
     private volatile long MAX_STACK = 45000;
     private volatile ControlMode runMode = ControlMode.RUNNING;
+    /**
+     * raised by {@link #pause()} and {@link #terminate()}, polled by {@link #safepoint(LineInfo)}
+     */
+    private volatile boolean safepointRequested = false;
     private volatile boolean doneExecuting = false;
     private volatile long stack = 0;
+    /**
+     * bytes taken by the frames of {@link com.duy.pascal.backend.config.ExecutionBackend#STACKLESS},
+     * only touched by the thread of the program
+     */
+    private long heapStack = 0;
+    private long heapStackBudget;
     private volatile boolean debug = false;
+    /**
+     * false for programs generated in {@link ExecutionMode#RELEASE}, never changes so
+     * {@link #isDebug()} does not touch the volatile debug flag
+     */
+    private final boolean instrumented;
+    /**
+     * true if the calls and loop iterations of routines are counted to compile the hot ones,
+     * fixed when the run is generated so a run which can not compile does not count
+     */
+    private final boolean jit;
 
 
     private DebugMode debugMode;
     private DebugListener debugListener;
 
+    /**
+     * input and output of this run, the declaration only keeps the handler it was parsed with
+     */
+    @Nullable
+    private final IRunnablePascal handler;
+    private IOLib ioHandler;
+    private FileLib fileHandler;
+    private SystemLibrary systemLibrary;
+
     public RuntimeExecutableCodeUnit(parent definition) {
+        this(definition, ExecutionMode.RELEASE);
+    }
+
+    public RuntimeExecutableCodeUnit(parent definition, ExecutionMode executionMode) {
+        this(definition, executionMode, null);
+    }
+
+    public RuntimeExecutableCodeUnit(parent definition, ExecutionMode executionMode,
+                                     @Nullable IRunnablePascal handler) {
         super(definition);
+        this.instrumented = executionMode == ExecutionMode.INSTRUMENTED;
+        ProgramConfig config = definition.getConfig();
+        this.jit = !instrumented && config.isJit()
+                && config.getBackend() != ExecutionBackend.STACKLESS;
+        this.heapStackBudget = definition.getConfig().getStackBudget();
+        this.handler = handler;
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return instrumented ? ExecutionMode.INSTRUMENTED : ExecutionMode.RELEASE;
     }
 
+    /**
+     * @return true if hot routines are compiled to bytecode in this run, see
+     * {@link com.duy.pascal.backend.jit.JitCompiler}
+     */
+    public boolean isJit() {
+        return jit;
+    }
+
+    /**
+     * @return true if the debugger is enabled, always false in {@link ExecutionMode#RELEASE}
+     */
     public boolean isDebug() {
-        return debug;
+        return instrumented && debug;
     }
 
     public void setDebug(boolean debug) {
@@ -58,20 +127,51 @@ public abstract class RuntimeExecutableCodeUnit<parent extends ExecutableCodeUni
     }
 
     public RuntimeUnitPascal getLibraryContext(PascalUnitDeclaration l) {
-        HashMap<PascalUnitDeclaration, RuntimeUnitPascal> unitsMap = declaration.getContext().getRuntimeUnitMap();
-        return unitsMap.get(l);
+        return getRuntimeUnitMap().get(l);
     }
 
     public RuntimePascalClass getRuntimePascalClassContext(String identifier) {
-        Map<String, RuntimePascalClass> classMap
-                = declaration.getContext().getRuntimePascalClassMap();
-        return classMap.get(identifier);
+        return getRuntimePascalClassMap().get(identifier);
     }
 
     public void addPascalClassContext(String id, RuntimePascalClass runtimePascalClass) {
-        Map<String, RuntimePascalClass> classMap
-                = declaration.getContext().getRuntimePascalClassMap();
-        classMap.put(id, runtimePascalClass);
+        getRuntimePascalClassMap().put(id, runtimePascalClass);
+    }
+
+    @Nullable
+    public IRunnablePascal getHandler() {
+        return handler;
+    }
+
+    /**
+     * Manager read and write to console, created on the first use by the program
+     */
+    public IOLib getIOHandler() {
+        if (ioHandler == null) {
+            ioHandler = new IOLib(handler);
+        }
+        return ioHandler;
+    }
+
+    /**
+     * Manager read and write into a file, created on the first use by the program
+     */
+    public FileLib getFileHandler() {
+        if (fileHandler == null) {
+            fileHandler = new FileLib(handler);
+        }
+        return fileHandler;
+    }
+
+    /**
+     * Routines of the system unit, with the random number generator of this run, created on
+     * the first use by the program
+     */
+    public SystemLibrary getSystemLibrary() {
+        if (systemLibrary == null) {
+            systemLibrary = new SystemLibrary();
+        }
+        return systemLibrary;
     }
 
     public void run() throws RuntimePascalException {
@@ -94,6 +194,7 @@ public abstract class RuntimeExecutableCodeUnit<parent extends ExecutableCodeUni
     @Override
     public void pause() {
         runMode = ControlMode.PAUSED;
+        safepointRequested = true;
     }
 
     public void enableDebug() {
@@ -107,6 +208,7 @@ public abstract class RuntimeExecutableCodeUnit<parent extends ExecutableCodeUni
     @Override
     public void resume() {
         runMode = ControlMode.RUNNING;
+        safepointRequested = false;
         synchronized (this) {
             this.notifyAll();
         }
@@ -115,11 +217,22 @@ public abstract class RuntimeExecutableCodeUnit<parent extends ExecutableCodeUni
     @Override
     public void terminate() {
         runMode = ControlMode.TERMINATED;
+        safepointRequested = true;
         synchronized (this) {
             this.notifyAll();
         }
     }
 
+    /**
+     * Polled at loop back-edges and function entries. Costs a single read of a volatile
+     * flag unless the program was asked to pause or to terminate
+     */
+    public void safepoint(LineInfo line) throws ScriptTerminatedException {
+        if (safepointRequested) {
+            scriptControlCheck(line, false);
+        }
+    }
+
     public void scriptControlCheck(LineInfo line)
             throws ScriptTerminatedException {
         scriptControlCheck(line, debug);
@@ -187,6 +300,27 @@ public abstract class RuntimeExecutableCodeUnit<parent extends ExecutableCodeUni
         this.MAX_STACK = maxStackSize;
     }
 
+    /**
+     * Reserves the heap taken by a frame of a call which does not nest java calls
+     *
+     * @param bytes estimated size of the frame
+     */
+    public void incHeapStack(long bytes, LineInfo lineInfo) throws StackOverflowException {
+        heapStack += bytes;
+        if (heapStack > heapStackBudget) {
+            heapStack -= bytes;
+            throw new StackOverflowException(lineInfo);
+        }
+    }
+
+    public void decHeapStack(long bytes) {
+        heapStack -= bytes;
+    }
+
+    public void setHeapStackBudget(long heapStackBudget) {
+        this.heapStackBudget = heapStackBudget;
+    }
+
     public DebugMode getDebugMode() {
         return debugMode;
     }
@@ -18,19 +18,41 @@ package com.duy.pascal.backend.ast.codeunit;
 
 import com.duy.pascal.backend.ast.variablecontext.VariableContext;
 import com.duy.pascal.backend.declaration.library.PascalUnitDeclaration;
+import com.duy.pascal.backend.config.ExecutionMode;
 import com.duy.pascal.backend.config.RunMode;
 import com.duy.pascal.backend.declaration.program.PascalProgramDeclaration;
 import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
+import com.duy.pascal.frontend.activities.IRunnablePascal;
 import com.duy.pascal.frontend.debug.CallStack;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
-
 public class RuntimePascalProgram extends RuntimeExecutableCodeUnit<PascalProgramDeclaration> {
 
     public RuntimePascalProgram(PascalProgramDeclaration p) {
-        super(p);
+        this(p, ExecutionMode.RELEASE);
+    }
+
+    public RuntimePascalProgram(PascalProgramDeclaration p, ExecutionMode executionMode) {
+        super(p, executionMode);
+        addUnits(p);
+    }
+
+    public RuntimePascalProgram(PascalProgramDeclaration p, ExecutionMode executionMode,
+                                IRunnablePascal handler) {
+        super(p, executionMode, handler);
+        addUnits(p);
+    }
+
+    /**
+     * Every run has its own instance of the units used by the program, the units they use come
+     * first so they are initialized before
+     */
+    private void addUnits(CodeUnit unit) {
+        for (PascalUnitDeclaration used : unit.getContext().getUnits()) {
+            if (!getRuntimeUnitMap().containsKey(used)) {
+                addUnits(used);
+                getRuntimeUnitMap().put(used, used.generate());
+            }
+        }
     }
 
     @Override
@@ -38,18 +60,16 @@ public class RuntimePascalProgram extends RuntimeExecutableCodeUnit<PascalProgra
         this.mode = RunMode.RUNNING;
 
         //generate init code of library
-        HashMap<PascalUnitDeclaration, RuntimeUnitPascal> librariesMap = getDeclaration().getContext().getRuntimeUnitMap();
-        Set<Map.Entry<PascalUnitDeclaration, RuntimeUnitPascal>> entries = librariesMap.entrySet();
-        for (Map.Entry<PascalUnitDeclaration, RuntimeUnitPascal> entry : entries) {
-            entry.getValue().runInit();
+        for (RuntimeUnitPascal unit : getRuntimeUnitMap().values()) {
+            unit.runInit(this);
         }
 
         if (isDebug()) getDebugListener().onVariableChange(new CallStack(this));
         getDeclaration().main.execute(this, this);
 
         //generate final code library
-        for (Map.Entry<PascalUnitDeclaration, RuntimeUnitPascal> entry : entries) {
-            entry.getValue().runFinal();
+        for (RuntimeUnitPascal unit : getRuntimeUnitMap().values()) {
+            unit.runFinal(this);
         }
 
         if (isDebug()) {
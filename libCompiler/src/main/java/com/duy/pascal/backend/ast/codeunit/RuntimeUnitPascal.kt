@@ -25,20 +25,22 @@ class RuntimeUnitPascal : RuntimeExecutableCodeUnit<PascalUnitDeclaration> {
 
     /**
      * run instruction initialization
+     *
+     * @param main the program which uses the unit, it owns the input and output of the run
      */
     @Throws(RuntimePascalException::class)
-    fun runInit() {
+    fun runInit(main: RuntimeExecutableCodeUnit<*>) {
         val context = declaration.context as PascalUnitDeclaration.UnitExpressionContext
-        context.initInstruction?.execute(this, this)
+        context.initInstruction?.execute(this, main)
     }
 
     /**
      * run final instruction
      */
     @Throws(RuntimePascalException::class)
-    fun runFinal() {
+    fun runFinal(main: RuntimeExecutableCodeUnit<*>) {
         val context = declaration.context as PascalUnitDeclaration.UnitExpressionContext
-        context.finalInstruction?.execute(this, this)
+        context.finalInstruction?.execute(this, main)
     }
 
     @Throws(RuntimePascalException::class)
@@ -13,6 +13,7 @@ import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
 import com.duy.pascal.backend.linenumber.LineInfo;
 import com.duy.pascal.backend.parse_exception.ParsingException;
 import com.duy.pascal.backend.parse_exception.define.DuplicateIdentifierException;
+import com.duy.pascal.backend.tokenizer.Symbol;
 import com.duy.pascal.backend.tokens.Token;
 import com.duy.pascal.backend.tokens.WordToken;
 import com.duy.pascal.backend.tokens.grouping.GrouperToken;
@@ -33,24 +34,46 @@ public interface ExpressionContext extends CompileTimeContext {
 
     VariableDeclaration getVariableDefinition(String ident);
 
+    VariableDeclaration getVariableDefinition(Symbol ident);
+
     void getCallableFunctions(String name, List<List<AbstractFunction>> listsofar);
 
+    void getCallableFunctions(Symbol name, List<List<AbstractFunction>> listsofar);
+
     boolean functionExists(String name);
 
+    boolean functionExists(Symbol name);
+
+    ConstantDefinition getConstantDefinition(Symbol identifier);
+
+    Type getTypeDef(Symbol identifier);
+
     void declareConst(ConstantDefinition c);
 
     ConstantDefinition getConstantDefinitionLocal(String indent);
 
+    ConstantDefinition getConstantDefinitionLocal(Symbol indent);
+
     Type getTypedefTypeLocal(String ident);
 
+    Type getTypedefTypeLocal(Symbol ident);
+
     VariableDeclaration getVariableDefinitionLocal(String ident);
 
+    VariableDeclaration getVariableDefinitionLocal(Symbol ident);
+
     List<AbstractFunction> getCallableFunctionsLocal(String name);
 
+    List<AbstractFunction> getCallableFunctionsLocal(Symbol name);
+
     boolean functionExistsLocal(String name);
 
+    boolean functionExistsLocal(Symbol name);
+
     public LabelDeclaration getLabelLocal(String name);
 
+    public LabelDeclaration getLabelLocal(Symbol name);
+
     CodeUnit root();
 
     Executable handleUnrecognizedStatement(Token next, GrouperToken container)
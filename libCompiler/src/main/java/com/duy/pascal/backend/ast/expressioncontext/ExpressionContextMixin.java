@@ -11,9 +11,8 @@ import com.duy.pascal.backend.declaration.NamedEntity;
 import com.duy.pascal.backend.declaration.lang.value.VariableDeclaration;
 import com.duy.pascal.backend.ast.codeunit.CodeUnit;
 import com.duy.pascal.backend.declaration.classunit.ClassConstructor;
-import com.duy.pascal.backend.ast.codeunit.RuntimePascalClass;
+import com.duy.pascal.backend.declaration.library.PascalUnitCache;
 import com.duy.pascal.backend.declaration.library.PascalUnitDeclaration;
-import com.duy.pascal.backend.ast.codeunit.RuntimeUnitPascal;
 import com.duy.pascal.backend.ast.instructions.Executable;
 import com.duy.pascal.backend.ast.runtime_value.value.FunctionCall;
 import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
@@ -21,12 +20,8 @@ import com.duy.pascal.backend.ast.runtime_value.value.access.ConstantAccess;
 import com.duy.pascal.backend.ast.runtime_value.value.access.LibraryIdentifierAccess;
 import com.duy.pascal.backend.ast.runtime_value.value.access.VariableAccess;
 import com.duy.pascal.backend.builtin_libraries.PascalLibraryManager;
-import com.duy.pascal.backend.builtin_libraries.file.FileLib;
-import com.duy.pascal.backend.builtin_libraries.io.IOLib;
 import com.duy.pascal.backend.javaunderpascal.classpath.JavaClassLoader;
-import com.duy.pascal.backend.linenumber.LineInfo;
 import com.duy.pascal.backend.parse_exception.ParsingException;
-import com.duy.pascal.backend.parse_exception.PermissionDeniedException;
 import com.duy.pascal.backend.parse_exception.UnSupportTokenException;
 import com.duy.pascal.backend.parse_exception.UnrecognizedTokenException;
 import com.duy.pascal.backend.parse_exception.define.DuplicateIdentifierException;
@@ -37,7 +32,8 @@ import com.duy.pascal.backend.parse_exception.syntax.ExpectedTokenException;
 import com.duy.pascal.backend.parse_exception.syntax.WrongIfElseStatement;
 import com.duy.pascal.backend.parse_exception.value.NonConstantExpressionException;
 import com.duy.pascal.backend.parse_exception.value.NonIntegerException;
-import com.duy.pascal.backend.source_include.ScriptSource;
+import com.duy.pascal.backend.tokenizer.Symbol;
+import com.duy.pascal.backend.tokenizer.SymbolTable;
 import com.duy.pascal.backend.tokens.OperatorToken;
 import com.duy.pascal.backend.tokens.Token;
 import com.duy.pascal.backend.tokens.WordToken;
@@ -70,7 +66,6 @@ import com.duy.pascal.frontend.editor.view.adapters.InfoItem;
 import com.duy.pascal.frontend.structure.viewholder.StructureType;
 import com.google.common.collect.ArrayListMultimap;
 
-import java.io.Reader;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Hashtable;
@@ -87,6 +82,10 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
      * list global variable
      */
     public ArrayList<VariableDeclaration> variables = new ArrayList<>();
+    /**
+     * position of each variable in {@link #variables}, keyed by the name in lower case
+     */
+    private HashMap<Symbol, Integer> mVariableIndex = new HashMap<>();
 
     protected String mContextName = "";
     /**
@@ -97,30 +96,29 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
     /**
      * list function and procedure pascal, support overload function
      */
-    private ArrayListMultimap<String, AbstractFunction> callableFunctions = ArrayListMultimap.create();
+    private ArrayListMultimap<Symbol, AbstractFunction> callableFunctions = ArrayListMultimap.create();
     //name of function in map callableFunctions, uses for get all function
     private ArrayList<InfoItem> mListNameFunctions = new ArrayList<>();
     /**
      * defined mConstants
      */
-    private HashMap<String, ConstantDefinition> mConstants = new HashMap<>();
+    private HashMap<Symbol, ConstantDefinition> mConstants = new HashMap<>();
     /**
-     * defined libraries
+     * imported units, in the order of the uses clause. Their runtime state belongs to each run
+     * of the program, see {@link com.duy.pascal.backend.ast.codeunit.RuntimePascalProgram}
      */
-    private HashMap<PascalUnitDeclaration, RuntimeUnitPascal> mRuntimeUnitMap = new HashMap<>();
-
-    private Map<String, RuntimePascalClass> mRuntimePascalClassMap = new HashMap<>();
+    private ArrayList<PascalUnitDeclaration> mUnits = new ArrayList<>();
 
     /**
      * define labels
      */
-    private HashMap<String, LabelDeclaration> labelsMap = new HashMap<>();
+    private HashMap<Symbol, LabelDeclaration> labelsMap = new HashMap<>();
     //list name of constant map,  use for get all mConstants
     private ArrayList<InfoItem> mListNameConstants = new ArrayList<>();
     /**
      * list custom type
      */
-    private HashMap<String, Type> typedefs = new HashMap<>();
+    private HashMap<Symbol, Type> typedefs = new HashMap<>();
     /**
      * uses for get all type in map typedefs
      */
@@ -135,14 +133,6 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
      * Class loader, load class in library rt.jar (java library) and other file *.class
      */
     private JavaClassLoader mClassLoader;
-    /**
-     * Manager read and write into a file
-     */
-    private FileLib mFileHandler;
-    /**
-     * Manager read and write to console
-     */
-    private IOLib mIOHandler;
 
     public ExpressionContextMixin(CodeUnit root, ExpressionContext parent) {
         super(root, parent);
@@ -154,16 +144,8 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
 
         this.mHandler = handler;
         mPascalLibraryManager = new PascalLibraryManager(this, handler);
-        mFileHandler = new FileLib(handler);
-        mIOHandler = new IOLib(handler);
-        try {
-            //load system function
-            mPascalLibraryManager.loadSystemLibrary();
-            mPascalLibraryManager.addMethodFromLibrary(mFileHandler, new LineInfo(-1, "system"));
-            mPascalLibraryManager.addMethodFromLibrary(mIOHandler, new LineInfo(-1, "system"));
-        } catch (PermissionDeniedException | LibraryNotFoundException e) {
-            e.printStackTrace();
-        }
+        //load system function, file and console handlers are created when the program uses them
+        mPascalLibraryManager.loadSystemLibrary();
     }
 
     public String getContextName() {
@@ -174,15 +156,15 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
         return mLibrariesNames;
     }
 
-    public ArrayListMultimap<String, AbstractFunction> getCallableFunctions() {
+    public ArrayListMultimap<Symbol, AbstractFunction> getCallableFunctions() {
         return callableFunctions;
     }
 
-    public Map<String, ConstantDefinition> getConstants() {
+    public Map<Symbol, ConstantDefinition> getConstants() {
         return mConstants;
     }
 
-    public Map<String, Type> getTypedefs() {
+    public Map<Symbol, Type> getTypedefs() {
         return typedefs;
     }
 
@@ -192,7 +174,8 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
 
     public FunctionDeclaration getExistFunction(FunctionDeclaration f)
             throws ParsingException {
-        for (AbstractFunction g : callableFunctions.get(f.getName())) {
+        Symbol name = SymbolTable.intern(f.getName());
+        for (AbstractFunction g : callableFunctions.get(name)) {
             if (f.headerMatches(g)) {
                 if (!(g instanceof FunctionDeclaration)) {
                     throw new OverridingFunctionBodyException(g, f);
@@ -200,7 +183,8 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
                 return (FunctionDeclaration) g;
             }
         }
-        callableFunctions.put(f.getName(), f);
+        root.beforeDeclaration(this, name);
+        callableFunctions.put(name, f);
         mListNameFunctions.add(new InfoItem(StructureType.TYPE_FUNCTION, f.getName()));
         return f;
     }
@@ -208,31 +192,31 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
     @Override
     public RuntimeValue getIdentifierValue(WordToken name)
             throws ParsingException {
-        if (functionExistsLocal(name.getName())) {
+        Symbol symbol = name.getSymbol();
+        if (functionExistsLocal(symbol)) {
             return FunctionCall.generateFunctionCall(name, new ArrayList<RuntimeValue>(0), this);
 
-        } else if (getConstantDefinitionLocal(name.getName()) != null) {
-            ConstantDefinition c = getConstantDefinition(name.getName());
+        } else if (getConstantDefinitionLocal(symbol) != null) {
+            ConstantDefinition c = getConstantDefinition(symbol);
             ConstantAccess<Object> constant = new ConstantAccess<>(c.getValue(),
                     c.getType(), name.getLineNumber());
             constant.setName(name.name);
             return constant;
 
-        } else if (getVariableDefinitionLocal(name.getName()) != null) {
+        } else if (getVariableDefinitionLocal(symbol) != null) {
             return new VariableAccess(name.getName(), name.getLineNumber(), this);
 
-        } else if (getLabelLocal(name.getName()) != null) {
+        } else if (getLabelLocal(symbol) != null) {
 
         } else {
         }
 
         //find identifier in library
-        for (Map.Entry<PascalUnitDeclaration, RuntimeUnitPascal> unit : mRuntimeUnitMap.entrySet()) {
-            RuntimeUnitPascal value = unit.getValue();
-            ExpressionContextMixin libContext = value.getDeclaration().getContext();
+        for (PascalUnitDeclaration unit : mUnits) {
+            ExpressionContextMixin libContext = unit.getContext();
             RuntimeValue identifierValue = libContext.getIdentifierValue(name);
             if (identifierValue != null) {
-                return new LibraryIdentifierAccess(value, identifierValue, identifierValue.getLineNumber());
+                return new LibraryIdentifierAccess(unit, identifierValue, identifierValue.getLineNumber());
             }
         }
 
@@ -248,9 +232,9 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
 
     public void verifyNonConflictingSymbolLocal(NamedEntity namedEntity)
             throws DuplicateIdentifierException {
-        String name = namedEntity.getName();
+        Symbol name = SymbolTable.intern(namedEntity.getName());
         if (functionExistsLocal(name)) {
-            throw new DuplicateIdentifierException(getCallableFunctionsLocal(namedEntity.getName()).get(0), namedEntity);
+            throw new DuplicateIdentifierException(getCallableFunctionsLocal(name).get(0), namedEntity);
         } else if (getVariableDefinitionLocal(name) != null) {
             throw new DuplicateIdentifierException(getVariableDefinitionLocal(name), namedEntity);
         } else if (getConstantDefinitionLocal(name) != null) {
@@ -262,7 +246,11 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
         }
     }
 
-    public LabelDeclaration getLabelLocal(String name) {
+    public final LabelDeclaration getLabelLocal(String name) {
+        return getLabelLocal(SymbolTable.intern(name));
+    }
+
+    public LabelDeclaration getLabelLocal(Symbol name) {
         return labelsMap.get(name);
     }
 
@@ -402,7 +390,9 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
             LabelDeclaration labelDeclaration = new LabelDeclaration(((WordToken) next).name,
                     next.getLineNumber());
             verifyNonConflictingSymbol(labelDeclaration);
-            labelsMap.put(labelDeclaration.getName(), labelDeclaration);
+            Symbol labelName = SymbolTable.intern(labelDeclaration.getName());
+            root.beforeDeclaration(this, labelName);
+            labelsMap.put(labelName, labelDeclaration);
             next = i.peek();
             if (next instanceof SemicolonToken) {
                 break;
@@ -513,21 +503,17 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
                 mPascalLibraryManager.addMethodFromClass(MAP_LIBRARIES.get(((WordToken) next).getName()),
                         next.getLineNumber());
             } else {
-                //custom library pascal
-                String libName = ((WordToken) next).getName() + ".pas";
-                Reader reader = null;
-                for (ScriptSource scriptSource : this.root().getIncludeDirectories()) {
-                    reader = scriptSource.read(libName);
-                    if (reader != null) break;
-                }
-                if (reader != null) {
+                //custom library pascal, parsed once and shared while its source is unchanged
+                PascalUnitDeclaration library = PascalUnitCache.getInstance().load(
+                        this.root().getIncludeDirectories(), ((WordToken) next).getName(), mHandler);
+                if (library != null) {
                     found.set(true);
-                    PascalUnitDeclaration library = new PascalUnitDeclaration(reader, ((WordToken) next).getName(),
-                            new ArrayList<ScriptSource>(), mHandler);
                     library.declareConstants(this);
                     library.declareTypes(this);
                     library.declareFunctions(this);
-                    mRuntimeUnitMap.put(library, library.generate());
+                    if (!mUnits.contains(library)) {
+                        mUnits.add(library);
+                    }
                 }
             }
 
@@ -546,29 +532,72 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
 
     protected abstract void handleBeginEnd(GrouperToken i) throws ParsingException;
 
-    public VariableDeclaration getVariableDefinitionLocal(String ident) {
-        for (VariableDeclaration v : variables) {
-            if (v.getName().equalsIgnoreCase(ident)) {
-                return v;
-            }
-        }
-        return null;
+    public final VariableDeclaration getVariableDefinitionLocal(String ident) {
+        return getVariableDefinitionLocal(SymbolTable.intern(ident));
+    }
+
+    public VariableDeclaration getVariableDefinitionLocal(Symbol ident) {
+        Integer index = mVariableIndex.get(ident);
+        return index == null ? null : variables.get(index);
+    }
+
+    /**
+     * Index of a local variable in the runtime frame of this context. The slot is fixed
+     * when the variable is declared, so it can be resolved once at parse time
+     *
+     * @return slot index, or -1 if the variable is not declared in this context
+     */
+    public final int getVariableSlotLocal(String ident) {
+        return getVariableSlotLocal(SymbolTable.intern(ident));
+    }
+
+    public int getVariableSlotLocal(Symbol ident) {
+        Integer index = mVariableIndex.get(ident);
+        return index == null ? -1 : getFrameOffset() + index;
     }
 
-    public List<AbstractFunction> getCallableFunctionsLocal(String name) {
+    /**
+     * Number of slots reserved at the start of the frame before the declared variables
+     */
+    protected int getFrameOffset() {
+        return 0;
+    }
+
+    public int getFrameSize() {
+        return getFrameOffset() + variables.size();
+    }
+
+    public final List<AbstractFunction> getCallableFunctionsLocal(String name) {
+        return getCallableFunctionsLocal(SymbolTable.intern(name));
+    }
+
+    public List<AbstractFunction> getCallableFunctionsLocal(Symbol name) {
         return callableFunctions.get(name);
     }
 
-    public boolean functionExistsLocal(String name) {
+    public final boolean functionExistsLocal(String name) {
+        return functionExistsLocal(SymbolTable.intern(name));
+    }
+
+    public boolean functionExistsLocal(Symbol name) {
         return callableFunctions.containsKey(name);
     }
 
-    public ConstantDefinition getConstantDefinitionLocal(String indent) {
+    public final ConstantDefinition getConstantDefinitionLocal(String indent) {
+        return getConstantDefinitionLocal(SymbolTable.intern(indent));
+    }
+
+    public ConstantDefinition getConstantDefinitionLocal(Symbol indent) {
         return mConstants.get(indent);
     }
 
     @Override
-    public Type getTypedefTypeLocal(String identifer) {
+    public final Type getTypedefTypeLocal(String identifer) {
+        return getTypedefTypeLocal(SymbolTable.intern(identifer));
+    }
+
+    @Override
+    public Type getTypedefTypeLocal(Symbol identifer) {
         return typedefs.get(identifer);
     }
 
@@ -576,8 +605,13 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
      * define custom type
      */
     public void declareTypedef(String name, Type type) {
-        typedefs.put(name.toLowerCase(), type);
-        mListNameTypes.add(new InfoItem(StructureType.TYPE_DEF, name.toLowerCase()));
+        declareTypedef(SymbolTable.intern(name), type);
+    }
+
+    public void declareTypedef(Symbol name, Type type) {
+        root.beforeDeclaration(this, name);
+        typedefs.put(name, type);
+        mListNameTypes.add(new InfoItem(StructureType.TYPE_DEF, name.getName()));
     }
 
     public void declareTypedefs(String name, List<Type> types) {
@@ -587,17 +621,26 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
     }
 
     public void declareVariable(VariableDeclaration v) {
+        Symbol name = SymbolTable.intern(v.getName());
+        if (!mVariableIndex.containsKey(name)) {
+            root.beforeDeclaration(this, name);
+            mVariableIndex.put(name, variables.size());
+        }
         variables.add(v);
     }
 
     public void declareFunction(AbstractFunction f) {
-        callableFunctions.put(f.getName().toLowerCase(), f);
+        Symbol name = SymbolTable.intern(f.getName());
+        root.beforeDeclaration(this, name);
+        callableFunctions.put(name, f);
         InfoItem e = new InfoItem(StructureType.TYPE_FUNCTION, f.getName(), f.getDescription(), f.toString());
         mListNameFunctions.add(e);
     }
 
     public void declareConst(ConstantDefinition c) {
-        mConstants.put(c.getName(), c);
+        Symbol name = SymbolTable.intern(c.getName());
+        root.beforeDeclaration(this, name);
+        mConstants.put(name, c);
         mListNameConstants.add(new InfoItem(StructureType.TYPE_CONST, c.getName()));
     }
 
@@ -636,7 +679,8 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
                     throw new NonConstantExpressionException(value);
                 }
                 ConstantDefinition c = new ConstantDefinition(name.getName(), type.declType, constVal, name.getLineNumber());
-                this.mConstants.put(c.getName(), c);
+                root.beforeDeclaration(this, name.getSymbol());
+                this.mConstants.put(name.getSymbol(), c);
                 grouperToken.assertNextSemicolon();
             } else {
                 throw new ExpectedTokenException("=", name);
@@ -706,20 +750,8 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
         return mListNameTypes;
     }
 
-    public HashMap<PascalUnitDeclaration, RuntimeUnitPascal> getRuntimeUnitMap() {
-        return mRuntimeUnitMap;
-    }
-
-    public Map<String, RuntimePascalClass> getRuntimePascalClassMap() {
-        return mRuntimePascalClassMap;
-    }
-
-    public FileLib getFileHandler() {
-        return mFileHandler;
-    }
-
-    public IOLib getIOHandler() {
-        return mIOHandler;
+    public ArrayList<PascalUnitDeclaration> getUnits() {
+        return mUnits;
     }
 
     @Override
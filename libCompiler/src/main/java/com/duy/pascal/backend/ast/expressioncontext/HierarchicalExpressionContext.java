@@ -5,13 +5,13 @@ import com.duy.pascal.backend.declaration.lang.value.ConstantDefinition;
 import com.duy.pascal.backend.declaration.NamedEntity;
 import com.duy.pascal.backend.declaration.lang.value.VariableDeclaration;
 import com.duy.pascal.backend.ast.codeunit.CodeUnit;
-import com.duy.pascal.backend.ast.codeunit.RuntimeUnitPascal;
 import com.duy.pascal.backend.declaration.library.PascalUnitDeclaration;
 import com.duy.pascal.backend.parse_exception.define.DuplicateIdentifierException;
 import com.duy.pascal.backend.declaration.lang.types.Type;
+import com.duy.pascal.backend.tokenizer.Symbol;
+import com.duy.pascal.backend.tokenizer.SymbolTable;
 
 import java.util.List;
-import java.util.Map;
 
 public abstract class HierarchicalExpressionContext implements ExpressionContext {
     protected ExpressionContext parent;
@@ -35,6 +35,11 @@ public abstract class HierarchicalExpressionContext implements ExpressionContext
 
     @Override
     public ConstantDefinition getConstantDefinition(String identifier) {
+        return getConstantDefinition(SymbolTable.intern(identifier));
+    }
+
+    @Override
+    public ConstantDefinition getConstantDefinition(Symbol identifier) {
         ConstantDefinition result = getConstantDefinitionLocal(identifier);
         if (result == null && parent != null) {
             result = parent.getConstantDefinition(identifier);
@@ -45,6 +50,11 @@ public abstract class HierarchicalExpressionContext implements ExpressionContext
 
     @Override
     public Type getTypeDef(String identifier) {
+        return getTypeDef(SymbolTable.intern(identifier));
+    }
+
+    @Override
+    public Type getTypeDef(Symbol identifier) {
         Type result = getTypedefTypeLocal(identifier);
         if (result == null && parent != null) {
             result = parent.getTypeDef(identifier);
@@ -61,6 +71,11 @@ public abstract class HierarchicalExpressionContext implements ExpressionContext
 
     @Override
     public VariableDeclaration getVariableDefinition(String indent) {
+        return getVariableDefinition(SymbolTable.intern(indent));
+    }
+
+    @Override
+    public VariableDeclaration getVariableDefinition(Symbol indent) {
 
         VariableDeclaration result = getVariableDefinitionLocal(indent);
         if (result != null) return result;
@@ -73,9 +88,8 @@ public abstract class HierarchicalExpressionContext implements ExpressionContext
         ExpressionContextMixin context = (ExpressionContextMixin) this;
 
         //check all library
-        for (Map.Entry<PascalUnitDeclaration, RuntimeUnitPascal> unit : context.getRuntimeUnitMap().entrySet()) {
-            RuntimeUnitPascal value = unit.getValue();
-            ExpressionContextMixin libContext = value.getDeclaration().getContext();
+        for (PascalUnitDeclaration unit : context.getUnits()) {
+            ExpressionContextMixin libContext = unit.getContext();
             result = libContext.getVariableDefinition(indent);
         }
 
@@ -86,6 +100,12 @@ public abstract class HierarchicalExpressionContext implements ExpressionContext
     @Override
     public void getCallableFunctions(String name,
                                      List<List<AbstractFunction>> sofar) {
+        getCallableFunctions(SymbolTable.intern(name), sofar);
+    }
+
+    @Override
+    public void getCallableFunctions(Symbol name,
+                                     List<List<AbstractFunction>> sofar) {
         List<AbstractFunction> mine = getCallableFunctionsLocal(name);
         if (mine.size() != 0) {
             sofar.add(mine);
@@ -98,6 +118,11 @@ public abstract class HierarchicalExpressionContext implements ExpressionContext
 
     @Override
     public boolean functionExists(String name) {
+        return functionExists(SymbolTable.intern(name));
+    }
+
+    @Override
+    public boolean functionExists(Symbol name) {
         return functionExistsLocal(name)
                 || (parent != null && parent.functionExists(name));
     }
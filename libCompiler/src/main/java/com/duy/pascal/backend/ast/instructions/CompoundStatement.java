@@ -1,5 +1,7 @@
 package com.duy.pascal.backend.ast.instructions;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.variablecontext.VariableContext;
@@ -9,8 +11,9 @@ import com.duy.pascal.backend.parse_exception.ParsingException;
 import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
 
 import java.util.LinkedList;
+import java.util.ListIterator;
 
-public class CompoundStatement extends DebuggableExecutable {
+public class CompoundStatement extends DebuggableExecutable implements RewritableNode {
     private LinkedList<Executable> instructions;
     private LineInfo startLine, endLine;
 
@@ -81,4 +84,12 @@ public class CompoundStatement extends DebuggableExecutable {
     public LinkedList<Executable> getInstructions() {
         return instructions;
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        ListIterator<Executable> iterator = instructions.listIterator();
+        while (iterator.hasNext()) {
+            iterator.set(rewriter.statement(iterator.next()));
+        }
+    }
 }
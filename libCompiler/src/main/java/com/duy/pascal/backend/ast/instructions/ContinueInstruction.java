@@ -1,5 +1,7 @@
 package com.duy.pascal.backend.ast.instructions;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.variablecontext.VariableContext;
@@ -7,7 +9,7 @@ import com.duy.pascal.backend.debugable.DebuggableExecutable;
 import com.duy.pascal.backend.linenumber.LineInfo;
 import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
 
-public class ContinueInstruction extends DebuggableExecutable {
+public class ContinueInstruction extends DebuggableExecutable implements RewritableNode {
     private LineInfo line;
 
     public ContinueInstruction(LineInfo line) {
@@ -35,4 +37,7 @@ public class ContinueInstruction extends DebuggableExecutable {
         return this;
     }
 
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+    }
 }
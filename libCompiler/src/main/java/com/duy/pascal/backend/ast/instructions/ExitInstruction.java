@@ -1,5 +1,7 @@
 package com.duy.pascal.backend.ast.instructions;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.variablecontext.VariableContext;
@@ -8,7 +10,7 @@ import com.duy.pascal.backend.linenumber.LineInfo;
 import com.duy.pascal.backend.parse_exception.ParsingException;
 import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
 
-public class ExitInstruction extends DebuggableExecutable {
+public class ExitInstruction extends DebuggableExecutable implements RewritableNode {
     LineInfo line;
 
     public ExitInstruction(LineInfo line) {
@@ -32,5 +34,7 @@ public class ExitInstruction extends DebuggableExecutable {
         return this;
     }
 
-
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+    }
 }
@@ -0,0 +1,88 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.ast.instructions;
+
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
+import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
+import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
+import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
+import com.duy.pascal.backend.ast.variablecontext.FunctionOnStack;
+import com.duy.pascal.backend.ast.variablecontext.VariableContext;
+import com.duy.pascal.backend.debugable.DebuggableExecutable;
+import com.duy.pascal.backend.declaration.lang.function.FunctionDeclaration;
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
+
+/**
+ * Call of a routine to itself in tail position. The arguments are evaluated in the current
+ * frame, then the frame is restarted with them instead of a new frame being pushed, so the
+ * recursion runs in constant stack. The statement leaves the body as exit does and
+ * {@link FunctionOnStack#execute()} runs the body again
+ */
+public class TailCall extends DebuggableExecutable implements RewritableNode {
+    private final FunctionDeclaration function;
+    private final RuntimeValue[] arguments;
+    private final LineInfo line;
+
+    public TailCall(FunctionDeclaration function, RuntimeValue[] arguments, LineInfo line) {
+        this.function = function;
+        this.arguments = arguments;
+        this.line = line;
+    }
+
+    public FunctionDeclaration getFunction() {
+        return function;
+    }
+
+    public RuntimeValue[] getArguments() {
+        return arguments;
+    }
+
+    @Override
+    public ExecutionResult executeImpl(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        Object[] values = new Object[arguments.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = arguments[i].getValue(context, main);
+        }
+        ((FunctionOnStack) context).restart(values);
+        return ExecutionResult.EXIT;
+    }
+
+    @Override
+    public LineInfo getLineNumber() {
+        return line;
+    }
+
+    @Override
+    public Executable compileTimeConstantTransform(CompileTimeContext c) {
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "tail call " + function.getName();
+    }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = rewriter.value(arguments[i]);
+        }
+    }
+}
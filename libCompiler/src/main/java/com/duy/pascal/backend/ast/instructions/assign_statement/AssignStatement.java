@@ -18,12 +18,15 @@ package com.duy.pascal.backend.ast.instructions.assign_statement;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.instructions.ExecutionResult;
 import com.duy.pascal.backend.ast.variablecontext.VariableContext;
 import com.duy.pascal.backend.ast.runtime_value.references.Reference;
 import com.duy.pascal.backend.ast.runtime_value.value.AssignableValue;
+import com.duy.pascal.backend.ast.runtime_value.value.DirectAssignableValue;
 import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
 import com.duy.pascal.backend.debugable.DebuggableExecutable;
 import com.duy.pascal.backend.linenumber.LineInfo;
@@ -31,7 +34,7 @@ import com.duy.pascal.backend.parse_exception.ParsingException;
 import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
 import com.duy.pascal.frontend.debug.CallStack;
 
-public class AssignStatement extends DebuggableExecutable implements AssignExecutable {
+public class AssignStatement extends DebuggableExecutable implements AssignExecutable, RewritableNode {
     private AssignableValue left;
     private RuntimeValue value;
     private LineInfo line;
@@ -42,13 +45,24 @@ public class AssignStatement extends DebuggableExecutable implements AssignExecu
         this.line = line;
     }
 
+    public AssignableValue getLeft() {
+        return left;
+    }
+
+    public RuntimeValue getValue() {
+        return value;
+    }
+
     @Override
     public ExecutionResult executeImpl(VariableContext context, RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
 
-        Reference ref = left.getReference(context, main);
-        Object old = ref.get();
-        Object v = this.value.getValue(context, main);
-        ref.set(v);
+        if (left instanceof DirectAssignableValue) {
+            ((DirectAssignableValue) left).assign(context, main, value);
+        } else {
+            Reference ref = left.getReference(context, main);
+            Object v = this.value.getValue(context, main);
+            ref.set(v);
+        }
 
         if (main.isDebug()) main.getDebugListener().onVariableChange(new CallStack(context));
 
@@ -70,4 +84,10 @@ public class AssignStatement extends DebuggableExecutable implements AssignExecu
             throws ParsingException {
         return new AssignStatement(left, value.compileTimeExpressionFold(c), line);
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        left = rewriter.target(left);
+        value = rewriter.value(value);
+    }
 }
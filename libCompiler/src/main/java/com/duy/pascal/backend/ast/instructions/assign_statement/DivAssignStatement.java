@@ -18,6 +18,8 @@ package com.duy.pascal.backend.ast.instructions.assign_statement;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -26,6 +28,7 @@ import com.duy.pascal.backend.ast.variablecontext.VariableContext;
 import com.duy.pascal.backend.ast.runtime_value.operators.BinaryOperatorEval;
 import com.duy.pascal.backend.ast.runtime_value.references.Reference;
 import com.duy.pascal.backend.ast.runtime_value.value.AssignableValue;
+import com.duy.pascal.backend.ast.runtime_value.value.DirectAssignableValue;
 import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
 import com.duy.pascal.backend.debugable.DebuggableExecutable;
 import com.duy.pascal.backend.linenumber.LineInfo;
@@ -40,7 +43,7 @@ import com.duy.pascal.frontend.debug.CallStack;
  * a /= b
  * Divides a through b, and stores the result in a
  */
-public class DivAssignStatement extends DebuggableExecutable implements AssignExecutable {
+public class DivAssignStatement extends DebuggableExecutable implements AssignExecutable, RewritableNode {
     private AssignableValue left;
     private RuntimeValue divOp;
     private LineInfo line;
@@ -70,9 +73,13 @@ public class DivAssignStatement extends DebuggableExecutable implements AssignEx
     public ExecutionResult executeImpl(VariableContext context,
                                        RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
 
-        Reference ref = left.getReference(context, main);
-        Object v = this.divOp.getValue(context, main);
-        ref.set(v);
+        if (left instanceof DirectAssignableValue) {
+            ((DirectAssignableValue) left).assign(context, main, divOp);
+        } else {
+            Reference ref = left.getReference(context, main);
+            Object v = this.divOp.getValue(context, main);
+            ref.set(v);
+        }
 
         if (main.isDebug()) main.getDebugListener().onVariableChange(new CallStack(context));
 
@@ -94,4 +101,10 @@ public class DivAssignStatement extends DebuggableExecutable implements AssignEx
             throws ParsingException {
         return new DivAssignStatement(left, divOp.compileTimeExpressionFold(c), line);
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        left = rewriter.target(left);
+        divOp = rewriter.value(divOp);
+    }
 }
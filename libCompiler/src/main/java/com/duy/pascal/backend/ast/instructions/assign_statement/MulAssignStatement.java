@@ -18,6 +18,8 @@ package com.duy.pascal.backend.ast.instructions.assign_statement;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -26,6 +28,7 @@ import com.duy.pascal.backend.ast.variablecontext.VariableContext;
 import com.duy.pascal.backend.ast.runtime_value.operators.BinaryOperatorEval;
 import com.duy.pascal.backend.ast.runtime_value.references.Reference;
 import com.duy.pascal.backend.ast.runtime_value.value.AssignableValue;
+import com.duy.pascal.backend.ast.runtime_value.value.DirectAssignableValue;
 import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
 import com.duy.pascal.backend.debugable.DebuggableExecutable;
 import com.duy.pascal.backend.linenumber.LineInfo;
@@ -38,7 +41,7 @@ import com.duy.pascal.frontend.debug.CallStack;
  * a *= b
  * Multiply a with b, and stores the result in a
  */
-public class MulAssignStatement extends DebuggableExecutable implements AssignExecutable {
+public class MulAssignStatement extends DebuggableExecutable implements AssignExecutable, RewritableNode {
     private AssignableValue left;
     private RuntimeValue mulOp;
     private LineInfo line;
@@ -64,9 +67,13 @@ public class MulAssignStatement extends DebuggableExecutable implements AssignEx
     public ExecutionResult executeImpl(VariableContext context,
                                        RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
 
-        Reference ref = left.getReference(context, main);
-        Object v = this.mulOp.getValue(context, main);
-        ref.set(v);
+        if (left instanceof DirectAssignableValue) {
+            ((DirectAssignableValue) left).assign(context, main, mulOp);
+        } else {
+            Reference ref = left.getReference(context, main);
+            Object v = this.mulOp.getValue(context, main);
+            ref.set(v);
+        }
 
         if (main.isDebug()) main.getDebugListener().onVariableChange(new CallStack(context));
 
@@ -88,4 +95,10 @@ public class MulAssignStatement extends DebuggableExecutable implements AssignEx
             throws ParsingException {
         return new MulAssignStatement(left, mulOp.compileTimeExpressionFold(c), line);
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        left = rewriter.target(left);
+        mulOp = rewriter.value(mulOp);
+    }
 }
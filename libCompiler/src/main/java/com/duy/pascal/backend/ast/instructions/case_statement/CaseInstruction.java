@@ -1,5 +1,7 @@
 package com.duy.pascal.backend.ast.instructions.case_statement;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -29,10 +31,10 @@ import com.duy.pascal.backend.declaration.lang.types.Type;
 import java.util.ArrayList;
 import java.util.List;
 
-public class CaseInstruction extends DebuggableExecutable {
+public class CaseInstruction extends DebuggableExecutable implements RewritableNode {
     private RuntimeValue mSwitchValue;
     private CasePossibility[] possibilities;
-    private CompoundStatement otherwise;
+    private Executable otherwise;
     private LineInfo line;
 
     public CaseInstruction(CaseToken token, ExpressionContext context)
@@ -86,7 +88,7 @@ public class CaseInstruction extends DebuggableExecutable {
             possibilities.add(new CasePossibility(conditions.toArray(new CaseCondition[conditions.size()]), command));
         }
 
-        otherwise = new CompoundStatement(token.peek().getLineNumber());
+        CompoundStatement otherwise = new CompoundStatement(token.peek().getLineNumber());
         if (token.peek() instanceof ElseToken) {
             token.take();
             while (token.hasNext()) {
@@ -94,6 +96,7 @@ public class CaseInstruction extends DebuggableExecutable {
                 token.assertNextSemicolon();
             }
         }
+        this.otherwise = otherwise;
         this.possibilities = possibilities.toArray(new CasePossibility[possibilities.size()]);
     }
 
@@ -135,6 +138,32 @@ public class CaseInstruction extends DebuggableExecutable {
         return line;
     }
 
+    public RuntimeValue getSwitchValue() {
+        return mSwitchValue;
+    }
+
+    /**
+     * @param value value of the switch expression known before the program runs
+     * @return the statement executed for this value, null if it can only be chosen at runtime
+     */
+    public Executable getBranch(Object value) {
+        try {
+            for (CasePossibility possibility : possibilities) {
+                for (CaseCondition condition : possibility.conditions) {
+                    if (!(condition instanceof SingleValue)) {
+                        return null;
+                    }
+                    if (condition.fits(null, null, value)) {
+                        return possibility.getCommands();
+                    }
+                }
+            }
+        } catch (RuntimePascalException e) {
+            return null;
+        }
+        return otherwise;
+    }
+
 
     @Override
     public Executable compileTimeConstantTransform(CompileTimeContext c)
@@ -157,4 +186,13 @@ public class CaseInstruction extends DebuggableExecutable {
         }*/
         return null;
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        mSwitchValue = rewriter.value(mSwitchValue);
+        for (CasePossibility possibility : possibilities) {
+            possibility.rewriteChildren(rewriter);
+        }
+        otherwise = rewriter.statement(otherwise);
+    }
 }
@@ -1,5 +1,7 @@
 package com.duy.pascal.backend.ast.instructions.case_statement;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.instructions.Executable;
@@ -10,8 +12,8 @@ import com.duy.pascal.backend.linenumber.LineInfo;
 import com.duy.pascal.backend.parse_exception.ParsingException;
 import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
 
-class CasePossibility extends DebuggableExecutable {
-    private final Executable commands;
+class CasePossibility extends DebuggableExecutable implements RewritableNode {
+    private Executable commands;
     /**
      * This class represents a line in a case statement.
      */
@@ -22,6 +24,10 @@ class CasePossibility extends DebuggableExecutable {
         this.commands = commands;
     }
 
+    Executable getCommands() {
+        return commands;
+    }
+
     /**
      * Executes the contained commands in this branch.
      *
@@ -43,4 +49,12 @@ class CasePossibility extends DebuggableExecutable {
             throws ParsingException {
         return new CasePossibility(conditions, commands.compileTimeConstantTransform(c));
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        for (CaseCondition condition : conditions) {
+            condition.rewriteChildren(rewriter);
+        }
+        commands = rewriter.statement(commands);
+    }
 }
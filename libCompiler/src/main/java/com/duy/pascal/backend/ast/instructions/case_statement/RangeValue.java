@@ -1,5 +1,6 @@
 package com.duy.pascal.backend.ast.instructions.case_statement;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.backend.ast.variablecontext.VariableContext;
@@ -15,8 +16,8 @@ public class RangeValue implements CaseCondition {
 
     private LineInfo line;
 
-    private BinaryOperatorEval greaterThanLower;
-    private BinaryOperatorEval lessThanHigher;
+    private RuntimeValue greaterThanLower;
+    private RuntimeValue lessThanHigher;
 
     RangeValue(ExpressionContext context, RuntimeValue value, Object lower, Object higher,
                LineInfo line) throws ParsingException {
@@ -40,5 +41,9 @@ public class RangeValue implements CaseCondition {
         return line;
     }
 
-
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        greaterThanLower = rewriter.value(greaterThanLower);
+        lessThanHigher = rewriter.value(lessThanHigher);
+    }
 }
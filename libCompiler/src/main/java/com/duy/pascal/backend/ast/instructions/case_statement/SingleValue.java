@@ -1,5 +1,6 @@
 package com.duy.pascal.backend.ast.instructions.case_statement;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.variablecontext.VariableContext;
 import com.duy.pascal.backend.linenumber.LineInfo;
@@ -38,4 +39,8 @@ class SingleValue implements CaseCondition {
     public LineInfo getLineNumber() {
         return line;
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+    }
 }
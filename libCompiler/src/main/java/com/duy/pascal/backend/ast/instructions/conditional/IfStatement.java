@@ -1,5 +1,7 @@
 package com.duy.pascal.backend.ast.instructions.conditional;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -21,7 +23,7 @@ import com.duy.pascal.backend.tokens.basic.ThenToken;
 import com.duy.pascal.backend.tokens.grouping.GrouperToken;
 import com.duy.pascal.backend.declaration.lang.types.BasicType;
 
-public class IfStatement extends DebuggableExecutable {
+public class IfStatement extends DebuggableExecutable implements RewritableNode {
     private RuntimeValue condition;
     private Executable instruction;
     private Executable elseInstruction;
@@ -88,6 +90,21 @@ public class IfStatement extends DebuggableExecutable {
         return line;
     }
 
+    public RuntimeValue getCondition() {
+        return condition;
+    }
+
+    public Executable getInstruction() {
+        return instruction;
+    }
+
+    /**
+     * @return the statement after else, null if there is no else
+     */
+    public Executable getElseInstruction() {
+        return elseInstruction;
+    }
+
     @Override
     public ExecutionResult executeImpl(VariableContext context,
                                        RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
@@ -124,4 +141,11 @@ public class IfStatement extends DebuggableExecutable {
                     elseInstruction.compileTimeConstantTransform(c), line);
         }
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        condition = rewriter.value(condition);
+        instruction = rewriter.statement(instruction);
+        elseInstruction = rewriter.statement(elseInstruction);
+    }
 }
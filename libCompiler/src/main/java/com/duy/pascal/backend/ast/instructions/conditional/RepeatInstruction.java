@@ -1,5 +1,7 @@
 package com.duy.pascal.backend.ast.instructions.conditional;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -20,7 +22,7 @@ import com.duy.pascal.backend.tokens.basic.UntilToken;
 import com.duy.pascal.backend.tokens.grouping.GrouperToken;
 import com.duy.pascal.backend.declaration.lang.types.BasicType;
 
-public class RepeatInstruction extends DebuggableExecutable {
+public class RepeatInstruction extends DebuggableExecutable implements RewritableNode {
     Executable command;
 
     RuntimeValue condition;
@@ -66,20 +68,33 @@ public class RepeatInstruction extends DebuggableExecutable {
         return line;
     }
 
+    public Executable getCommand() {
+        return command;
+    }
+
+    public RuntimeValue getCondition() {
+        return condition;
+    }
+
     @Override
     public ExecutionResult executeImpl(VariableContext context,
                                        RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
+        int iterations = 0;
         do_loop:
         do {
+            main.safepoint(line);
+            iterations++;
             switch (command.execute(context, main)) {
                 case CONTINUE:
                     continue do_loop;
                 case BREAK:
                     break do_loop;
                 case EXIT:
+                    context.onBackEdges(iterations);
                     return ExecutionResult.EXIT;
             }
         } while (!((Boolean) condition.getValue(context, main)));
+        context.onBackEdges(iterations);
         return ExecutionResult.NOPE;
     }
 
@@ -101,4 +116,10 @@ public class RepeatInstruction extends DebuggableExecutable {
         return new RepeatInstruction(command.compileTimeConstantTransform(c),
                 condition, line);
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        command = rewriter.statement(command);
+        condition = rewriter.value(condition);
+    }
 }
@@ -1,5 +1,7 @@
 package com.duy.pascal.backend.ast.instructions.conditional;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -22,7 +24,7 @@ import com.duy.pascal.backend.tokens.basic.DoToken;
 import com.duy.pascal.backend.tokens.grouping.GrouperToken;
 import com.duy.pascal.backend.declaration.lang.types.BasicType;
 
-public class WhileStatement extends DebuggableExecutable {
+public class WhileStatement extends DebuggableExecutable implements RewritableNode {
     private RuntimeValue condition;
     private Executable command;
     private LineInfo line;
@@ -74,17 +76,22 @@ public class WhileStatement extends DebuggableExecutable {
     @Override
     public ExecutionResult executeImpl(VariableContext context,
                                        RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
+        int iterations = 0;
         while_loop:
         while ((Boolean) condition.getValue(context, main)) {
+            main.safepoint(line);
+            iterations++;
             switch (command.execute(context, main)) {
                 case CONTINUE:
                     continue while_loop;
                 case BREAK:
                     break while_loop;
                 case EXIT:
+                    context.onBackEdges(iterations);
                     return ExecutionResult.EXIT;
             }
         }
+        context.onBackEdges(iterations);
         return ExecutionResult.NOPE;
     }
 
@@ -98,6 +105,14 @@ public class WhileStatement extends DebuggableExecutable {
         return line;
     }
 
+    public RuntimeValue getCondition() {
+        return condition;
+    }
+
+    public Executable getCommand() {
+        return command;
+    }
+
     @Override
     public Executable compileTimeConstantTransform(CompileTimeContext c)
             throws ParsingException {
@@ -113,4 +128,10 @@ public class WhileStatement extends DebuggableExecutable {
         }
         return new WhileStatement(condition, comm, line);
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        condition = rewriter.value(condition);
+        command = rewriter.statement(command);
+    }
 }
@@ -16,6 +16,8 @@
 
 package com.duy.pascal.backend.ast.instructions.conditional.forstatement;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -40,7 +42,7 @@ import java.util.LinkedList;
  * <p>
  * see in https://www.freepascal.org/docs-html/ref/refsu58.html#x164-18600013.2.4
  */
-public class ForEnumStatement extends DebuggableExecutable {
+public class ForEnumStatement extends DebuggableExecutable implements RewritableNode {
     private Executable command;
     private boolean downto;
     private AssignableValue mTempVar;
@@ -76,6 +78,7 @@ public class ForEnumStatement extends DebuggableExecutable {
                 reference.set(list.get(i));
                 if (main.isDebug()) main.getDebugListener().onVariableChange(new CallStack(f));
 
+                main.safepoint(line);
                 ExecutionResult result = command.execute(f, main);
                 switch (result) {
                     case EXIT:
@@ -91,6 +94,7 @@ public class ForEnumStatement extends DebuggableExecutable {
                 reference.set(list.get(i));
                 if (main.isDebug()) main.getDebugListener().onVariableChange(new CallStack(f));
 
+                main.safepoint(line);
                 ExecutionResult result = command.execute(f, main);
                 switch (result) {
                     case EXIT:
@@ -116,4 +120,12 @@ public class ForEnumStatement extends DebuggableExecutable {
 //        return new ForDowntoStatement(first, comp, inc, comm, line);
         return null;
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        mTempVar = rewriter.target(mTempVar);
+        first = rewriter.value(first);
+        last = rewriter.value(last);
+        command = rewriter.statement(command);
+    }
 }
@@ -16,6 +16,8 @@
 
 package com.duy.pascal.backend.ast.instructions.conditional.forstatement;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.instructions.Executable;
@@ -29,9 +31,10 @@ import com.duy.pascal.backend.linenumber.LineInfo;
 import com.duy.pascal.backend.parse_exception.ParsingException;
 import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
 import com.duy.pascal.backend.declaration.lang.types.set.EnumGroupType;
+import com.duy.pascal.backend.declaration.lang.types.set.PrimitiveArrayKind;
 
+import java.util.Collection;
 import java.util.LinkedList;
-import java.util.List;
 
 /**
  * For ... in ... do loop
@@ -40,7 +43,7 @@ import java.util.List;
  * <p>
  * Created by Duy on 14-May-17.
  */
-public class ForInStatement extends DebuggableExecutable {
+public class ForInStatement extends DebuggableExecutable implements RewritableNode {
     /**
      * the statement of loop
      */
@@ -87,14 +90,15 @@ public class ForInStatement extends DebuggableExecutable {
 
         //get value of enum
         Object value = this.list.getValue(context, main);
-        if (value instanceof List) {
-            List list = (List) value;
+        if (value instanceof Collection) {
+            Collection list = (Collection) value;
             //get reference if variable
             Reference reference = this.item.getReference(context, main);
             //for each all item in list
             for (Object item : list) {
                 reference.set(item); //set value for variable identifier
                 //execute command of for loop and receive a result
+                main.safepoint(line);
                 ExecutionResult result = command.execute(context, main);
                 //check exit, break, continue command
                 switch (result) {
@@ -107,13 +111,14 @@ public class ForInStatement extends DebuggableExecutable {
                 }
             }
         } else { //array
-            Object[] list = (Object[]) value;
+            Object[] list = PrimitiveArrayKind.toObjectArray(value);
             //get reference if variable
             Reference reference = this.item.getReference(context, main);
             //for each all item in list
             for (Object item : list) {
                 reference.set(item); //set value for variable identifier
                 //execute command of for loop and receive a result
+                main.safepoint(line);
                 ExecutionResult result = command.execute(context, main);
                 //check exit, break, continue command
                 switch (result) {
@@ -141,4 +146,11 @@ public class ForInStatement extends DebuggableExecutable {
             throws ParsingException {
         return new ForInStatement(item, list, command, line);
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        item = rewriter.target(item);
+        list = rewriter.value(list);
+        command = rewriter.statement(command);
+    }
 }
@@ -16,6 +16,8 @@
 
 package com.duy.pascal.backend.ast.instructions.conditional.forstatement;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -23,7 +25,9 @@ import com.duy.pascal.backend.ast.instructions.Executable;
 import com.duy.pascal.backend.ast.instructions.ExecutionResult;
 import com.duy.pascal.backend.ast.runtime_value.references.Reference;
 import com.duy.pascal.backend.ast.runtime_value.value.AssignableValue;
+import com.duy.pascal.backend.ast.runtime_value.value.PrimitiveValues;
 import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
+import com.duy.pascal.backend.ast.runtime_value.value.access.VariableAccess;
 import com.duy.pascal.backend.ast.variablecontext.VariableContext;
 import com.duy.pascal.backend.debugable.DebuggableExecutable;
 import com.duy.pascal.backend.declaration.lang.types.BasicType;
@@ -38,7 +42,7 @@ import com.duy.pascal.frontend.debug.CallStack;
  * <p>
  * see in https://www.freepascal.org/docs-html/ref/refsu58.html#x164-18600013.2.4
  */
-public class ForNumberStatement<T extends Number> extends DebuggableExecutable {
+public class ForNumberStatement<T extends Number> extends DebuggableExecutable implements RewritableNode {
 
     private Executable command;
     private AssignableValue tempVar;
@@ -60,9 +64,153 @@ public class ForNumberStatement<T extends Number> extends DebuggableExecutable {
         this.command = command;
     }
 
+    public Executable getCommand() {
+        return command;
+    }
+
+    public AssignableValue getTempVar() {
+        return tempVar;
+    }
+
+    public RuntimeValue getFirst() {
+        return first;
+    }
+
+    public RuntimeValue getLast() {
+        return last;
+    }
+
+    public boolean isDownto() {
+        return downto;
+    }
+
     @Override
     public ExecutionResult executeImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
+        if (main.isDebug()) {
+            return executeDebug(f, main);
+        }
+        if (mNumberType == BasicType.Integer) {
+            return executeInt(f, main);
+        } else if (mNumberType == BasicType.Long || mNumberType == BasicType.Byte
+                || mNumberType == BasicType.Character) {
+            return executeLong(f, main);
+        } else {
+            throw new RuntimePascalException("Can not execute for statement");
+        }
+    }
+
+    /**
+     * Frame which holds the loop variable, null if the variable has no slot (field of
+     * record, variable of with statement, ...)
+     */
+    private VariableContext findCounterFrame(VariableContext f) {
+        if (tempVar instanceof VariableAccess) {
+            VariableAccess access = (VariableAccess) tempVar;
+            if (access.getSlot() >= 0) {
+                return f.findFrame(access.getContext());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Release loop for integer counter, the counter is kept in a primitive local and only
+     * boxed when it is stored into the loop variable
+     */
+    private ExecutionResult executeInt(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        int start = PrimitiveValues.evalInt(first, f, main);
+        int end = PrimitiveValues.evalInt(last, f, main);
+        if (downto ? start < end : start > end) {
+            return ExecutionResult.NOPE;
+        }
+        VariableContext frame = findCounterFrame(f);
+        int slot = frame == null ? -1 : ((VariableAccess) tempVar).getSlot();
+        Reference<Object> reference = frame == null ? tempVar.getReference(f, main) : null;
+        int step = downto ? -1 : 1;
+        int iterations = 0;
+        for (int index = start; ; index += step) {
+            if (frame != null) {
+                frame.setSlotValue(slot, index);
+            } else {
+                reference.set(index);
+            }
+            main.safepoint(line);
+            iterations++;
+            ExecutionResult result = command.execute(f, main);
+            if (result == ExecutionResult.EXIT) {
+                f.onBackEdges(iterations);
+                return ExecutionResult.EXIT;
+            } else if (result == ExecutionResult.BREAK) {
+                break;
+            }
+            if (index == end) {
+                break;
+            }
+        }
+        f.onBackEdges(iterations);
+        return ExecutionResult.NOPE;
+    }
+
+    /**
+     * Release loop for long, byte and char counters
+     */
+    private ExecutionResult executeLong(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        long start = toLong(first.getValue(f, main));
+        long end = toLong(last.getValue(f, main));
+        if (downto ? start < end : start > end) {
+            return ExecutionResult.NOPE;
+        }
+        VariableContext frame = findCounterFrame(f);
+        int slot = frame == null ? -1 : ((VariableAccess) tempVar).getSlot();
+        Reference<Object> reference = frame == null ? tempVar.getReference(f, main) : null;
+        int step = downto ? -1 : 1;
+        int iterations = 0;
+        for (long index = start; ; index += step) {
+            Object value = box(index);
+            if (frame != null) {
+                frame.setSlotValue(slot, value);
+            } else {
+                reference.set(value);
+            }
+            main.safepoint(line);
+            iterations++;
+            ExecutionResult result = command.execute(f, main);
+            if (result == ExecutionResult.EXIT) {
+                f.onBackEdges(iterations);
+                return ExecutionResult.EXIT;
+            } else if (result == ExecutionResult.BREAK) {
+                break;
+            }
+            if (index == end) {
+                break;
+            }
+        }
+        f.onBackEdges(iterations);
+        return ExecutionResult.NOPE;
+    }
+
+    private long toLong(Object value) {
+        if (value instanceof Character) {
+            return (Character) value;
+        }
+        return ((Number) value).longValue();
+    }
+
+    private Object box(long index) {
+        if (mNumberType == BasicType.Long) {
+            return index;
+        } else if (mNumberType == BasicType.Byte) {
+            return (byte) index;
+        } else {
+            return (char) index;
+        }
+    }
+
+    private ExecutionResult executeDebug(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
         if (downto) {
             if (mNumberType == BasicType.Integer) {
                 Reference<Integer> reference = tempVar.getReference(f, main);
@@ -71,7 +219,7 @@ public class ForNumberStatement<T extends Number> extends DebuggableExecutable {
                 forLoop:
                 for (Integer index = start; index >= end; index--) {
                     reference.set(index);
-                    if (main.isDebug()) main.getDebugListener().onVariableChange(new CallStack(f));
+                    main.getDebugListener().onVariableChange(new CallStack(f));
                     ExecutionResult result = command.execute(f, main);
                     switch (result) {
                         case EXIT:
@@ -88,7 +236,7 @@ public class ForNumberStatement<T extends Number> extends DebuggableExecutable {
                 forLoop:
                 for (Long index = start; index >= end; index--) {
                     reference.set(index);
-                    if (main.isDebug()) main.getDebugListener().onVariableChange(new CallStack(f));
+                    main.getDebugListener().onVariableChange(new CallStack(f));
                     ExecutionResult result = command.execute(f, main);
                     switch (result) {
                         case EXIT:
@@ -105,7 +253,7 @@ public class ForNumberStatement<T extends Number> extends DebuggableExecutable {
                 forLoop:
                 for (Byte index = start; index >= end; index--) {
                     reference.set(index);
-                    if (main.isDebug()) main.getDebugListener().onVariableChange(new CallStack(f));
+                    main.getDebugListener().onVariableChange(new CallStack(f));
                     ExecutionResult result = command.execute(f, main);
                     switch (result) {
                         case EXIT:
@@ -122,7 +270,7 @@ public class ForNumberStatement<T extends Number> extends DebuggableExecutable {
                 forLoop:
                 for (Character index = start; index >= end; index--) {
                     reference.set(index);
-                    if (main.isDebug()) main.getDebugListener().onVariableChange(new CallStack(f));
+                    main.getDebugListener().onVariableChange(new CallStack(f));
                     ExecutionResult result = command.execute(f, main);
                     switch (result) {
                         case EXIT:
@@ -141,7 +289,7 @@ public class ForNumberStatement<T extends Number> extends DebuggableExecutable {
                 forLoop:
                 for (Integer index = start; index <= end; index++) {
                     reference.set(index);
-                    if (main.isDebug()) main.getDebugListener().onVariableChange(new CallStack(f));
+                    main.getDebugListener().onVariableChange(new CallStack(f));
                     ExecutionResult result = command.execute(f, main);
                     switch (result) {
                         case EXIT:
@@ -158,7 +306,7 @@ public class ForNumberStatement<T extends Number> extends DebuggableExecutable {
                 forLoop:
                 for (Long index = start; index <= end; index++) {
                     reference.set(index);
-                    if (main.isDebug()) main.getDebugListener().onVariableChange(new CallStack(f));
+                    main.getDebugListener().onVariableChange(new CallStack(f));
                     ExecutionResult result = command.execute(f, main);
                     switch (result) {
                         case EXIT:
@@ -175,7 +323,7 @@ public class ForNumberStatement<T extends Number> extends DebuggableExecutable {
                 forLoop:
                 for (Byte index = start; index <= end; index++) {
                     reference.set(index);
-                    if (main.isDebug()) main.getDebugListener().onVariableChange(new CallStack(f));
+                    main.getDebugListener().onVariableChange(new CallStack(f));
                     ExecutionResult result = command.execute(f, main);
                     switch (result) {
                         case EXIT:
@@ -192,7 +340,7 @@ public class ForNumberStatement<T extends Number> extends DebuggableExecutable {
                 forLoop:
                 for (Character index = start; index <= end; index++) {
                     reference.set(index);
-                    if (main.isDebug()) main.getDebugListener().onVariableChange(new CallStack(f));
+                    main.getDebugListener().onVariableChange(new CallStack(f));
                     ExecutionResult result = command.execute(f, main);
                     switch (result) {
                         case EXIT:
@@ -219,4 +367,12 @@ public class ForNumberStatement<T extends Number> extends DebuggableExecutable {
             throws ParsingException {
         return null;
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        tempVar = rewriter.target(tempVar);
+        first = rewriter.value(first);
+        last = rewriter.value(last);
+        command = rewriter.statement(command);
+    }
 }
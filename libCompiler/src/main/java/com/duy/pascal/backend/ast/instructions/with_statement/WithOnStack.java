@@ -119,6 +119,20 @@ public class WithOnStack extends VariableContext {
         return fieldsMap;
     }
 
+    /**
+     * A with statement has no frame, its variables are stored in the enclosing one
+     */
+    @NonNull
+    @Override
+    public Object getSlotValue(int slot) throws RuntimePascalException {
+        return parentContext.getSlotValue(slot);
+    }
+
+    @Override
+    public void setSlotValue(int slot, Object val) {
+        parentContext.setSlotValue(slot, val);
+    }
+
     @Nullable
     @Override
     public VariableContext clone() {
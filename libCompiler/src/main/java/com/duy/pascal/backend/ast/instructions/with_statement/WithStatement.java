@@ -57,8 +57,10 @@ public class WithStatement {
             Type type = argument.getRuntimeType(parent).declType;
             if (type instanceof RecordType) {
                 CustomType recordType = (CustomType) type;
-                for (VariableDeclaration var : recordType.getVariableDeclarations()) {
-                    fields.add(new FieldAccess(argument, var.getName(),
+                List<VariableDeclaration> declarations = recordType.getVariableDeclarations();
+                for (int i = 0; i < declarations.size(); i++) {
+                    VariableDeclaration var = declarations.get(i);
+                    fields.add(new FieldAccess(argument, var.getName(), i,
                             var.getLineNumber()));
                 }
             }
@@ -144,11 +146,6 @@ public class WithStatement {
             }
             return super.getIdentifierValue(name);
         }
-
-        @Override
-        public VariableDeclaration getVariableDefinitionLocal(String ident) {
-            return super.getVariableDefinitionLocal(ident);
-        }
     }
 
 }
@@ -19,6 +19,8 @@ package com.duy.pascal.backend.ast.runtime_value.operators;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -53,7 +55,7 @@ import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
 import com.duy.pascal.backend.runtime_exception.internal.InternalInterpreterException;
 
 
-public abstract class BinaryOperatorEval extends DebuggableReturnValue {
+public abstract class BinaryOperatorEval extends DebuggableReturnValue implements RewritableNode {
     protected OperatorTypes operator_type;
 
     protected RuntimeValue operon1;
@@ -133,21 +135,21 @@ public abstract class BinaryOperatorEval extends DebuggableReturnValue {
 
             v1 = TypeConverter.forceConvertRequired(BasicType.Double, v1, t1, context);
             v2 = TypeConverter.forceConvertRequired(BasicType.Double, v2, t2, context);
-            return new DoubleBiOperatorEval(v1, v2, operatorTypes, line);
+            return DoubleBiOperatorEval.create(v1, v2, operatorTypes, line);
 
         }
         if (t1.equals(BasicType.Long) || t2.equals(BasicType.Long)) {
 
             v1 = TypeConverter.forceConvertRequired(BasicType.Long, v1, t1, context);
             v2 = TypeConverter.forceConvertRequired(BasicType.Long, v2, t2, context);
-            return new LongBiOperatorEval(v1, v2, operatorTypes, line);
+            return LongBiOperatorEval.create(v1, v2, operatorTypes, line);
 
         }
         if (t1.equals(BasicType.Integer) || t2.equals(BasicType.Integer)) {
 
             v1 = TypeConverter.forceConvertRequired(BasicType.Integer, v1, t1, context);
             v2 = TypeConverter.forceConvertRequired(BasicType.Integer, v2, t2, context);
-            return new IntegerBiOperatorEval(v1, v2, operatorTypes, line);
+            return IntegerBiOperatorEval.create(v1, v2, operatorTypes, line);
 
         }
         if (t1.equals(BasicType.Character) || t2.equals(BasicType.Character)) {
@@ -170,6 +172,18 @@ public abstract class BinaryOperatorEval extends DebuggableReturnValue {
         throw new BadOperationTypeException(line, t1, t2, v1, v2, operatorTypes);
     }
 
+    public OperatorTypes getOperatorType() {
+        return operator_type;
+    }
+
+    public RuntimeValue getOperon1() {
+        return operon1;
+    }
+
+    public RuntimeValue getOperon2() {
+        return operon2;
+    }
+
     @NonNull
     @Override
     public LineInfo getLineNumber() {
@@ -228,4 +242,10 @@ public abstract class BinaryOperatorEval extends DebuggableReturnValue {
     public boolean canDebug() {
         return true;
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        operon1 = rewriter.value(operon1);
+        operon2 = rewriter.value(operon2);
+    }
 }
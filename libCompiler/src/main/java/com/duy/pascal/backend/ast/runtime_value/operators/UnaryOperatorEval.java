@@ -19,6 +19,8 @@ package com.duy.pascal.backend.ast.runtime_value.operators;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -45,11 +47,12 @@ import com.duy.pascal.backend.declaration.lang.types.OperatorTypes;
 import com.duy.pascal.backend.declaration.lang.types.PointerType;
 import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
 
-public abstract class UnaryOperatorEval extends DebuggableReturnValue {
+public abstract class UnaryOperatorEval extends DebuggableReturnValue implements RewritableNode {
     public OperatorTypes operator;
     public RuntimeType type;
     public RuntimeValue operon;
     public LineInfo line;
+    private RuntimeType runtimeType;
 
     protected UnaryOperatorEval(RuntimeValue operon, OperatorTypes operator,
                                 LineInfo line) {
@@ -133,6 +136,13 @@ public abstract class UnaryOperatorEval extends DebuggableReturnValue {
 
     @Override
     public RuntimeType getRuntimeType(ExpressionContext f) throws ParsingException {
+        if (runtimeType == null) {
+            runtimeType = computeRuntimeType(f);
+        }
+        return runtimeType;
+    }
+
+    private RuntimeType computeRuntimeType(ExpressionContext f) throws ParsingException {
         return operon.getRuntimeType(f);
     }
 
@@ -154,4 +164,9 @@ public abstract class UnaryOperatorEval extends DebuggableReturnValue {
     public boolean canDebug() {
         return true;
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        operon = rewriter.value(operon);
+    }
 }
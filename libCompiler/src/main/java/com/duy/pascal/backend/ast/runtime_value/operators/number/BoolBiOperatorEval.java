@@ -6,6 +6,8 @@ import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.backend.ast.variablecontext.VariableContext;
 import com.duy.pascal.backend.ast.runtime_value.operators.BinaryOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.value.PrimitiveValue;
+import com.duy.pascal.backend.ast.runtime_value.value.PrimitiveValues;
 import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
 import com.duy.pascal.backend.ast.runtime_value.value.access.ConstantAccess;
 import com.duy.pascal.backend.linenumber.LineInfo;
@@ -17,7 +19,7 @@ import com.duy.pascal.backend.declaration.lang.types.BasicType;
 import com.duy.pascal.backend.declaration.lang.types.OperatorTypes;
 import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
 
-public class BoolBiOperatorEval extends BinaryOperatorEval {
+public class BoolBiOperatorEval extends BinaryOperatorEval implements PrimitiveValue {
 
     public BoolBiOperatorEval(RuntimeValue operon1, RuntimeValue operon2,
                               OperatorTypes operator, LineInfo line) {
@@ -32,6 +34,9 @@ public class BoolBiOperatorEval extends BinaryOperatorEval {
     @Override
     public Object getValueImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
+        if (!main.isDebug()) {
+            return evalBoolean(f, main);
+        }
         boolean value1 = (boolean) operon1.getValue(f, main);
         if ((operator_type == OperatorTypes.AND && !value1) || (operator_type == OperatorTypes.OR && value1)) {
             return value1;
@@ -80,4 +85,41 @@ public class BoolBiOperatorEval extends BinaryOperatorEval {
         }
     }
 
+    @Override
+    public boolean evalBoolean(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        boolean v1 = PrimitiveValues.evalBoolean(operon1, f, main);
+        switch (operator_type) {
+            case AND:
+                return v1 && PrimitiveValues.evalBoolean(operon2, f, main);
+            case OR:
+                return v1 || PrimitiveValues.evalBoolean(operon2, f, main);
+            case EQUALS:
+                return v1 == PrimitiveValues.evalBoolean(operon2, f, main);
+            case NOTEQUAL:
+            case XOR:
+                return v1 ^ PrimitiveValues.evalBoolean(operon2, f, main);
+            default:
+                throw new InternalInterpreterException(line);
+        }
+    }
+
+    @Override
+    public int evalInt(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        throw new InternalInterpreterException(line);
+    }
+
+    @Override
+    public long evalLong(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        throw new InternalInterpreterException(line);
+    }
+
+    @Override
+    public double evalDouble(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        throw new InternalInterpreterException(line);
+    }
+
 }
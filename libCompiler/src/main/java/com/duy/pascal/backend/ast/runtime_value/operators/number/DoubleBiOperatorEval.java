@@ -1,27 +1,63 @@
 package com.duy.pascal.backend.ast.runtime_value.operators.number;
 
-
+import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.backend.ast.runtime_value.operators.BinaryOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.value.PrimitiveValue;
+import com.duy.pascal.backend.ast.runtime_value.value.PrimitiveValues;
 import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
 import com.duy.pascal.backend.ast.runtime_value.value.access.ConstantAccess;
+import com.duy.pascal.backend.ast.variablecontext.VariableContext;
 import com.duy.pascal.backend.linenumber.LineInfo;
 import com.duy.pascal.backend.parse_exception.ParsingException;
 import com.duy.pascal.backend.parse_exception.operator.DivisionByZeroException;
 import com.duy.pascal.backend.runtime_exception.PascalArithmeticException;
+import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
 import com.duy.pascal.backend.runtime_exception.internal.InternalInterpreterException;
 import com.duy.pascal.backend.declaration.lang.types.BasicType;
 import com.duy.pascal.backend.declaration.lang.types.OperatorTypes;
 import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
 
-public class DoubleBiOperatorEval extends BinaryOperatorEval {
+public class DoubleBiOperatorEval extends BinaryOperatorEval implements PrimitiveValue {
 
     public DoubleBiOperatorEval(RuntimeValue operon1, RuntimeValue operon2,
                                 OperatorTypes operator, LineInfo line) {
         super(operon1, operon2, operator, line);
     }
 
+    /**
+     * Creates the node specialized for the given operator, falls back to the generic
+     * node for operators without a specialized node
+     */
+    public static DoubleBiOperatorEval create(RuntimeValue operon1, RuntimeValue operon2,
+                                              OperatorTypes operator, LineInfo line) {
+        switch (operator) {
+            case PLUS:
+                return new Plus(operon1, operon2, line);
+            case MINUS:
+                return new Minus(operon1, operon2, line);
+            case MULTIPLY:
+                return new Multiply(operon1, operon2, line);
+            case DIVIDE:
+                return new Divide(operon1, operon2, line);
+            case EQUALS:
+                return new Equals(operon1, operon2, line);
+            case NOTEQUAL:
+                return new NotEqual(operon1, operon2, line);
+            case LESSTHAN:
+                return new LessThan(operon1, operon2, line);
+            case LESSEQ:
+                return new LessEq(operon1, operon2, line);
+            case GREATERTHAN:
+                return new GreaterThan(operon1, operon2, line);
+            case GREATEREQ:
+                return new GreaterEq(operon1, operon2, line);
+            default:
+                return new DoubleBiOperatorEval(operon1, operon2, operator, line);
+        }
+    }
+
     @Override
     public RuntimeType getRuntimeType(ExpressionContext f) throws ParsingException {
         switch (operator_type) {
@@ -40,8 +76,8 @@ public class DoubleBiOperatorEval extends BinaryOperatorEval {
     @Override
     public Object operate(Object value1, Object value2)
             throws PascalArithmeticException, InternalInterpreterException {
-        double v1 = Double.valueOf(String.valueOf(value1));
-        double v2 = Double.valueOf(String.valueOf(value2));
+        double v1 = ((Number) value1).doubleValue();
+        double v2 = ((Number) value2).doubleValue();
         switch (operator_type) {
             case DIVIDE:
                 if (Math.abs(v2) == 0d) {
@@ -78,11 +114,223 @@ public class DoubleBiOperatorEval extends BinaryOperatorEval {
             return new ConstantAccess<>(val, line);
 
         } else {
-            return new DoubleBiOperatorEval(
+            return create(
                     operon1.compileTimeExpressionFold(context),
                     operon2.compileTimeExpressionFold(context), operator_type,
                     line);
         }
     }
 
+    @Override
+    public int evalInt(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return ((Number) getValueImpl(f, main)).intValue();
+    }
+
+    @Override
+    public long evalLong(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return ((Number) getValueImpl(f, main)).longValue();
+    }
+
+    @Override
+    public double evalDouble(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return ((Number) getValueImpl(f, main)).doubleValue();
+    }
+
+    @Override
+    public boolean evalBoolean(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return (Boolean) getValueImpl(f, main);
+    }
+
+    /**
+     * Operator with {@code double} result
+     */
+    private abstract static class Arithmetic extends DoubleBiOperatorEval {
+        Arithmetic(RuntimeValue operon1, RuntimeValue operon2, OperatorTypes operator, LineInfo line) {
+            super(operon1, operon2, operator, line);
+        }
+
+        protected abstract double apply(double v1, double v2) throws InternalInterpreterException;
+
+        @Override
+        public Object getValueImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+                throws RuntimePascalException {
+            if (main.isDebug()) {
+                return super.getValueImpl(f, main);
+            }
+            return evalDouble(f, main);
+        }
+
+        @Override
+        public Object operate(Object value1, Object value2) throws InternalInterpreterException {
+            return apply(((Number) value1).doubleValue(), ((Number) value2).doubleValue());
+        }
+
+        @Override
+        public double evalDouble(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+                throws RuntimePascalException {
+            return apply(PrimitiveValues.evalDouble(operon1, f, main),
+                    PrimitiveValues.evalDouble(operon2, f, main));
+        }
+
+        @Override
+        public int evalInt(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+                throws RuntimePascalException {
+            return (int) evalDouble(f, main);
+        }
+
+        @Override
+        public long evalLong(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+                throws RuntimePascalException {
+            return (long) evalDouble(f, main);
+        }
+    }
+
+    /**
+     * Comparison of two {@code double} values
+     */
+    private abstract static class Comparison extends DoubleBiOperatorEval {
+        Comparison(RuntimeValue operon1, RuntimeValue operon2, OperatorTypes operator, LineInfo line) {
+            super(operon1, operon2, operator, line);
+        }
+
+        protected abstract boolean apply(double v1, double v2);
+
+        @Override
+        public Object getValueImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+                throws RuntimePascalException {
+            if (main.isDebug()) {
+                return super.getValueImpl(f, main);
+            }
+            return evalBoolean(f, main);
+        }
+
+        @Override
+        public Object operate(Object value1, Object value2) {
+            return apply(((Number) value1).doubleValue(), ((Number) value2).doubleValue());
+        }
+
+        @Override
+        public boolean evalBoolean(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+                throws RuntimePascalException {
+            return apply(PrimitiveValues.evalDouble(operon1, f, main),
+                    PrimitiveValues.evalDouble(operon2, f, main));
+        }
+    }
+
+    private static final class Plus extends Arithmetic {
+        Plus(RuntimeValue operon1, RuntimeValue operon2, LineInfo line) {
+            super(operon1, operon2, OperatorTypes.PLUS, line);
+        }
+
+        @Override
+        protected double apply(double v1, double v2) {
+            return v1 + v2;
+        }
+    }
+
+    private static final class Minus extends Arithmetic {
+        Minus(RuntimeValue operon1, RuntimeValue operon2, LineInfo line) {
+            super(operon1, operon2, OperatorTypes.MINUS, line);
+        }
+
+        @Override
+        protected double apply(double v1, double v2) {
+            return v1 - v2;
+        }
+    }
+
+    private static final class Multiply extends Arithmetic {
+        Multiply(RuntimeValue operon1, RuntimeValue operon2, LineInfo line) {
+            super(operon1, operon2, OperatorTypes.MULTIPLY, line);
+        }
+
+        @Override
+        protected double apply(double v1, double v2) {
+            return v1 * v2;
+        }
+    }
+
+    private static final class Divide extends Arithmetic {
+        Divide(RuntimeValue operon1, RuntimeValue operon2, LineInfo line) {
+            super(operon1, operon2, OperatorTypes.DIVIDE, line);
+        }
+
+        @Override
+        protected double apply(double v1, double v2) throws InternalInterpreterException {
+            if (v2 == 0d) {
+                throw new DivisionByZeroException(line);
+            }
+            return v1 / v2;
+        }
+    }
+
+    private static final class Equals extends Comparison {
+        Equals(RuntimeValue operon1, RuntimeValue operon2, LineInfo line) {
+            super(operon1, operon2, OperatorTypes.EQUALS, line);
+        }
+
+        @Override
+        protected boolean apply(double v1, double v2) {
+            return v1 == v2;
+        }
+    }
+
+    private static final class NotEqual extends Comparison {
+        NotEqual(RuntimeValue operon1, RuntimeValue operon2, LineInfo line) {
+            super(operon1, operon2, OperatorTypes.NOTEQUAL, line);
+        }
+
+        @Override
+        protected boolean apply(double v1, double v2) {
+            return v1 != v2;
+        }
+    }
+
+    private static final class LessThan extends Comparison {
+        LessThan(RuntimeValue operon1, RuntimeValue operon2, LineInfo line) {
+            super(operon1, operon2, OperatorTypes.LESSTHAN, line);
+        }
+
+        @Override
+        protected boolean apply(double v1, double v2) {
+            return v1 < v2;
+        }
+    }
+
+    private static final class LessEq extends Comparison {
+        LessEq(RuntimeValue operon1, RuntimeValue operon2, LineInfo line) {
+            super(operon1, operon2, OperatorTypes.LESSEQ, line);
+        }
+
+        @Override
+        protected boolean apply(double v1, double v2) {
+            return v1 <= v2;
+        }
+    }
+
+    private static final class GreaterThan extends Comparison {
+        GreaterThan(RuntimeValue operon1, RuntimeValue operon2, LineInfo line) {
+            super(operon1, operon2, OperatorTypes.GREATERTHAN, line);
+        }
+
+        @Override
+        protected boolean apply(double v1, double v2) {
+            return v1 > v2;
+        }
+    }
+
+    private static final class GreaterEq extends Comparison {
+        GreaterEq(RuntimeValue operon1, RuntimeValue operon2, LineInfo line) {
+            super(operon1, operon2, OperatorTypes.GREATEREQ, line);
+        }
+
+        @Override
+        protected boolean apply(double v1, double v2) {
+            return v1 >= v2;
+        }
+    }
 }
@@ -1,25 +1,103 @@
 package com.duy.pascal.backend.ast.runtime_value.operators.number;
 
+import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.backend.ast.runtime_value.operators.BinaryOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.value.PrimitiveValue;
+import com.duy.pascal.backend.ast.runtime_value.value.PrimitiveValues;
 import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
 import com.duy.pascal.backend.ast.runtime_value.value.access.ConstantAccess;
+import com.duy.pascal.backend.ast.variablecontext.VariableContext;
 import com.duy.pascal.backend.linenumber.LineInfo;
 import com.duy.pascal.backend.parse_exception.ParsingException;
 import com.duy.pascal.backend.runtime_exception.PascalArithmeticException;
+import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
 import com.duy.pascal.backend.declaration.lang.types.BasicType;
 import com.duy.pascal.backend.declaration.lang.types.OperatorTypes;
 import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
 
-
-public class LongBiOperatorEval extends BinaryOperatorEval {
+public class LongBiOperatorEval extends BinaryOperatorEval implements PrimitiveValue {
 
     public LongBiOperatorEval(RuntimeValue operon1, RuntimeValue operon2,
                               OperatorTypes operator, LineInfo line) {
         super(operon1, operon2, operator, line);
     }
 
+    /**
+     * Creates the node specialized for the given operator, falls back to the generic
+     * node for operators without a specialized node
+     */
+    public static LongBiOperatorEval create(RuntimeValue operon1, RuntimeValue operon2,
+                                            OperatorTypes operator, LineInfo line) {
+        switch (operator) {
+            case PLUS:
+                return new Plus(operon1, operon2, line);
+            case MINUS:
+                return new Minus(operon1, operon2, line);
+            case MULTIPLY:
+                return new Multiply(operon1, operon2, line);
+            case DIV:
+                return new Div(operon1, operon2, line);
+            case MOD:
+                return new Mod(operon1, operon2, line);
+            case EQUALS:
+                return new Equals(operon1, operon2, line);
+            case NOTEQUAL:
+                return new NotEqual(operon1, operon2, line);
+            case LESSTHAN:
+                return new LessThan(operon1, operon2, line);
+            case LESSEQ:
+                return new LessEq(operon1, operon2, line);
+            case GREATERTHAN:
+                return new GreaterThan(operon1, operon2, line);
+            case GREATEREQ:
+                return new GreaterEq(operon1, operon2, line);
+            default:
+                return new LongBiOperatorEval(operon1, operon2, operator, line);
+        }
+    }
+
+
+    /**
+     * Node giving the same result with a shift instead of a multiplication or a division by
+     * a constant power of two
+     *
+     * @return null if this node does not multiply or divide by a power of two
+     */
+    public LongBiOperatorEval reduceStrength() {
+        if (this instanceof Multiply) {
+            int shift = shiftOf(operon2);
+            if (shift > 0) {
+                return new ShiftMultiply(operon1, operon2, shift, line);
+            }
+            shift = shiftOf(operon1);
+            if (shift > 0) {
+                return new ShiftMultiply(operon2, operon1, shift, line);
+            }
+        } else if (this instanceof Div) {
+            int shift = shiftOf(operon2);
+            if (shift > 0) {
+                return new ShiftDiv(operon1, operon2, shift, line);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return k if the value is the constant 2^k with k greater than 0, otherwise -1
+     */
+    private static int shiftOf(RuntimeValue value) {
+        if (!(value instanceof ConstantAccess)) {
+            return -1;
+        }
+        Object constant = ((ConstantAccess) value).getValue();
+        if (!(constant instanceof Long || constant instanceof Integer)) {
+            return -1;
+        }
+        long v = ((Number) constant).longValue();
+        return v > 1 && (v & (v - 1)) == 0 ? Long.numberOfTrailingZeros(v) : -1;
+    }
 
     @Override
     public RuntimeType getRuntimeType(ExpressionContext f) throws ParsingException {
@@ -41,10 +119,8 @@ public class LongBiOperatorEval extends BinaryOperatorEval {
     @Override
     public Object operate(Object value1, Object value2)
             throws PascalArithmeticException {
-//        long v1 = (long) value1;
-        long v1 = Long.parseLong(String.valueOf(value1));
-//        long v2 = (long) value2;
-        long v2 = Long.parseLong(String.valueOf(value2));
+        long v1 = ((Number) value1).longValue();
+        long v2 = ((Number) value2).longValue();
         switch (operator_type) {
             case AND:
                 return v1 & v2;
@@ -92,12 +168,277 @@ public class LongBiOperatorEval extends BinaryOperatorEval {
         if (val != null) {
             return new ConstantAccess<>(val, line);
         } else {
-            return new LongBiOperatorEval(
+            return create(
                     operon1.compileTimeExpressionFold(context),
                     operon2.compileTimeExpressionFold(context), operator_type,
                     line);
         }
     }
 
+    @Override
+    public int evalInt(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return ((Number) getValueImpl(f, main)).intValue();
+    }
+
+    @Override
+    public long evalLong(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return ((Number) getValueImpl(f, main)).longValue();
+    }
+
+    @Override
+    public double evalDouble(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return ((Number) getValueImpl(f, main)).doubleValue();
+    }
+
+    @Override
+    public boolean evalBoolean(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return (Boolean) getValueImpl(f, main);
+    }
+
+    /**
+     * Operator with {@code long} result
+     */
+    private abstract static class Arithmetic extends LongBiOperatorEval {
+        Arithmetic(RuntimeValue operon1, RuntimeValue operon2, OperatorTypes operator, LineInfo line) {
+            super(operon1, operon2, operator, line);
+        }
+
+        protected abstract long apply(long v1, long v2);
+
+        @Override
+        public Object getValueImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+                throws RuntimePascalException {
+            if (main.isDebug()) {
+                return super.getValueImpl(f, main);
+            }
+            return evalLong(f, main);
+        }
+
+        @Override
+        public Object operate(Object value1, Object value2) {
+            return apply(((Number) value1).longValue(), ((Number) value2).longValue());
+        }
+
+        @Override
+        public long evalLong(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+                throws RuntimePascalException {
+            return apply(PrimitiveValues.evalLong(operon1, f, main),
+                    PrimitiveValues.evalLong(operon2, f, main));
+        }
+
+        @Override
+        public int evalInt(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+                throws RuntimePascalException {
+            return (int) evalLong(f, main);
+        }
+
+        @Override
+        public double evalDouble(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+                throws RuntimePascalException {
+            return evalLong(f, main);
+        }
+    }
+
+    /**
+     * Comparison of two {@code long} values
+     */
+    private abstract static class Comparison extends LongBiOperatorEval {
+        Comparison(RuntimeValue operon1, RuntimeValue operon2, OperatorTypes operator, LineInfo line) {
+            super(operon1, operon2, operator, line);
+        }
+
+        protected abstract boolean apply(long v1, long v2);
+
+        @Override
+        public Object getValueImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+                throws RuntimePascalException {
+            if (main.isDebug()) {
+                return super.getValueImpl(f, main);
+            }
+            return evalBoolean(f, main);
+        }
+
+        @Override
+        public Object operate(Object value1, Object value2) {
+            return apply(((Number) value1).longValue(), ((Number) value2).longValue());
+        }
+
+        @Override
+        public boolean evalBoolean(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+                throws RuntimePascalException {
+            return apply(PrimitiveValues.evalLong(operon1, f, main),
+                    PrimitiveValues.evalLong(operon2, f, main));
+        }
+    }
+
+    private static final class Plus extends Arithmetic {
+        Plus(RuntimeValue operon1, RuntimeValue operon2, LineInfo line) {
+            super(operon1, operon2, OperatorTypes.PLUS, line);
+        }
+
+        @Override
+        protected long apply(long v1, long v2) {
+            return v1 + v2;
+        }
+    }
+
+    private static final class Minus extends Arithmetic {
+        Minus(RuntimeValue operon1, RuntimeValue operon2, LineInfo line) {
+            super(operon1, operon2, OperatorTypes.MINUS, line);
+        }
+
+        @Override
+        protected long apply(long v1, long v2) {
+            return v1 - v2;
+        }
+    }
+
+    private static final class Multiply extends Arithmetic {
+        Multiply(RuntimeValue operon1, RuntimeValue operon2, LineInfo line) {
+            super(operon1, operon2, OperatorTypes.MULTIPLY, line);
+        }
+
+        @Override
+        protected long apply(long v1, long v2) {
+            return v1 * v2;
+        }
+    }
+
+    private static final class Div extends Arithmetic {
+        Div(RuntimeValue operon1, RuntimeValue operon2, LineInfo line) {
+            super(operon1, operon2, OperatorTypes.DIV, line);
+        }
+
+        @Override
+        protected long apply(long v1, long v2) {
+            return v1 / v2;
+        }
+    }
+
+    private static final class Mod extends Arithmetic {
+        Mod(RuntimeValue operon1, RuntimeValue operon2, LineInfo line) {
+            super(operon1, operon2, OperatorTypes.MOD, line);
+        }
+
+        @Override
+        protected long apply(long v1, long v2) {
+            return v1 % v2;
+        }
+    }
+
+    private static final class Equals extends Comparison {
+        Equals(RuntimeValue operon1, RuntimeValue operon2, LineInfo line) {
+            super(operon1, operon2, OperatorTypes.EQUALS, line);
+        }
+
+        @Override
+        protected boolean apply(long v1, long v2) {
+            return v1 == v2;
+        }
+    }
+
+    private static final class NotEqual extends Comparison {
+        NotEqual(RuntimeValue operon1, RuntimeValue operon2, LineInfo line) {
+            super(operon1, operon2, OperatorTypes.NOTEQUAL, line);
+        }
+
+        @Override
+        protected boolean apply(long v1, long v2) {
+            return v1 != v2;
+        }
+    }
+
+    private static final class LessThan extends Comparison {
+        LessThan(RuntimeValue operon1, RuntimeValue operon2, LineInfo line) {
+            super(operon1, operon2, OperatorTypes.LESSTHAN, line);
+        }
+
+        @Override
+        protected boolean apply(long v1, long v2) {
+            return v1 < v2;
+        }
+    }
+
+    private static final class LessEq extends Comparison {
+        LessEq(RuntimeValue operon1, RuntimeValue operon2, LineInfo line) {
+            super(operon1, operon2, OperatorTypes.LESSEQ, line);
+        }
+
+        @Override
+        protected boolean apply(long v1, long v2) {
+            return v1 <= v2;
+        }
+    }
+
+    private static final class GreaterThan extends Comparison {
+        GreaterThan(RuntimeValue operon1, RuntimeValue operon2, LineInfo line) {
+            super(operon1, operon2, OperatorTypes.GREATERTHAN, line);
+        }
+
+        @Override
+        protected boolean apply(long v1, long v2) {
+            return v1 > v2;
+        }
+    }
+
+    private static final class GreaterEq extends Comparison {
+        GreaterEq(RuntimeValue operon1, RuntimeValue operon2, LineInfo line) {
+            super(operon1, operon2, OperatorTypes.GREATEREQ, line);
+        }
+
+        @Override
+        protected boolean apply(long v1, long v2) {
+            return v1 >= v2;
+        }
+    }
+
+    /**
+     * Multiplication by 2^shift, the constant operand is kept as the second operand
+     */
+    private static final class ShiftMultiply extends Arithmetic {
+        private final int shift;
+
+        ShiftMultiply(RuntimeValue operon1, RuntimeValue operon2, int shift, LineInfo line) {
+            super(operon1, operon2, OperatorTypes.MULTIPLY, line);
+            this.shift = shift;
+        }
+
+        @Override
+        protected long apply(long v1, long v2) {
+            return v1 << shift;
+        }
+
+        @Override
+        public long evalLong(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+                throws RuntimePascalException {
+            return PrimitiveValues.evalLong(operon1, f, main) << shift;
+        }
+    }
+
+    /**
+     * Division by 2^shift, rounds toward zero like div for negative numbers
+     */
+    private static final class ShiftDiv extends Arithmetic {
+        private final int shift;
+
+        ShiftDiv(RuntimeValue operon1, RuntimeValue operon2, int shift, LineInfo line) {
+            super(operon1, operon2, OperatorTypes.DIV, line);
+            this.shift = shift;
+        }
 
+        @Override
+        protected long apply(long v1, long v2) {
+            return (v1 + ((v1 >> 63) >>> (64 - shift))) >> shift;
+        }
+
+        @Override
+        public long evalLong(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+                throws RuntimePascalException {
+            return apply(PrimitiveValues.evalLong(operon1, f, main), 0);
+        }
+    }
 }
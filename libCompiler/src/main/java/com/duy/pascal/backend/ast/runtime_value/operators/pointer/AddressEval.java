@@ -18,6 +18,8 @@ package com.duy.pascal.backend.ast.runtime_value.operators.pointer;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -31,8 +33,8 @@ import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
 import com.duy.pascal.backend.declaration.lang.types.PointerType;
 import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
 
-public class AddressEval extends DebuggableReturnValue {
-    final AssignableValue target;
+public class AddressEval extends DebuggableReturnValue implements RewritableNode {
+    AssignableValue target;
     final LineInfo line;
 
     public AddressEval(AssignableValue target, LineInfo line) {
@@ -75,4 +77,9 @@ public class AddressEval extends DebuggableReturnValue {
     public RuntimeValue compileTimeExpressionFold(CompileTimeContext context) throws ParsingException {
         return this;
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        target = rewriter.target(target);
+    }
 }
@@ -18,6 +18,8 @@ package com.duy.pascal.backend.ast.runtime_value.operators.pointer;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -33,9 +35,10 @@ import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
 import com.duy.pascal.backend.declaration.lang.types.PointerType;
 import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
 
-public class DerefEval extends DebuggableAssignableValue {
+public class DerefEval extends DebuggableAssignableValue implements RewritableNode {
     RuntimeValue pointer;
     LineInfo line;
+    private RuntimeType runtimeType;
 
     public DerefEval(RuntimeValue pointer, LineInfo line) {
         this.pointer = pointer;
@@ -61,6 +64,13 @@ public class DerefEval extends DebuggableAssignableValue {
 
     @Override
     public RuntimeType getRuntimeType(ExpressionContext f) throws ParsingException {
+        if (runtimeType == null) {
+            runtimeType = computeRuntimeType(f);
+        }
+        return runtimeType;
+    }
+
+    private RuntimeType computeRuntimeType(ExpressionContext f) throws ParsingException {
         RuntimeType pointertype = pointer.getRuntimeType(f);
         return new RuntimeType(((PointerType) pointertype.declType).pointedToType, true);
     }
@@ -100,4 +110,9 @@ public class DerefEval extends DebuggableAssignableValue {
             return new DerefEval(pointer.compileTimeExpressionFold(context), line);
         }
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        pointer = rewriter.value(pointer);
+    }
 }
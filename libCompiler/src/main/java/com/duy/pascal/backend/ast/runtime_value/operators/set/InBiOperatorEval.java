@@ -29,8 +29,9 @@ import com.duy.pascal.backend.runtime_exception.internal.InternalInterpreterExce
 import com.duy.pascal.backend.declaration.lang.types.BasicType;
 import com.duy.pascal.backend.declaration.lang.types.OperatorTypes;
 import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
+import com.duy.pascal.backend.declaration.lang.types.set.PrimitiveArrayKind;
 
-import java.util.LinkedList;
+import java.util.Collection;
 
 /**
  * The IN operator checks to see whether an element is in an array
@@ -55,14 +56,14 @@ public class InBiOperatorEval extends BinaryOperatorEval {
     public Object operate(Object value1, Object value2)
             throws PascalArithmeticException, InternalInterpreterException {
         //if the type of value2 is enum or set
-        if (value2 instanceof LinkedList) {
-            LinkedList v2 = (LinkedList) value2;
+        if (value2 instanceof Collection) {
+            Collection v2 = (Collection) value2;
             return v2.contains(value1);
 
         }
         //array type
-        else if (value2 instanceof Object[]) {
-            Object[] objects = (Object[]) value2;
+        else if (value2 != null && value2.getClass().isArray()) {
+            Object[] objects = PrimitiveArrayKind.toObjectArray(value2);
             for (Object object : objects) {
                 if (value1.equals(object)) return true;
             }
@@ -19,6 +19,7 @@ package com.duy.pascal.backend.ast.runtime_value.operators.set;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.backend.ast.runtime_value.operators.BinaryOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.value.PascalBitSet;
 import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
 import com.duy.pascal.backend.ast.runtime_value.value.access.ConstantAccess;
 import com.duy.pascal.backend.linenumber.LineInfo;
@@ -27,8 +28,10 @@ import com.duy.pascal.backend.runtime_exception.PascalArithmeticException;
 import com.duy.pascal.backend.declaration.lang.types.BasicType;
 import com.duy.pascal.backend.declaration.lang.types.OperatorTypes;
 import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
+import com.duy.pascal.backend.declaration.lang.types.set.SetElementKind;
 import com.duy.pascal.backend.declaration.lang.types.set.SetType;
 
+import java.util.Collection;
 import java.util.LinkedList;
 
 
@@ -69,6 +72,12 @@ public class SetBiOperatorEval extends BinaryOperatorEval {
     @SuppressWarnings("unchecked")
     public Object operate(Object value1, Object value2)
             throws PascalArithmeticException {
+        if (value1 instanceof PascalBitSet || value2 instanceof PascalBitSet) {
+            SetElementKind kind = value1 instanceof PascalBitSet
+                    ? ((PascalBitSet) value1).getKind() : ((PascalBitSet) value2).getKind();
+            return operate(PascalBitSet.valueOf(kind, (Collection) value1),
+                    PascalBitSet.valueOf(kind, (Collection) value2));
+        }
         LinkedList v1 = (LinkedList) value1;
         LinkedList v2 = (LinkedList) value2;
 
@@ -76,7 +85,7 @@ public class SetBiOperatorEval extends BinaryOperatorEval {
 
         switch (operator_type) {
             case PLUS:
-                result.clear();
+                result.addAll(v1);
                 for (Object element : v2) if (!v1.contains(element)) result.add(element);
 
                 return result;
@@ -108,9 +117,9 @@ public class SetBiOperatorEval extends BinaryOperatorEval {
                 if (v1.size() != v2.size()) return true;
 
                 for (Object element : v1) {
-                    if (v2.contains(element)) return false;
+                    if (!v2.contains(element)) return true;
                 }
-                return true;
+                return false;
 
             case LESSTHAN:
                 if (v1.size() >= v2.size()) return false;
@@ -139,6 +148,36 @@ public class SetBiOperatorEval extends BinaryOperatorEval {
         }
     }
 
+    /**
+     * Set operators on ordinal sets, each one is a few word operations on the bitsets
+     */
+    private Object operate(PascalBitSet v1, PascalBitSet v2) {
+        switch (operator_type) {
+            case PLUS:
+                return v1.union(v2);
+            case MINUS:
+                return v1.difference(v2);
+            case MULTIPLY:
+                return v1.intersection(v2);
+            case DIFFERENT:
+                return v1.symmetricDifference(v2);
+            case EQUALS:
+                return v1.equals(v2);
+            case NOTEQUAL:
+                return !v1.equals(v2);
+            case LESSTHAN:
+                return v1.subsetOf(v2) && !v1.equals(v2);
+            case LESSEQ:
+                return v1.subsetOf(v2);
+            case GREATERTHAN:
+                return v2.subsetOf(v1) && !v1.equals(v2);
+            case GREATEREQ:
+                return v2.subsetOf(v1);
+            default:
+                return null;
+        }
+    }
+
     @Override
     public RuntimeValue compileTimeExpressionFold(CompileTimeContext context)
             throws ParsingException {
@@ -0,0 +1,48 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.ast.runtime_value.references;
+
+import com.duy.pascal.backend.declaration.lang.types.set.PrimitiveArrayKind;
+import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
+
+public class PrimitiveArrayIndexReference implements Reference {
+    private Object array;
+    private int position;
+    private PrimitiveArrayKind kind;
+
+    /**
+     * @param position - index in the java array, the lower bound is already subtracted
+     */
+    public PrimitiveArrayIndexReference(Object array, int position, PrimitiveArrayKind kind) {
+        this.array = array;
+        this.position = position;
+        this.kind = kind;
+    }
+
+    public void set(Object value) {
+        kind.set(array, position, value);
+    }
+
+    public Object get() throws RuntimePascalException {
+        return kind.get(array, position);
+    }
+
+    @Override
+    public PrimitiveArrayIndexReference clone() {
+        return null;
+    }
+}
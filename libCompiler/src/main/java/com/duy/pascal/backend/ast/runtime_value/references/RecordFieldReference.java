@@ -0,0 +1,55 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.ast.runtime_value.references;
+
+import com.duy.pascal.backend.ast.runtime_value.value.RecordValue;
+import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
+
+/**
+ * Reference to a field of a record, found by its position
+ */
+public class RecordFieldReference implements Reference {
+    private RecordValue record;
+    private int slot;
+    private String name;
+
+    public RecordFieldReference(RecordValue record, int slot, String name) {
+        this.record = record;
+        this.slot = slot;
+        this.name = name;
+    }
+
+    @Override
+    public void set(Object value) {
+        record.setField(slot, value);
+    }
+
+    @Override
+    public Object get() throws RuntimePascalException {
+        return record.getField(slot);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    @Override
+    public Reference clone() {
+        return this;
+    }
+}
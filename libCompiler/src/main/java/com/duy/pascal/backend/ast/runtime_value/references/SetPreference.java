@@ -18,28 +18,49 @@ package com.duy.pascal.backend.ast.runtime_value.references;
 
 import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
 
-import java.util.LinkedList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 
 /**
  * Created by Duy on 25-May-17.
  */
 
 public class SetPreference implements Reference {
-    private LinkedList array;
+    private Collection array;
     private int index;
 
-    public SetPreference(LinkedList array, int index) {
+    public SetPreference(Collection array, int index) {
         this.array = array;
         this.index = index;
     }
 
+    /**
+     * @return the element at the position in iteration order of the set
+     */
+    public static Object elementAt(Collection set, int index) {
+        if (set instanceof List) {
+            return ((List) set).get(index);
+        }
+        Iterator iterator = set.iterator();
+        for (int i = 0; i < index; i++) {
+            iterator.next();
+        }
+        return iterator.next();
+    }
+
     @SuppressWarnings("unchecked")
     public void set(Object value) {
-        array.set(index, value);
+        if (array instanceof List) {
+            ((List) array).set(index, value);
+        } else {
+            array.remove(elementAt(array, index));
+            array.add(value);
+        }
     }
 
     public Object get() throws RuntimePascalException {
-        return array.get(index);
+        return elementAt(array, index);
     }
 
     @Override
@@ -0,0 +1,55 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.ast.runtime_value.references;
+
+import com.duy.pascal.backend.ast.variablecontext.VariableContext;
+import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
+
+/**
+ * Reference to a variable stored in a slot of a frame
+ */
+public class SlotReference implements Reference {
+    private VariableContext frame;
+    private int slot;
+    private String name;
+
+    public SlotReference(VariableContext frame, int slot, String name) {
+        this.frame = frame;
+        this.slot = slot;
+        this.name = name;
+    }
+
+    @Override
+    public void set(Object value) {
+        frame.setSlotValue(slot, value);
+    }
+
+    @Override
+    public Object get() throws RuntimePascalException {
+        return frame.getSlotValue(slot);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    @Override
+    public Reference clone() {
+        return this;
+    }
+}
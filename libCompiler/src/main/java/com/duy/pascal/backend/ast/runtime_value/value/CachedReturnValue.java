@@ -2,6 +2,8 @@ package com.duy.pascal.backend.ast.runtime_value.value;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -11,7 +13,7 @@ import com.duy.pascal.backend.parse_exception.ParsingException;
 import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
 import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
 
-public class CachedReturnValue implements RuntimeValue {
+public class CachedReturnValue implements RuntimeValue, RewritableNode {
     private RuntimeValue other;
     private Object cache = null;
 
@@ -61,4 +63,8 @@ public class CachedReturnValue implements RuntimeValue {
         return cache;
     }
 
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        other = rewriter.value(other);
+    }
 }
@@ -69,7 +69,7 @@ public class ClassConstructorCall extends FunctionCall {
         main.incStack(line);
         //Do not enable debug in any case, because you will need to get value of list parameter,
         //In the case of empty parameters, pause once
-        main.scriptControlCheck(line, false);
+        main.safepoint(line);
 
         //array store value of parameters
         Object[] values = new Object[arguments.length];
@@ -0,0 +1,35 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.ast.runtime_value.value;
+
+import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
+import com.duy.pascal.backend.ast.variablecontext.VariableContext;
+import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
+
+/**
+ * Assignable value which can store into its storage directly, without creating a
+ * {@link com.duy.pascal.backend.ast.runtime_value.references.Reference}
+ */
+public interface DirectAssignableValue extends AssignableValue {
+
+    /**
+     * Evaluate the target (container, index, ...) then <code>value</code> and store the result,
+     * same order as getting the reference then the value
+     */
+    void assign(VariableContext f, RuntimeExecutableCodeUnit<?> main, RuntimeValue value)
+            throws RuntimePascalException;
+}
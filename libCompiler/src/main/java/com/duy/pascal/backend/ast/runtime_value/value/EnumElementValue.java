@@ -19,6 +19,8 @@ package com.duy.pascal.backend.ast.runtime_value.value;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -33,7 +35,7 @@ import com.duy.pascal.backend.declaration.lang.types.set.EnumGroupType;
  * Created by Duy on 25-May-17.
  */
 
-public class EnumElementValue implements RuntimeValue, Comparable<EnumElementValue> {
+public class EnumElementValue implements RuntimeValue, Comparable<EnumElementValue>, RewritableNode {
     private String name;
     private EnumGroupType type;
     private Integer value;
@@ -128,4 +130,8 @@ public class EnumElementValue implements RuntimeValue, Comparable<EnumElementVal
     public int compareTo(@NonNull EnumElementValue o) {
         return this.getIndex().compareTo(o.getIndex());
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+    }
 }
@@ -29,7 +29,7 @@ public abstract class FunctionCall extends DebuggableExecutableReturnValue {
                                                     ExpressionContext expressionContext)
             throws ParsingException {
         List<List<AbstractFunction>> possibilities = new ArrayList<>();
-        expressionContext.getCallableFunctions(name.name.toLowerCase(), possibilities);
+        expressionContext.getCallableFunctions(name.getSymbol(), possibilities);
 
         boolean matching = false;
         boolean perfectFit = false;
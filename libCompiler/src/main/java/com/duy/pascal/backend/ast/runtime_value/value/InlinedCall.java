@@ -0,0 +1,125 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.ast.runtime_value.value;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
+import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
+import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
+import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
+import com.duy.pascal.backend.ast.instructions.Executable;
+import com.duy.pascal.backend.ast.instructions.ExecutionResult;
+import com.duy.pascal.backend.ast.variablecontext.VariableContext;
+import com.duy.pascal.backend.debugable.DebuggableExecutableReturnValue;
+import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
+import com.duy.pascal.backend.declaration.lang.types.Type;
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
+
+/**
+ * Call of a procedure or function whose body was copied into the caller. The arguments and
+ * the local variables of the routine are hidden variables of the caller, so no frame is
+ * allocated and the call does not count in the stack depth
+ */
+public class InlinedCall extends DebuggableExecutableReturnValue implements RewritableNode {
+    private final String name;
+    /**
+     * assignments of the arguments and of the local variables, then the copied body
+     */
+    private Executable body;
+    /**
+     * hidden variable holding the result, null for a procedure
+     */
+    @Nullable
+    private RuntimeValue result;
+    @Nullable
+    private final Type returnType;
+    private final LineInfo line;
+
+    public InlinedCall(String name, Executable body, @Nullable RuntimeValue result,
+                       @Nullable Type returnType, LineInfo line) {
+        this.name = name;
+        this.body = body;
+        this.result = result;
+        this.returnType = returnType;
+        this.line = line;
+    }
+
+    public Executable getBody() {
+        return body;
+    }
+
+    @Nullable
+    public RuntimeValue getResult() {
+        return result;
+    }
+
+    @Override
+    public Object getValueImpl(@NonNull VariableContext f, @NonNull RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        //exit only leaves the copied body
+        body.execute(f, main);
+        return result == null ? NullValue.get() : result.getValue(f, main);
+    }
+
+    @Override
+    public ExecutionResult executeImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        body.execute(f, main);
+        return ExecutionResult.NOPE;
+    }
+
+    @Override
+    public RuntimeType getRuntimeType(ExpressionContext f) {
+        return new RuntimeType(returnType, false);
+    }
+
+    @NonNull
+    @Override
+    public LineInfo getLineNumber() {
+        return line;
+    }
+
+    @Override
+    public Object compileTimeValue(CompileTimeContext context) {
+        return null;
+    }
+
+    @Override
+    public RuntimeValue compileTimeExpressionFold(CompileTimeContext context) {
+        return this;
+    }
+
+    @Override
+    public Executable compileTimeConstantTransform(CompileTimeContext c) {
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        body = rewriter.statement(body);
+        result = rewriter.value(result);
+    }
+}
@@ -20,6 +20,8 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.Size;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -38,7 +40,7 @@ import static com.duy.pascal.backend.utils.NullSafety.zReturn;
  * Created by Duy on 13-Jun-17.
  */
 
-public class OutputValue implements RuntimeValue {
+public class OutputValue implements RuntimeValue, RewritableNode {
     private RuntimeValue target;
     @Nullable
     private RuntimeValue[] infoOutput;
@@ -131,4 +133,14 @@ public class OutputValue implements RuntimeValue {
     public AssignableValue asAssignableValue(ExpressionContext f) {
         return null;
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        target = rewriter.value(target);
+        if (infoOutput != null) {
+            for (int i = 0; i < infoOutput.length; i++) {
+                infoOutput[i] = rewriter.value(infoOutput[i]);
+            }
+        }
+    }
 }
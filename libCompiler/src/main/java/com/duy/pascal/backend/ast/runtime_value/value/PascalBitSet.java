@@ -0,0 +1,194 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.ast.runtime_value.value;
+
+import android.support.annotation.NonNull;
+
+import com.duy.pascal.backend.declaration.lang.types.set.SetElementKind;
+
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Value of a set of an ordinal type (char, byte, boolean, subrange, enum), one bit per
+ * possible element. The elements are iterated in ascending order.
+ * <p>
+ * Sets of other element types are stored as a {@link java.util.LinkedList}
+ */
+public class PascalBitSet extends AbstractSet<Object> implements Cloneable {
+    private final SetElementKind kind;
+    private BitSet bits;
+
+    public PascalBitSet(SetElementKind kind) {
+        this(kind, new BitSet());
+    }
+
+    private PascalBitSet(SetElementKind kind, BitSet bits) {
+        this.kind = kind;
+        this.bits = bits;
+    }
+
+    /**
+     * @return a bitset with the elements of the collection, the collection itself if it is
+     * already a bitset
+     */
+    public static PascalBitSet valueOf(SetElementKind kind, Collection<?> elements) {
+        if (elements instanceof PascalBitSet) {
+            return (PascalBitSet) elements;
+        }
+        PascalBitSet result = new PascalBitSet(kind);
+        for (Object element : elements) {
+            result.add(element);
+        }
+        return result;
+    }
+
+    public SetElementKind getKind() {
+        return kind;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        int ordinal = kind.ordinal(o);
+        return ordinal >= 0 && bits.get(ordinal);
+    }
+
+    /**
+     * Elements outside the range of the element type are ignored
+     */
+    @Override
+    public boolean add(Object o) {
+        int ordinal = kind.ordinal(o);
+        if (ordinal < 0 || bits.get(ordinal)) {
+            return false;
+        }
+        bits.set(ordinal);
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int ordinal = kind.ordinal(o);
+        if (ordinal < 0 || !bits.get(ordinal)) {
+            return false;
+        }
+        bits.clear(ordinal);
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return bits.cardinality();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return bits.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        bits.clear();
+    }
+
+    @NonNull
+    @Override
+    public Iterator<Object> iterator() {
+        return new Iterator<Object>() {
+            private int next = bits.nextSetBit(0);
+            private int last = -1;
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public Object next() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                last = next;
+                next = bits.nextSetBit(next + 1);
+                return kind.element(last);
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) {
+                    throw new IllegalStateException();
+                }
+                bits.clear(last);
+                last = -1;
+            }
+        };
+    }
+
+    public PascalBitSet union(PascalBitSet other) {
+        BitSet result = (BitSet) bits.clone();
+        result.or(other.bits);
+        return new PascalBitSet(kind, result);
+    }
+
+    public PascalBitSet intersection(PascalBitSet other) {
+        BitSet result = (BitSet) bits.clone();
+        result.and(other.bits);
+        return new PascalBitSet(kind, result);
+    }
+
+    public PascalBitSet difference(PascalBitSet other) {
+        BitSet result = (BitSet) bits.clone();
+        result.andNot(other.bits);
+        return new PascalBitSet(kind, result);
+    }
+
+    public PascalBitSet symmetricDifference(PascalBitSet other) {
+        BitSet result = (BitSet) bits.clone();
+        result.xor(other.bits);
+        return new PascalBitSet(kind, result);
+    }
+
+    /**
+     * @return true if every element of this set is in the other set
+     */
+    public boolean subsetOf(PascalBitSet other) {
+        BitSet rest = (BitSet) bits.clone();
+        rest.andNot(other.bits);
+        return rest.isEmpty();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof PascalBitSet) {
+            return bits.equals(((PascalBitSet) o).bits);
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+
+    @Override
+    public PascalBitSet clone() {
+        return new PascalBitSet(kind, (BitSet) bits.clone());
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.ast.runtime_value.value;
+
+import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
+import com.duy.pascal.backend.ast.variablecontext.VariableContext;
+import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
+
+/**
+ * Value which can be evaluated to a java primitive without boxing.
+ * <p>
+ * These methods do not notify the debugger, parent nodes use them only when the program
+ * is not in debug mode and the static type of the value is known
+ */
+public interface PrimitiveValue extends RuntimeValue {
+
+    int evalInt(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException;
+
+    long evalLong(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException;
+
+    double evalDouble(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException;
+
+    boolean evalBoolean(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException;
+}
@@ -0,0 +1,59 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.ast.runtime_value.value;
+
+import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
+import com.duy.pascal.backend.ast.variablecontext.VariableContext;
+import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
+
+/**
+ * Evaluate a child node to a primitive, without boxing if the node is a {@link PrimitiveValue}
+ */
+public class PrimitiveValues {
+
+    public static int evalInt(RuntimeValue value, VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        if (value instanceof PrimitiveValue) {
+            return ((PrimitiveValue) value).evalInt(f, main);
+        }
+        return ((Number) value.getValue(f, main)).intValue();
+    }
+
+    public static long evalLong(RuntimeValue value, VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        if (value instanceof PrimitiveValue) {
+            return ((PrimitiveValue) value).evalLong(f, main);
+        }
+        return ((Number) value.getValue(f, main)).longValue();
+    }
+
+    public static double evalDouble(RuntimeValue value, VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        if (value instanceof PrimitiveValue) {
+            return ((PrimitiveValue) value).evalDouble(f, main);
+        }
+        return ((Number) value.getValue(f, main)).doubleValue();
+    }
+
+    public static boolean evalBoolean(RuntimeValue value, VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        if (value instanceof PrimitiveValue) {
+            return ((PrimitiveValue) value).evalBoolean(f, main);
+        }
+        return (Boolean) value.getValue(f, main);
+    }
+}
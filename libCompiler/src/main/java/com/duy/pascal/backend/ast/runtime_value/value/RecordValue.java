@@ -22,55 +22,75 @@ import com.duy.pascal.backend.ast.variablecontext.ContainsVariables;
 import com.duy.pascal.backend.declaration.lang.value.VariableDeclaration;
 import com.duy.pascal.backend.declaration.lang.types.Type;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
+import java.util.List;
 
 /**
+ * Value of a record. The fields are stored in an array, in the order of the field
+ * declarations of the {@link com.duy.pascal.backend.declaration.lang.types.RecordType},
+ * the list of declarations is shared by all values of the same type.
+ * <p>
  * Created by Duy on 17-Apr-17.
  */
 public class RecordValue implements ContainsVariables {
-    protected HashMap<String, Object> variableMap = new HashMap<>();
-    protected ArrayList<VariableDeclaration> variables = new ArrayList<>();
+    protected List<VariableDeclaration> variables;
+    protected Object[] values;
 
-    public RecordValue(ArrayList<VariableDeclaration> variables) {
+    public RecordValue(List<VariableDeclaration> variables) {
         this.variables = variables;
-        for (VariableDeclaration declaration : variables) {
+        this.values = new Object[variables.size()];
+        for (int i = 0; i < values.length; i++) {
+            VariableDeclaration declaration = variables.get(i);
             Type returnType = declaration.getType();
             if (declaration.getInitialValue() != null) {
-                variableMap.put(declaration.name.toLowerCase(), declaration.getInitialValue());
+                values[i] = declaration.getInitialValue();
             } else {
-                variableMap.put(declaration.name, returnType.initialize());
+                values[i] = returnType.initialize();
             }
         }
     }
 
-    public RecordValue() {
-
+    private RecordValue(List<VariableDeclaration> variables, Object[] values) {
+        this.variables = variables;
+        this.values = values;
     }
 
-    public ArrayList<VariableDeclaration> getVariables() {
+    public List<VariableDeclaration> getVariables() {
         return variables;
     }
 
-    public Map<String, Object> getVariableMap() {
-        return variableMap;
+    /**
+     * @return position of the field, -1 if the record has no field with this name
+     */
+    public int indexOf(String name) {
+        for (int i = 0; i < variables.size(); i++) {
+            if (variables.get(i).getName().equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public Object getField(int index) {
+        return values[index];
+    }
+
+    public void setField(int index, Object value) {
+        values[index] = value;
     }
 
     @NonNull
     @Override
     public Object getVar(String name) {
-        return variableMap.get(name.toLowerCase());
+        int index = indexOf(name);
+        return index < 0 ? null : values[index];
     }
 
     @Override
     public String toString() {
-        Set<Map.Entry<String, Object>> entries = variableMap.entrySet();
         StringBuilder res = new StringBuilder();
         res.append("(");
-        for (Map.Entry<String, Object> entry : entries) {
-            res.append(entry.getKey()).append(":").append(entry.getValue()).append(";");
+        for (int i = 0; i < values.length; i++) {
+            res.append(variables.get(i).getName()).append(":").append(values[i]).append(";");
         }
         res.append(")");
         return res.toString();
@@ -78,17 +98,15 @@ public class RecordValue implements ContainsVariables {
 
     @Override
     public void setVar(String name, Object val) {
-        variableMap.put(name.toLowerCase(), val);
+        int index = indexOf(name);
+        if (index >= 0) {
+            values[index] = val;
+        }
     }
 
     @NonNull
     @Override
     public ContainsVariables clone() {
-        ArrayList<VariableDeclaration> vars = new ArrayList<>();
-        for (VariableDeclaration mVariable : variables) {
-            vars.add(new VariableDeclaration(mVariable.getName(), mVariable.getType(),
-                    variableMap.get(mVariable.getName().toLowerCase()), mVariable.getLineNumber()));
-        }
-        return new RecordValue(vars);
+        return new RecordValue(variables, values.clone());
     }
 }
@@ -1,7 +1,10 @@
 package com.duy.pascal.backend.ast.runtime_value.value;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.declaration.lang.function.AbstractCallableFunction;
 import com.duy.pascal.backend.declaration.lang.function.MethodDeclaration;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
@@ -14,18 +17,22 @@ import com.duy.pascal.backend.linenumber.LineInfo;
 import com.duy.pascal.backend.parse_exception.ParsingException;
 import com.duy.pascal.backend.runtime_exception.MethodCallException;
 import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
+import com.duy.pascal.backend.runtime_exception.StackOverflowException;
 import com.duy.pascal.backend.runtime_exception.internal.MethodReflectionException;
-import com.duy.pascal.backend.declaration.lang.types.ArgumentType;
 import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
 import com.duy.pascal.backend.utils.ArrayUtil;
 import com.duy.pascal.frontend.debug.DebugManager;
 
 import java.lang.reflect.InvocationTargetException;
 
-public class SimpleFunctionCall extends FunctionCall {
+public class SimpleFunctionCall extends FunctionCall implements RewritableNode {
     private AbstractCallableFunction function;
 
     private LineInfo line;
+    /**
+     * true if the function is called through its fixed arity calls when not debugging
+     */
+    private final boolean fixedArity;
 
     public SimpleFunctionCall(AbstractCallableFunction function,
                               RuntimeValue[] arguments, LineInfo line) {
@@ -35,23 +42,29 @@ public class SimpleFunctionCall extends FunctionCall {
         }
         this.arguments = arguments;
         this.line = line;
+        this.fixedArity = function != null && function.hasFixedArityCalls()
+                && arguments.length <= 4;
+    }
+
+    public AbstractCallableFunction getFunction() {
+        return function;
     }
 
     @Override
     public Object getValueImpl(@NonNull VariableContext f, @NonNull RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
+        if (fixedArity && !main.isDebug()) {
+            return callFixedArity(f, main);
+        }
         if (main.isDebug()) {
             main.getDebugListener().onLine((Executable) this, line);
+            //Do not enable debug in any case, because you will need to get value of list parameter,
+            //In the case of empty parameters, pause once
+            main.scriptControlCheck(line, false);
         }
-        main.incStack(line);
-        //Do not enable debug in any case, because you will need to get value of list parameter,
-        //In the case of empty parameters, pause once
-        main.scriptControlCheck(line, false);
 
         //array store value of parameters
         Object[] values = new Object[arguments.length];
-        //list type of parameters
-        ArgumentType[] argumentTypes = function.argumentTypes();
 
         for (int i = 0; i < values.length; i++) {
             values[i] = arguments[i].getValue(f, main);
@@ -65,22 +78,65 @@ public class SimpleFunctionCall extends FunctionCall {
             main.scriptControlCheck(line);
 
         }
+        Object result = invoke(f, main, values, null, null, null, null);
+        DebugManager.onFunctionCalled(function, arguments, result, main);//debug
+        return result;
+    }
+
+    /**
+     * Calls the function without allocating the argument array, arguments are
+     * evaluated left to right as in {@link #getValueImpl(VariableContext, RuntimeExecutableCodeUnit)}
+     */
+    private Object callFixedArity(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        int length = arguments.length;
+        Object a0 = length > 0 ? arguments[0].getValue(f, main) : null;
+        Object a1 = length > 1 ? arguments[1].getValue(f, main) : null;
+        Object a2 = length > 2 ? arguments[2].getValue(f, main) : null;
+        Object a3 = length > 3 ? arguments[3].getValue(f, main) : null;
+        return invoke(f, main, null, a0, a1, a2, a3);
+    }
+
+    /**
+     * @param values arguments of the call, null to pass the first ones in a0 to a3
+     */
+    private Object invoke(VariableContext f, RuntimeExecutableCodeUnit<?> main,
+                          @Nullable Object[] values, Object a0, Object a1, Object a2, Object a3)
+            throws RuntimePascalException {
         Object result;
+        main.incStack(line);
         try {
-            result = function.call(f, main, values);
-
-            DebugManager.onFunctionCalled(function, arguments, result, main);//debug
+            if (values != null) {
+                result = function.call(f, main, values);
+            } else {
+                switch (arguments.length) {
+                    case 0:
+                        result = function.call0(f, main);
+                        break;
+                    case 1:
+                        result = function.call1(f, main, a0);
+                        break;
+                    case 2:
+                        result = function.call2(f, main, a0, a1);
+                        break;
+                    case 3:
+                        result = function.call3(f, main, a0, a1, a2);
+                        break;
+                    default:
+                        result = function.call4(f, main, a0, a1, a2, a3);
+                        break;
+                }
+            }
         } catch (IllegalArgumentException | IllegalAccessException e) {
             throw new MethodReflectionException(line, e);
         } catch (InvocationTargetException e) {
             throw new MethodCallException(line, e.getTargetException(), function);
+        } catch (StackOverflowError e) {
+            throw new StackOverflowException(line);
+        } finally {
+            main.decStack();
         }
-
-        main.decStack();
-        if (result == null) {
-            result = NullValue.get();
-        }
-        return result;
+        return result == null ? NullValue.get() : result;
     }
 
     @Override
@@ -132,4 +188,11 @@ public class SimpleFunctionCall extends FunctionCall {
             throws ParsingException {
         return new SimpleFunctionCall(function, compileTimeExpressionFoldArguments(c), line);
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = rewriter.value(arguments[i]);
+        }
+    }
 }
@@ -18,12 +18,15 @@ package com.duy.pascal.backend.ast.runtime_value.value.access;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.backend.ast.variablecontext.VariableContext;
 import com.duy.pascal.backend.ast.runtime_value.references.ArrayIndexReference;
 import com.duy.pascal.backend.ast.runtime_value.references.Reference;
+import com.duy.pascal.backend.ast.runtime_value.value.DirectAssignableValue;
 import com.duy.pascal.backend.ast.runtime_value.value.EnumElementValue;
 import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
 import com.duy.pascal.backend.debugable.DebuggableAssignableValue;
@@ -36,10 +39,11 @@ import com.duy.pascal.backend.declaration.lang.types.set.ArrayType;
 
 import java.lang.reflect.Array;
 
-public class ArrayIndexAccess extends DebuggableAssignableValue {
+public class ArrayIndexAccess extends DebuggableAssignableValue implements DirectAssignableValue, RewritableNode {
     private RuntimeValue container;
     private RuntimeValue index;
     private int offset;
+    private RuntimeType runtimeType;
 
     public ArrayIndexAccess(RuntimeValue container, RuntimeValue index, int offset) {
         this.container = container;
@@ -54,6 +58,13 @@ public class ArrayIndexAccess extends DebuggableAssignableValue {
 
     @Override
     public RuntimeType getRuntimeType(ExpressionContext f) throws ParsingException {
+        if (runtimeType == null) {
+            runtimeType = computeRuntimeType(f);
+        }
+        return runtimeType;
+    }
+
+    private RuntimeType computeRuntimeType(ExpressionContext f) throws ParsingException {
         RuntimeType r = (container.getRuntimeType(f));
         return new RuntimeType(((ArrayType<?>) r.declType).elementType,
                 r.writable);
@@ -103,7 +114,7 @@ public class ArrayIndexAccess extends DebuggableAssignableValue {
             return Array.get(cont, ind - offset);
         } catch (ArrayIndexOutOfBoundsException e) {
             throw new IndexOutOfBoundsException(this.getLineNumber(),
-                    ind, offset, offset + ((Object[]) cont).length - 1);
+                    ind, offset, offset + Array.getLength(cont) - 1);
         }
     }
 
@@ -120,6 +131,26 @@ public class ArrayIndexAccess extends DebuggableAssignableValue {
         return new ArrayIndexReference(cont, ind, offset);
     }
 
+    @Override
+    public void assign(VariableContext f, RuntimeExecutableCodeUnit<?> main, RuntimeValue value)
+            throws RuntimePascalException {
+        Object cont = container.getValue(f, main);
+        Object i = index.getValue(f, main);
+        int ind;
+        if (i instanceof EnumElementValue) {
+            ind = ((EnumElementValue) i).getIndex();
+        } else {
+            ind = ((Number) i).intValue();
+        }
+        Object v = value.getValue(f, main);
+        try {
+            Array.set(cont, ind - offset, v);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IndexOutOfBoundsException(this.getLineNumber(),
+                    ind, offset, offset + Array.getLength(cont) - 1);
+        }
+    }
+
     @Override
     public RuntimeValue compileTimeExpressionFold(CompileTimeContext context)
             throws ParsingException {
@@ -127,4 +158,9 @@ public class ArrayIndexAccess extends DebuggableAssignableValue {
                 index.compileTimeExpressionFold(context), offset);
     }
 
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        container = rewriter.value(container);
+        index = rewriter.value(index);
+    }
 }
@@ -19,6 +19,8 @@ package com.duy.pascal.backend.ast.runtime_value.value.access;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -34,10 +36,10 @@ import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
  * Created by Duy on 16-Jun-17.
  */
 
-public class ClassIdentifierAccess extends DebuggableReturnValue {
+public class ClassIdentifierAccess extends DebuggableReturnValue implements RewritableNode {
 
     private final String container;
-    private final RuntimeValue value;
+    private RuntimeValue value;
     private final LineInfo lineInfo;
 
     public ClassIdentifierAccess(String container, RuntimeValue value, LineInfo lineInfo) {
@@ -79,4 +81,9 @@ public class ClassIdentifierAccess extends DebuggableReturnValue {
     public RuntimeValue compileTimeExpressionFold(CompileTimeContext context) throws ParsingException {
         return null;
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        value = rewriter.value(value);
+    }
 }
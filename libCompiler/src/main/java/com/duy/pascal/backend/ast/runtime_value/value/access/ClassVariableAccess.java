@@ -18,6 +18,8 @@ package com.duy.pascal.backend.ast.runtime_value.value.access;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -31,10 +33,11 @@ import com.duy.pascal.backend.parse_exception.ParsingException;
 import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
 import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
 
-public class ClassVariableAccess extends DebuggableAssignableValue {
+public class ClassVariableAccess extends DebuggableAssignableValue implements RewritableNode {
     private String container;
     private String name;
     private LineInfo line;
+    private RuntimeType runtimeType;
     @NonNull
     private ExpressionContext declaration;
 
@@ -93,6 +96,13 @@ public class ClassVariableAccess extends DebuggableAssignableValue {
 
     @Override
     public RuntimeType getRuntimeType(ExpressionContext f) throws ParsingException {
+        if (runtimeType == null) {
+            runtimeType = computeRuntimeType(f);
+        }
+        return runtimeType;
+    }
+
+    private RuntimeType computeRuntimeType(ExpressionContext f) throws ParsingException {
         return new RuntimeType(declaration.getVariableDefinition(name).type, true);
     }
 
@@ -107,4 +117,8 @@ public class ClassVariableAccess extends DebuggableAssignableValue {
             throws ParsingException {
         return this;
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+    }
 }
@@ -19,10 +19,13 @@ package com.duy.pascal.backend.ast.runtime_value.value.access;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.backend.ast.variablecontext.VariableContext;
+import com.duy.pascal.backend.ast.runtime_value.value.PrimitiveValue;
 import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
 import com.duy.pascal.backend.debugable.DebuggableReturnValue;
 import com.duy.pascal.backend.linenumber.LineInfo;
@@ -31,7 +34,7 @@ import com.duy.pascal.backend.declaration.lang.types.BasicType;
 import com.duy.pascal.backend.declaration.lang.types.Type;
 import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
 
-public class ConstantAccess<T> extends DebuggableReturnValue {
+public class ConstantAccess<T> extends DebuggableReturnValue implements PrimitiveValue, RewritableNode {
     private T value;
     private Type type;
     private LineInfo mLineNumber;
@@ -81,6 +84,26 @@ public class ConstantAccess<T> extends DebuggableReturnValue {
         return value;
     }
 
+    @Override
+    public int evalInt(VariableContext f, RuntimeExecutableCodeUnit<?> main) {
+        return ((Number) value).intValue();
+    }
+
+    @Override
+    public long evalLong(VariableContext f, RuntimeExecutableCodeUnit<?> main) {
+        return ((Number) value).longValue();
+    }
+
+    @Override
+    public double evalDouble(VariableContext f, RuntimeExecutableCodeUnit<?> main) {
+        return ((Number) value).doubleValue();
+    }
+
+    @Override
+    public boolean evalBoolean(VariableContext f, RuntimeExecutableCodeUnit<?> main) {
+        return (Boolean) value;
+    }
+
     @Override
     public String toString() {
         if (name == null) {
@@ -118,4 +141,7 @@ public class ConstantAccess<T> extends DebuggableReturnValue {
         this.name = name;
     }
 
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+    }
 }
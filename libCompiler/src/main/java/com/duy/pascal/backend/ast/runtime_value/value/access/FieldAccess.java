@@ -18,12 +18,17 @@ package com.duy.pascal.backend.ast.runtime_value.value.access;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.backend.ast.instructions.FieldReference;
 import com.duy.pascal.backend.ast.variablecontext.VariableContext;
 import com.duy.pascal.backend.ast.runtime_value.references.Reference;
+import com.duy.pascal.backend.ast.runtime_value.references.RecordFieldReference;
+import com.duy.pascal.backend.ast.runtime_value.value.DirectAssignableValue;
+import com.duy.pascal.backend.ast.runtime_value.value.RecordValue;
 import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
 import com.duy.pascal.backend.ast.variablecontext.ContainsVariables;
 import com.duy.pascal.backend.debugable.DebuggableAssignableValue;
@@ -38,11 +43,16 @@ import com.duy.pascal.backend.declaration.lang.types.ObjectType;
 import com.duy.pascal.backend.declaration.lang.types.PointerType;
 import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
 
-public class FieldAccess extends DebuggableAssignableValue {
+public class FieldAccess extends DebuggableAssignableValue implements DirectAssignableValue, RewritableNode {
     private static final String TAG = "FieldAccess";
     private RuntimeValue container;
     private String name;
     private LineInfo line;
+    private RuntimeType runtimeType;
+    /**
+     * position of the field if the container is a record, -1 if the field is found by name
+     */
+    private int slot = -1;
 
     public FieldAccess(RuntimeValue container, String name, LineInfo line) {
         this.container = container;
@@ -50,10 +60,19 @@ public class FieldAccess extends DebuggableAssignableValue {
         this.line = line;
     }
 
+    public FieldAccess(RuntimeValue container, String name, int slot, LineInfo line) {
+        this(container, name, line);
+        this.slot = slot;
+    }
+
     public FieldAccess(RuntimeValue container, WordToken name) {
         this(container, name.name, name.getLineNumber());
     }
 
+    public FieldAccess(RuntimeValue container, WordToken name, int slot) {
+        this(container, name.name, slot, name.getLineNumber());
+    }
+
     @Override
     public String toString() {
         return container.toString() + "." + name;
@@ -61,6 +80,13 @@ public class FieldAccess extends DebuggableAssignableValue {
 
     @Override
     public RuntimeType getRuntimeType(ExpressionContext f) throws ParsingException {
+        if (runtimeType == null) {
+            runtimeType = computeRuntimeType(f);
+        }
+        return runtimeType;
+    }
+
+    private RuntimeType computeRuntimeType(ExpressionContext f) throws ParsingException {
         RuntimeType r = container.getRuntimeType(f);
         if (r.declType instanceof PascalClassType) {
             return new RuntimeType(((PascalClassType) (r.declType)).getMemberType(name), r.writable);
@@ -110,15 +136,32 @@ public class FieldAccess extends DebuggableAssignableValue {
     public Object getValueImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
         Object value = container.getValue(f, main);
+        if (slot >= 0 && value instanceof RecordValue) {
+            return ((RecordValue) value).getField(slot);
+        }
         return ((ContainsVariables) value).getVar(name);
     }
 
     @Override
     public Reference<?> getReferenceImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
         Object v = container.getValue(f, main);
+        if (slot >= 0 && v instanceof RecordValue) {
+            return new RecordFieldReference((RecordValue) v, slot, name);
+        }
         return new FieldReference((ContainsVariables) v, name);
     }
 
+    @Override
+    public void assign(VariableContext f, RuntimeExecutableCodeUnit<?> main, RuntimeValue value)
+            throws RuntimePascalException {
+        ContainsVariables v = (ContainsVariables) container.getValue(f, main);
+        if (slot >= 0 && v instanceof RecordValue) {
+            ((RecordValue) v).setField(slot, value.getValue(f, main));
+            return;
+        }
+        v.setVar(name, value.getValue(f, main));
+    }
+
     @Override
     public RuntimeValue compileTimeExpressionFold(CompileTimeContext context)
             throws ParsingException {
@@ -126,7 +169,7 @@ public class FieldAccess extends DebuggableAssignableValue {
         if (val != null) {
             return new ConstantAccess<>(val, line);
         } else {
-            return new FieldAccess(container.compileTimeExpressionFold(context), name, line);
+            return new FieldAccess(container.compileTimeExpressionFold(context), name, slot, line);
         }
     }
 
@@ -137,4 +180,9 @@ public class FieldAccess extends DebuggableAssignableValue {
     public String getName() {
         return name;
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        container = rewriter.value(container);
+    }
 }
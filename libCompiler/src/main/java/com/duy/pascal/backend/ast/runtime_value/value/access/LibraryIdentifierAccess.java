@@ -19,13 +19,15 @@ package com.duy.pascal.backend.ast.runtime_value.value.access;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
-import com.duy.pascal.backend.ast.codeunit.RuntimeUnitPascal;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.backend.ast.variablecontext.VariableContext;
 import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
 import com.duy.pascal.backend.debugable.DebuggableReturnValue;
+import com.duy.pascal.backend.declaration.library.PascalUnitDeclaration;
 import com.duy.pascal.backend.linenumber.LineInfo;
 import com.duy.pascal.backend.parse_exception.ParsingException;
 import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
@@ -33,16 +35,19 @@ import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
 
 /**
  * Created by Duy on 16-Jun-17.
+ * <p>
+ * Reads an identifier of an imported unit. The unit is resolved on the running program, so
+ * every run reads the variables of its own instance of the unit
  */
 
-public class LibraryIdentifierAccess extends DebuggableReturnValue {
+public class LibraryIdentifierAccess extends DebuggableReturnValue implements RewritableNode {
 
-    private final RuntimeUnitPascal container;
-    private final RuntimeValue value;
+    private final PascalUnitDeclaration unit;
+    private RuntimeValue value;
     private final LineInfo lineInfo;
 
-    public LibraryIdentifierAccess(RuntimeUnitPascal container, RuntimeValue value, LineInfo lineInfo) {
-        this.container = container;
+    public LibraryIdentifierAccess(PascalUnitDeclaration unit, RuntimeValue value, LineInfo lineInfo) {
+        this.unit = unit;
         this.value = value;
         this.lineInfo = lineInfo;
     }
@@ -54,7 +59,7 @@ public class LibraryIdentifierAccess extends DebuggableReturnValue {
 
     @Override
     public Object getValueImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
-        return value.getValue(container, main);
+        return value.getValue(main.getLibraryContext(unit), main);
     }
 
     @Override
@@ -79,4 +84,9 @@ public class LibraryIdentifierAccess extends DebuggableReturnValue {
     public RuntimeValue compileTimeExpressionFold(CompileTimeContext context) throws ParsingException {
         return null;
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        value = rewriter.value(value);
+    }
 }
@@ -0,0 +1,289 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.ast.runtime_value.value.access;
+
+import android.support.annotation.NonNull;
+
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
+import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
+import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
+import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
+import com.duy.pascal.backend.ast.runtime_value.references.PrimitiveArrayIndexReference;
+import com.duy.pascal.backend.ast.runtime_value.references.Reference;
+import com.duy.pascal.backend.ast.runtime_value.value.DirectAssignableValue;
+import com.duy.pascal.backend.ast.runtime_value.value.EnumElementValue;
+import com.duy.pascal.backend.ast.runtime_value.value.PrimitiveValue;
+import com.duy.pascal.backend.ast.runtime_value.value.PrimitiveValues;
+import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
+import com.duy.pascal.backend.ast.variablecontext.VariableContext;
+import com.duy.pascal.backend.debugable.DebuggableAssignableValue;
+import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
+import com.duy.pascal.backend.declaration.lang.types.set.ArrayType;
+import com.duy.pascal.backend.declaration.lang.types.set.PrimitiveArrayKind;
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.backend.parse_exception.ParsingException;
+import com.duy.pascal.backend.runtime_exception.IndexOutOfBoundsException;
+import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
+
+import java.lang.reflect.Array;
+
+/**
+ * Element of a static array stored in a java primitive array, see {@link PrimitiveArrayKind}
+ */
+public class PrimitiveArrayIndexAccess extends DebuggableAssignableValue
+        implements DirectAssignableValue, PrimitiveValue, RewritableNode {
+    private RuntimeValue container;
+    private RuntimeValue index;
+    private int offset;
+    private RuntimeType runtimeType;
+    private PrimitiveArrayKind kind;
+    /**
+     * true if the array is indexed by an enum subrange, the index is not a number
+     */
+    private boolean enumIndex;
+
+    public PrimitiveArrayIndexAccess(RuntimeValue container, RuntimeValue index, int offset,
+                                     PrimitiveArrayKind kind, boolean enumIndex) {
+        this.container = container;
+        this.index = index;
+        this.offset = offset;
+        this.kind = kind;
+        this.enumIndex = enumIndex;
+    }
+
+    public RuntimeValue getContainer() {
+        return container;
+    }
+
+    public RuntimeValue getIndex() {
+        return index;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public PrimitiveArrayKind getKind() {
+        return kind;
+    }
+
+    public boolean isEnumIndex() {
+        return enumIndex;
+    }
+
+    @Override
+    public String toString() {
+        return container + "[" + index + "]";
+    }
+
+    @Override
+    public RuntimeType getRuntimeType(ExpressionContext f) throws ParsingException {
+        if (runtimeType == null) {
+            runtimeType = computeRuntimeType(f);
+        }
+        return runtimeType;
+    }
+
+    private RuntimeType computeRuntimeType(ExpressionContext f) throws ParsingException {
+        RuntimeType r = (container.getRuntimeType(f));
+        return new RuntimeType(((ArrayType<?>) r.declType).elementType,
+                r.writable);
+    }
+
+    @NonNull
+    @Override
+    public LineInfo getLineNumber() {
+        return index.getLineNumber();
+    }
+
+    @Override
+    public void setLineNumber(LineInfo lineNumber) {
+
+    }
+
+    @Override
+    public Object compileTimeValue(CompileTimeContext context)
+            throws ParsingException {
+        Object cont = container.compileTimeValue(context);
+        Object ind = index.compileTimeValue(context);
+        if (ind == null || cont == null) {
+            return null;
+        } else {
+            return Array.get(cont, ((int) ind) - offset);
+        }
+    }
+
+    @Override
+    public boolean canDebug() {
+        return false;
+    }
+
+    /**
+     * @return position of the element in the java array
+     */
+    private int position(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        if (!enumIndex && index instanceof PrimitiveValue && !main.isDebug()) {
+            return ((PrimitiveValue) index).evalInt(f, main) - offset;
+        }
+        Object i = index.getValue(f, main);
+        if (i instanceof EnumElementValue) {
+            return ((EnumElementValue) i).getIndex() - offset;
+        }
+        return ((Number) i).intValue() - offset;
+    }
+
+    private IndexOutOfBoundsException outOfBounds(Object cont, int position) {
+        return new IndexOutOfBoundsException(this.getLineNumber(),
+                position + offset, offset, offset + Array.getLength(cont) - 1);
+    }
+
+    @NonNull
+    @Override
+    public Object getValueImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        Object cont = container.getValue(f, main);
+        int i = position(f, main);
+        try {
+            return kind.get(cont, i);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw outOfBounds(cont, i);
+        }
+    }
+
+    @Override
+    public int evalInt(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        if (kind != PrimitiveArrayKind.INT || main.isDebug()) {
+            return ((Number) getValue(f, main)).intValue();
+        }
+        Object cont = container.getValue(f, main);
+        int i = position(f, main);
+        try {
+            return ((int[]) cont)[i];
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw outOfBounds(cont, i);
+        }
+    }
+
+    @Override
+    public long evalLong(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        if (kind == PrimitiveArrayKind.INT) {
+            return evalInt(f, main);
+        }
+        if (kind != PrimitiveArrayKind.LONG || main.isDebug()) {
+            return ((Number) getValue(f, main)).longValue();
+        }
+        Object cont = container.getValue(f, main);
+        int i = position(f, main);
+        try {
+            return ((long[]) cont)[i];
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw outOfBounds(cont, i);
+        }
+    }
+
+    @Override
+    public double evalDouble(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        if (kind == PrimitiveArrayKind.INT || kind == PrimitiveArrayKind.LONG) {
+            return evalLong(f, main);
+        }
+        if (kind != PrimitiveArrayKind.DOUBLE || main.isDebug()) {
+            return ((Number) getValue(f, main)).doubleValue();
+        }
+        Object cont = container.getValue(f, main);
+        int i = position(f, main);
+        try {
+            return ((double[]) cont)[i];
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw outOfBounds(cont, i);
+        }
+    }
+
+    @Override
+    public boolean evalBoolean(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        if (kind != PrimitiveArrayKind.BOOLEAN || main.isDebug()) {
+            return (Boolean) getValue(f, main);
+        }
+        Object cont = container.getValue(f, main);
+        int i = position(f, main);
+        try {
+            return ((boolean[]) cont)[i];
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw outOfBounds(cont, i);
+        }
+    }
+
+    @Override
+    public Reference<?> getReferenceImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        Object cont = container.getValue(f, main);
+        int i = position(f, main);
+        if (i < 0 || i >= Array.getLength(cont)) {
+            throw outOfBounds(cont, i);
+        }
+        return new PrimitiveArrayIndexReference(cont, i, kind);
+    }
+
+    @Override
+    public void assign(VariableContext f, RuntimeExecutableCodeUnit<?> main, RuntimeValue value)
+            throws RuntimePascalException {
+        Object cont = container.getValue(f, main);
+        int i = position(f, main);
+        if (i < 0 || i >= Array.getLength(cont)) {
+            throw outOfBounds(cont, i);
+        }
+        if (main.isDebug()) {
+            kind.set(cont, i, value.getValue(f, main));
+            return;
+        }
+        switch (kind) {
+            case INT:
+                ((int[]) cont)[i] = PrimitiveValues.evalInt(value, f, main);
+                break;
+            case LONG:
+                ((long[]) cont)[i] = PrimitiveValues.evalLong(value, f, main);
+                break;
+            case DOUBLE:
+                ((double[]) cont)[i] = PrimitiveValues.evalDouble(value, f, main);
+                break;
+            case BOOLEAN:
+                ((boolean[]) cont)[i] = PrimitiveValues.evalBoolean(value, f, main);
+                break;
+            default:
+                kind.set(cont, i, value.getValue(f, main));
+                break;
+        }
+    }
+
+    @Override
+    public RuntimeValue compileTimeExpressionFold(CompileTimeContext context)
+            throws ParsingException {
+        return new PrimitiveArrayIndexAccess(container.compileTimeExpressionFold(context),
+                index.compileTimeExpressionFold(context), offset, kind, enumIndex);
+    }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        container = rewriter.value(container);
+        index = rewriter.value(index);
+    }
+}
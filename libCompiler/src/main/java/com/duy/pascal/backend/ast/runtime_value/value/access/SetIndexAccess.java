@@ -18,6 +18,8 @@ package com.duy.pascal.backend.ast.runtime_value.value.access;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -32,14 +34,15 @@ import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
 import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
 import com.duy.pascal.backend.declaration.lang.types.set.SetType;
 
-import java.util.LinkedList;
+import java.util.Collection;
 
 /**
  * Created by Duy on 25-May-17.
  */
-public class SetIndexAccess extends DebuggableAssignableValue {
+public class SetIndexAccess extends DebuggableAssignableValue implements RewritableNode {
     private RuntimeValue container;
     private RuntimeValue index;
+    private RuntimeType runtimeType;
 
     public SetIndexAccess(RuntimeValue container, RuntimeValue index) {
         this.container = container;
@@ -48,6 +51,13 @@ public class SetIndexAccess extends DebuggableAssignableValue {
 
     @Override
     public RuntimeType getRuntimeType(ExpressionContext f) throws ParsingException {
+        if (runtimeType == null) {
+            runtimeType = computeRuntimeType(f);
+        }
+        return runtimeType;
+    }
+
+    private RuntimeType computeRuntimeType(ExpressionContext f) throws ParsingException {
         RuntimeType r = (container.getRuntimeType(f));
         return new RuntimeType(((SetType<?>) r.declType).getElementType(), r.writable);
     }
@@ -66,12 +76,12 @@ public class SetIndexAccess extends DebuggableAssignableValue {
     @Override
     public Object compileTimeValue(CompileTimeContext context)
             throws ParsingException {
-        LinkedList cont = (LinkedList) container.compileTimeValue(context);
+        Collection cont = (Collection) container.compileTimeValue(context);
         Integer ind = (Integer) index.compileTimeValue(context);
         if (ind == null || cont == null) {
             return null;
         } else {
-            return cont.get(ind);
+            return SetPreference.elementAt(cont, ind);
         }
     }
 
@@ -84,15 +94,15 @@ public class SetIndexAccess extends DebuggableAssignableValue {
     @Override
     public Object getValueImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
-        LinkedList cont = (LinkedList) container.getValue(f, main);
+        Collection cont = (Collection) container.getValue(f, main);
         Integer ind = (Integer) index.getValue(f, main);
-        return cont.get(ind); //index out of bound
+        return SetPreference.elementAt(cont, ind); //index out of bound
 
     }
 
     @Override
     public Reference<?> getReferenceImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
-        LinkedList cont = (LinkedList) container.getValue(f, main);
+        Collection cont = (Collection) container.getValue(f, main);
         int ind = Integer.valueOf(index.getValue(f, main).toString());
         return new SetPreference(cont, ind);
     }
@@ -103,4 +113,10 @@ public class SetIndexAccess extends DebuggableAssignableValue {
         return new SetIndexAccess(container.compileTimeExpressionFold(context),
                 index.compileTimeExpressionFold(context));
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        container = rewriter.value(container);
+        index = rewriter.value(index);
+    }
 }
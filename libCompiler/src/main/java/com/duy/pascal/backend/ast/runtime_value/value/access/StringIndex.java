@@ -19,6 +19,8 @@ package com.duy.pascal.backend.ast.runtime_value.value.access;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -33,9 +35,10 @@ import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
 import com.duy.pascal.backend.declaration.lang.types.BasicType;
 import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
 
-public class StringIndex extends DebuggableAssignableValue {
+public class StringIndex extends DebuggableAssignableValue implements RewritableNode {
     private RuntimeValue string;
     private RuntimeValue index;
+    private RuntimeType runtimeType;
 
     public StringIndex(RuntimeValue string, RuntimeValue index) {
         this.index = index;
@@ -69,6 +72,13 @@ public class StringIndex extends DebuggableAssignableValue {
 
     @Override
     public RuntimeType getRuntimeType(ExpressionContext f) throws ParsingException {
+        if (runtimeType == null) {
+            runtimeType = computeRuntimeType(f);
+        }
+        return runtimeType;
+    }
+
+    private RuntimeType computeRuntimeType(ExpressionContext f) throws ParsingException {
         boolean writable = string.getRuntimeType(f).writable;
         return new RuntimeType(BasicType.Character, writable);
     }
@@ -100,4 +110,10 @@ public class StringIndex extends DebuggableAssignableValue {
         RuntimeValue cind = index.compileTimeExpressionFold(context);
         return new StringIndex(cstr, cind);
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        string = rewriter.value(string);
+        index = rewriter.value(index);
+    }
 }
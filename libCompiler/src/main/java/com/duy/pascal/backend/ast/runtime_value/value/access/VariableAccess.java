@@ -18,12 +18,18 @@ package com.duy.pascal.backend.ast.runtime_value.value.access;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
+import com.duy.pascal.backend.ast.expressioncontext.ExpressionContextMixin;
 import com.duy.pascal.backend.ast.instructions.FieldReference;
 import com.duy.pascal.backend.ast.variablecontext.VariableContext;
 import com.duy.pascal.backend.ast.runtime_value.references.Reference;
+import com.duy.pascal.backend.ast.runtime_value.references.SlotReference;
+import com.duy.pascal.backend.ast.runtime_value.value.DirectAssignableValue;
+import com.duy.pascal.backend.ast.runtime_value.value.PrimitiveValue;
 import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
 import com.duy.pascal.backend.debugable.DebuggableAssignableValue;
 import com.duy.pascal.backend.linenumber.LineInfo;
@@ -31,16 +37,33 @@ import com.duy.pascal.backend.parse_exception.ParsingException;
 import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
 import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
 
-public class VariableAccess extends DebuggableAssignableValue {
+public class VariableAccess extends DebuggableAssignableValue
+        implements PrimitiveValue, DirectAssignableValue, RewritableNode {
     private String name;
     private LineInfo line;
+    /**
+     * static type of this node, the type of a node never changes after it is built so it is
+     * worked out once when the parser first asks for it
+     */
+    private RuntimeType runtimeType;
     @NonNull
     private ExpressionContext declaration;
+    /**
+     * index of variable in the frame of {@link #declaration}, -1 if it can only be found by name
+     */
+    private int slot = -1;
 
     public VariableAccess(String name, LineInfo line, @NonNull ExpressionContext f) {
         this.name = name;
         this.line = line;
         this.declaration = f;
+        if (f instanceof ExpressionContextMixin) {
+            this.slot = ((ExpressionContextMixin) f).getVariableSlotLocal(name);
+        }
+    }
+
+    public int getSlot() {
+        return slot;
     }
 
     @NonNull
@@ -73,15 +96,71 @@ public class VariableAccess extends DebuggableAssignableValue {
     @Override
     public Object getValueImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
+        VariableContext frame = slot < 0 ? null : f.findFrame(declaration);
+        if (frame != null) {
+            return frame.getSlotValue(slot);
+        }
         return f.getVar(name);
     }
 
+    /**
+     * Read the value, the debugger hooks of {@link #getValue(VariableContext,
+     * RuntimeExecutableCodeUnit)} are only needed in debug mode
+     */
+    private Object read(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        if (main.isDebug()) {
+            return getValue(f, main);
+        }
+        return getValueImpl(f, main);
+    }
+
+    @Override
+    public int evalInt(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return ((Number) read(f, main)).intValue();
+    }
+
+    @Override
+    public long evalLong(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return ((Number) read(f, main)).longValue();
+    }
+
+    @Override
+    public double evalDouble(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return ((Number) read(f, main)).doubleValue();
+    }
+
+    @Override
+    public boolean evalBoolean(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return (Boolean) read(f, main);
+    }
+
     @Override
     public Reference<?> getReferenceImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
+        VariableContext frame = slot < 0 ? null : f.findFrame(declaration);
+        if (frame != null) {
+            return new SlotReference(frame, slot, name);
+        }
         return new FieldReference(f, name);
     }
 
+    @Override
+    public void assign(VariableContext f, RuntimeExecutableCodeUnit<?> main, RuntimeValue value)
+            throws RuntimePascalException {
+        VariableContext frame = slot < 0 ? null : f.findFrame(declaration);
+        Object v = value.getValue(f, main);
+        if (frame != null) {
+            frame.setSlotValue(slot, v);
+        } else {
+            f.setVar(name, v);
+        }
+    }
+
     @Override
     public String toString() {
         return name;
@@ -89,6 +168,13 @@ public class VariableAccess extends DebuggableAssignableValue {
 
     @Override
     public RuntimeType getRuntimeType(ExpressionContext f) throws ParsingException {
+        if (runtimeType == null) {
+            runtimeType = computeRuntimeType(f);
+        }
+        return runtimeType;
+    }
+
+    private RuntimeType computeRuntimeType(ExpressionContext f) throws ParsingException {
         return new RuntimeType(declaration.getVariableDefinition(name).type, true);
     }
 
@@ -103,4 +189,8 @@ public class VariableAccess extends DebuggableAssignableValue {
             throws ParsingException {
         return this;
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+    }
 }
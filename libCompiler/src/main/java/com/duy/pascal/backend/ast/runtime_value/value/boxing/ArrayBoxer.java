@@ -2,6 +2,8 @@ package com.duy.pascal.backend.ast.runtime_value.value.boxing;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -17,7 +19,7 @@ import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
 import java.lang.reflect.Array;
 import java.util.Arrays;
 
-public class ArrayBoxer extends DebuggableReturnValue {
+public class ArrayBoxer extends DebuggableReturnValue implements RewritableNode {
     public RuntimeValue[] values;
     public ArgumentType type;
     public LineInfo line;
@@ -97,4 +99,11 @@ public class ArrayBoxer extends DebuggableReturnValue {
         }
         return new ArrayBoxer(val, type, line);
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = rewriter.value(values[i]);
+        }
+    }
 }
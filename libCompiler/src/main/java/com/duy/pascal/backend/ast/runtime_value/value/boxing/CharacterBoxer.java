@@ -2,6 +2,8 @@ package com.duy.pascal.backend.ast.runtime_value.value.boxing;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -15,7 +17,7 @@ import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
 import com.duy.pascal.backend.declaration.lang.types.BasicType;
 import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
 
-public class CharacterBoxer extends DebuggableReturnValue {
+public class CharacterBoxer extends DebuggableReturnValue implements RewritableNode {
     private RuntimeValue charValue;
 
     public CharacterBoxer(RuntimeValue charValue) {
@@ -77,4 +79,8 @@ public class CharacterBoxer extends DebuggableReturnValue {
         }
     }
 
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        charValue = rewriter.value(charValue);
+    }
 }
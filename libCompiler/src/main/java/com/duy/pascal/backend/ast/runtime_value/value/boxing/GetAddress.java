@@ -2,6 +2,8 @@ package com.duy.pascal.backend.ast.runtime_value.value.boxing;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -16,18 +18,30 @@ import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
 import com.duy.pascal.backend.declaration.lang.types.PointerType;
 import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
 
-public class GetAddress extends DebuggableReturnValue {
-    private final AssignableValue target;
+public class GetAddress extends DebuggableReturnValue implements RewritableNode {
+    private AssignableValue target;
     private LineInfo line;
+    private RuntimeType runtimeType;
 
     public GetAddress(AssignableValue target) throws UnAssignableTypeException {
         this.line = target.getLineNumber();
         this.target = target;
     }
 
+    public AssignableValue getTarget() {
+        return target;
+    }
+
 
     @Override
     public RuntimeType getRuntimeType(ExpressionContext f) throws ParsingException {
+        if (runtimeType == null) {
+            runtimeType = computeRuntimeType(f);
+        }
+        return runtimeType;
+    }
+
+    private RuntimeType computeRuntimeType(ExpressionContext f) throws ParsingException {
         return new RuntimeType(new PointerType(target.getRuntimeType(f).declType),
                 false);
     }
@@ -70,4 +84,9 @@ public class GetAddress extends DebuggableReturnValue {
             throws ParsingException {
         return this;
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        target = rewriter.target(target);
+    }
 }
@@ -17,34 +17,54 @@
 package com.duy.pascal.backend.ast.runtime_value.value.boxing;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.backend.ast.runtime_value.value.NullValue;
+import com.duy.pascal.backend.ast.runtime_value.value.PascalBitSet;
 import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
 import com.duy.pascal.backend.ast.variablecontext.VariableContext;
 import com.duy.pascal.backend.debugable.DebuggableReturnValue;
 import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
 import com.duy.pascal.backend.declaration.lang.types.Type;
+import com.duy.pascal.backend.declaration.lang.types.set.SetElementKind;
 import com.duy.pascal.backend.declaration.lang.types.set.SetType;
 import com.duy.pascal.backend.linenumber.LineInfo;
 import com.duy.pascal.backend.parse_exception.ParsingException;
 import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
 import com.duy.pascal.backend.utils.NullSafety;
 
+import java.util.Collection;
 import java.util.LinkedList;
+import java.util.ListIterator;
 
-public class SetBoxer extends DebuggableReturnValue {
+public class SetBoxer extends DebuggableReturnValue implements RewritableNode {
     private LinkedList<RuntimeValue> values;
     private Type elementType;
     private LineInfo line;
+    @Nullable
+    private SetElementKind elementKind;
 
     public SetBoxer(LinkedList<RuntimeValue> array,
                     Type elementType, LineInfo line) {
         this.values = array;
         this.elementType = elementType;
         this.line = line;
+        this.elementKind = SetElementKind.of(elementType);
+    }
+
+    /**
+     * @return empty set value, a {@link PascalBitSet} if the element type is ordinal
+     */
+    private Collection<Object> newSet() {
+        if (elementKind != null) {
+            return new PascalBitSet(elementKind);
+        }
+        return new LinkedList<>();
     }
 
 
@@ -77,7 +97,7 @@ public class SetBoxer extends DebuggableReturnValue {
     @Override
     public Object getValueImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
-        LinkedList<Object> result = new LinkedList<>();
+        Collection<Object> result = newSet();
         for (RuntimeValue value : values) {
             result.add(value.getValue(f, main));
         }
@@ -87,7 +107,7 @@ public class SetBoxer extends DebuggableReturnValue {
     @Override
     public Object compileTimeValue(CompileTimeContext context)
             throws ParsingException {
-        LinkedList<Object> result = new LinkedList<>();
+        Collection<Object> result = newSet();
         for (RuntimeValue value : values) {
             Object o = value.compileTimeValue(context);
             if (!NullSafety.isNullValue(o)) {
@@ -112,4 +132,12 @@ public class SetBoxer extends DebuggableReturnValue {
         }
         return new SetBoxer(result, elementType, line);
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        ListIterator<RuntimeValue> iterator = values.listIterator();
+        while (iterator.hasNext()) {
+            iterator.set(rewriter.value(iterator.next()));
+        }
+    }
 }
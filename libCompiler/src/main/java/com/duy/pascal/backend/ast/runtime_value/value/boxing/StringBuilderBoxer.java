@@ -2,6 +2,8 @@ package com.duy.pascal.backend.ast.runtime_value.value.boxing;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -16,7 +18,7 @@ import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
 import com.duy.pascal.backend.declaration.lang.types.BasicType;
 import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
 
-public class StringBuilderBoxer extends DebuggableReturnValue {
+public class StringBuilderBoxer extends DebuggableReturnValue implements RewritableNode {
     private RuntimeValue value;
 
     public StringBuilderBoxer(RuntimeValue value) {
@@ -79,4 +81,9 @@ public class StringBuilderBoxer extends DebuggableReturnValue {
                     value.compileTimeExpressionFold(context));
         }
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        value = rewriter.value(value);
+    }
 }
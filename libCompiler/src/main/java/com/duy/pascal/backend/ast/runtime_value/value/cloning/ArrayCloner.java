@@ -1,7 +1,10 @@
 package com.duy.pascal.backend.ast.runtime_value.value.cloning;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -13,14 +16,47 @@ import com.duy.pascal.backend.linenumber.LineInfo;
 import com.duy.pascal.backend.parse_exception.ParsingException;
 import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
 import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
+import com.duy.pascal.backend.declaration.lang.types.set.PrimitiveArrayKind;
 
 import static com.duy.pascal.backend.utils.NullSafety.isNullValue;
 
-public class ArrayCloner<T> implements RuntimeValue {
+public class ArrayCloner<T> implements RuntimeValue, RewritableNode {
     private RuntimeValue r;
+    /**
+     * storage of the target array, null if the target stores boxed elements
+     */
+    @Nullable
+    private PrimitiveArrayKind kind;
 
     public ArrayCloner(RuntimeValue r2) {
+        this(r2, null);
+    }
+
+    public ArrayCloner(RuntimeValue r2, @Nullable PrimitiveArrayKind kind) {
         this.r = r2;
+        this.kind = kind;
+    }
+
+    /**
+     * Copy the array into the storage of the target, a static array of a basic type
+     * is a primitive array while a dynamic array keeps its elements boxed
+     */
+    private Object copy(Object value) {
+        if (kind != null) {
+            if (value instanceof Object[]) {
+                Object[] boxed = (Object[]) value;
+                Object result = kind.newArray(boxed.length);
+                for (int i = 0; i < boxed.length; i++) {
+                    kind.set(result, i, boxed[i]);
+                }
+                return result;
+            }
+            return kind.copy(value);
+        }
+        if (value instanceof Object[]) {
+            return ((Object[]) value).clone();
+        }
+        return PrimitiveArrayKind.toObjectArray(value);
     }
 
     @Override
@@ -34,8 +70,7 @@ public class ArrayCloner<T> implements RuntimeValue {
     public Object getValue(VariableContext f, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
         Object arr = r.getValue(f, main);
-        Object[] value = (Object[]) arr;
-        return value.clone();
+        return copy(arr);
     }
 
     @NonNull
@@ -52,11 +87,11 @@ public class ArrayCloner<T> implements RuntimeValue {
     @Override
     public Object compileTimeValue(CompileTimeContext context)
             throws ParsingException {
-        Object[] value = (Object[]) r.compileTimeValue(context);
+        Object value = r.compileTimeValue(context);
         if (isNullValue(value)) {
             return NullValue.get();
         }
-        return value.clone();
+        return copy(value);
     }
 
     @Override
@@ -67,11 +102,16 @@ public class ArrayCloner<T> implements RuntimeValue {
     @Override
     public RuntimeValue compileTimeExpressionFold(CompileTimeContext context)
             throws ParsingException {
-        return new ArrayCloner(r.compileTimeExpressionFold(context));
+        return new ArrayCloner(r.compileTimeExpressionFold(context), kind);
     }
 
     @Override
     public AssignableValue asAssignableValue(ExpressionContext f) {
         return null;
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        r = rewriter.value(r);
+    }
 }
\ No newline at end of file
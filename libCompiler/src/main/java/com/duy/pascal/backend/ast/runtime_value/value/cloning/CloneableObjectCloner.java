@@ -2,6 +2,8 @@ package com.duy.pascal.backend.ast.runtime_value.value.cloning;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -16,7 +18,7 @@ import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
 
 import static com.duy.pascal.backend.utils.NullSafety.zReturn;
 
-public class CloneableObjectCloner implements RuntimeValue {
+public class CloneableObjectCloner implements RuntimeValue, RewritableNode {
     private RuntimeValue r;
 
     public CloneableObjectCloner(RuntimeValue r) {
@@ -73,4 +75,9 @@ public class CloneableObjectCloner implements RuntimeValue {
     public AssignableValue asAssignableValue(ExpressionContext f) {
         return null;
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        r = rewriter.value(r);
+    }
 }
\ No newline at end of file
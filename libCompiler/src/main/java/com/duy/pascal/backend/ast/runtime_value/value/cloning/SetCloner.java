@@ -17,29 +17,55 @@
 package com.duy.pascal.backend.ast.runtime_value.value.cloning;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.backend.ast.variablecontext.VariableContext;
 import com.duy.pascal.backend.ast.runtime_value.value.AssignableValue;
 import com.duy.pascal.backend.ast.runtime_value.value.NullValue;
+import com.duy.pascal.backend.ast.runtime_value.value.PascalBitSet;
 import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
 import com.duy.pascal.backend.linenumber.LineInfo;
 import com.duy.pascal.backend.parse_exception.ParsingException;
 import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
 import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
+import com.duy.pascal.backend.declaration.lang.types.set.SetElementKind;
 
+import java.util.Collection;
 import java.util.LinkedList;
 
 import static com.duy.pascal.backend.utils.NullSafety.isNullValue;
 
 
-public class SetCloner<T> implements RuntimeValue {
+public class SetCloner<T> implements RuntimeValue, RewritableNode {
     private RuntimeValue list;
+    /**
+     * storage of the target set, null if the target is a {@link LinkedList}
+     */
+    @Nullable
+    private SetElementKind kind;
 
     public SetCloner(RuntimeValue container) {
+        this(container, null);
+    }
+
+    public SetCloner(RuntimeValue container, @Nullable SetElementKind kind) {
         this.list = container;
+        this.kind = kind;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object copy(Collection value) {
+        if (kind == null) {
+            return new LinkedList(value);
+        } else if (value instanceof PascalBitSet) {
+            return ((PascalBitSet) value).clone();
+        }
+        return PascalBitSet.valueOf(kind, value);
     }
 
     @Override
@@ -51,8 +77,8 @@ public class SetCloner<T> implements RuntimeValue {
     @Override
     public Object getValue(VariableContext f, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
-        LinkedList linkedList = (LinkedList) list.getValue(f, main);
-        return linkedList.clone();
+        Collection value = (Collection) list.getValue(f, main);
+        return copy(value);
     }
 
     @NonNull
@@ -69,11 +95,11 @@ public class SetCloner<T> implements RuntimeValue {
     @Override
     public Object compileTimeValue(CompileTimeContext context)
             throws ParsingException {
-        LinkedList linkedList = (LinkedList) list.compileTimeValue(context);
-        if (isNullValue(linkedList)) {
+        Object value = list.compileTimeValue(context);
+        if (isNullValue(value)) {
             return NullValue.get();
         }
-        return linkedList.clone();
+        return copy((Collection) value);
     }
 
     @Override
@@ -84,11 +110,16 @@ public class SetCloner<T> implements RuntimeValue {
     @Override
     public RuntimeValue compileTimeExpressionFold(CompileTimeContext context)
             throws ParsingException {
-        return new SetCloner(list.compileTimeExpressionFold(context));
+        return new SetCloner(list.compileTimeExpressionFold(context), kind);
     }
 
     @Override
     public AssignableValue asAssignableValue(ExpressionContext f) {
         return null;
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        list = rewriter.value(list);
+    }
 }
\ No newline at end of file
@@ -18,6 +18,8 @@ package com.duy.pascal.backend.ast.runtime_value.value.cloning;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -33,13 +35,13 @@ import com.duy.pascal.backend.declaration.lang.types.set.ArrayType;
 import com.duy.pascal.backend.declaration.lang.types.set.SetType;
 import com.duy.pascal.backend.declaration.lang.types.subrange.IntegerSubrangeType;
 
-import java.util.LinkedList;
+import java.util.Collection;
 
 /**
  * Created by Duy on 11-Jun-17.
  */
 
-public class SetToDynamicArrayCloner implements RuntimeValue {
+public class SetToDynamicArrayCloner implements RuntimeValue, RewritableNode {
     private RuntimeValue array;
 
     public SetToDynamicArrayCloner(RuntimeValue array) {
@@ -59,8 +61,8 @@ public class SetToDynamicArrayCloner implements RuntimeValue {
     @Override
     public Object getValue(VariableContext f, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
-        LinkedList arr = (LinkedList) array.getValue(f, main);
-        return arr.toArray().clone();
+        Collection arr = (Collection) array.getValue(f, main);
+        return arr.toArray();
 
     }
 
@@ -78,11 +80,11 @@ public class SetToDynamicArrayCloner implements RuntimeValue {
     @Override
     public Object compileTimeValue(CompileTimeContext context)
             throws ParsingException {
-        LinkedList value = (LinkedList) array.compileTimeValue(context);
+        Collection value = (Collection) array.compileTimeValue(context);
         if (value == null) {
             return NullValue.get();
         }
-        return value.toArray().clone();
+        return value.toArray();
     }
 
     @Override
@@ -100,4 +102,9 @@ public class SetToDynamicArrayCloner implements RuntimeValue {
     public AssignableValue asAssignableValue(ExpressionContext f) {
         return null;
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        array = rewriter.value(array);
+    }
 }
@@ -2,6 +2,8 @@ package com.duy.pascal.backend.ast.runtime_value.value.cloning;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -14,7 +16,7 @@ import com.duy.pascal.backend.parse_exception.ParsingException;
 import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
 import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
 
-public class StringBuilderCloner implements RuntimeValue {
+public class StringBuilderCloner implements RuntimeValue, RewritableNode {
     private RuntimeValue value;
 
     public StringBuilderCloner(RuntimeValue value) {
@@ -74,4 +76,8 @@ public class StringBuilderCloner implements RuntimeValue {
         return null;
     }
 
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        value = rewriter.value(value);
+    }
 }
\ No newline at end of file
@@ -19,6 +19,8 @@ package com.duy.pascal.backend.ast.runtime_value.value.range;
 import android.support.annotation.Nullable;
 import android.support.v4.util.Pair;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -35,7 +37,7 @@ import com.duy.pascal.backend.utils.NullSafety;
  * Created by Duy on 19-Jun-17.
  */
 
-public class RangeRuntimeValue extends DebuggableReturnValue {
+public class RangeRuntimeValue extends DebuggableReturnValue implements RewritableNode {
     private RuntimeValue first, last;
 
     public RangeRuntimeValue(RuntimeValue first, RuntimeValue last) {
@@ -80,4 +82,9 @@ public class RangeRuntimeValue extends DebuggableReturnValue {
         return new RangeRuntimeValue(o, o1);
     }
 
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        first = rewriter.value(first);
+        last = rewriter.value(last);
+    }
 }
@@ -19,31 +19,44 @@ package com.duy.pascal.backend.ast.variablecontext;
 import android.support.annotation.NonNull;
 
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
-import com.duy.pascal.backend.declaration.lang.function.FunctionDeclaration;
-import com.duy.pascal.backend.declaration.lang.value.VariableDeclaration;
+import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
+import com.duy.pascal.backend.ast.expressioncontext.ExpressionContextMixin;
 import com.duy.pascal.backend.ast.runtime_value.references.PascalReference;
 import com.duy.pascal.backend.ast.runtime_value.value.NullValue;
-import com.duy.pascal.backend.config.ProgramMode;
+import com.duy.pascal.backend.declaration.lang.function.FunctionDeclaration;
+import com.duy.pascal.backend.declaration.lang.value.VariableDeclaration;
 import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
+/**
+ * Frame of a function call. Arguments take the first slots of the frame and local
+ * variables follow them, in the order they are declared in {@link FunctionDeclaration#declaration}
+ */
 public class FunctionOnStack extends VariableContext {
 
-    private HashMap<String, Object> mapVars = new HashMap<>();
-    private HashMap<String, PascalReference> mapReferences = new HashMap<>();
-
-    private ArrayList<String> localVarsName = new ArrayList<>();
-    private ArrayList<String> paramsName = new ArrayList<>();
+    private Object[] frame;
 
     private FunctionDeclaration prototype;
 
+    /**
+     * caller of this function
+     */
     private VariableContext parentContext;
 
+    /**
+     * frame of the scope which declares this function
+     */
+    private VariableContext staticLink;
+
     private RuntimeExecutableCodeUnit<?> main;
 
+    /**
+     * set by a tail call, the body runs again with the new arguments
+     */
+    private boolean restarted = false;
 
     public FunctionOnStack(VariableContext parentContext,
                            RuntimeExecutableCodeUnit<?> main, FunctionDeclaration declaration,
@@ -51,20 +64,31 @@ public class FunctionOnStack extends VariableContext {
         this.prototype = declaration;
         this.parentContext = parentContext;
         this.main = main;
-        for (VariableDeclaration v : prototype.declaration.variables) {
-            v.initialize(mapVars);
-            localVarsName.add(v.getName());
-        }
-        for (int i = 0; i < arguments.length; i++) {
-            if (prototype.argumentTypes[i].writable) {
-                mapReferences.put(prototype.argumentNames[i], (PascalReference) arguments[i]);
-            } else {
-                mapVars.put(prototype.argumentNames[i], arguments[i]);
-            }
-            paramsName.add(prototype.argumentNames[i]);
+
+        ExpressionContextMixin context = prototype.declaration;
+        this.frame = new Object[context.getFrameSize()];
+        initialize(arguments);
+
+        VariableContext link = parentContext == null ? null
+                : parentContext.findFrame(context.getParentContext());
+        this.staticLink = link != null ? link : parentContext;
+    }
+
+    private void initialize(Object[] arguments) {
+        System.arraycopy(arguments, 0, frame, 0, arguments.length);
+        ArrayList<VariableDeclaration> variables = prototype.declaration.variables;
+        for (int i = 0, offset = prototype.argumentNames.length; i < variables.size(); i++) {
+            variables.get(i).initialize(frame, offset + i);
         }
-        this.parentContext = parentContext;
-        this.prototype = declaration;
+    }
+
+    /**
+     * Gives the frame the state of a new call with the arguments, the body is run again
+     * once the current run has left it
+     */
+    public void restart(Object[] arguments) {
+        initialize(arguments);
+        restarted = true;
     }
 
     public FunctionDeclaration getPrototype() {
@@ -77,16 +101,69 @@ public class FunctionOnStack extends VariableContext {
     }
 
     public ArrayList<String> getLocalVarsName() {
-        return localVarsName;
+        ArrayList<String> names = new ArrayList<>();
+        for (VariableDeclaration v : prototype.declaration.variables) {
+            names.add(v.getName());
+        }
+        return names;
     }
 
     public Object execute() throws RuntimePascalException {
-        prototype.instructions.execute(this, main);
+        int restarts = 0;
+        do {
+            restarted = false;
+            prototype.instructions.execute(this, main);
+            if (restarted) {
+                main.safepoint(prototype.getLineNumber());
+                restarts++;
+            }
+        } while (restarted);
+        if (restarts > 0) {
+            onBackEdges(restarts);
+        }
         //get result of prototype, name of variable is name of prototype
-        if (main.getDeclaration().getConfig().getMode() == ProgramMode.DELPHI) {
-            return mapVars.get("result");
+        int resultSlot = prototype.getResultSlot();
+        return resultSlot < 0 ? null : frame[resultSlot];
+    }
+
+    private boolean isReferenceSlot(int slot) {
+        return slot < prototype.argumentTypes.length && prototype.argumentTypes[slot].writable;
+    }
+
+    @NonNull
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object getSlotValue(int slot) throws RuntimePascalException {
+        if (isReferenceSlot(slot)) {
+            return ((PascalReference) frame[slot]).get();
+        }
+        return frame[slot];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void setSlotValue(int slot, Object val) {
+        if (isReferenceSlot(slot)) {
+            ((PascalReference) frame[slot]).set(val);
         } else {
-            return mapVars.get(prototype.name);
+            frame[slot] = val;
+        }
+    }
+
+    @Override
+    public ExpressionContext getFrameOwner() {
+        return prototype.declaration;
+    }
+
+    @Override
+    public VariableContext getStaticLink() {
+        return staticLink;
+    }
+
+    @Override
+    public void onBackEdges(int count) {
+        if (main.isJit()) {
+            prototype.addBackEdges(count);
         }
     }
 
@@ -96,32 +173,30 @@ public class FunctionOnStack extends VariableContext {
     @NonNull
     @Override
     public Object getLocalVar(String name) throws RuntimePascalException {
-        if (mapVars.containsKey(name)) {
-            return mapVars.get(name);
-        } else if (mapReferences.containsKey(name)) {
-            return mapReferences.get(name).get();
-        } else {
+        int slot = prototype.declaration.getVariableSlotLocal(name);
+        if (slot < 0) {
             return NullValue.get();
         }
+        return getSlotValue(slot);
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public boolean setLocalVar(String name, Object val) {
-        if (mapVars.containsKey(name)) {
-            mapVars.put(name, val);
-        } else if (mapReferences.containsKey(name)) {
-            mapReferences.get(name).set(val);
-        } else {
+        int slot = prototype.declaration.getVariableSlotLocal(name);
+        if (slot < 0) {
             return false;
         }
+        setSlotValue(slot, val);
         return true;
     }
 
     @Override
     public List<String> getUserDefineVariableNames() {
-        List<String> vars = new ArrayList<>(paramsName);
-        vars.addAll(localVarsName);
+        List<String> vars = new ArrayList<>();
+        for (String name : prototype.argumentNames) {
+            vars.add(name);
+        }
+        vars.addAll(getLocalVarsName());
         return vars;
     }
 
@@ -132,8 +207,15 @@ public class FunctionOnStack extends VariableContext {
 
     @Override
     public HashMap<String, Object> getMapVars() {
-        HashMap<String, Object> hashMap = new HashMap<>(mapVars);
-        hashMap.putAll(mapReferences);
+        HashMap<String, Object> hashMap = new HashMap<>();
+        String[] argumentNames = prototype.argumentNames;
+        for (int i = 0; i < argumentNames.length; i++) {
+            hashMap.put(argumentNames[i], frame[i]);
+        }
+        ArrayList<VariableDeclaration> variables = prototype.declaration.variables;
+        for (int i = 0; i < variables.size(); i++) {
+            hashMap.put(variables.get(i).getName(), frame[argumentNames.length + i]);
+        }
         return hashMap;
     }
 
@@ -19,6 +19,7 @@ package com.duy.pascal.backend.ast.variablecontext;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.backend.ast.runtime_value.value.NullValue;
 import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
 
@@ -69,6 +70,55 @@ public abstract class VariableContext implements ContainsVariables {
 
     public abstract VariableContext getParentContext();
 
+    /**
+     * Lexically enclosing frame, used to resolve slot-indexed variables of outer scopes.
+     * By default it is the same as {@link #getParentContext()}
+     */
+    public VariableContext getStaticLink() {
+        return getParentContext();
+    }
+
+    /**
+     * @return the declaration scope whose variables are stored in the slots of this frame,
+     * or null if this context does not own a slot frame
+     */
+    @Nullable
+    public ExpressionContext getFrameOwner() {
+        return null;
+    }
+
+    /**
+     * Find the frame which owns variables of the given declaration scope, following
+     * the static links from this context
+     *
+     * @return the frame, or null if it is not reachable
+     */
+    @Nullable
+    public VariableContext findFrame(ExpressionContext owner) {
+        VariableContext context = this;
+        while (context != null) {
+            if (context.getFrameOwner() == owner) {
+                return context;
+            }
+            context = context.getStaticLink();
+        }
+        return null;
+    }
+
+    /**
+     * Called by a loop run in this frame with its number of iterations
+     */
+    public void onBackEdges(int count) {
+    }
+
+    /**
+     * @param slot index of the variable in the frame of {@link #getFrameOwner()}
+     */
+    @NonNull
+    public abstract Object getSlotValue(int slot) throws RuntimePascalException;
+
+    public abstract void setSlotValue(int slot, Object val);
+
     @Nullable
     @Override
     public VariableContext clone() {
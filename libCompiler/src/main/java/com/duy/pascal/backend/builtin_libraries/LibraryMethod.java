@@ -0,0 +1,34 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.builtin_libraries;
+
+/**
+ * A method of a builtin library annotated with
+ * {@link com.duy.pascal.backend.builtin_libraries.annotations.PascalMethod}, listed at build
+ * time in {@code LibraryMethodTable} by the processor of the :processor module
+ */
+final class LibraryMethod {
+    final String name;
+    final Class<?>[] parameterTypes;
+    final String description;
+
+    LibraryMethod(String name, Class<?>[] parameterTypes, String description) {
+        this.name = name;
+        this.parameterTypes = parameterTypes;
+        this.description = description;
+    }
+}
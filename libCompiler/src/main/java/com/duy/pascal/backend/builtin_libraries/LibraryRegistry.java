@@ -0,0 +1,180 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.builtin_libraries;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.backend.builtin_libraries.android.AndroidLibraryManager;
+import com.duy.pascal.backend.builtin_libraries.io.InOutListener;
+import com.duy.pascal.backend.declaration.lang.function.MethodDeclaration;
+import com.duy.pascal.frontend.activities.ConsoleHandler;
+import com.duy.pascal.frontend.editor.view.adapters.InfoItem;
+import com.duy.pascal.frontend.structure.viewholder.StructureType;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Methods and constructors of the builtin libraries. The methods are listed at build time in
+ * {@link LibraryMethodTable}, a suggestion list only reads the table and an import looks up
+ * the {@link Method} of each listed method once per process, the classes are never scanned.
+ */
+public class LibraryRegistry {
+    /**
+     * Argument types of the constructors a library can be created with, in the order
+     * they are tried
+     */
+    private static final Class<?>[] CONSTRUCTOR_ARGUMENTS = {
+            InOutListener.class, ConsoleHandler.class, AndroidLibraryManager.class};
+    private static final LibraryMethod[] NO_METHODS = new LibraryMethod[0];
+
+    private static final HashMap<Class<?>, LibraryMethod[]> TABLE = new HashMap<>();
+    private static final HashMap<Class<?>, Entry> ENTRIES = new HashMap<>();
+
+    static {
+        LibraryMethodTable.fill(TABLE);
+    }
+
+    @NonNull
+    public static Entry get(Class<?> library) {
+        synchronized (ENTRIES) {
+            Entry entry = ENTRIES.get(library);
+            if (entry == null) {
+                entry = new Entry(library);
+                ENTRIES.put(library, entry);
+            }
+            return entry;
+        }
+    }
+
+    public static class Entry {
+        private final Class<?> library;
+        private final LibraryMethod[] table;
+        private final List<InfoItem> infoItems;
+        /**
+         * constructors and methods of the table, looked up on the first import of the library
+         */
+        @Nullable
+        private List<Constructor<?>> constructors;
+        @Nullable
+        private Method[] methods;
+
+        private Entry(Class<?> library) {
+            this.library = library;
+            LibraryMethod[] table = TABLE.get(library);
+            this.table = table != null ? table : NO_METHODS;
+            ArrayList<InfoItem> infoItems = new ArrayList<>(this.table.length);
+            for (LibraryMethod method : this.table) {
+                infoItems.add(new InfoItem(StructureType.TYPE_FUNCTION, method.name, method.description));
+            }
+            this.infoItems = Collections.unmodifiableList(infoItems);
+        }
+
+        /**
+         * Create the library with the first constructor which accepts one of the handlers
+         *
+         * @return the library, null if no constructor could create it
+         */
+        @Nullable
+        public Object newInstance(@Nullable Object handler, @Nullable AndroidLibraryManager facadeManager) {
+            for (Constructor<?> constructor : getConstructors()) {
+                Class<?>[] parameters = constructor.getParameterTypes();
+                try {
+                    if (parameters.length == 0) {
+                        return constructor.newInstance();
+                    }
+                    Object argument = parameters[0] == AndroidLibraryManager.class ? facadeManager : handler;
+                    if (argument == null || parameters[0].isInstance(argument)) {
+                        return constructor.newInstance(argument);
+                    }
+                } catch (Exception ignored) {
+                }
+            }
+            return null;
+        }
+
+        public boolean hasConstructor(Class<?> argument) {
+            for (Constructor<?> constructor : getConstructors()) {
+                Class<?>[] parameters = constructor.getParameterTypes();
+                if (parameters.length == 1 && parameters[0] == argument) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @param owner - object the methods are called on, may be a
+         *              {@link MethodDeclaration.OwnerResolver}
+         * @return new declarations of the pascal methods of the library
+         */
+        public ArrayList<MethodDeclaration> newDeclarations(Object owner) {
+            Method[] methods = getMethods();
+            ArrayList<MethodDeclaration> declarations = new ArrayList<>(methods.length);
+            for (int i = 0; i < methods.length; i++) {
+                declarations.add(new MethodDeclaration(owner, methods[i], table[i].description));
+            }
+            return declarations;
+        }
+
+        private synchronized List<Constructor<?>> getConstructors() {
+            if (constructors == null) {
+                ArrayList<Constructor<?>> constructors = new ArrayList<>();
+                for (Class<?> argument : CONSTRUCTOR_ARGUMENTS) {
+                    try {
+                        constructors.add(library.getConstructor(argument));
+                    } catch (NoSuchMethodException ignored) {
+                    }
+                }
+                try {
+                    constructors.add(library.getConstructor());
+                } catch (NoSuchMethodException ignored) {
+                }
+                this.constructors = constructors;
+            }
+            return constructors;
+        }
+
+        private synchronized Method[] getMethods() {
+            if (methods == null) {
+                Method[] methods = new Method[table.length];
+                for (int i = 0; i < table.length; i++) {
+                    try {
+                        methods[i] = library.getDeclaredMethod(table[i].name, table[i].parameterTypes);
+                    } catch (NoSuchMethodException e) {
+                        throw new IllegalStateException(LibraryMethodTable.class.getSimpleName()
+                                + " is older than " + library.getName() + ", rebuild", e);
+                    }
+                }
+                this.methods = methods;
+            }
+            return methods;
+        }
+
+        /**
+         * @return suggestions for the methods of the library
+         */
+        public List<InfoItem> getInfoItems() {
+            return infoItems;
+        }
+    }
+}
@@ -17,14 +17,13 @@
 package com.duy.pascal.backend.builtin_libraries;
 
 import android.content.pm.PackageManager;
-import android.os.Build;
 import android.support.annotation.NonNull;
 import android.support.v4.app.ActivityCompat;
 
 import com.duy.pascal.backend.declaration.lang.value.ConstantDefinition;
+import com.duy.pascal.backend.declaration.lang.function.AbstractFunction;
 import com.duy.pascal.backend.declaration.lang.function.MethodDeclaration;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContextMixin;
-import com.duy.pascal.backend.ast.runtime_value.value.NullValue;
 import com.duy.pascal.backend.builtin_libraries.android.AndroidLibraryManager;
 import com.duy.pascal.backend.builtin_libraries.android.barcode.ZXingAPI;
 import com.duy.pascal.backend.builtin_libraries.android.connection.bluetooth.AndroidBluetoothLib;
@@ -44,52 +43,18 @@ import com.duy.pascal.backend.builtin_libraries.android.view.AndroidDialogLib;
 import com.duy.pascal.backend.builtin_libraries.android.view.AndroidNotifyLib;
 import com.duy.pascal.backend.builtin_libraries.android.voice.AndroidSpeechRecognitionLib;
 import com.duy.pascal.backend.builtin_libraries.android.voice.AndroidTextToSpeechLib;
-import com.duy.pascal.backend.builtin_libraries.annotations.PascalMethod;
 import com.duy.pascal.backend.builtin_libraries.crt.CrtLib;
 import com.duy.pascal.backend.builtin_libraries.crt.WinCrt;
 import com.duy.pascal.backend.builtin_libraries.graphic.BasicGraphicAPI;
-import com.duy.pascal.backend.builtin_libraries.io.InOutListener;
 import com.duy.pascal.backend.builtin_libraries.java.data.JavaCollectionsAPI;
 import com.duy.pascal.backend.builtin_libraries.math.MathLib;
 import com.duy.pascal.backend.linenumber.LineInfo;
 import com.duy.pascal.backend.parse_exception.PermissionDeniedException;
 import com.duy.pascal.backend.parse_exception.io.LibraryNotFoundException;
-import com.duy.pascal.backend.system_function.builtin.AbstractMethodDeclaration;
-import com.duy.pascal.backend.system_function.builtin.AddressFunction;
-import com.duy.pascal.backend.system_function.builtin.AssignedPointerFunction;
-import com.duy.pascal.backend.system_function.builtin.CastObjectFunction;
-import com.duy.pascal.backend.system_function.builtin.CopyFunction;
-import com.duy.pascal.backend.system_function.builtin.ExitFunction;
-import com.duy.pascal.backend.system_function.builtin.ExitNoneFunction;
-import com.duy.pascal.backend.system_function.builtin.HighFunction;
-import com.duy.pascal.backend.system_function.builtin.LengthFunction;
-import com.duy.pascal.backend.system_function.builtin.LowFunction;
-import com.duy.pascal.backend.system_function.builtin.NewFunction;
-import com.duy.pascal.backend.system_function.builtin.NewInstanceObject;
-import com.duy.pascal.backend.system_function.builtin.NewInstanceParamsObject;
-import com.duy.pascal.backend.system_function.builtin.SetLengthFunction;
-import com.duy.pascal.backend.system_function.builtin.SizeOfArrayFunction;
-import com.duy.pascal.backend.system_function.builtin.SizeOfObjectFunction;
-import com.duy.pascal.backend.system_function.io.ReadFileFunction;
-import com.duy.pascal.backend.system_function.io.ReadFunction;
-import com.duy.pascal.backend.system_function.io.ReadLineFunction;
-import com.duy.pascal.backend.system_function.io.ReadlnFileFunction;
-import com.duy.pascal.backend.system_function.io.WriteFileFunction;
-import com.duy.pascal.backend.system_function.io.WriteFunction;
-import com.duy.pascal.backend.system_function.io.WriteLineFunction;
-import com.duy.pascal.backend.system_function.io.WritelnFileFunction;
-import com.duy.pascal.backend.declaration.lang.types.BasicType;
-import com.duy.pascal.backend.declaration.lang.types.JavaClassBasedType;
-import com.duy.pascal.backend.declaration.lang.types.PointerType;
 import com.duy.pascal.frontend.DLog;
-import com.duy.pascal.frontend.activities.ConsoleHandler;
 import com.duy.pascal.frontend.activities.IRunnablePascal;
 import com.duy.pascal.frontend.editor.view.adapters.InfoItem;
-import com.duy.pascal.frontend.structure.viewholder.StructureType;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Hashtable;
 import java.util.Map;
@@ -145,26 +110,12 @@ public class PascalLibraryManager {
                                 @NonNull IRunnablePascal handler) {
         this.program = program;
         this.handler = handler;
-        facadeManager = new AndroidLibraryManager(AndroidLibraryUtils.getSdkVersion(), handler);
     }
 
     public static ArrayList<InfoItem> getAllMethodDescription(Class<?>... classes) {
         ArrayList<InfoItem> suggestItems = new ArrayList<>();
         for (Class<?> aClass : classes) {
-            Method[] methods = aClass.getDeclaredMethods();
-            for (Method method : methods) {
-                if (AndroidLibraryUtils.getSdkVersion() >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
-                    if (method.isAnnotationPresent(PascalMethod.class)) {
-                        PascalMethod annotation = method.getAnnotation(PascalMethod.class);
-                        String description = annotation.description();
-                        suggestItems.add(new InfoItem(StructureType.TYPE_FUNCTION, method.getName(), description));
-                    }
-                } else {
-                    if (Modifier.isPublic(method.getModifiers())) {
-                        suggestItems.add(new InfoItem(StructureType.TYPE_FUNCTION, method.getName()));
-                    }
-                }
-            }
+            suggestItems.addAll(LibraryRegistry.get(aClass).getInfoItems());
         }
         return suggestItems;
     }
@@ -175,35 +126,9 @@ public class PascalLibraryManager {
      */
 
     public void addMethodFromClass(Class<? extends PascalLibrary> t, LineInfo lineNumber) throws PermissionDeniedException, LibraryNotFoundException {
-        Object parent = null;
-        Constructor constructor;
-        try {
-            constructor = t.getConstructor(InOutListener.class);
-            parent = constructor.newInstance(handler);
-        } catch (Exception ignored) {
-        }
-        if (parent == null) {
-            try {
-                constructor = t.getConstructor(ConsoleHandler.class);
-                parent = constructor.newInstance(handler);
-            } catch (Exception ignored) {
-            }
-        }
-        if (parent == null) {
-            try {
-                constructor = t.getConstructor(AndroidLibraryManager.class);
-                parent = constructor.newInstance(facadeManager);
-            } catch (Exception ignored) {
-            }
-        }
-        if (parent == null) {
-            try {
-                constructor = t.getConstructor();
-                parent = constructor.newInstance();
-            } catch (Exception ignored) {
-            }
-        }
-
+        LibraryRegistry.Entry entry = LibraryRegistry.get(t);
+        Object parent = entry.newInstance(handler,
+                entry.hasConstructor(AndroidLibraryManager.class) ? getFacadeManager() : null);
         if (parent != null) {
             addMethodFromLibrary(parent, lineNumber);
         } else {
@@ -213,48 +138,17 @@ public class PascalLibraryManager {
     }
 
     /**
-     * load system method
+     * load system method, the declarations are built once per process by
+     * {@link SystemSymbolTable} and shared by every program
      */
-    public void loadSystemLibrary() throws PermissionDeniedException, LibraryNotFoundException {
-        //load builtin function
-        program.declareFunction(new AbstractMethodDeclaration(new SetLengthFunction()));
-        program.declareFunction(new AbstractMethodDeclaration(new LengthFunction()));
-        program.declareFunction(new AbstractMethodDeclaration(new SizeOfObjectFunction()));
-        program.declareFunction(new AbstractMethodDeclaration(new SizeOfArrayFunction()));
-        program.declareFunction(new AbstractMethodDeclaration(new ExitFunction()));
-        program.declareFunction(new AbstractMethodDeclaration(new ExitNoneFunction()));
-        program.declareFunction(new AbstractMethodDeclaration(new HighFunction()));
-        program.declareFunction(new AbstractMethodDeclaration(new LowFunction()));
-        program.declareFunction(new AbstractMethodDeclaration(new NewFunction()));
-        program.declareFunction(new AbstractMethodDeclaration(new CopyFunction()));
-
-        program.declareFunction(new AbstractMethodDeclaration(new CastObjectFunction()));
-        program.declareFunction(new AbstractMethodDeclaration(new NewInstanceParamsObject()));
-        program.declareFunction(new AbstractMethodDeclaration(new NewInstanceObject()));
-        program.declareFunction(new AbstractMethodDeclaration(new AddressFunction()));
-        program.declareFunction(new AbstractMethodDeclaration(new AssignedPointerFunction()));
-
-        //io region
-        program.declareFunction(new AbstractMethodDeclaration(new ReadFileFunction()));
-        program.declareFunction(new AbstractMethodDeclaration(new ReadlnFileFunction()));
-        program.declareFunction(new AbstractMethodDeclaration(new ReadLineFunction()));
-        program.declareFunction(new AbstractMethodDeclaration(new ReadFunction()));
-
-        program.declareFunction(new AbstractMethodDeclaration(new WriteFileFunction()));
-        program.declareFunction(new AbstractMethodDeclaration(new WritelnFileFunction()));
-        program.declareFunction(new AbstractMethodDeclaration(new WriteLineFunction()));
-        program.declareFunction(new AbstractMethodDeclaration(new WriteFunction()));
-        //end region
-
-        program.declareConst(new ConstantDefinition("null", new JavaClassBasedType(null), NullValue.get(), null));
-        program.declareConst(new ConstantDefinition("nil", new PointerType(null), NullValue.get(), null));
-
-        program.declareConst(new ConstantDefinition("maxint", BasicType.Integer, Integer.MAX_VALUE, null));
-        program.declareConst(new ConstantDefinition("maxlongint", BasicType.Long, Long.MAX_VALUE, null));
-
-        program.declareConst(new ConstantDefinition("pi", BasicType.Double, Math.PI, null));
-
-        addMethodFromClass(SystemLibrary.class, new LineInfo(-1, "system"));
+    public void loadSystemLibrary() {
+        SystemSymbolTable table = SystemSymbolTable.getInstance();
+        for (AbstractFunction function : table.getFunctions()) {
+            program.declareFunction(function);
+        }
+        for (ConstantDefinition constant : table.getConstants()) {
+            program.declareConst(constant);
+        }
     }
 
     public void addMethodFromLibrary(@NonNull Object o, LineInfo line) throws PermissionDeniedException {
@@ -275,21 +169,15 @@ public class PascalLibraryManager {
         ((PascalLibrary) o).declareFunctions(program);
         ((PascalLibrary) o).declareTypes(program);
         ((PascalLibrary) o).declareVariables(program);
-        for (Method method : o.getClass().getDeclaredMethods()) {
-            if (AndroidLibraryUtils.getSdkVersion() >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
-                if (method.isAnnotationPresent(PascalMethod.class)) {
-                    PascalMethod annotation = method.getAnnotation(PascalMethod.class);
-                    String description = annotation.description();
-                    MethodDeclaration methodDeclaration = new MethodDeclaration(o, method, description);
-                    program.declareFunction(methodDeclaration);
-                }
-            } else {
-                if (Modifier.isPublic(method.getModifiers())) {
-                    MethodDeclaration methodDeclaration = new MethodDeclaration(o, method);
-                    program.declareFunction(methodDeclaration);
-                }
-            }
+        for (MethodDeclaration declaration : LibraryRegistry.get(o.getClass()).newDeclarations(o)) {
+            program.declareFunction(declaration);
         }
     }
 
+    private AndroidLibraryManager getFacadeManager() {
+        if (facadeManager == null) {
+            facadeManager = new AndroidLibraryManager(AndroidLibraryUtils.getSdkVersion(), handler);
+        }
+        return facadeManager;
+    }
 }
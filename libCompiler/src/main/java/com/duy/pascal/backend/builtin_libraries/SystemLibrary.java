@@ -41,6 +41,10 @@ import java.util.Random;
  */
 public class SystemLibrary implements PascalLibrary {
 
+    /**
+     * every run has its own instance, see
+     * {@link com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit#getSystemLibrary()}
+     */
     private Random random = new Random();
 
 
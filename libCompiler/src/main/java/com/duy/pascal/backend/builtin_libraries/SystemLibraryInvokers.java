@@ -0,0 +1,239 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.builtin_libraries;
+
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.backend.ast.runtime_value.references.PascalReference;
+import com.duy.pascal.backend.declaration.lang.function.MethodInvoker;
+import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+
+/**
+ * Direct invokers for the routines of {@link SystemLibrary} which are called in inner
+ * loops, they call the method without going through reflection
+ */
+public class SystemLibraryInvokers {
+    private static final HashMap<String, MethodInvoker> INVOKERS = new HashMap<>();
+
+    static {
+        put("abs(int)", new Unary() {
+            @Override
+            Object apply(SystemLibrary lib, Object a) {
+                return lib.abs(((Number) a).intValue());
+            }
+        });
+        put("abs(long)", new Unary() {
+            @Override
+            Object apply(SystemLibrary lib, Object a) {
+                return lib.abs(((Number) a).longValue());
+            }
+        });
+        put("abs(double)", new Unary() {
+            @Override
+            Object apply(SystemLibrary lib, Object a) {
+                return lib.abs(((Number) a).doubleValue());
+            }
+        });
+        put("sqr(int)", new Unary() {
+            @Override
+            Object apply(SystemLibrary lib, Object a) {
+                return lib.sqr(((Number) a).intValue());
+            }
+        });
+        put("sqr(long)", new Unary() {
+            @Override
+            Object apply(SystemLibrary lib, Object a) {
+                return lib.sqr(((Number) a).longValue());
+            }
+        });
+        put("sqr(double)", new Unary() {
+            @Override
+            Object apply(SystemLibrary lib, Object a) {
+                return lib.sqr(((Number) a).doubleValue());
+            }
+        });
+        put("sqrt(double)", new Unary() {
+            @Override
+            Object apply(SystemLibrary lib, Object a) throws RuntimePascalException {
+                return lib.sqrt(((Number) a).doubleValue());
+            }
+        });
+        put("sin(double)", new Unary() {
+            @Override
+            Object apply(SystemLibrary lib, Object a) {
+                return lib.sin(((Number) a).doubleValue());
+            }
+        });
+        put("cos(double)", new Unary() {
+            @Override
+            Object apply(SystemLibrary lib, Object a) {
+                return lib.cos(((Number) a).doubleValue());
+            }
+        });
+        put("trunc(double)", new Unary() {
+            @Override
+            Object apply(SystemLibrary lib, Object a) {
+                return lib.trunc(((Number) a).doubleValue());
+            }
+        });
+        put("round(double)", new Unary() {
+            @Override
+            Object apply(SystemLibrary lib, Object a) {
+                return lib.round(((Number) a).doubleValue());
+            }
+        });
+        put("odd(int)", new Unary() {
+            @Override
+            Object apply(SystemLibrary lib, Object a) {
+                return lib.odd(((Number) a).intValue());
+            }
+        });
+        put("odd(long)", new Unary() {
+            @Override
+            Object apply(SystemLibrary lib, Object a) {
+                return lib.odd(((Number) a).longValue());
+            }
+        });
+        put("pred(int)", new Unary() {
+            @Override
+            Object apply(SystemLibrary lib, Object a) {
+                return lib.pred(((Number) a).intValue());
+            }
+        });
+        put("succ(int)", new Unary() {
+            @Override
+            Object apply(SystemLibrary lib, Object a) {
+                return lib.succ(((Number) a).intValue());
+            }
+        });
+        put("chr(int)", new Unary() {
+            @Override
+            Object apply(SystemLibrary lib, Object a) {
+                return lib.chr(((Number) a).intValue());
+            }
+        });
+        put("ord(char)", new Unary() {
+            @Override
+            Object apply(SystemLibrary lib, Object a) {
+                return lib.ord((Character) a);
+            }
+        });
+        put("inc(PascalReference)", new Unary() {
+            @Override
+            @SuppressWarnings("unchecked")
+            Object apply(SystemLibrary lib, Object a) throws RuntimePascalException {
+                lib.inc((PascalReference<Object>) a);
+                return null;
+            }
+        });
+        put("dec(PascalReference)", new Unary() {
+            @Override
+            @SuppressWarnings("unchecked")
+            Object apply(SystemLibrary lib, Object a) throws RuntimePascalException {
+                lib.dec((PascalReference<Object>) a);
+                return null;
+            }
+        });
+        put("inc(PascalReference,Object)", new Binary() {
+            @Override
+            @SuppressWarnings("unchecked")
+            Object apply(SystemLibrary lib, Object a, Object b) throws RuntimePascalException {
+                lib.inc((PascalReference<Object>) a, b);
+                return null;
+            }
+        });
+        put("dec(PascalReference,Object)", new Binary() {
+            @Override
+            @SuppressWarnings("unchecked")
+            Object apply(SystemLibrary lib, Object a, Object b) throws RuntimePascalException {
+                lib.dec((PascalReference<Object>) a, b);
+                return null;
+            }
+        });
+    }
+
+    private static void put(String signature, MethodInvoker invoker) {
+        INVOKERS.put(signature, invoker);
+    }
+
+    /**
+     * @return the direct invoker of a method declared in {@link SystemLibrary},
+     * null if the method has none
+     */
+    @Nullable
+    public static MethodInvoker find(Method method) {
+        if (method.getDeclaringClass() != SystemLibrary.class) {
+            return null;
+        }
+        StringBuilder signature = new StringBuilder(method.getName()).append('(');
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) signature.append(',');
+            signature.append(parameterTypes[i].getSimpleName());
+        }
+        signature.append(')');
+        return INVOKERS.get(signature.toString());
+    }
+
+    private static abstract class Unary extends MethodInvoker {
+        abstract Object apply(SystemLibrary lib, Object a) throws RuntimePascalException;
+
+        @Override
+        public Object invoke(Object owner, Object[] arguments)
+                throws IllegalAccessException, InvocationTargetException {
+            if (arguments.length != 1) {
+                throw new IllegalArgumentException("wrong number of arguments");
+            }
+            return invoke1(owner, arguments[0]);
+        }
+
+        @Override
+        public Object invoke1(Object owner, Object a0) throws InvocationTargetException {
+            try {
+                return apply((SystemLibrary) owner, a0);
+            } catch (RuntimePascalException | RuntimeException e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+    }
+
+    private static abstract class Binary extends MethodInvoker {
+        abstract Object apply(SystemLibrary lib, Object a, Object b) throws RuntimePascalException;
+
+        @Override
+        public Object invoke(Object owner, Object[] arguments)
+                throws IllegalAccessException, InvocationTargetException {
+            if (arguments.length != 2) {
+                throw new IllegalArgumentException("wrong number of arguments");
+            }
+            return invoke2(owner, arguments[0], arguments[1]);
+        }
+
+        @Override
+        public Object invoke2(Object owner, Object a0, Object a1) throws InvocationTargetException {
+            try {
+                return apply((SystemLibrary) owner, a0, a1);
+            } catch (RuntimePascalException | RuntimeException e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+    }
+}
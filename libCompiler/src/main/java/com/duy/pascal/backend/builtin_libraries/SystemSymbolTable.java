@@ -0,0 +1,157 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.builtin_libraries;
+
+import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
+import com.duy.pascal.backend.ast.runtime_value.value.NullValue;
+import com.duy.pascal.backend.builtin_libraries.file.FileLib;
+import com.duy.pascal.backend.builtin_libraries.io.IOLib;
+import com.duy.pascal.backend.declaration.lang.function.AbstractFunction;
+import com.duy.pascal.backend.declaration.lang.function.MethodDeclaration;
+import com.duy.pascal.backend.declaration.lang.types.BasicType;
+import com.duy.pascal.backend.declaration.lang.types.JavaClassBasedType;
+import com.duy.pascal.backend.declaration.lang.types.PointerType;
+import com.duy.pascal.backend.declaration.lang.value.ConstantDefinition;
+import com.duy.pascal.backend.system_function.builtin.AbstractMethodDeclaration;
+import com.duy.pascal.backend.system_function.builtin.AddressFunction;
+import com.duy.pascal.backend.system_function.builtin.AssignedPointerFunction;
+import com.duy.pascal.backend.system_function.builtin.CastObjectFunction;
+import com.duy.pascal.backend.system_function.builtin.CopyFunction;
+import com.duy.pascal.backend.system_function.builtin.ExitFunction;
+import com.duy.pascal.backend.system_function.builtin.ExitNoneFunction;
+import com.duy.pascal.backend.system_function.builtin.HighFunction;
+import com.duy.pascal.backend.system_function.builtin.LengthFunction;
+import com.duy.pascal.backend.system_function.builtin.LowFunction;
+import com.duy.pascal.backend.system_function.builtin.NewFunction;
+import com.duy.pascal.backend.system_function.builtin.NewInstanceObject;
+import com.duy.pascal.backend.system_function.builtin.NewInstanceParamsObject;
+import com.duy.pascal.backend.system_function.builtin.SetLengthFunction;
+import com.duy.pascal.backend.system_function.builtin.SizeOfArrayFunction;
+import com.duy.pascal.backend.system_function.builtin.SizeOfObjectFunction;
+import com.duy.pascal.backend.system_function.io.ReadFileFunction;
+import com.duy.pascal.backend.system_function.io.ReadFunction;
+import com.duy.pascal.backend.system_function.io.ReadLineFunction;
+import com.duy.pascal.backend.system_function.io.ReadlnFileFunction;
+import com.duy.pascal.backend.system_function.io.WriteFileFunction;
+import com.duy.pascal.backend.system_function.io.WriteFunction;
+import com.duy.pascal.backend.system_function.io.WriteLineFunction;
+import com.duy.pascal.backend.system_function.io.WritelnFileFunction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Functions and constants of the system unit, built once per process and shared by the
+ * context of every program.
+ * <p>
+ * Nothing in the table holds state of a program: the builtin functions keep what they
+ * learn about a call in the call itself, and the methods of {@link SystemLibrary},
+ * {@link FileLib} and {@link IOLib} are called on the instances of the running program,
+ * which every run creates on first use.
+ */
+public class SystemSymbolTable {
+    private final List<AbstractFunction> functions;
+    private final List<ConstantDefinition> constants;
+
+    private SystemSymbolTable() {
+        ArrayList<AbstractFunction> functions = new ArrayList<>();
+        functions.add(new AbstractMethodDeclaration(new SetLengthFunction()));
+        functions.add(new AbstractMethodDeclaration(new LengthFunction()));
+        functions.add(new AbstractMethodDeclaration(new SizeOfObjectFunction()));
+        functions.add(new AbstractMethodDeclaration(new SizeOfArrayFunction()));
+        functions.add(new AbstractMethodDeclaration(new ExitFunction()));
+        functions.add(new AbstractMethodDeclaration(new ExitNoneFunction()));
+        functions.add(new AbstractMethodDeclaration(new HighFunction()));
+        functions.add(new AbstractMethodDeclaration(new LowFunction()));
+        functions.add(new AbstractMethodDeclaration(new NewFunction()));
+        functions.add(new AbstractMethodDeclaration(new CopyFunction()));
+
+        functions.add(new AbstractMethodDeclaration(new CastObjectFunction()));
+        functions.add(new AbstractMethodDeclaration(new NewInstanceParamsObject()));
+        functions.add(new AbstractMethodDeclaration(new NewInstanceObject()));
+        functions.add(new AbstractMethodDeclaration(new AddressFunction()));
+        functions.add(new AbstractMethodDeclaration(new AssignedPointerFunction()));
+
+        //io region
+        functions.add(new AbstractMethodDeclaration(new ReadFileFunction()));
+        functions.add(new AbstractMethodDeclaration(new ReadlnFileFunction()));
+        functions.add(new AbstractMethodDeclaration(new ReadLineFunction()));
+        functions.add(new AbstractMethodDeclaration(new ReadFunction()));
+
+        functions.add(new AbstractMethodDeclaration(new WriteFileFunction()));
+        functions.add(new AbstractMethodDeclaration(new WritelnFileFunction()));
+        functions.add(new AbstractMethodDeclaration(new WriteLineFunction()));
+        functions.add(new AbstractMethodDeclaration(new WriteFunction()));
+        //end region
+
+        functions.addAll(LibraryRegistry.get(SystemLibrary.class).newDeclarations(new SystemLibraryResolver()));
+        functions.addAll(LibraryRegistry.get(FileLib.class).newDeclarations(new FileLibResolver()));
+        functions.addAll(LibraryRegistry.get(IOLib.class).newDeclarations(new IOLibResolver()));
+        this.functions = Collections.unmodifiableList(functions);
+
+        ArrayList<ConstantDefinition> constants = new ArrayList<>();
+        constants.add(new ConstantDefinition("null", new JavaClassBasedType(null), NullValue.get(), null));
+        constants.add(new ConstantDefinition("nil", new PointerType(null), NullValue.get(), null));
+
+        constants.add(new ConstantDefinition("maxint", BasicType.Integer, Integer.MAX_VALUE, null));
+        constants.add(new ConstantDefinition("maxlongint", BasicType.Long, Long.MAX_VALUE, null));
+
+        constants.add(new ConstantDefinition("pi", BasicType.Double, Math.PI, null));
+        this.constants = Collections.unmodifiableList(constants);
+    }
+
+    public static SystemSymbolTable getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public List<AbstractFunction> getFunctions() {
+        return functions;
+    }
+
+    public List<ConstantDefinition> getConstants() {
+        return constants;
+    }
+
+    /**
+     * Initialization on demand, the table is built by the first compile
+     */
+    private static class Holder {
+        static final SystemSymbolTable INSTANCE = new SystemSymbolTable();
+    }
+
+    private static class SystemLibraryResolver implements MethodDeclaration.OwnerResolver {
+        @Override
+        public Object resolve(RuntimeExecutableCodeUnit<?> main) {
+            return main.getSystemLibrary();
+        }
+    }
+
+    private static class FileLibResolver implements MethodDeclaration.OwnerResolver {
+        @Override
+        public Object resolve(RuntimeExecutableCodeUnit<?> main) {
+            return main.getFileHandler();
+        }
+    }
+
+    private static class IOLibResolver implements MethodDeclaration.OwnerResolver {
+        @Override
+        public Object resolve(RuntimeExecutableCodeUnit<?> main) {
+            return main.getIOHandler();
+        }
+    }
+}
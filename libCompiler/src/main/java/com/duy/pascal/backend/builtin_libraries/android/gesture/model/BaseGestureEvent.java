@@ -17,6 +17,11 @@
 package com.duy.pascal.backend.builtin_libraries.android.gesture.model;
 
 import com.duy.pascal.backend.ast.runtime_value.value.RecordValue;
+import com.duy.pascal.backend.declaration.lang.types.BasicType;
+import com.duy.pascal.backend.declaration.lang.value.VariableDeclaration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Created by Duy on 15-Jun-17.
@@ -24,7 +29,15 @@ import com.duy.pascal.backend.ast.runtime_value.value.RecordValue;
 
 public abstract class BaseGestureEvent extends RecordValue {
 
-    public BaseGestureEvent(GestureType type) {
-        variableMap.put("type", type.intValue());
+    public BaseGestureEvent(GestureType type, VariableDeclaration... fields) {
+        super(fields(type, fields));
+    }
+
+    private static ArrayList<VariableDeclaration> fields(GestureType type,
+                                                         VariableDeclaration... fields) {
+        ArrayList<VariableDeclaration> result = new ArrayList<>();
+        result.add(new VariableDeclaration("type", BasicType.Integer, type.intValue(), null));
+        result.addAll(Arrays.asList(fields));
+        return result;
     }
 }
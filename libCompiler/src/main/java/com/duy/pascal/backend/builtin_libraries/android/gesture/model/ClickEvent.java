@@ -16,6 +16,9 @@
 
 package com.duy.pascal.backend.builtin_libraries.android.gesture.model;
 
+import com.duy.pascal.backend.declaration.lang.types.BasicType;
+import com.duy.pascal.backend.declaration.lang.value.VariableDeclaration;
+
 /**
  * Created by Duy on 15-Jun-17.
  */
@@ -23,8 +26,8 @@ package com.duy.pascal.backend.builtin_libraries.android.gesture.model;
 public class ClickEvent extends BaseGestureEvent {
 
     public ClickEvent(Integer x, Integer y) {
-        super(GestureType.CLICK);
-        variableMap.put("x", x);
-        variableMap.put("y", y);
+        super(GestureType.CLICK,
+                new VariableDeclaration("x", BasicType.Integer, x, null),
+                new VariableDeclaration("y", BasicType.Integer, y, null));
     }
 }
@@ -25,6 +25,8 @@ import com.duy.pascal.backend.builtin_libraries.android.media.AndroidToneGenerat
 import com.duy.pascal.backend.builtin_libraries.annotations.PascalMethod;
 import com.duy.pascal.backend.linenumber.LineInfo;
 import com.duy.pascal.backend.runtime_exception.WrongArgsException;
+import com.duy.pascal.backend.tokenizer.Symbol;
+import com.duy.pascal.backend.tokenizer.SymbolTable;
 import com.duy.pascal.frontend.activities.ConsoleHandler;
 import com.duy.pascal.frontend.view.exec_screen.console.ConsoleCursor;
 import com.duy.pascal.frontend.view.exec_screen.console.ConsoleScreen;
@@ -108,48 +110,48 @@ public class CrtLib implements PascalLibrary {
 
     @Override
     public void declareConstants(ExpressionContextMixin parentContext) {
-        Map<String, ConstantDefinition> constants = parentContext.getConstants();
+        Map<Symbol, ConstantDefinition> constants = parentContext.getConstants();
         ConstantDefinition colorConst;
         colorConst = new ConstantDefinition("black".toLowerCase(), 0, new LineInfo(-1, "black = 0".toLowerCase()));
-        constants.put(colorConst.getName(), colorConst);
+        constants.put(SymbolTable.intern(colorConst.getName()), colorConst);
         colorConst = new ConstantDefinition("Blue".toLowerCase(), 1, new LineInfo(-1, "Blue = 1".toLowerCase()));
-        constants.put(colorConst.getName(), colorConst);
+        constants.put(SymbolTable.intern(colorConst.getName()), colorConst);
         colorConst = new ConstantDefinition("Green".toLowerCase(), 2, new LineInfo(-1, "Green = 2".toLowerCase()));
-        constants.put(colorConst.getName(), colorConst);
+        constants.put(SymbolTable.intern(colorConst.getName()), colorConst);
         colorConst = new ConstantDefinition("Cyan".toLowerCase(), 3, new LineInfo(-1, "Cyan = 3".toLowerCase()));
-        constants.put(colorConst.getName(), colorConst);
+        constants.put(SymbolTable.intern(colorConst.getName()), colorConst);
         colorConst = new ConstantDefinition("Red".toLowerCase(), 4, new LineInfo(-1, "Red = 4".toLowerCase()));
-        constants.put(colorConst.getName(), colorConst);
+        constants.put(SymbolTable.intern(colorConst.getName()), colorConst);
         colorConst = new ConstantDefinition("Magenta".toLowerCase(), 5, new LineInfo(-1, "Magenta = 5".toLowerCase()));
-        constants.put(colorConst.getName(), colorConst);
+        constants.put(SymbolTable.intern(colorConst.getName()), colorConst);
         colorConst = new ConstantDefinition("Brown".toLowerCase(), 6, new LineInfo(-1, "Brown = 6".toLowerCase()));
-        constants.put(colorConst.getName(), colorConst);
+        constants.put(SymbolTable.intern(colorConst.getName()), colorConst);
         colorConst = new ConstantDefinition("LightGray".toLowerCase(), 7, new LineInfo(-1, "LightGray  = 7".toLowerCase()));
-        constants.put(colorConst.getName(), colorConst);
+        constants.put(SymbolTable.intern(colorConst.getName()), colorConst);
         colorConst = new ConstantDefinition("DarkGray".toLowerCase(), 8, new LineInfo(-1, "DarkGray = 8".toLowerCase()));
-        constants.put(colorConst.getName(), colorConst);
+        constants.put(SymbolTable.intern(colorConst.getName()), colorConst);
         colorConst = new ConstantDefinition("LightBlue".toLowerCase(), 9, new LineInfo(-1, "LightBlue = 9".toLowerCase()));
-        constants.put(colorConst.getName(), colorConst);
+        constants.put(SymbolTable.intern(colorConst.getName()), colorConst);
         colorConst = new ConstantDefinition("LightGreen".toLowerCase(), 10, new LineInfo(-1, "LightGreen = 10".toLowerCase()));
-        constants.put(colorConst.getName(), colorConst);
+        constants.put(SymbolTable.intern(colorConst.getName()), colorConst);
         colorConst = new ConstantDefinition("LightCyan".toLowerCase(), 11, new LineInfo(-1, "LightCyan = 11".toLowerCase()));
-        constants.put(colorConst.getName(), colorConst);
+        constants.put(SymbolTable.intern(colorConst.getName()), colorConst);
         colorConst = new ConstantDefinition("LightRed".toLowerCase(), 12, new LineInfo(-1, "LightRed = 12".toLowerCase()));
-        constants.put(colorConst.getName(), colorConst);
+        constants.put(SymbolTable.intern(colorConst.getName()), colorConst);
         colorConst = new ConstantDefinition("LightMagenta".toLowerCase(), 13, new LineInfo(-1, "LightMagenta = 13".toLowerCase()));
-        constants.put(colorConst.getName(), colorConst);
+        constants.put(SymbolTable.intern(colorConst.getName()), colorConst);
         colorConst = new ConstantDefinition("Yellow".toLowerCase(), 14, new LineInfo(-1, " Yellow = 14".toLowerCase()));
-        constants.put(colorConst.getName(), colorConst);
+        constants.put(SymbolTable.intern(colorConst.getName()), colorConst);
         colorConst = new ConstantDefinition("White".toLowerCase(), 15, new LineInfo(-1, "White = 15".toLowerCase()));
-        constants.put(colorConst.getName(), colorConst);
-
-        constants.put("pi", new ConstantDefinition("pi", Math.PI));
-        constants.put("bw40", new ConstantDefinition("bw40", 0));
-        constants.put("bw80", new ConstantDefinition("bw80", 2));
-        constants.put("co40", new ConstantDefinition("co40", 1));
-        constants.put("co80", new ConstantDefinition("co80", 3));
-        constants.put("c80", new ConstantDefinition("c80", 3));
-        constants.put("mono", new ConstantDefinition("mono", 7));
+        constants.put(SymbolTable.intern(colorConst.getName()), colorConst);
+
+        constants.put(SymbolTable.intern("pi"), new ConstantDefinition("pi", Math.PI));
+        constants.put(SymbolTable.intern("bw40"), new ConstantDefinition("bw40", 0));
+        constants.put(SymbolTable.intern("bw80"), new ConstantDefinition("bw80", 2));
+        constants.put(SymbolTable.intern("co40"), new ConstantDefinition("co40", 1));
+        constants.put(SymbolTable.intern("co80"), new ConstantDefinition("co80", 3));
+        constants.put(SymbolTable.intern("c80"), new ConstantDefinition("c80", 3));
+        constants.put(SymbolTable.intern("mono"), new ConstantDefinition("mono", 7));
     }
 
     @Override
@@ -36,8 +36,8 @@ import com.duy.pascal.frontend.DLog;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class FileLib implements PascalLibrary {
@@ -263,11 +263,11 @@ public class FileLib implements PascalLibrary {
 
         } else if (c == RecordValue.class) {
             RecordValue record = (RecordValue) o;
-            ArrayList<VariableDeclaration> variables = record.getVariables();
-            for (VariableDeclaration variable : variables) {
-                Object v = getValueForVariable(zfile, variable.getType().getStorageClass(),
-                        record.getVar(variable.getName()));
-                record.setVar(variable.getName(), v);
+            List<VariableDeclaration> variables = record.getVariables();
+            for (int i = 0; i < variables.size(); i++) {
+                Object v = getValueForVariable(zfile, variables.get(i).getType().getStorageClass(),
+                        record.getField(i));
+                record.setField(i, v);
             }
             return record;
         } else {
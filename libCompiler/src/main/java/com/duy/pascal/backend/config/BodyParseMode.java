@@ -0,0 +1,39 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.config;
+
+/**
+ * When the statements of procedures and functions are parsed, chosen when the program is loaded.
+ * Headers and declarations are always parsed in order, a body only needs the declarations that
+ * come before it
+ */
+public enum BodyParseMode {
+    /**
+     * Each body is parsed as soon as it is read
+     */
+    EAGER,
+    /**
+     * A body is parsed the first time its function is called, errors in bodies that are never
+     * called are not reported
+     */
+    LAZY,
+    /**
+     * The bodies are parsed on several threads, at the latest before a later declaration of a
+     * name they use. The first error in source order is reported
+     */
+    PARALLEL
+}
@@ -0,0 +1,42 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.config;
+
+/**
+ * How the procedures and functions of a program are interpreted, chosen per program with
+ * {@link ProgramConfig#setBackend(ExecutionBackend)} or {$BACKEND TREE}, {$BACKEND LINEAR} and
+ * {$BACKEND STACKLESS}
+ */
+public enum ExecutionBackend {
+    /**
+     * Each node of the tree executes its children
+     */
+    TREE,
+    /**
+     * A routine is lowered to a linear array of instructions over typed registers, run by a
+     * single dispatch loop, see {@link com.duy.pascal.backend.linear.LinearRoutine}. Routines
+     * which can not be lowered are run by the tree
+     */
+    LINEAR,
+    /**
+     * As {@link #LINEAR}, but a call between lowered routines pushes a frame on a stack kept
+     * in the heap instead of nesting java calls. The depth of the recursion is bounded by
+     * {@link ProgramConfig#getStackBudget()} and not by the stack of the thread. Routines are
+     * not compiled to bytecode, whose calls use the stack of the thread
+     */
+    STACKLESS
+}
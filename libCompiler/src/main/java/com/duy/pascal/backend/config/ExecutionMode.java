@@ -0,0 +1,38 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.config;
+
+/**
+ * Whether the debugger may be enabled in a run, chosen when the run is generated.
+ * <p>
+ * Both modes execute the same tree, the nodes keep their debug hooks. The mode only fixes
+ * {@link com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit#isDebug()}, so a hook
+ * costs a read of a final field in a release run instead of a read of the volatile debug flag.
+ * A release run may also use the linear and compiled routines, which have no hooks
+ */
+public enum ExecutionMode {
+    /**
+     * No debugger support, {@link com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit#isDebug()}
+     * is always false so every debug hook is skipped
+     */
+    RELEASE,
+    /**
+     * Debug hooks are active while debugging is enabled, used by the debug screen. Routines
+     * are always run by the tree
+     */
+    INSTRUMENTED
+}
@@ -0,0 +1,56 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.config;
+
+/**
+ * Passes run over the statements of a program once it is parsed, before any run of it is
+ * generated, in the order they are declared here
+ */
+public enum Optimization {
+    /**
+     * Replaces calls of small procedures and functions which do not call other routines
+     * with a copy of their body, see {@link ProgramConfig#isInline()}
+     */
+    INLINING,
+    /**
+     * Replaces constant expressions and reads of scalar global variables that are never
+     * assigned with their value
+     */
+    CONSTANT_PROPAGATION,
+    /**
+     * Drops the branches of if, while and case statements that can never be taken
+     */
+    DEAD_BRANCH_ELIMINATION,
+    /**
+     * Removes empty blocks and merges nested blocks into the enclosing one
+     */
+    EMPTY_BLOCK_REMOVAL,
+    /**
+     * Computes arithmetic that gives the same value in every iteration of a for or while
+     * loop once before the loop
+     */
+    LOOP_INVARIANT_HOISTING,
+    /**
+     * Replaces multiplication and division of integers by a power of two with shifts
+     */
+    STRENGTH_REDUCTION,
+    /**
+     * Runs the calls of a procedure or function to itself in tail position by restarting
+     * the body with the new arguments, so such a recursion uses constant stack
+     */
+    TAIL_CALL_ELIMINATION
+}
@@ -16,22 +16,55 @@
 
 package com.duy.pascal.backend.config;
 
+import java.util.EnumSet;
+
 /**
  * Created by Duy on 14-Jun-17.
  */
 
 public class ProgramConfig {
     private static final String MODE = "$MODE";
+    private static final String INLINE = "$INLINE";
+    private static final String JIT = "$JIT";
+    private static final String BACKEND = "$BACKEND";
+    private static final String STACK_BUDGET = "$STACKBUDGET";
+    private static final String OPTIMIZATION = "$OPTIMIZATION";
     private boolean library;
     private byte mode = ProgramMode.FPC;
+    private BodyParseMode bodyParseMode = BodyParseMode.EAGER;
+    /**
+     * passes run once the program is parsed. Inlining and loop invariant hoisting declare
+     * hidden variables in the program, they are only run when asked for with {$INLINE ON}
+     * and {$OPTIMIZATION HOIST}. {$OPTIMIZATION OFF} runs no pass
+     */
+    private EnumSet<Optimization> optimizations = defaultOptimizations();
+    /**
+     * true if the procedures and functions declared from here on may be inlined,
+     * changed by {$INLINE ON} and {$INLINE OFF}. {$INLINE ON} also enables
+     * {@link Optimization#INLINING}
+     */
+    private boolean inline = true;
+    /**
+     * true if hot procedures and functions are compiled to JVM bytecode, changed by
+     * {$JIT ON} and {$JIT OFF}. Dalvik can not load JVM class files
+     */
+    private boolean jit = !System.getProperty("java.vm.name", "").contains("Dalvik");
+    private ExecutionBackend backend = ExecutionBackend.TREE;
+    /**
+     * bytes of heap the frames of {@link ExecutionBackend#STACKLESS} may take, changed by
+     * {$STACKBUDGET n}
+     */
+    private long stackBudget = Runtime.getRuntime().maxMemory() / 2;
 
     public ProgramConfig() {
     }
 
     public void process(String[] command) {
         if (command.length == 2) {
-            if (command[0].equals(MODE)) {
-                switch (command[2]) {
+            String name = command[0].toUpperCase();
+            String value = command[1].toUpperCase();
+            if (name.equals(MODE)) {
+                switch (value) {
                     case "DELPHI":
                         setMode(ProgramMode.DELPHI);
                         break;
@@ -42,6 +75,63 @@ public class ProgramConfig {
                         setMode(ProgramMode.ANDROID);
                         break;
                 }
+            } else if (name.equals(INLINE)) {
+                switch (value) {
+                    case "ON":
+                    case "+":
+                        setInline(true);
+                        optimizations.add(Optimization.INLINING);
+                        break;
+                    case "OFF":
+                    case "-":
+                        setInline(false);
+                        break;
+                }
+            } else if (name.equals(JIT)) {
+                switch (value) {
+                    case "ON":
+                    case "+":
+                        setJit(true);
+                        break;
+                    case "OFF":
+                    case "-":
+                        setJit(false);
+                        break;
+                }
+            } else if (name.equals(BACKEND)) {
+                switch (value) {
+                    case "TREE":
+                        setBackend(ExecutionBackend.TREE);
+                        break;
+                    case "LINEAR":
+                        setBackend(ExecutionBackend.LINEAR);
+                        break;
+                    case "STACKLESS":
+                        setBackend(ExecutionBackend.STACKLESS);
+                        break;
+                }
+            } else if (name.equals(OPTIMIZATION)) {
+                switch (value) {
+                    case "ON":
+                    case "+":
+                        optimizations.addAll(defaultOptimizations());
+                        break;
+                    case "OFF":
+                    case "-":
+                        optimizations.clear();
+                        break;
+                    case "HOIST":
+                        optimizations.add(Optimization.LOOP_INVARIANT_HOISTING);
+                        break;
+                    case "INLINE":
+                        optimizations.add(Optimization.INLINING);
+                        break;
+                }
+            } else if (name.equals(STACK_BUDGET)) {
+                try {
+                    setStackBudget(Long.parseLong(value));
+                } catch (NumberFormatException ignored) {
+                }
             }
         }
     }
@@ -54,6 +144,63 @@ public class ProgramConfig {
         this.mode = mode;
     }
 
+    public BodyParseMode getBodyParseMode() {
+        return bodyParseMode;
+    }
+
+    public void setBodyParseMode(BodyParseMode bodyParseMode) {
+        this.bodyParseMode = bodyParseMode;
+    }
+
+    public EnumSet<Optimization> getOptimizations() {
+        return optimizations;
+    }
+
+    public void setOptimizations(EnumSet<Optimization> optimizations) {
+        this.optimizations = EnumSet.copyOf(optimizations);
+    }
+
+    /**
+     * @return the passes run when the program asks for none with a directive
+     */
+    public static EnumSet<Optimization> defaultOptimizations() {
+        return EnumSet.of(Optimization.CONSTANT_PROPAGATION,
+                Optimization.DEAD_BRANCH_ELIMINATION, Optimization.EMPTY_BLOCK_REMOVAL,
+                Optimization.STRENGTH_REDUCTION, Optimization.TAIL_CALL_ELIMINATION);
+    }
+
+    public boolean isInline() {
+        return inline;
+    }
+
+    public void setInline(boolean inline) {
+        this.inline = inline;
+    }
+
+    public boolean isJit() {
+        return jit;
+    }
+
+    public void setJit(boolean jit) {
+        this.jit = jit;
+    }
+
+    public ExecutionBackend getBackend() {
+        return backend;
+    }
+
+    public void setBackend(ExecutionBackend backend) {
+        this.backend = backend;
+    }
+
+    public long getStackBudget() {
+        return stackBudget;
+    }
+
+    public void setStackBudget(long stackBudget) {
+        this.stackBudget = stackBudget;
+    }
+
     public boolean isLibrary() {
         return library;
     }
@@ -0,0 +1,448 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.core;
+
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.backend.config.BodyParseMode;
+import com.duy.pascal.backend.config.Optimization;
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.backend.parse_exception.ParsingException;
+import com.duy.pascal.backend.source_include.ScriptSource;
+import com.duy.pascal.backend.tokenizer.NewLexer;
+import com.duy.pascal.backend.tokens.EOFToken;
+import com.duy.pascal.backend.tokens.Token;
+import com.duy.pascal.backend.tokens.grouping.BaseGrouperToken;
+import com.duy.pascal.backend.tokens.grouping.BeginEndToken;
+import com.duy.pascal.backend.tokens.grouping.GrouperToken;
+import com.duy.pascal.backend.tokens.ignore.GroupingExceptionToken;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Checks the same program again and again while it is edited.
+ * <p>
+ * The tokens of the last check and the bodies (begin ... end) of the top level procedures,
+ * functions and of the main program are remembered. While an edit stays inside one body and
+ * does not touch its begin or end line, only the lines of that body are lexed again, the tokens
+ * after it keep their text and move to their new lines. The bodies that compiled without error
+ * last time are replaced with empty bodies before the program is parsed, so their statements
+ * are not parsed again. The first error is reported at the same place as a full compile would
+ * report it. An edit outside of every body (a header or a declaration) forgets what is known,
+ * lexes and compiles everything.
+ * <p>
+ * The declarations and the headers are still parsed on every check, they are needed to parse
+ * the edited body.
+ */
+public class IncrementalCompiler {
+    private static final int END_LENGTH = "end".length();
+
+    private final String sourceName;
+    private final List<ScriptSource> includeDirectories;
+
+    /**
+     * lines of the source checked last time, null before the first check
+     */
+    @Nullable
+    private String[] lines;
+    /**
+     * top level tokens of the source checked last time, the clean bodies are not replaced
+     */
+    @Nullable
+    private ArrayList<Token> tokens;
+    private ArrayList<Body> bodies = new ArrayList<>();
+    @Nullable
+    private ParsingException lastError;
+
+    private int fullCompileCount;
+    private int incrementalCompileCount;
+    private int lexedLineCount;
+    private int skippedBodyCount;
+
+    public IncrementalCompiler(String sourceName, List<ScriptSource> includeDirectories) {
+        this.sourceName = sourceName;
+        this.includeDirectories = includeDirectories;
+    }
+
+    /**
+     * @return the first error of the program, null if it compiles
+     * @throws InterruptedException if the thread was interrupted, a newer source is coming
+     */
+    @Nullable
+    public synchronized ParsingException check(String source) throws InterruptedException {
+        String[] newLines = source.split("\n", -1);
+        if (lines != null && Arrays.equals(lines, newLines)) {
+            return lastError;
+        }
+        ArrayList<Token> newTokens = null;
+        if (lines != null && tokens != null) {
+            newTokens = relexEdit(lines, newLines);
+        }
+        boolean incremental = newTokens != null;
+        if (!incremental) {
+            bodies.clear();
+        }
+        checkInterrupted();
+
+        ArrayList<Body> found = new ArrayList<>();
+        ParsingException error = null;
+        try {
+            if (newTokens == null) {
+                newTokens = lex(source, newLines.length);
+            }
+            found = findBodies(newTokens);
+            checkInterrupted();
+            //only the errors are wanted, the optimizations are not run
+            PascalCompiler.loadPascal(sourceName, prepare(newTokens, found), includeDirectories,
+                    null, BodyParseMode.PARALLEL, EnumSet.noneOf(Optimization.class));
+        } catch (ParsingException e) {
+            error = e;
+        } catch (RuntimeException e) {
+            //a bug of the compiler, not an error of the program. Nothing is known to be
+            //clean, the next check compiles everything
+            error = new ParsingException(null, "Internal error: " + e);
+            found = new ArrayList<>();
+            newTokens = null;
+        }
+        if (incremental) {
+            incrementalCompileCount++;
+        } else {
+            fullCompileCount++;
+        }
+
+        updateStates(found, error);
+        lines = newLines;
+        tokens = newTokens;
+        bodies = found;
+        lastError = error;
+        return error;
+    }
+
+    /**
+     * Forget the last source, the next check compiles everything
+     */
+    public synchronized void reset() {
+        lines = null;
+        tokens = null;
+        bodies.clear();
+        lastError = null;
+    }
+
+    public synchronized int getFullCompileCount() {
+        return fullCompileCount;
+    }
+
+    public synchronized int getIncrementalCompileCount() {
+        return incrementalCompileCount;
+    }
+
+    /**
+     * @return number of source lines given to the lexer by all checks
+     */
+    public synchronized int getLexedLineCount() {
+        return lexedLineCount;
+    }
+
+    /**
+     * @return number of clean bodies that were replaced with empty bodies by all checks
+     */
+    public synchronized int getSkippedBodyCount() {
+        return skippedBodyCount;
+    }
+
+    private static void checkInterrupted() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+    /**
+     * Find the lines that were edited, lex the body containing them again and move the tokens
+     * and bodies after it to their new lines
+     *
+     * @return the top level tokens of the new source, null if the edit is not inside exactly
+     * one body and the whole program must be lexed again
+     */
+    @Nullable
+    private ArrayList<Token> relexEdit(String[] oldLines, String[] newLines) {
+        int common = Math.min(oldLines.length, newLines.length);
+        int first = 0;
+        while (first < common && oldLines[first].equals(newLines[first])) {
+            first++;
+        }
+        int suffix = 0;
+        while (suffix < common - first
+                && oldLines[oldLines.length - 1 - suffix].equals(newLines[newLines.length - 1 - suffix])) {
+            suffix++;
+        }
+        //edited lines are [first, oldLines.length - suffix) before and
+        //[first, newLines.length - suffix) after the edit
+        int oldEnd = oldLines.length - suffix;
+        int delta = newLines.length - oldLines.length;
+
+        Body edited = null;
+        for (Body body : bodies) {
+            if (body.startLine < first && body.endLine >= oldEnd) {
+                edited = body;
+                break;
+            }
+        }
+        if (edited == null) {
+            return null;
+        }
+        BeginEndToken body = lexBody(newLines, edited.startLine, edited.startColumn,
+                edited.endLine + delta, edited.endColumn);
+        if (body == null) {
+            //the edit changed where the body ends, the blocks around it are not known
+            return null;
+        }
+        ArrayList<Token> newTokens = new ArrayList<>(tokens.size());
+        boolean after = false;
+        for (Token token : tokens) {
+            if (token == edited.token) {
+                newTokens.add(body);
+                after = true;
+            } else if (after && delta != 0 && !moveLines(token, delta)) {
+                return null;
+            } else {
+                newTokens.add(token);
+            }
+        }
+        //top level bodies do not overlap, only the bodies after the edit move
+        for (Body other : bodies) {
+            if (other.startLine >= oldEnd) {
+                other.startLine += delta;
+                other.endLine += delta;
+            }
+        }
+        edited.endLine += delta;
+        edited.clean = false;
+        return newTokens;
+    }
+
+    /**
+     * Lex the lines of one body. The lines before it are given to the lexer as empty lines, so
+     * the tokens get the same line and column numbers as in the whole source
+     *
+     * @return the body, null if the text from its begin to its end is not one block
+     */
+    @Nullable
+    private BeginEndToken lexBody(String[] sourceLines, int startLine, int startColumn,
+                                  int endLine, int endColumn) {
+        if (endLine >= sourceLines.length
+                || sourceLines[endLine].length() < endColumn + END_LENGTH) {
+            return null;
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < startLine; i++) {
+            text.append('\n');
+        }
+        for (int i = 0; i < startColumn; i++) {
+            text.append(' ');
+        }
+        text.append(sourceLines[startLine].substring(startColumn));
+        for (int i = startLine + 1; i < endLine; i++) {
+            text.append('\n').append(sourceLines[i]);
+        }
+        text.append('\n').append(sourceLines[endLine].substring(0, endColumn + END_LENGTH));
+
+        ArrayList<Token> found;
+        try {
+            found = lex(text.toString(), endLine - startLine + 1);
+        } catch (ParsingException e) {
+            return null;
+        }
+        if (found.size() != 2 || !(found.get(0) instanceof BeginEndToken)
+                || !(found.get(1) instanceof EOFToken)) {
+            return null;
+        }
+        BeginEndToken body = (BeginEndToken) found.get(0);
+        LineInfo begin = body.getLineNumber();
+        LineInfo end = body.getEndLine();
+        if (end == null || begin.getLine() != startLine || begin.getColumn() != startColumn
+                || end.getLine() != endLine || end.getColumn() != endColumn) {
+            return null;
+        }
+        return body;
+    }
+
+    /**
+     * @return the top level tokens of the source
+     */
+    private ArrayList<Token> lex(String source, int lineCount) throws ParsingException {
+        lexedLineCount += lineCount;
+        NewLexer lexer = new NewLexer(new StringReader(source), sourceName, includeDirectories);
+        lexer.parse();
+        ArrayList<Token> found = new ArrayList<>();
+        for (Token token : lexer.getTokenQueue().getRemainingTokens()) {
+            found.add(token);
+        }
+        return found;
+    }
+
+    /**
+     * Move the token and its children of this source by delta lines, the tokens of included
+     * files keep their lines
+     *
+     * @return false if the token carries an error, its line can not be moved
+     */
+    private boolean moveLines(Token token, int delta) {
+        if (token instanceof GroupingExceptionToken) {
+            return false;
+        }
+        token.setLineNumber(moveLine(token.getLineNumber(), delta));
+        if (token instanceof GrouperToken) {
+            GrouperToken grouper = (GrouperToken) token;
+            grouper.reset(0);
+            if (grouper.getEndLine() != null) {
+                grouper.setEndLine(moveLine(grouper.getEndLine(), delta));
+            }
+            for (Token child : grouper.getRemainingTokens()) {
+                if (!moveLines(child, delta)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return a new line, the old one may still be held by the error of the last check
+     */
+    private LineInfo moveLine(LineInfo line, int delta) {
+        if (!sourceName.equals(line.getSourceFile())) {
+            return line;
+        }
+        return new LineInfo(line.getLine() + delta, line.getColumn(), line.getLength(),
+                sourceName);
+    }
+
+    /**
+     * @return the tokens to parse, the clean bodies are replaced with empty bodies and the
+     * other tokens are rewound, the last parse moved their cursors
+     */
+    private GrouperToken prepare(ArrayList<Token> topLevel, ArrayList<Body> found) {
+        BaseGrouperToken prepared = new BaseGrouperToken(new LineInfo(0, sourceName));
+        int index = 0;
+        for (Token token : topLevel) {
+            Body body = index < found.size() ? found.get(index) : null;
+            if (body != null && body.token == token) {
+                index++;
+                if (body.clean) {
+                    skippedBodyCount++;
+                    prepared.put(emptyBody(body.token));
+                    continue;
+                }
+            }
+            rewind(token);
+            prepared.put(token);
+        }
+        return prepared;
+    }
+
+    private static BeginEndToken emptyBody(BeginEndToken body) {
+        BeginEndToken empty = new BeginEndToken(body.getLineNumber());
+        empty.put(new EOFToken(body.getEndLine()));
+        empty.setEndLine(body.getEndLine());
+        return empty;
+    }
+
+    private static void rewind(Token token) {
+        if (token instanceof GrouperToken) {
+            GrouperToken grouper = (GrouperToken) token;
+            grouper.reset(0);
+            for (Token child : grouper.getRemainingTokens()) {
+                rewind(child);
+            }
+        }
+    }
+
+    /**
+     * @return the bodies of the top level blocks in the order of the tokens, clean bodies of
+     * the last check keep their state when they are found at the same place
+     */
+    private ArrayList<Body> findBodies(ArrayList<Token> topLevel) {
+        ArrayList<Body> found = new ArrayList<>();
+        for (Token token : topLevel) {
+            if (!(token instanceof BeginEndToken)) {
+                continue;
+            }
+            LineInfo begin = token.getLineNumber();
+            LineInfo end = ((BeginEndToken) token).getEndLine();
+            if (end == null || !sourceName.equals(begin.getSourceFile())
+                    || !sourceName.equals(end.getSourceFile())) {
+                continue;
+            }
+            Body body = new Body((BeginEndToken) token, begin.getLine(), begin.getColumn(),
+                    end.getLine(), end.getColumn());
+            Body old = find(body);
+            if (old != null) {
+                body.clean = old.clean;
+            }
+            found.add(body);
+        }
+        return found;
+    }
+
+    @Nullable
+    private Body find(Body body) {
+        for (Body old : bodies) {
+            if (old.startLine == body.startLine && old.startColumn == body.startColumn
+                    && old.endLine == body.endLine && old.endColumn == body.endColumn) {
+                return old;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A body is clean when the compile went past its end without error
+     */
+    private void updateStates(ArrayList<Body> found, @Nullable ParsingException error) {
+        LineInfo line = error == null ? null : error.getLineInfo();
+        boolean located = line != null && sourceName.equals(line.getSourceFile());
+        for (Body body : found) {
+            if (error == null || (located && body.endLine < line.getLine())) {
+                body.clean = true;
+            }
+        }
+    }
+
+    private static class Body {
+        /**
+         * the block as it was lexed, with all its statements
+         */
+        final BeginEndToken token;
+        int startLine;
+        int startColumn;
+        int endLine;
+        int endColumn;
+        boolean clean;
+
+        Body(BeginEndToken token, int startLine, int startColumn, int endLine, int endColumn) {
+            this.token = token;
+            this.startLine = startLine;
+            this.startColumn = startColumn;
+            this.endLine = endLine;
+            this.endColumn = endColumn;
+        }
+    }
+}
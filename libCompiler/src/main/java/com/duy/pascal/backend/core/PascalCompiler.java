@@ -1,13 +1,18 @@
 package com.duy.pascal.backend.core;
 
 
+import com.duy.pascal.backend.config.BodyParseMode;
+import com.duy.pascal.backend.config.Optimization;
 import com.duy.pascal.backend.declaration.library.PascalUnitDeclaration;
 import com.duy.pascal.backend.declaration.program.PascalProgramDeclaration;
 import com.duy.pascal.backend.parse_exception.ParsingException;
 import com.duy.pascal.backend.source_include.ScriptSource;
+import com.duy.pascal.backend.tokenizer.NewLexer;
+import com.duy.pascal.backend.tokens.grouping.GrouperToken;
 import com.duy.pascal.frontend.activities.IRunnablePascal;
 
 import java.io.Reader;
+import java.util.EnumSet;
 import java.util.List;
 
 
@@ -35,6 +40,59 @@ public class PascalCompiler {
         return new PascalProgramDeclaration(in, sourcename, includeSearchPath, handler);
     }
 
+    /**
+     * @param bodyParseMode - when the bodies of procedures and functions are parsed
+     */
+    public static PascalProgramDeclaration loadPascal(String sourcename, Reader in,
+                                                      List<ScriptSource> includeSearchPath,
+                                                      IRunnablePascal handler,
+                                                      BodyParseMode bodyParseMode) throws ParsingException {
+        NewLexer lexer = new NewLexer(in, sourcename, includeSearchPath);
+        lexer.parse();
+        return loadPascal(sourcename, lexer.getTokenQueue(), includeSearchPath, handler,
+                bodyParseMode);
+    }
+
+    /**
+     * @param optimizations - passes run over the program once it is parsed
+     */
+    public static PascalProgramDeclaration loadPascal(String sourcename, Reader in,
+                                                      List<ScriptSource> includeSearchPath,
+                                                      IRunnablePascal handler,
+                                                      BodyParseMode bodyParseMode,
+                                                      EnumSet<Optimization> optimizations)
+            throws ParsingException {
+        NewLexer lexer = new NewLexer(in, sourcename, includeSearchPath);
+        lexer.parse();
+        return new PascalProgramDeclaration(lexer.getTokenQueue(), sourcename, includeSearchPath,
+                handler, bodyParseMode, optimizations);
+    }
+
+    /**
+     * @param tokens - tokens of the program, already lexed and grouped
+     */
+    public static PascalProgramDeclaration loadPascal(String sourcename, GrouperToken tokens,
+                                                      List<ScriptSource> includeSearchPath,
+                                                      IRunnablePascal handler,
+                                                      BodyParseMode bodyParseMode) throws ParsingException {
+        return new PascalProgramDeclaration(tokens, sourcename, includeSearchPath, handler,
+                bodyParseMode);
+    }
+
+    /**
+     * @param tokens        - tokens of the program, already lexed and grouped
+     * @param optimizations - passes run over the program once it is parsed
+     */
+    public static PascalProgramDeclaration loadPascal(String sourcename, GrouperToken tokens,
+                                                      List<ScriptSource> includeSearchPath,
+                                                      IRunnablePascal handler,
+                                                      BodyParseMode bodyParseMode,
+                                                      EnumSet<Optimization> optimizations)
+            throws ParsingException {
+        return new PascalProgramDeclaration(tokens, sourcename, includeSearchPath, handler,
+                bodyParseMode, optimizations);
+    }
+
 
     public static PascalUnitDeclaration loadLibrary(String sourcename, Reader in,
                                                     List<ScriptSource> searchPath,
@@ -24,13 +24,7 @@ public abstract class DebuggableAssignableValue implements AssignableValue {
         try {
             if (canDebug() && main.isDebug()) {
                 main.getDebugListener().onLine(this, getLineNumber());
-                if (canDebug()) {
-                    main.scriptControlCheck(getLineNumber(), true);
-                } else {
-                    main.scriptControlCheck(getLineNumber(), false);
-                }
-            } else {
-                main.scriptControlCheck(getLineNumber(), false);
+                main.scriptControlCheck(getLineNumber(), true);
             }
             return NullSafety.zReturn(getValueImpl(f, main));
         } catch (RuntimePascalException e) {
@@ -14,26 +14,22 @@ public abstract class DebuggableExecutable implements Executable {
     public ExecutionResult execute(VariableContext context, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
         try {
-            if (main.isDebug()) {
-                main.getDebugListener().onLine(this, getLineNumber());
+            if (!main.isDebug()) {
+                return executeImpl(context, main);
             }
+            main.getDebugListener().onLine(this, getLineNumber());
             main.scriptControlCheck(getLineNumber());
             //backup mode
             boolean last = main.isDebug();
-            if (main.isDebug()) {
-                if (main.getDebugMode().equals(DebugMode.STEP_OVER)) {
-                    main.setDebug(false);
-                }
+            if (main.getDebugMode().equals(DebugMode.STEP_OVER)) {
+                main.setDebug(false);
             }
 
-            main.incStack(getLineNumber());
-
             //execute code
             ExecutionResult result = executeImpl(context, main);
 
             //restore mode
             main.setDebug(last);
-            main.decStack();
             return result;
         } catch (RuntimePascalException e) {
             throw e;
@@ -48,23 +48,20 @@ public abstract class DebuggableExecutableReturnValue implements Executable,
     public ExecutionResult execute(VariableContext context, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
         try {
-            if (main.isDebug()) {
-                main.getDebugListener().onLine((Executable) this, getLineNumber());
+            if (!main.isDebug()) {
+                return executeImpl(context, main);
             }
+            main.getDebugListener().onLine((Executable) this, getLineNumber());
             main.scriptControlCheck(getLineNumber());
             //backup mode
             boolean last = main.isDebug();
-            if (main.isDebug()) {
-                if (main.getDebugMode().equals(DebugMode.STEP_OVER)) {
-                    main.setDebug(false);
-                }
+            if (main.getDebugMode().equals(DebugMode.STEP_OVER)) {
+                main.setDebug(false);
             }
-            main.incStack(getLineNumber());
 
             ExecutionResult result = executeImpl(context, main);
 
             main.setDebug(last);
-            main.decStack();
             return result;
         } catch (RuntimePascalException e) {
             throw e;
@@ -68,6 +68,7 @@ public class ClassConstructor extends FunctionDeclaration {
     public Object call(RuntimeExecutableCodeUnit<?> main, Object[] arguments, String idName) throws RuntimePascalException {
         RuntimePascalClass classVarContext = new RuntimePascalClass(classType.getDeclaration());
         main.addPascalClassContext(idName, classVarContext);
+        compileBodyForCall();
         FunctionOnStack functionOnStack = new FunctionOnStack(classVarContext, main, this, arguments);
         if (main.isDebug()) {
             main.getDebugListener().onVariableChange(new CallStack(functionOnStack));
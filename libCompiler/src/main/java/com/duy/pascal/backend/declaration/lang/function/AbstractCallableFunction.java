@@ -41,6 +41,46 @@ public abstract class AbstractCallableFunction extends AbstractFunction {
             throws RuntimePascalException, IllegalArgumentException,
             IllegalAccessException, InvocationTargetException;
 
+    /**
+     * @return true if the function overrides the fixed arity calls, so a call with up to four
+     * arguments does not need the argument array
+     */
+    public boolean hasFixedArityCalls() {
+        return false;
+    }
+
+    /*
+     * Fixed arity calls, a function which can be called without the argument array
+     * overrides these and {@link #hasFixedArityCalls()}
+     */
+
+    public Object call0(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException, IllegalAccessException, InvocationTargetException {
+        return call(f, main, new Object[0]);
+    }
+
+    public Object call1(VariableContext f, RuntimeExecutableCodeUnit<?> main, Object a0)
+            throws RuntimePascalException, IllegalAccessException, InvocationTargetException {
+        return call(f, main, new Object[]{a0});
+    }
+
+    public Object call2(VariableContext f, RuntimeExecutableCodeUnit<?> main, Object a0, Object a1)
+            throws RuntimePascalException, IllegalAccessException, InvocationTargetException {
+        return call(f, main, new Object[]{a0, a1});
+    }
+
+    public Object call3(VariableContext f, RuntimeExecutableCodeUnit<?> main, Object a0, Object a1,
+                        Object a2)
+            throws RuntimePascalException, IllegalAccessException, InvocationTargetException {
+        return call(f, main, new Object[]{a0, a1, a2});
+    }
+
+    public Object call4(VariableContext f, RuntimeExecutableCodeUnit<?> main, Object a0, Object a1,
+                        Object a2, Object a3)
+            throws RuntimePascalException, IllegalAccessException, InvocationTargetException {
+        return call(f, main, new Object[]{a0, a1, a2, a3});
+    }
+
     @Override
     public FunctionCall generatePerfectFitCall(LineInfo line,
                                                List<RuntimeValue> values, ExpressionContext f)
@@ -0,0 +1,108 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.declaration.lang.function;
+
+import com.duy.pascal.backend.parse_exception.ParsingException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Parses the deferred bodies of {@link com.duy.pascal.backend.config.BodyParseMode#PARALLEL}
+ * programs on a pool with one thread per processor
+ */
+public class FunctionBodyCompiler {
+    /**
+     * the parser is recursive, give the threads the stack of a program thread
+     */
+    private static final long STACK_SIZE = 10000 * 1024;
+
+    private static ExecutorService sPool;
+
+    private static synchronized ExecutorService getPool() {
+        if (sPool == null) {
+            sPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                    new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(null, r, "body-compiler", STACK_SIZE);
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+        }
+        return sPool;
+    }
+
+    /**
+     * @param functions functions in source order
+     * @throws ParsingException the error of the first function whose body can not be parsed
+     */
+    public static void compileAll(List<FunctionDeclaration> functions) throws ParsingException {
+        if (functions.size() < 2 || Runtime.getRuntime().availableProcessors() < 2) {
+            for (FunctionDeclaration function : functions) {
+                function.compileBody();
+            }
+            return;
+        }
+        ExecutorService pool = getPool();
+        List<Future<Void>> results = new ArrayList<>(functions.size());
+        for (final FunctionDeclaration function : functions) {
+            results.add(pool.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws ParsingException {
+                    function.compileBody();
+                    return null;
+                }
+            }));
+        }
+
+        ParsingException first = null;
+        for (int i = 0; i < results.size(); i++) {
+            try {
+                results.get(i).get();
+            } catch (InterruptedException e) {
+                for (Future<Void> result : results) {
+                    result.cancel(true);
+                }
+                Thread.currentThread().interrupt();
+                throw new ParsingException(functions.get(i).getLineNumber(),
+                        "Interrupted while parsing the body of " + functions.get(i).getName());
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof ParsingException) {
+                    if (first == null) {
+                        first = (ParsingException) cause;
+                    }
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else {
+                    throw (Error) cause;
+                }
+            }
+        }
+        if (first != null) {
+            throw first;
+        }
+    }
+}
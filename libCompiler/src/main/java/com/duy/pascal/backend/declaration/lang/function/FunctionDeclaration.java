@@ -19,6 +19,7 @@ package com.duy.pascal.backend.declaration.lang.function;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import com.duy.pascal.backend.ast.codeunit.CodeUnit;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.declaration.NamedEntity;
 import com.duy.pascal.backend.declaration.lang.value.VariableDeclaration;
@@ -28,13 +29,22 @@ import com.duy.pascal.backend.ast.expressioncontext.ExpressionContextMixin;
 import com.duy.pascal.backend.ast.instructions.Executable;
 import com.duy.pascal.backend.ast.variablecontext.FunctionOnStack;
 import com.duy.pascal.backend.ast.variablecontext.VariableContext;
+import com.duy.pascal.backend.config.BodyParseMode;
+import com.duy.pascal.backend.config.ExecutionBackend;
+import com.duy.pascal.backend.config.ExecutionMode;
 import com.duy.pascal.backend.config.ProgramMode;
+import com.duy.pascal.backend.jit.CompiledRoutine;
+import com.duy.pascal.backend.jit.JitCompiler;
+import com.duy.pascal.backend.linear.LinearCompiler;
+import com.duy.pascal.backend.linear.LinearRoutine;
 import com.duy.pascal.backend.linenumber.LineInfo;
 import com.duy.pascal.backend.parse_exception.ParsingException;
 import com.duy.pascal.backend.parse_exception.define.DuplicateIdentifierException;
 import com.duy.pascal.backend.parse_exception.define.OverridingFunctionBodyException;
 import com.duy.pascal.backend.parse_exception.syntax.ExpectedTokenException;
 import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
+import com.duy.pascal.backend.runtime_exception.UnhandledPascalException;
+import com.duy.pascal.backend.tokenizer.Symbol;
 import com.duy.pascal.backend.tokens.Token;
 import com.duy.pascal.backend.tokens.WordToken;
 import com.duy.pascal.backend.tokens.basic.ColonToken;
@@ -42,6 +52,7 @@ import com.duy.pascal.backend.tokens.basic.CommaToken;
 import com.duy.pascal.backend.tokens.basic.ForwardToken;
 import com.duy.pascal.backend.tokens.basic.SemicolonToken;
 import com.duy.pascal.backend.tokens.basic.VarToken;
+import com.duy.pascal.backend.tokens.grouping.BeginEndToken;
 import com.duy.pascal.backend.tokens.grouping.GrouperToken;
 import com.duy.pascal.backend.tokens.grouping.ParenthesizedToken;
 import com.duy.pascal.backend.declaration.lang.types.ArgumentType;
@@ -66,14 +77,57 @@ public class FunctionDeclaration extends AbstractCallableFunction {
      * this is the store value of function
      */
     protected VariableDeclaration resultDefinition;
+    /**
+     * slot of the result variable in the frame of this function, -1 for procedure
+     */
+    private int resultSlot = -1;
     public LineInfo line;
     public LineInfo endPositionHeader;
     public String[] argumentNames;
+    /**
+     * symbols of {@link #argumentNames}, the scope compares them by identity
+     */
+    private Symbol[] argumentSymbols;
     public RuntimeType[] argumentTypes;
     private boolean isProcedure = false;
     private boolean bodyDeclared;
+    /**
+     * statements of the body while their parse is deferred, see {@link BodyParseMode}
+     */
+    @Nullable
+    private volatile BeginEndToken bodyTokens;
+    /**
+     * error of the deferred parse of the body, thrown again on each call
+     */
+    @Nullable
+    private ParsingException bodyError;
 
     private int modifier = Modifier.PUBLIC;
+    /**
+     * false if the header was declared inside {$INLINE OFF}
+     */
+    private boolean inline = true;
+    /**
+     * bytecode of the routine once it is hot, see {@link JitCompiler}
+     */
+    @Nullable
+    private volatile CompiledRoutine compiled;
+    /**
+     * calls and loop iterations counted before the routine is compiled, negative if
+     * the routine can not be compiled. Runs on other threads may lose some counts, which
+     * only delays the compilation
+     */
+    private int hotness;
+    /**
+     * register code of the routine when the program uses {@link ExecutionBackend#LINEAR} or
+     * {@link ExecutionBackend#STACKLESS}
+     */
+    @Nullable
+    private volatile LinearRoutine linear;
+    /**
+     * true if the routine can not be lowered, it is run by the tree
+     */
+    private boolean linearFailed;
 
     public FunctionDeclaration(String name, ExpressionContext parent, GrouperToken grouperToken,
                                boolean isProcedure) throws ParsingException {
@@ -89,6 +143,7 @@ public class FunctionDeclaration extends AbstractCallableFunction {
     public FunctionDeclaration(ExpressionContext p) {
         this.declaration = new FunctionExpressionContext(this, p);
         this.argumentNames = new String[0];
+        this.argumentSymbols = new Symbol[0];
         this.argumentTypes = new RuntimeType[0];
     }
 
@@ -108,6 +163,7 @@ public class FunctionDeclaration extends AbstractCallableFunction {
         this.declaration = new FunctionExpressionContext(this, parent);
         this.line = grouperToken.peek().getLineNumber();
         this.isProcedure = isProcedure;
+        this.inline = parent.root().getConfig().isInline();
 
         getArgumentsForDeclaration(grouperToken);
         Token next = grouperToken.peek();
@@ -129,6 +185,7 @@ public class FunctionDeclaration extends AbstractCallableFunction {
                         grouperToken.getNextPascalType(parent), line);
             }
             this.declaration.declareVariable(resultDefinition);
+            this.resultSlot = declaration.getVariableSlotLocal(resultDefinition.getName());
         }
 
         //assert next semicolon token
@@ -161,6 +218,10 @@ public class FunctionDeclaration extends AbstractCallableFunction {
         return declaration;
     }
 
+    public int getResultSlot() {
+        return resultSlot;
+    }
+
     public String getName() {
         return name;
     }
@@ -171,7 +232,7 @@ public class FunctionDeclaration extends AbstractCallableFunction {
             Token take = i.take();
             i.assertNextSemicolon();
         } else {
-            if (instructions != null) {
+            if (hasBody()) {
                 throw new OverridingFunctionBodyException(this, i.getLineNumber());
             }
             while (!bodyDeclared) {
@@ -181,6 +242,50 @@ public class FunctionDeclaration extends AbstractCallableFunction {
     }
 
 
+    /**
+     * @return true if the body was read, it may not be parsed yet
+     */
+    public boolean hasBody() {
+        return instructions != null || bodyTokens != null;
+    }
+
+    /**
+     * Parse the body whose parse was deferred, nothing is done if it is parsed already
+     */
+    public void compileBody() throws ParsingException {
+        if (bodyTokens == null && bodyError == null) {
+            return;
+        }
+        synchronized (this) {
+            if (bodyError != null) {
+                throw bodyError;
+            }
+            BeginEndToken tokens = bodyTokens;
+            if (tokens == null) {
+                return;
+            }
+            try {
+                instructions = tokens.getCompoundStatement(declaration);
+            } catch (ParsingException e) {
+                bodyError = e;
+                throw e;
+            } finally {
+                bodyTokens = null;
+            }
+        }
+    }
+
+    /**
+     * Parse the deferred body before the function is called
+     */
+    protected void compileBodyForCall() throws RuntimePascalException {
+        try {
+            compileBody();
+        } catch (ParsingException e) {
+            throw new UnhandledPascalException(line, e);
+        }
+    }
+
     @Override
     public String getDescription() {
         return null;
@@ -192,6 +297,28 @@ public class FunctionDeclaration extends AbstractCallableFunction {
         if (this.declaration.root() instanceof PascalUnitDeclaration) {
             f = main.getLibraryContext((PascalUnitDeclaration) declaration.root());
         }
+        boolean release = main.getExecutionMode() == ExecutionMode.RELEASE;
+        CompiledRoutine compiled = this.compiled;
+        if (release && compiled != null) {
+            VariableContext globals = f.findFrame(declaration.getParentContext());
+            if (globals != null) {
+                return compiled.invoke(globals, main, arguments);
+            }
+        }
+        main.safepoint(getLineNumber());
+        compileBodyForCall();
+        if (main.isJit()) {
+            addHotness(1);
+        }
+        if (release) {
+            LinearRoutine linear = getLinear();
+            if (linear != null) {
+                VariableContext globals = f.findFrame(declaration.getParentContext());
+                if (globals != null) {
+                    return linear.invoke(globals, main, arguments);
+                }
+            }
+        }
         FunctionOnStack functionOnStack = new FunctionOnStack(f, main, this, arguments);
 
         Object res = functionOnStack.execute();
@@ -247,9 +374,11 @@ public class FunctionDeclaration extends AbstractCallableFunction {
         }
         argumentTypes = typesList.toArray(new RuntimeType[typesList.size()]);
         argumentNames = new String[namesList.size()];
+        argumentSymbols = new Symbol[namesList.size()];
         for (int j = 0; j < argumentNames.length; j++) {
             WordToken n = namesList.get(j);
             argumentNames[j] = n.name;
+            argumentSymbols[j] = n.getSymbol();
             // TODO: 30-Apr-17
 //            scopeWithStatement.declareVariable(new VariableDeclaration(n.name, argumentTypes[j].declType, n.line));
         }
@@ -298,6 +427,100 @@ public class FunctionDeclaration extends AbstractCallableFunction {
         return isProcedure;
     }
 
+    /**
+     * Counts the iterations of a loop of the body, called by the loops of the interpreter in
+     * a run which compiles, see {@link RuntimeExecutableCodeUnit#isJit()}
+     */
+    public void addBackEdges(int count) {
+        if (count > 0) {
+            addHotness(Math.min(count, JitCompiler.THRESHOLD + 1));
+        }
+    }
+
+    /**
+     * Compiles the routine when it becomes hot, the next calls run the compiled code. The
+     * declaration is shared by every run of the program, only one of them compiles it
+     */
+    private void addHotness(int count) {
+        if (hotness < 0 || compiled != null) {
+            return;
+        }
+        hotness += count;
+        if (hotness > JitCompiler.THRESHOLD) {
+            synchronized (this) {
+                if (hotness < 0 || compiled != null) {
+                    return;
+                }
+                compiled = JitCompiler.compile(this);
+                if (compiled == null) {
+                    hotness = -1;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the register code of the routine, lowered on the first call, null if the
+     * program runs the tree or the routine can not be lowered
+     */
+    @Nullable
+    private LinearRoutine getLinear() {
+        LinearRoutine linear = this.linear;
+        if (linear != null || linearFailed
+                || declaration.root().getConfig().getBackend() == ExecutionBackend.TREE) {
+            return linear;
+        }
+        synchronized (this) {
+            linear = this.linear;
+            if (linear != null || linearFailed) {
+                return linear;
+            }
+            linear = LinearCompiler.compile(this);
+            if (linear == null) {
+                linearFailed = true;
+            }
+            this.linear = linear;
+            return linear;
+        }
+    }
+
+    /**
+     * Register code for a call made by another {@link LinearRoutine}, which runs it without
+     * going through {@link #call}
+     *
+     * @return null if the routine can not be lowered
+     */
+    @Nullable
+    public LinearRoutine prepareLinear() throws RuntimePascalException {
+        LinearRoutine linear = this.linear;
+        if (linear != null || linearFailed) {
+            return linear;
+        }
+        compileBodyForCall();
+        return getLinear();
+    }
+
+    /**
+     * @return true if the calls of this routine run register code
+     */
+    public boolean isLinear() {
+        return linear != null;
+    }
+
+    /**
+     * @return true if the calls of this routine run compiled code
+     */
+    public boolean isCompiled() {
+        return compiled != null;
+    }
+
+    /**
+     * @return false if calls of this routine must not be replaced by its body
+     */
+    public boolean isInline() {
+        return inline;
+    }
+
     public class FunctionExpressionContext extends ExpressionContextMixin {
         public FunctionDeclaration function;
 
@@ -333,24 +556,52 @@ public class FunctionDeclaration extends AbstractCallableFunction {
         @Override
         public void handleBeginEnd(GrouperToken i) throws ParsingException {
             bodyDeclared = true;
-            instructions = i.getNextCommand(this);
+            CodeUnit root = root();
+            if (root.getConfig().getBodyParseMode() == BodyParseMode.EAGER) {
+                instructions = i.getNextCommand(this);
+            } else {
+                bodyTokens = (BeginEndToken) i.take();
+                root.deferBody(FunctionDeclaration.this, bodyTokens);
+            }
             i.assertNextSemicolon();
         }
 
         @Override
-        public VariableDeclaration getVariableDefinitionLocal(String ident) {
+        public VariableDeclaration getVariableDefinitionLocal(Symbol ident) {
             VariableDeclaration unitVariableDecl = super.getVariableDefinitionLocal(ident);
             if (unitVariableDecl != null) {
                 return unitVariableDecl;
             }
-            for (int i = 0; i < argumentNames.length; i++) {
-                if (argumentNames[i].equals(ident)) {
+            for (int i = 0; i < argumentSymbols.length; i++) {
+                if (argumentSymbols[i] == ident) {
                     return new VariableDeclaration(argumentNames[i], argumentTypes[i].getRawType(),
                             function.getLineNumber());
                 }
             }
             return null;
         }
+
+        /**
+         * Arguments take the first slots of the frame, local variables follow them
+         */
+        @Override
+        protected int getFrameOffset() {
+            return argumentNames == null ? 0 : argumentNames.length;
+        }
+
+        @Override
+        public int getVariableSlotLocal(Symbol ident) {
+            int slot = super.getVariableSlotLocal(ident);
+            if (slot >= 0 || argumentSymbols == null) {
+                return slot;
+            }
+            for (int i = 0; i < argumentSymbols.length; i++) {
+                if (argumentSymbols[i] == ident) {
+                    return i;
+                }
+            }
+            return -1;
+        }
     }
 
 }
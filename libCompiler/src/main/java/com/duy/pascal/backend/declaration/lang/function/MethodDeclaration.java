@@ -51,6 +51,7 @@ public class MethodDeclaration extends AbstractCallableFunction {
     private static final String TAG = MethodDeclaration.class.getSimpleName();
     private Object owner;
     private Method method;
+    private MethodInvoker invoker;
     private Type returnType = null;
     private ArgumentType[] argCache = null;
     private String description = "";
@@ -59,6 +60,7 @@ public class MethodDeclaration extends AbstractCallableFunction {
     public MethodDeclaration(@NonNull Object owner, @NonNull Method m) {
         this.owner = owner;
         method = m;
+        this.invoker = MethodInvoker.bind(m);
     }
 
     /**
@@ -71,12 +73,14 @@ public class MethodDeclaration extends AbstractCallableFunction {
     public MethodDeclaration(@NonNull Object owner, @NonNull Method m, Type returnType) {
         this.owner = owner;
         method = m;
+        this.invoker = MethodInvoker.bind(m);
         this.returnType = returnType;
     }
 
     public MethodDeclaration(@NonNull Object owner, @NonNull Method m, @Nullable String description) {
         this.owner = owner;
         this.method = m;
+        this.invoker = MethodInvoker.bind(m);
         this.description = description;
     }
 
@@ -84,6 +88,7 @@ public class MethodDeclaration extends AbstractCallableFunction {
                              @Nullable ArrayList<String> listParams) {
         this.owner = owner;
         method = m;
+        this.invoker = MethodInvoker.bind(m);
         this.description = description;
         this.listParams = listParams;
     }
@@ -94,10 +99,62 @@ public class MethodDeclaration extends AbstractCallableFunction {
             throws IllegalArgumentException, IllegalAccessException,
             InvocationTargetException,
             RuntimePascalException {
+        return invoker.invoke(getOwner(f, main), arguments);
+    }
+
+    @Override
+    public boolean hasFixedArityCalls() {
+        return true;
+    }
+
+    @Override
+    public Object call0(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException, IllegalAccessException, InvocationTargetException {
+        return invoker.invoke0(getOwner(f, main));
+    }
+
+    @Override
+    public Object call1(VariableContext f, RuntimeExecutableCodeUnit<?> main, Object a0)
+            throws RuntimePascalException, IllegalAccessException, InvocationTargetException {
+        return invoker.invoke1(getOwner(f, main), a0);
+    }
+
+    @Override
+    public Object call2(VariableContext f, RuntimeExecutableCodeUnit<?> main, Object a0, Object a1)
+            throws RuntimePascalException, IllegalAccessException, InvocationTargetException {
+        return invoker.invoke2(getOwner(f, main), a0, a1);
+    }
+
+    @Override
+    public Object call3(VariableContext f, RuntimeExecutableCodeUnit<?> main, Object a0, Object a1,
+                        Object a2)
+            throws RuntimePascalException, IllegalAccessException, InvocationTargetException {
+        return invoker.invoke3(getOwner(f, main), a0, a1, a2);
+    }
+
+    @Override
+    public Object call4(VariableContext f, RuntimeExecutableCodeUnit<?> main, Object a0, Object a1,
+                        Object a2, Object a3)
+            throws RuntimePascalException, IllegalAccessException, InvocationTargetException {
+        return invoker.invoke4(getOwner(f, main), a0, a1, a2, a3);
+    }
+
+    private Object getOwner(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
         if (owner instanceof RuntimeValue) {
-            owner = ((RuntimeValue) owner).getValue(f, main);
+            return ((RuntimeValue) owner).getValue(f, main);
+        } else if (owner instanceof OwnerResolver) {
+            return ((OwnerResolver) owner).resolve(main);
         }
-        return method.invoke(owner, arguments);
+        return owner;
+    }
+
+    /**
+     * Owner of a method which is shared by all programs but called on the state of the
+     * running program, for example the file table
+     */
+    public interface OwnerResolver {
+        Object resolve(RuntimeExecutableCodeUnit<?> main);
     }
 
     private java.lang.reflect.Type getFirstGenericType(java.lang.reflect.Type t) {
@@ -243,7 +300,7 @@ public class MethodDeclaration extends AbstractCallableFunction {
 
     @Override
     public LineInfo getLineNumber() {
-        return new LineInfo(-1, owner.getClass().getCanonicalName());
+        return new LineInfo(-1, method.getDeclaringClass().getCanonicalName());
     }
 
 }
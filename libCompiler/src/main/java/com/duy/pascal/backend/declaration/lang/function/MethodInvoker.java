@@ -0,0 +1,91 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.declaration.lang.function;
+
+import android.support.annotation.NonNull;
+
+import com.duy.pascal.backend.builtin_libraries.SystemLibraryInvokers;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Calls a library method bound once when the method is registered, so a call does not
+ * look up the method or check its accessibility again.
+ * <p>
+ * The fixed arity overloads let a call site with up to four arguments skip the argument
+ * array, an invoker which only supports the array form allocates it here.
+ * Exceptions thrown by the target are wrapped in {@link InvocationTargetException}, as
+ * {@link Method#invoke(Object, Object...)} does.
+ */
+public abstract class MethodInvoker {
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
+    /**
+     * @return a direct invoker for the hot system routines, a reflective one for the rest
+     */
+    @NonNull
+    public static MethodInvoker bind(@NonNull Method method) {
+        MethodInvoker invoker = SystemLibraryInvokers.find(method);
+        return invoker != null ? invoker : new ReflectiveInvoker(method);
+    }
+
+    public abstract Object invoke(Object owner, Object[] arguments)
+            throws IllegalAccessException, InvocationTargetException;
+
+    public Object invoke0(Object owner) throws IllegalAccessException, InvocationTargetException {
+        return invoke(owner, NO_ARGUMENTS);
+    }
+
+    public Object invoke1(Object owner, Object a0)
+            throws IllegalAccessException, InvocationTargetException {
+        return invoke(owner, new Object[]{a0});
+    }
+
+    public Object invoke2(Object owner, Object a0, Object a1)
+            throws IllegalAccessException, InvocationTargetException {
+        return invoke(owner, new Object[]{a0, a1});
+    }
+
+    public Object invoke3(Object owner, Object a0, Object a1, Object a2)
+            throws IllegalAccessException, InvocationTargetException {
+        return invoke(owner, new Object[]{a0, a1, a2});
+    }
+
+    public Object invoke4(Object owner, Object a0, Object a1, Object a2, Object a3)
+            throws IllegalAccessException, InvocationTargetException {
+        return invoke(owner, new Object[]{a0, a1, a2, a3});
+    }
+
+    private static class ReflectiveInvoker extends MethodInvoker {
+        private final Method method;
+
+        ReflectiveInvoker(Method method) {
+            this.method = method;
+            try {
+                method.setAccessible(true);
+            } catch (SecurityException ignored) {
+            }
+        }
+
+        @Override
+        public Object invoke(Object owner, Object[] arguments)
+                throws IllegalAccessException, InvocationTargetException {
+            return method.invoke(owner, arguments);
+        }
+    }
+}
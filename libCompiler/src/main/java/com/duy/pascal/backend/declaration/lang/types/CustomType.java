@@ -18,7 +18,6 @@ public class CustomType extends ObjectType {
      * This is a list of the defined variables in the custom type.
      */
     public ArrayList<VariableDeclaration> variableDeclarations;
-    private RecordValue recordValue;
 
     public CustomType() {
         variableDeclarations = new ArrayList<>();
@@ -37,8 +36,7 @@ public class CustomType extends ObjectType {
     @NonNull
     @Override
     public RecordValue initialize() {
-        recordValue = new RecordValue(variableDeclarations);
-        return recordValue;
+        return new RecordValue(variableDeclarations);
     }
 
     @Override
@@ -65,11 +63,7 @@ public class CustomType extends ObjectType {
 
     @Override
     public Class getTransferClass() {
-        if (recordValue != null) {
-            return recordValue.getClass();
-        }
-        recordValue = new RecordValue(variableDeclarations);
-        return recordValue.getClass();
+        return RecordValue.class;
     }
 
 
@@ -106,6 +106,17 @@ public class RecordType extends CustomType implements Cloneable {
 
     }
 
+    /**
+     * @param name - name of field
+     * @return position of the field in a {@link RecordValue}, -1 if there is no such field
+     */
+    public int indexOfField(String name) {
+        for (int i = 0; i < variableDeclarations.size(); i++) {
+            if (variableDeclarations.get(i).getName().equalsIgnoreCase(name)) return i;
+        }
+        return -1;
+    }
+
     @NonNull
     @Override
     public RecordValue initialize() {
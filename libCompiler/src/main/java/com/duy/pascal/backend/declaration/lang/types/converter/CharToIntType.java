@@ -2,6 +2,8 @@ package com.duy.pascal.backend.declaration.lang.types.converter;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -14,13 +16,17 @@ import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
 import com.duy.pascal.backend.declaration.lang.types.BasicType;
 import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
 
-public class CharToIntType implements RuntimeValue {
+public class CharToIntType implements RuntimeValue, RewritableNode {
     RuntimeValue other;
 
     public CharToIntType(RuntimeValue other) {
         this.other = other;
     }
 
+    public RuntimeValue getOther() {
+        return other;
+    }
+
 
     @Override
     public String toString() {
@@ -74,4 +80,9 @@ public class CharToIntType implements RuntimeValue {
     public AssignableValue asAssignableValue(ExpressionContext f) {
         return null;
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        other = rewriter.value(other);
+    }
 }
@@ -2,6 +2,8 @@ package com.duy.pascal.backend.declaration.lang.types.converter;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -14,7 +16,7 @@ import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
 import com.duy.pascal.backend.declaration.lang.types.BasicType;
 import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
 
-public class NumberToCharType implements RuntimeValue {
+public class NumberToCharType implements RuntimeValue, RewritableNode {
     RuntimeValue other;
 
 
@@ -22,6 +24,10 @@ public class NumberToCharType implements RuntimeValue {
         this.other = other;
     }
 
+    public RuntimeValue getOther() {
+        return other;
+    }
+
 
     @NonNull
     @Override
@@ -74,4 +80,9 @@ public class NumberToCharType implements RuntimeValue {
     public AssignableValue asAssignableValue(ExpressionContext f) {
         return null;
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        other = rewriter.value(other);
+    }
 }
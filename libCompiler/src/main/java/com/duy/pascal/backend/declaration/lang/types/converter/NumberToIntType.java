@@ -2,11 +2,15 @@ package com.duy.pascal.backend.declaration.lang.types.converter;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.backend.ast.variablecontext.VariableContext;
 import com.duy.pascal.backend.ast.runtime_value.value.AssignableValue;
+import com.duy.pascal.backend.ast.runtime_value.value.PrimitiveValue;
+import com.duy.pascal.backend.ast.runtime_value.value.PrimitiveValues;
 import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
 import com.duy.pascal.backend.linenumber.LineInfo;
 import com.duy.pascal.backend.parse_exception.ParsingException;
@@ -14,7 +18,7 @@ import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
 import com.duy.pascal.backend.declaration.lang.types.BasicType;
 import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
 
-public class NumberToIntType implements RuntimeValue {
+public class NumberToIntType implements PrimitiveValue, RewritableNode {
     RuntimeValue other;
 
 
@@ -22,6 +26,10 @@ public class NumberToIntType implements RuntimeValue {
         this.other = other;
     }
 
+    public RuntimeValue getOther() {
+        return other;
+    }
+
     @Override
     public String toString() {
         return other.toString();
@@ -35,6 +43,30 @@ public class NumberToIntType implements RuntimeValue {
         return i.intValue();
     }
 
+    @Override
+    public int evalInt(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return PrimitiveValues.evalInt(other, f, main);
+    }
+
+    @Override
+    public long evalLong(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return evalInt(f, main);
+    }
+
+    @Override
+    public double evalDouble(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return evalInt(f, main);
+    }
+
+    @Override
+    public boolean evalBoolean(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return (Boolean) getValue(f, main);
+    }
+
     @Override
     public RuntimeType getRuntimeType(ExpressionContext f)
             throws ParsingException {
@@ -73,4 +105,9 @@ public class NumberToIntType implements RuntimeValue {
     public AssignableValue asAssignableValue(ExpressionContext f) {
         return null;
     }
+
+    @Override
+    public void rewriteChildren(ChildRewriter rewriter) {
+        other = rewriter.value(other);
+    }
 }
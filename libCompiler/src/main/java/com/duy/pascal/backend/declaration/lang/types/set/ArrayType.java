@@ -23,12 +23,13 @@ import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
 import com.duy.pascal.backend.ast.runtime_value.value.access.ArrayIndexAccess;
 import com.duy.pascal.backend.ast.runtime_value.value.access.ConstantAccess;
+import com.duy.pascal.backend.ast.runtime_value.value.access.PrimitiveArrayIndexAccess;
 import com.duy.pascal.backend.ast.runtime_value.value.cloning.ArrayCloner;
 import com.duy.pascal.backend.ast.runtime_value.value.cloning.SetToDynamicArrayCloner;
 import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
 import com.duy.pascal.backend.declaration.lang.types.Type;
+import com.duy.pascal.backend.declaration.lang.types.subrange.EnumSubrangeType;
 import com.duy.pascal.backend.declaration.lang.types.subrange.IntegerRange;
-import com.duy.pascal.backend.declaration.lang.types.subrange.IntegerSubrangeType;
 import com.duy.pascal.backend.declaration.lang.types.util.TypeUtils;
 import com.duy.pascal.backend.parse_exception.ParsingException;
 import com.duy.pascal.backend.parse_exception.syntax.ExpectedTokenException;
@@ -41,7 +42,7 @@ import java.lang.reflect.Array;
 public class ArrayType<ELEMENT extends Type> extends BaseSetType {
     public final ELEMENT elementType;
     @Nullable
-    private IntegerRange bound;
+    private final IntegerRange bound;
     private boolean dynamic;
 
     /**
@@ -74,10 +75,6 @@ public class ArrayType<ELEMENT extends Type> extends BaseSetType {
         return bound;
     }
 
-    public void setBound(@Nullable IntegerSubrangeType bound) {
-        this.bound = bound;
-    }
-
     /**
      * This basically tells if the types are assignable from each other
      * according to Pascal.
@@ -124,12 +121,26 @@ public class ArrayType<ELEMENT extends Type> extends BaseSetType {
         }
     }
 
+    /**
+     * @return storage of the elements if this is a static array of a basic type,
+     * null if the elements are boxed in an Object[]. Dynamic arrays are always boxed,
+     * setlength replaces them with arrays of another length
+     */
+    @Nullable
+    public PrimitiveArrayKind getPrimitiveKind() {
+        return dynamic ? null : PrimitiveArrayKind.of(elementType);
+    }
+
     /**
      * TODO: Must make this actually fill in array with default values
      */
     @NonNull
     @Override
     public Object initialize() {
+        PrimitiveArrayKind kind = getPrimitiveKind();
+        if (kind != null) {
+            return kind.newArray(bound.getSize());
+        }
         Object result = Array.newInstance(elementType.getTransferClass(),
                 bound == null ? 0 : bound.getSize());
         if (bound != null) {
@@ -141,6 +152,10 @@ public class ArrayType<ELEMENT extends Type> extends BaseSetType {
 
     @Override
     public Class<?> getTransferClass() {
+        PrimitiveArrayKind kind = getPrimitiveKind();
+        if (kind != null) {
+            return kind.getArrayClass();
+        }
         String s = elementType.getTransferClass().getName();
         StringBuilder b = new StringBuilder();
         b.append('[');
@@ -181,7 +196,7 @@ public class ArrayType<ELEMENT extends Type> extends BaseSetType {
 
     @Override
     public RuntimeValue cloneValue(final RuntimeValue r) {
-        return new ArrayCloner<ELEMENT>(r);
+        return new ArrayCloner<ELEMENT>(r, getPrimitiveKind());
     }
 
 
@@ -189,7 +204,11 @@ public class ArrayType<ELEMENT extends Type> extends BaseSetType {
     @Override
     public RuntimeValue generateArrayAccess(RuntimeValue array,
                                             RuntimeValue index) {
-        if (bound != null) {
+        PrimitiveArrayKind kind = getPrimitiveKind();
+        if (kind != null) {
+            return new PrimitiveArrayIndexAccess(array, index, bound.getFirst(), kind,
+                    bound instanceof EnumSubrangeType);
+        } else if (bound != null) {
             return new ArrayIndexAccess(array, index, bound.getFirst());
         } else {
             return new ArrayIndexAccess(array, index, 0);
@@ -198,6 +217,10 @@ public class ArrayType<ELEMENT extends Type> extends BaseSetType {
 
     @Override
     public Class<?> getStorageClass() {
+        PrimitiveArrayKind kind = getPrimitiveKind();
+        if (kind != null) {
+            return kind.getArrayClass();
+        }
         Class c = elementType.getStorageClass();
         if (c.isArray()) {
             try {
@@ -237,7 +260,7 @@ public class ArrayType<ELEMENT extends Type> extends BaseSetType {
      * @return - the {@link ConstantAccess} include array object and lineInfo number
      * @throws ParsingException - some token is not expect
      */
-    public static ConstantAccess<Object[]> getArrayConstant(ExpressionContext context,
+    public static ConstantAccess<Object> getArrayConstant(ExpressionContext context,
                                                             Token group, ArrayType type) throws ParsingException {
 
 
@@ -251,14 +274,19 @@ public class ArrayType<ELEMENT extends Type> extends BaseSetType {
         //size of array
         int size = type.getBound().getSize();
         //create new array
-//        Object[] objects = new Object[size];
-        Class<?> elementClass = elementType.getStorageClass();
-        Object[] objects = (Object[]) Array.newInstance(elementClass, size);
+        PrimitiveArrayKind kind = type.getPrimitiveKind();
+        Object objects = kind != null ? kind.newArray(size)
+                : Array.newInstance(elementType.getStorageClass(), size);
         for (int i = 0; i < size; i++) {
             if (!container.hasNext()) {
                 throw new ExpectedTokenException(",", container.peek());
             }
-            objects[i] = container.getConstantElement(context, container, elementType).getValue();
+            Object element = container.getConstantElement(context, container, elementType).getValue();
+            if (kind != null) {
+                kind.set(objects, i, element);
+            } else {
+                Array.set(objects, i, element);
+            }
         }
         return new ConstantAccess<>(objects, type, container.getLineNumber());
     }
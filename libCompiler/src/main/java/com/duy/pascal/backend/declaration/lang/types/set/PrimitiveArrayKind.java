@@ -0,0 +1,178 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.declaration.lang.types.set;
+
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.backend.declaration.lang.types.BasicType;
+import com.duy.pascal.backend.declaration.lang.types.Type;
+
+import java.lang.reflect.Array;
+
+/**
+ * Storage of an array whose elements are a basic ordinal or real type, the elements are
+ * kept in a java primitive array instead of an array of boxed values
+ */
+public enum PrimitiveArrayKind {
+    INT(int.class) {
+        @Override
+        public Object get(Object array, int index) {
+            return ((int[]) array)[index];
+        }
+
+        @Override
+        public void set(Object array, int index, Object value) {
+            ((int[]) array)[index] = ((Number) value).intValue();
+        }
+    },
+    LONG(long.class) {
+        @Override
+        public Object get(Object array, int index) {
+            return ((long[]) array)[index];
+        }
+
+        @Override
+        public void set(Object array, int index, Object value) {
+            ((long[]) array)[index] = ((Number) value).longValue();
+        }
+    },
+    DOUBLE(double.class) {
+        @Override
+        public Object get(Object array, int index) {
+            return ((double[]) array)[index];
+        }
+
+        @Override
+        public void set(Object array, int index, Object value) {
+            ((double[]) array)[index] = ((Number) value).doubleValue();
+        }
+    },
+    CHAR(char.class) {
+        @Override
+        public Object get(Object array, int index) {
+            return ((char[]) array)[index];
+        }
+
+        @Override
+        public void set(Object array, int index, Object value) {
+            ((char[]) array)[index] = (Character) value;
+        }
+    },
+    BOOLEAN(boolean.class) {
+        @Override
+        public Object get(Object array, int index) {
+            return ((boolean[]) array)[index];
+        }
+
+        @Override
+        public void set(Object array, int index, Object value) {
+            ((boolean[]) array)[index] = (Boolean) value;
+        }
+    },
+    BYTE(byte.class) {
+        @Override
+        public Object get(Object array, int index) {
+            return ((byte[]) array)[index];
+        }
+
+        @Override
+        public void set(Object array, int index, Object value) {
+            ((byte[]) array)[index] = ((Number) value).byteValue();
+        }
+    };
+
+    private final Class<?> componentClass;
+
+    PrimitiveArrayKind(Class<?> componentClass) {
+        this.componentClass = componentClass;
+    }
+
+    /**
+     * @return kind of storage for the element type, null if the elements must be boxed
+     */
+    @Nullable
+    public static PrimitiveArrayKind of(Type elementType) {
+        if (elementType == BasicType.Integer) {
+            return INT;
+        } else if (elementType == BasicType.Long) {
+            return LONG;
+        } else if (elementType == BasicType.Double) {
+            return DOUBLE;
+        } else if (elementType == BasicType.Character) {
+            return CHAR;
+        } else if (elementType == BasicType.Boolean) {
+            return BOOLEAN;
+        } else if (elementType == BasicType.Byte) {
+            return BYTE;
+        }
+        return null;
+    }
+
+    /**
+     * @return the kind of a primitive array object, null if it is not a primitive array
+     */
+    @Nullable
+    public static PrimitiveArrayKind ofArray(Object array) {
+        Class<?> component = array.getClass().getComponentType();
+        if (component == null || !component.isPrimitive()) {
+            return null;
+        }
+        for (PrimitiveArrayKind kind : values()) {
+            if (kind.componentClass == component) {
+                return kind;
+            }
+        }
+        return null;
+    }
+
+    public Class<?> getArrayClass() {
+        return Array.newInstance(componentClass, 0).getClass();
+    }
+
+    /**
+     * New array filled with the default value of the element type (0, #0 or false)
+     */
+    public Object newArray(int size) {
+        return Array.newInstance(componentClass, size);
+    }
+
+    public Object copy(Object array) {
+        int length = Array.getLength(array);
+        Object result = newArray(length);
+        System.arraycopy(array, 0, result, 0, length);
+        return result;
+    }
+
+    /**
+     * Box all elements of a primitive array, used where an array of objects is expected
+     */
+    public static Object[] toObjectArray(Object array) {
+        if (array == null || array instanceof Object[]) {
+            return (Object[]) array;
+        }
+        int length = Array.getLength(array);
+        Object[] result = new Object[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = Array.get(array, i);
+        }
+        return result;
+    }
+
+    public abstract Object get(Object array, int index);
+
+    public abstract void set(Object array, int index, Object value);
+}
@@ -0,0 +1,133 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.declaration.lang.types.set;
+
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.backend.ast.runtime_value.value.EnumElementValue;
+import com.duy.pascal.backend.declaration.lang.types.BasicType;
+import com.duy.pascal.backend.declaration.lang.types.Type;
+import com.duy.pascal.backend.declaration.lang.types.subrange.CharacterSubrangeType;
+import com.duy.pascal.backend.declaration.lang.types.subrange.EnumSubrangeType;
+import com.duy.pascal.backend.declaration.lang.types.subrange.IntegerSubrangeType;
+
+/**
+ * Maps the elements of an ordinal set type to bit positions, used by
+ * {@link com.duy.pascal.backend.ast.runtime_value.value.PascalBitSet}
+ */
+public abstract class SetElementKind {
+    private static final SetElementKind CHAR = new SetElementKind() {
+        @Override
+        public int ordinal(Object element) {
+            return (Character) element;
+        }
+
+        @Override
+        public Object element(int ordinal) {
+            return (char) ordinal;
+        }
+    };
+
+    private static final SetElementKind BYTE = new SetElementKind() {
+        @Override
+        public int ordinal(Object element) {
+            return ((Number) element).intValue() & 0xFF;
+        }
+
+        @Override
+        public Object element(int ordinal) {
+            return (byte) ordinal;
+        }
+    };
+
+    private static final SetElementKind BOOLEAN = new SetElementKind() {
+        @Override
+        public int ordinal(Object element) {
+            return (Boolean) element ? 1 : 0;
+        }
+
+        @Override
+        public Object element(int ordinal) {
+            return ordinal == 1;
+        }
+    };
+
+    /**
+     * @return the kind of the element type, null if the set must be stored as a list
+     * (integer, real, string... have too many values for a bitset)
+     */
+    @Nullable
+    public static SetElementKind of(@Nullable Type elementType) {
+        if (elementType == BasicType.Character || elementType instanceof CharacterSubrangeType) {
+            return CHAR;
+        } else if (elementType == BasicType.Byte) {
+            return BYTE;
+        } else if (elementType == BasicType.Boolean) {
+            return BOOLEAN;
+        } else if (elementType instanceof IntegerSubrangeType) {
+            return new IntegerKind(((IntegerSubrangeType) elementType).getFirst());
+        } else if (elementType instanceof EnumSubrangeType) {
+            return new EnumKind(((EnumSubrangeType) elementType).getEnumGroupType());
+        } else if (elementType instanceof EnumGroupType) {
+            return new EnumKind((EnumGroupType) elementType);
+        }
+        return null;
+    }
+
+    /**
+     * @return bit position of the element, never negative
+     */
+    public abstract int ordinal(Object element);
+
+    public abstract Object element(int ordinal);
+
+    private static class IntegerKind extends SetElementKind {
+        private final int first;
+
+        IntegerKind(int first) {
+            this.first = first;
+        }
+
+        @Override
+        public int ordinal(Object element) {
+            return ((Number) element).intValue() - first;
+        }
+
+        @Override
+        public Object element(int ordinal) {
+            return ordinal + first;
+        }
+    }
+
+    private static class EnumKind extends SetElementKind {
+        private final EnumGroupType group;
+
+        EnumKind(EnumGroupType group) {
+            this.group = group;
+        }
+
+        @Override
+        public int ordinal(Object element) {
+            return ((EnumElementValue) element).getIndex();
+        }
+
+        @Override
+        public Object element(int ordinal) {
+            return group.get(ordinal);
+        }
+    }
+}
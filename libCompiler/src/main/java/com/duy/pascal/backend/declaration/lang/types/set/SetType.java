@@ -17,9 +17,11 @@
 package com.duy.pascal.backend.declaration.lang.types.set;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.backend.ast.runtime_value.value.EnumElementValue;
+import com.duy.pascal.backend.ast.runtime_value.value.PascalBitSet;
 import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
 import com.duy.pascal.backend.ast.runtime_value.value.access.ConstantAccess;
 import com.duy.pascal.backend.ast.runtime_value.value.access.SetIndexAccess;
@@ -38,6 +40,7 @@ import com.duy.pascal.backend.tokens.Token;
 import com.duy.pascal.backend.tokens.grouping.BracketedToken;
 import com.duy.pascal.backend.tokens.grouping.GrouperToken;
 
+import java.util.Collection;
 import java.util.LinkedList;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -52,23 +55,31 @@ public class SetType<T extends Type> extends BaseSetType {
      * dynamic element
      */
     private LinkedList list = new LinkedList<>();
+    /**
+     * not null if the values of this type are stored as a {@link PascalBitSet}
+     */
+    @Nullable
+    private SetElementKind elementKind;
 
     public SetType(T elementType, LinkedList linkedList, LineInfo lineInfo) {
         this.elementType = elementType;
         this.list = linkedList;
         this.lineInfo = lineInfo;
+        this.elementKind = SetElementKind.of(elementType);
     }
 
     public SetType(T elementType, LineInfo lineInfo) {
         this.elementType = elementType;
         this.lineInfo = lineInfo;
+        this.elementKind = SetElementKind.of(elementType);
     }
 
     /**
      * @param typeReference - type of set (example: set of char => type is "char")
-     * @return the set constant, I define the enum as {@link LinkedList}
+     * @return the set constant, a {@link PascalBitSet} if the element type is ordinal,
+     * otherwise a {@link LinkedList}
      */
-    public static ConstantAccess<LinkedList> getSetConstant(ExpressionContext context, Token token,
+    public static ConstantAccess<Collection> getSetConstant(ExpressionContext context, Token token,
                                                             AtomicReference<Type> typeReference)
             throws ParsingException {
         if (!(token instanceof BracketedToken)) {
@@ -108,7 +119,9 @@ public class SetType<T extends Type> extends BaseSetType {
             linkedList.add(element.getValue());
         }
         if (typeReference.get() == null) typeReference.set(temp);
-        return new ConstantAccess<LinkedList>(linkedList, typeReference.get(), bracketedToken.getLineNumber());
+        SetElementKind kind = SetElementKind.of(typeReference.get());
+        Collection value = kind == null ? linkedList : PascalBitSet.valueOf(kind, linkedList);
+        return new ConstantAccess<>(value, typeReference.get(), bracketedToken.getLineNumber());
     }
 
     /**
@@ -176,6 +189,11 @@ public class SetType<T extends Type> extends BaseSetType {
         return elementType;
     }
 
+    @Nullable
+    public SetElementKind getElementKind() {
+        return elementKind;
+    }
+
     @Override
     public int getSize() {
         return list.size();
@@ -184,12 +202,15 @@ public class SetType<T extends Type> extends BaseSetType {
     @NonNull
     @Override
     public Object initialize() {
+        if (elementKind != null) {
+            return new PascalBitSet(elementKind);
+        }
         return this.list;
     }
 
     @Override
     public Class getTransferClass() {
-        return LinkedList.class;
+        return elementKind != null ? PascalBitSet.class : LinkedList.class;
     }
 
     @Override
@@ -230,7 +251,7 @@ public class SetType<T extends Type> extends BaseSetType {
 
     @Override
     public RuntimeValue cloneValue(RuntimeValue r) {
-        return new SetCloner<>(r);
+        return new SetCloner<>(r, elementKind);
     }
 
     @NonNull
@@ -242,7 +263,7 @@ public class SetType<T extends Type> extends BaseSetType {
 
     @Override
     public Class<?> getStorageClass() {
-        return LinkedList.class;
+        return elementKind != null ? PascalBitSet.class : LinkedList.class;
     }
 
     @NonNull
@@ -20,10 +20,12 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
+import com.duy.pascal.backend.ast.variablecontext.ContainsVariables;
 import com.duy.pascal.backend.declaration.NameEntityImpl;
 import com.duy.pascal.backend.linenumber.LineInfo;
 import com.duy.pascal.backend.declaration.lang.types.Type;
 
+import java.lang.reflect.Array;
 import java.util.Map;
 
 public class VariableDeclaration extends NameEntityImpl implements Cloneable {
@@ -97,11 +99,41 @@ public class VariableDeclaration extends NameEntityImpl implements Cloneable {
 
 
     public Object initialize(Map<String, Object> map) {
-        Object value = initialValue == null ? type.initialize() : initialValue;
+        Object value = initialValue == null ? type.initialize() : copyOf(initialValue);
         map.put(name, value);
         return value;
     }
 
+    public Object initialize(Object[] frame, int slot) {
+        Object value = initialValue == null ? type.initialize() : copyOf(initialValue);
+        frame[slot] = value;
+        return value;
+    }
+
+    /**
+     * The initial value belongs to the declaration, which is shared by every run of the
+     * program, so a run gets its own copy of the values it can modify in place
+     */
+    private static Object copyOf(Object value) {
+        if (value instanceof StringBuilder) {
+            return new StringBuilder((StringBuilder) value);
+        } else if (value instanceof ContainsVariables) {
+            return ((ContainsVariables) value).clone();
+        } else if (value instanceof Object[]) {
+            Object[] array = ((Object[]) value).clone();
+            for (int i = 0; i < array.length; i++) {
+                array[i] = copyOf(array[i]);
+            }
+            return array;
+        } else if (value != null && value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            Object copy = Array.newInstance(value.getClass().getComponentType(), length);
+            System.arraycopy(value, 0, copy, 0, length);
+            return copy;
+        }
+        return value;
+    }
+
     @Override
     public int hashCode() {
         return name.hashCode() * 31 + type.hashCode();
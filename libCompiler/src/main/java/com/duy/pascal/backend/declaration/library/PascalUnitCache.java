@@ -0,0 +1,257 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.declaration.library;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.backend.parse_exception.ParsingException;
+import com.duy.pascal.backend.source_include.FileScriptSource;
+import com.duy.pascal.backend.source_include.ScriptSource;
+import com.duy.pascal.frontend.activities.IRunnablePascal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Cache of parsed units imported by the uses clause, so a unit shared by many programs
+ * (or compiled again and again by the editor) is only parsed when its source changes.
+ * <p>
+ * An entry is keyed by the path of the source, it is reused while the modification time
+ * and length of the file are unchanged, otherwise the content is read again and the
+ * entry is still reused if the hash of the content has not changed. Units which are not
+ * read from a file have no stable key, they are parsed on every import.
+ * <p>
+ * A parsed unit holds the libraries it imported, bound to the handler it was parsed
+ * with, so an entry is only reused by programs compiled with the same handler. The unit
+ * keeps its handler alive, so the cache only holds it softly and the handler weakly: a
+ * handler which is not used anymore can be collected with its units. At most
+ * {@link #MAX_ENTRIES} units are kept, the least recently imported one is dropped first.
+ * <p>
+ * Units are parsed without include directories, they can not import other source
+ * units, so the source of the unit is the only thing which can invalidate an entry.
+ */
+public class PascalUnitCache {
+    public static final int MAX_ENTRIES = 16;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final PascalUnitCache INSTANCE = new PascalUnitCache();
+
+    private final LinkedHashMap<String, Entry> entries
+            = new LinkedHashMap<String, Entry>(MAX_ENTRIES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private int hitCount = 0;
+    private int missCount = 0;
+
+    public static PascalUnitCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Find the unit in the include directories, parse it if it is not cached
+     *
+     * @param unitName - name of the unit, the source is unitName + ".pas"
+     * @return the unit, null if no include directory contains it
+     */
+    @Nullable
+    public PascalUnitDeclaration load(List<ScriptSource> includeDirectories, String unitName,
+                                      @Nullable IRunnablePascal handler) throws ParsingException {
+        String sourceName = unitName + ".pas";
+        for (ScriptSource source : includeDirectories) {
+            if (!(source instanceof FileScriptSource)) {
+                Reader reader = source.read(sourceName);
+                if (reader == null) {
+                    continue;
+                }
+                countMiss();
+                return new PascalUnitDeclaration(reader, unitName,
+                        new ArrayList<ScriptSource>(), handler);
+            }
+            File file = ((FileScriptSource) source).getFile(sourceName);
+            if (!file.isFile()) {
+                continue;
+            }
+            String key = file.getAbsolutePath();
+            PascalUnitDeclaration unit = getIfUnmodified(key, file, handler);
+            if (unit != null) {
+                return unit;
+            }
+
+            Reader reader = source.read(sourceName);
+            if (reader == null) {
+                continue;
+            }
+            String content = readFully(reader);
+            long hash = hash(content);
+            long lastModified = file.lastModified();
+            long length = file.length();
+
+            unit = getIfSameContent(key, hash, lastModified, length, handler);
+            if (unit != null) {
+                return unit;
+            }
+            unit = new PascalUnitDeclaration(new StringReader(content), unitName,
+                    new ArrayList<ScriptSource>(), handler);
+            put(key, new Entry(unit, handler, hash, lastModified, length));
+            return unit;
+        }
+        return null;
+    }
+
+    private synchronized PascalUnitDeclaration getIfUnmodified(String key, File file,
+                                                               @Nullable IRunnablePascal handler) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.isFor(handler)
+                && entry.lastModified == file.lastModified() && entry.length == file.length()) {
+            PascalUnitDeclaration unit = entry.unit.get();
+            if (unit != null) {
+                hitCount++;
+                return unit;
+            }
+            entries.remove(key);
+        }
+        return null;
+    }
+
+    private synchronized PascalUnitDeclaration getIfSameContent(String key, long hash,
+                                                                long lastModified, long length,
+                                                                @Nullable IRunnablePascal handler) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.isFor(handler) && entry.hash == hash) {
+            PascalUnitDeclaration unit = entry.unit.get();
+            if (unit != null) {
+                entry.lastModified = lastModified;
+                entry.length = length;
+                hitCount++;
+                return unit;
+            }
+        }
+        missCount++;
+        return null;
+    }
+
+    private synchronized void countMiss() {
+        missCount++;
+    }
+
+    private synchronized void put(String key, Entry entry) {
+        entries.put(key, entry);
+    }
+
+    /**
+     * Drop all parsed units, the statistics are kept
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return number of imports served from the cache
+     */
+    public synchronized int getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return number of imports which had to parse the unit
+     */
+    public synchronized int getMissCount() {
+        return missCount;
+    }
+
+    public synchronized void resetStatistics() {
+        hitCount = 0;
+        missCount = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "PascalUnitCache{size=" + entries.size() + ", hits=" + hitCount
+                + ", misses=" + missCount + "}";
+    }
+
+    @NonNull
+    private static String readFully(Reader reader) throws ParsingException {
+        StringBuilder content = new StringBuilder();
+        char[] buffer = new char[4096];
+        try {
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                content.append(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new ParsingException(null, e.getMessage());
+        } finally {
+            try {
+                reader.close();
+            } catch (IOException ignored) {
+            }
+        }
+        return content.toString();
+    }
+
+    private static long hash(String content) {
+        CRC32 crc = new CRC32();
+        crc.update(content.getBytes(UTF_8));
+        return (crc.getValue() << 32) ^ content.length();
+    }
+
+    private static class Entry {
+        final SoftReference<PascalUnitDeclaration> unit;
+        /**
+         * null if the unit was parsed without handler
+         */
+        @Nullable
+        final WeakReference<IRunnablePascal> handler;
+        final long hash;
+        long lastModified;
+        long length;
+
+        Entry(PascalUnitDeclaration unit, @Nullable IRunnablePascal handler, long hash,
+              long lastModified, long length) {
+            this.unit = new SoftReference<>(unit);
+            this.handler = handler == null ? null : new WeakReference<>(handler);
+            this.hash = hash;
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+
+        boolean isFor(@Nullable IRunnablePascal handler) {
+            if (this.handler == null) {
+                return handler == null;
+            }
+            return handler != null && this.handler.get() == handler;
+        }
+    }
+}
@@ -32,6 +32,7 @@ import com.duy.pascal.backend.parse_exception.define.MissingBodyFunctionExceptio
 import com.duy.pascal.backend.parse_exception.syntax.ExpectedTokenException;
 import com.duy.pascal.backend.parse_exception.syntax.MisplacedDeclarationException;
 import com.duy.pascal.backend.source_include.ScriptSource;
+import com.duy.pascal.backend.tokenizer.Symbol;
 import com.duy.pascal.backend.tokens.EOFToken;
 import com.duy.pascal.backend.tokens.Token;
 import com.duy.pascal.backend.tokens.basic.FinalizationToken;
@@ -47,7 +48,6 @@ import com.duy.pascal.backend.tokens.grouping.GrouperToken;
 import com.duy.pascal.backend.tokens.grouping.UnitToken;
 import com.duy.pascal.backend.declaration.lang.types.Type;
 import com.duy.pascal.frontend.activities.IRunnablePascal;
-import com.google.common.collect.ArrayListMultimap;
 
 import java.io.Reader;
 import java.util.ArrayList;
@@ -101,8 +101,8 @@ public class PascalUnitDeclaration extends ExecutableCodeUnit implements PascalL
 
     @Override
     public void declareTypes(ExpressionContextMixin parentContext) {
-        Map<String, Type> typedefs = context.getTypedefs();
-        for (Map.Entry<String, Type> type : typedefs.entrySet()) {
+        Map<Symbol, Type> typedefs = context.getTypedefs();
+        for (Map.Entry<Symbol, Type> type : typedefs.entrySet()) {
             parentContext.declareTypedef(type.getKey(), type.getValue());
         }
     }
@@ -126,9 +126,8 @@ public class PascalUnitDeclaration extends ExecutableCodeUnit implements PascalL
         //this is bad performance when match argument and leak memory
         ArrayList<String> forwardFunctions = ((UnitExpressionContext) context).getForwardFunctions();
 
-        ArrayListMultimap<String, AbstractFunction> callableFunctions = context.getCallableFunctions();
         for (String name : forwardFunctions) {
-            List<AbstractFunction> abstractFunctions = callableFunctions.get(name);
+            List<AbstractFunction> abstractFunctions = context.getCallableFunctionsLocal(name);
             for (AbstractFunction function : abstractFunctions) {
                 parentContext.declareFunction(function);
             }
@@ -233,12 +232,11 @@ public class PascalUnitDeclaration extends ExecutableCodeUnit implements PascalL
                 next = i.peek();
             }
 
-            ArrayListMultimap<String, AbstractFunction> callableFunctions = getCallableFunctions();
             for (String name : forwardFunctions) {
-                List<AbstractFunction> abstractFunctions = callableFunctions.get(name);
+                List<AbstractFunction> abstractFunctions = getCallableFunctionsLocal(name);
                 for (AbstractFunction f : abstractFunctions) {
                     if (f instanceof FunctionDeclaration) {
-                        if (((FunctionDeclaration) f).instructions == null) {
+                        if (!((FunctionDeclaration) f).hasBody()) {
                             throw new MissingBodyFunctionException(f.getName(),
                                     ((FunctionDeclaration) f).line);
                         }
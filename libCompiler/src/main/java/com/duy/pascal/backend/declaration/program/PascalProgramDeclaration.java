@@ -21,9 +21,12 @@ import android.support.annotation.NonNull;
 import com.duy.pascal.backend.ast.codeunit.ExecutableCodeUnit;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.instructions.Executable;
-import com.duy.pascal.backend.ast.variablecontext.FunctionOnStack;
 import com.duy.pascal.backend.ast.codeunit.RuntimePascalProgram;
+import com.duy.pascal.backend.config.BodyParseMode;
+import com.duy.pascal.backend.config.ExecutionMode;
+import com.duy.pascal.backend.config.Optimization;
 import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.backend.optimizer.PassManager;
 import com.duy.pascal.backend.parse_exception.ParsingException;
 import com.duy.pascal.backend.parse_exception.define.MultipleDefinitionsMainException;
 import com.duy.pascal.backend.parse_exception.missing.MissingDotTokenException;
@@ -35,13 +38,14 @@ import com.duy.pascal.backend.tokens.grouping.GrouperToken;
 import com.duy.pascal.frontend.activities.IRunnablePascal;
 
 import java.io.Reader;
+import java.util.EnumSet;
 import java.util.List;
 
 public class PascalProgramDeclaration extends ExecutableCodeUnit {
     public Executable main;
 
-    private FunctionOnStack mainRunning;
     private IRunnablePascal handler;
+    private PassManager passManager;
 
     public PascalProgramDeclaration(Reader program,
                                     String sourceName, List<ScriptSource> includeDirectories,
@@ -49,6 +53,31 @@ public class PascalProgramDeclaration extends ExecutableCodeUnit {
             throws ParsingException {
         super(program, sourceName, includeDirectories, handler);
         this.handler = handler;
+        optimize();
+    }
+
+    public PascalProgramDeclaration(GrouperToken tokens,
+                                    String sourceName, List<ScriptSource> includeDirectories,
+                                    IRunnablePascal handler, BodyParseMode bodyParseMode)
+            throws ParsingException {
+        super(tokens, sourceName, includeDirectories, handler, bodyParseMode);
+        this.handler = handler;
+        optimize();
+    }
+
+    /**
+     * @param optimizations passes run over the program once it is parsed, instead of the
+     *                      default ones of {@link com.duy.pascal.backend.config.ProgramConfig}
+     */
+    public PascalProgramDeclaration(GrouperToken tokens,
+                                    String sourceName, List<ScriptSource> includeDirectories,
+                                    IRunnablePascal handler, BodyParseMode bodyParseMode,
+                                    EnumSet<Optimization> optimizations)
+            throws ParsingException {
+        super(tokens, sourceName, includeDirectories, handler, bodyParseMode);
+        this.handler = handler;
+        config.setOptimizations(optimizations);
+        optimize();
     }
 
     @Override
@@ -58,7 +87,50 @@ public class PascalProgramDeclaration extends ExecutableCodeUnit {
 
     @Override
     public RuntimeExecutableCodeUnit<PascalProgramDeclaration> generate() {
-        return new RuntimePascalProgram(this);
+        return generate(ExecutionMode.RELEASE);
+    }
+
+    /**
+     * @param executionMode {@link ExecutionMode#INSTRUMENTED} if the program will be debugged,
+     *                      both modes run the same tree
+     */
+    public RuntimeExecutableCodeUnit<PascalProgramDeclaration> generate(ExecutionMode executionMode) {
+        return generate(executionMode, handler);
+    }
+
+    /**
+     * Creates a run of the program with its own globals, units and input/output. The declaration
+     * is not changed by a run, so several runs can be generated from it and executed at the
+     * same time on different threads
+     *
+     * @param handler console of the run
+     */
+    public RuntimeExecutableCodeUnit<PascalProgramDeclaration> generate(ExecutionMode executionMode,
+                                                                        IRunnablePascal handler) {
+        return new RuntimePascalProgram(this, executionMode, handler);
+    }
+
+    /**
+     * Runs the optimizations of the config over the parsed program. The tree is shared by
+     * every run generated later, so it is only changed here
+     *
+     * @throws ParsingException if a pass failed, the tree may be half rewritten and can not
+     *                          be run
+     */
+    private void optimize() throws ParsingException {
+        passManager = new PassManager(config.getOptimizations());
+        try {
+            passManager.optimize(this);
+        } catch (RuntimeException e) {
+            throw new ParsingException(null, "Internal error in the optimizer: " + e);
+        }
+    }
+
+    /**
+     * @return the passes which were run over the program when it was parsed
+     */
+    public PassManager getPasses() {
+        return passManager;
     }
 
     protected class PascalProgramExpressionContext extends CodeUnitExpressionContext {
@@ -0,0 +1,251 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.jit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Writes a class file with a constant pool and methods, without fields or attributes other
+ * than the code. The version is the one of Java 5, so the verifier infers the types of the
+ * stack itself and no stack map frame has to be written
+ */
+class ClassFileWriter {
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_PROTECTED = 0x0004;
+    static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+    private static final int VERSION = 49;
+
+    private static final int UTF8 = 1;
+    private static final int INTEGER = 3;
+    private static final int LONG = 5;
+    private static final int DOUBLE = 6;
+    private static final int CLASS = 7;
+    private static final int FIELD = 9;
+    private static final int METHOD = 10;
+    private static final int NAME_AND_TYPE = 12;
+
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+    private final DataOutputStream poolOut = new DataOutputStream(pool);
+    private final HashMap<String, Integer> entries = new HashMap<>();
+    private int poolSize = 1;
+
+    private final ByteArrayOutputStream methods = new ByteArrayOutputStream();
+    private final DataOutputStream methodsOut = new DataOutputStream(methods);
+    private int methodCount = 0;
+
+    private final String name;
+    private final String superName;
+
+    /**
+     * @param name      internal name of the class, with slashes
+     * @param superName internal name of the super class
+     */
+    ClassFileWriter(String name, String superName) {
+        this.name = name;
+        this.superName = superName;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    int utf8(String value) {
+        Integer index = entries.get("U" + value);
+        if (index != null) {
+            return index;
+        }
+        try {
+            poolOut.writeByte(UTF8);
+            poolOut.writeUTF(value);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return add("U" + value, 1);
+    }
+
+    int classReference(String className) {
+        Integer index = entries.get("C" + className);
+        if (index != null) {
+            return index;
+        }
+        int nameIndex = utf8(className);
+        write(CLASS, nameIndex);
+        return add("C" + className, 1);
+    }
+
+    int method(String className, String name, String descriptor) {
+        return member(METHOD, className, name, descriptor);
+    }
+
+    int field(String className, String name, String descriptor) {
+        return member(FIELD, className, name, descriptor);
+    }
+
+    int integer(int value) {
+        String key = "I" + value;
+        Integer index = entries.get(key);
+        if (index != null) {
+            return index;
+        }
+        try {
+            poolOut.writeByte(INTEGER);
+            poolOut.writeInt(value);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return add(key, 1);
+    }
+
+    int longConstant(long value) {
+        String key = "J" + value;
+        Integer index = entries.get(key);
+        if (index != null) {
+            return index;
+        }
+        try {
+            poolOut.writeByte(LONG);
+            poolOut.writeLong(value);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return add(key, 2);
+    }
+
+    int doubleConstant(double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        String key = "D" + bits;
+        Integer index = entries.get(key);
+        if (index != null) {
+            return index;
+        }
+        try {
+            poolOut.writeByte(DOUBLE);
+            poolOut.writeLong(bits);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return add(key, 2);
+    }
+
+    /**
+     * Adds a method whose code is complete
+     */
+    void addMethod(int access, String name, String descriptor, MethodCode code) {
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        int codeIndex = utf8("Code");
+        byte[] bytes = code.getCode();
+        ArrayList<int[]> handlers = code.getHandlers();
+        try {
+            methodsOut.writeShort(access);
+            methodsOut.writeShort(nameIndex);
+            methodsOut.writeShort(descriptorIndex);
+            methodsOut.writeShort(1);
+            methodsOut.writeShort(codeIndex);
+            methodsOut.writeInt(2 + 2 + 4 + bytes.length + 2 + 8 * handlers.size() + 2);
+            methodsOut.writeShort(code.getMaxStack());
+            methodsOut.writeShort(code.getMaxLocals());
+            methodsOut.writeInt(bytes.length);
+            methodsOut.write(bytes);
+            methodsOut.writeShort(handlers.size());
+            for (int[] handler : handlers) {
+                methodsOut.writeShort(handler[0]);
+                methodsOut.writeShort(handler[1]);
+                methodsOut.writeShort(handler[2]);
+                //catch any type
+                methodsOut.writeShort(0);
+            }
+            methodsOut.writeShort(0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        methodCount++;
+    }
+
+    byte[] toByteArray() {
+        int thisIndex = classReference(name);
+        int superIndex = classReference(superName);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(VERSION);
+            out.writeShort(poolSize);
+            pool.writeTo(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisIndex);
+            out.writeShort(superIndex);
+            //interfaces and fields
+            out.writeShort(0);
+            out.writeShort(0);
+            out.writeShort(methodCount);
+            methods.writeTo(out);
+            //attributes
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private int member(int tag, String className, String name, String descriptor) {
+        String key = tag + className + "." + name + descriptor;
+        Integer index = entries.get(key);
+        if (index != null) {
+            return index;
+        }
+        int classIndex = classReference(className);
+        Integer nameAndType = entries.get("N" + name + descriptor);
+        if (nameAndType == null) {
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            write(NAME_AND_TYPE, nameIndex, descriptorIndex);
+            nameAndType = add("N" + name + descriptor, 1);
+        }
+        write(tag, classIndex, nameAndType);
+        return add(key, 1);
+    }
+
+    private void write(int tag, int... indexes) {
+        try {
+            poolOut.writeByte(tag);
+            for (int index : indexes) {
+                poolOut.writeShort(index);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Records the entry just written to the pool
+     *
+     * @param slots 2 for long and double constants
+     */
+    private int add(String key, int slots) {
+        int index = poolSize;
+        entries.put(key, index);
+        poolSize += slots;
+        return index;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.jit;
+
+import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
+import com.duy.pascal.backend.ast.variablecontext.VariableContext;
+import com.duy.pascal.backend.declaration.lang.function.FunctionDeclaration;
+import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
+import com.duy.pascal.backend.runtime_exception.StackOverflowException;
+import com.duy.pascal.backend.runtime_exception.UnhandledPascalException;
+
+/**
+ * Procedure or function translated to JVM bytecode by {@link JitCompiler}. The generated
+ * class extends this one, keeps the parameters and local variables of the routine in JVM
+ * locals and reads the global variables through the frame of the program
+ */
+public abstract class CompiledRoutine {
+    protected final FunctionDeclaration function;
+    /**
+     * lines, routines and other objects used by the generated code
+     */
+    protected final Object[] constants;
+
+    protected CompiledRoutine(FunctionDeclaration function, Object[] constants) {
+        this.function = function;
+        this.constants = constants;
+    }
+
+    public FunctionDeclaration getFunction() {
+        return function;
+    }
+
+    /**
+     * Runs the routine in place of {@link FunctionDeclaration#call}
+     *
+     * @param globals   frame of the program, which holds the global variables
+     * @param arguments values of the parameters
+     * @return value of the function, null for a procedure
+     */
+    public Object invoke(VariableContext globals, RuntimeExecutableCodeUnit<?> main,
+                         Object[] arguments) throws RuntimePascalException {
+        try {
+            return run(globals, main, arguments);
+        } catch (StackOverflowError e) {
+            throw new StackOverflowException(function.getLineNumber());
+        } catch (RuntimeException e) {
+            throw new UnhandledPascalException(function.getLineNumber(), e);
+        }
+    }
+
+    protected abstract Object run(VariableContext globals, RuntimeExecutableCodeUnit<?> main,
+                                  Object[] arguments) throws RuntimePascalException;
+}
@@ -0,0 +1,89 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.jit;
+
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.backend.ast.codeunit.CodeUnit;
+import com.duy.pascal.backend.config.ExecutionBackend;
+import com.duy.pascal.backend.declaration.lang.function.FunctionDeclaration;
+import com.duy.pascal.backend.declaration.program.PascalProgramDeclaration;
+import com.duy.pascal.frontend.DLog;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Second execution tier: {@link FunctionDeclaration} counts its calls and the iterations of
+ * its loops, past {@link #THRESHOLD} the routine is translated to JVM bytecode by
+ * {@link RoutineTranslator} and the next calls run the compiled class.
+ * <p>
+ * Only routines declared in the program itself are compiled, whose parameters and local
+ * variables are integer, int64, real or boolean. Any other routine is run by the tree
+ * interpreter. Dalvik can not load class files, see {@link com.duy.pascal.backend.config.ProgramConfig#isJit()}.
+ * Programs run by {@link ExecutionBackend#STACKLESS} are not compiled, the compiled calls
+ * would nest java calls
+ */
+public class JitCompiler {
+    /**
+     * calls and loop iterations after which a routine is compiled
+     */
+    public static final int THRESHOLD = 5000;
+    private static final String TAG = "JitCompiler";
+    private static final String PREFIX = "com/duy/pascal/backend/jit/Routine$";
+    private static final AtomicInteger classCount = new AtomicInteger();
+
+    /**
+     * @return the compiled routine, null if it can not be compiled
+     */
+    @Nullable
+    public static CompiledRoutine compile(FunctionDeclaration function) {
+        CodeUnit root = function.declaration.root();
+        if (!(root instanceof PascalProgramDeclaration) || !root.getConfig().isJit()
+                || root.getConfig().getBackend() == ExecutionBackend.STACKLESS
+                || function.declaration.getParentContext() != root.getContext()
+                || function.instructions == null) {
+            return null;
+        }
+        try {
+            String name = PREFIX + classCount.incrementAndGet();
+            RoutineTranslator translator = new RoutineTranslator(function, root.getContext(), name);
+            byte[] bytes = translator.translate();
+            Class<?> compiled = new JitClassLoader().define(name.replace('/', '.'), bytes);
+            return (CompiledRoutine) compiled
+                    .getConstructor(FunctionDeclaration.class, Object[].class)
+                    .newInstance(function, translator.getConstants());
+        } catch (JitException e) {
+            DLog.d(TAG, "compile " + function.getName() + ": " + e.getMessage());
+        } catch (Exception | LinkageError e) {
+            DLog.d(TAG, "compile " + function.getName() + ": " + e);
+        }
+        return null;
+    }
+
+    /**
+     * Loader of one compiled routine, the class can be unloaded with its program
+     */
+    private static class JitClassLoader extends ClassLoader {
+        JitClassLoader() {
+            super(CompiledRoutine.class.getClassLoader());
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.jit;
+
+import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
+import com.duy.pascal.backend.ast.runtime_value.value.NullValue;
+import com.duy.pascal.backend.ast.variablecontext.VariableContext;
+import com.duy.pascal.backend.declaration.lang.function.AbstractCallableFunction;
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.backend.parse_exception.operator.DivisionByZeroException;
+import com.duy.pascal.backend.runtime_exception.IndexOutOfBoundsException;
+import com.duy.pascal.backend.runtime_exception.MethodCallException;
+import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
+import com.duy.pascal.backend.runtime_exception.StackOverflowException;
+import com.duy.pascal.backend.runtime_exception.UnhandledPascalException;
+import com.duy.pascal.backend.runtime_exception.internal.MethodReflectionException;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Operations called by the code of a {@link CompiledRoutine} which raise the same errors as
+ * the nodes of the tree interpreter
+ */
+public final class JitSupport {
+    private JitSupport() {
+    }
+
+    public static int div(int v1, int v2, LineInfo line) throws DivisionByZeroException {
+        if (v2 == 0) {
+            throw new DivisionByZeroException(line);
+        }
+        return v1 / v2;
+    }
+
+    public static int mod(int v1, int v2, LineInfo line) throws UnhandledPascalException {
+        if (v2 == 0) {
+            throw new UnhandledPascalException(line, new ArithmeticException("/ by zero"));
+        }
+        return v1 % v2;
+    }
+
+    public static long div(long v1, long v2, LineInfo line) throws UnhandledPascalException {
+        if (v2 == 0) {
+            throw new UnhandledPascalException(line, new ArithmeticException("/ by zero"));
+        }
+        return v1 / v2;
+    }
+
+    public static long mod(long v1, long v2, LineInfo line) throws UnhandledPascalException {
+        if (v2 == 0) {
+            throw new UnhandledPascalException(line, new ArithmeticException("/ by zero"));
+        }
+        return v1 % v2;
+    }
+
+    public static double divide(double v1, double v2, LineInfo line)
+            throws DivisionByZeroException {
+        if (v2 == 0d) {
+            throw new DivisionByZeroException(line);
+        }
+        return v1 / v2;
+    }
+
+    /**
+     * @param index  index of the element in pascal
+     * @param offset lowest index of the array
+     * @return position of the element in the java array
+     */
+    public static int position(Object array, int index, int offset, LineInfo line)
+            throws IndexOutOfBoundsException {
+        int position = index - offset;
+        int length = Array.getLength(array);
+        if (position < 0 || position >= length) {
+            throw new IndexOutOfBoundsException(line, index, offset, offset + length - 1);
+        }
+        return position;
+    }
+
+    /**
+     * Calls a routine which is not compiled with the checks of a call of the interpreter
+     */
+    public static Object call(AbstractCallableFunction function, VariableContext f,
+                              RuntimeExecutableCodeUnit<?> main, Object[] arguments,
+                              LineInfo line) throws RuntimePascalException {
+        Object result;
+        main.incStack(line);
+        try {
+            result = function.call(f, main, arguments);
+        } catch (IllegalArgumentException | IllegalAccessException e) {
+            throw new MethodReflectionException(line, e);
+        } catch (InvocationTargetException e) {
+            throw new MethodCallException(line, e.getTargetException(), function);
+        } catch (StackOverflowError e) {
+            throw new StackOverflowException(line);
+        } finally {
+            main.decStack();
+        }
+        return result == null ? NullValue.get() : result;
+    }
+
+    /**
+     * Leaves a call of a compiled routine by an error
+     *
+     * @return the error to throw in the caller
+     */
+    public static Throwable unwind(RuntimeExecutableCodeUnit<?> main, Throwable error,
+                                   LineInfo line) {
+        main.decStack();
+        if (error instanceof StackOverflowError) {
+            return new StackOverflowException(line);
+        }
+        return error;
+    }
+}
@@ -0,0 +1,365 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.jit;
+
+import java.util.ArrayList;
+
+/**
+ * Bytecode of one method. The depth of the operand stack is followed while the code is
+ * written, so the caller gives the effect of each instruction on the stack and the largest
+ * depth is known when the method is done. Branches use 16 bits offsets, a method too large
+ * for them can not be compiled
+ */
+class MethodCode {
+    static final int ACONST_NULL = 1;
+    static final int ICONST_0 = 3;
+    static final int ICONST_1 = 4;
+    static final int LCONST_0 = 9;
+    static final int DCONST_0 = 14;
+    static final int BIPUSH = 16;
+    static final int SIPUSH = 17;
+    static final int LDC_W = 19;
+    static final int LDC2_W = 20;
+    static final int ILOAD = 21;
+    static final int LLOAD = 22;
+    static final int DLOAD = 24;
+    static final int ALOAD = 25;
+    static final int IALOAD = 46;
+    static final int LALOAD = 47;
+    static final int DALOAD = 49;
+    static final int AALOAD = 50;
+    static final int BALOAD = 51;
+    static final int ISTORE = 54;
+    static final int LSTORE = 55;
+    static final int DSTORE = 57;
+    static final int ASTORE = 58;
+    static final int IASTORE = 79;
+    static final int LASTORE = 80;
+    static final int DASTORE = 82;
+    static final int AASTORE = 83;
+    static final int BASTORE = 84;
+    static final int POP = 87;
+    static final int POP2 = 88;
+    static final int DUP = 89;
+    static final int IADD = 96;
+    static final int LADD = 97;
+    static final int DADD = 99;
+    static final int ISUB = 100;
+    static final int LSUB = 101;
+    static final int DSUB = 103;
+    static final int IMUL = 104;
+    static final int LMUL = 105;
+    static final int DMUL = 107;
+    static final int DDIV = 111;
+    static final int INEG = 116;
+    static final int LNEG = 117;
+    static final int DNEG = 119;
+    static final int ISHL = 120;
+    static final int LSHL = 121;
+    static final int ISHR = 122;
+    static final int LSHR = 123;
+    static final int IAND = 126;
+    static final int LAND = 127;
+    static final int IOR = 128;
+    static final int LOR = 129;
+    static final int IXOR = 130;
+    static final int LXOR = 131;
+    static final int I2L = 133;
+    static final int I2D = 135;
+    static final int L2I = 136;
+    static final int L2D = 138;
+    static final int D2I = 142;
+    static final int D2L = 143;
+    static final int LCMP = 148;
+    static final int DCMPL = 151;
+    static final int DCMPG = 152;
+    static final int IFEQ = 153;
+    static final int IFNE = 154;
+    static final int IFLT = 155;
+    static final int IFGE = 156;
+    static final int IFGT = 157;
+    static final int IFLE = 158;
+    static final int IF_ICMPEQ = 159;
+    static final int IF_ICMPNE = 160;
+    static final int IF_ICMPLT = 161;
+    static final int IF_ICMPGE = 162;
+    static final int IF_ICMPGT = 163;
+    static final int IF_ICMPLE = 164;
+    static final int GOTO = 167;
+    static final int IRETURN = 172;
+    static final int LRETURN = 173;
+    static final int DRETURN = 175;
+    static final int ARETURN = 176;
+    static final int RETURN = 177;
+    static final int GETFIELD = 180;
+    static final int INVOKEVIRTUAL = 182;
+    static final int INVOKESPECIAL = 183;
+    static final int INVOKESTATIC = 184;
+    static final int ANEWARRAY = 189;
+    static final int ATHROW = 191;
+    static final int CHECKCAST = 192;
+    private static final int WIDE = 196;
+
+    private final ClassFileWriter owner;
+    private byte[] code = new byte[256];
+    private int length = 0;
+    private int depth = 0;
+    private int maxStack = 0;
+    private int maxLocals;
+    /**
+     * start, end, handler of each catch-all range
+     */
+    private final ArrayList<int[]> handlers = new ArrayList<>();
+
+    /**
+     * @param locals slots taken by the receiver and the parameters
+     */
+    MethodCode(ClassFileWriter owner, int locals) {
+        this.owner = owner;
+        this.maxLocals = locals;
+    }
+
+    /**
+     * Position in the code that a branch can jump to
+     */
+    static class Label {
+        private int position = -1;
+        /**
+         * depth of the stack at the label, -1 while no branch to it was written
+         */
+        private int depth = -1;
+        private final ArrayList<Integer> branches = new ArrayList<>();
+
+        boolean isMarked() {
+            return position >= 0;
+        }
+    }
+
+    /**
+     * Writes an instruction without operand
+     *
+     * @param stack change of the depth of the stack, in slots
+     */
+    void op(int opcode, int stack) {
+        put(opcode);
+        grow(stack);
+    }
+
+    void local(int opcode, int index, int stack) {
+        if (index > 255) {
+            put(WIDE);
+            put(opcode);
+            putShort(index);
+        } else {
+            put(opcode);
+            put(index);
+        }
+        grow(stack);
+        int size = opcode == LLOAD || opcode == DLOAD || opcode == LSTORE || opcode == DSTORE
+                ? 2 : 1;
+        maxLocals = Math.max(maxLocals, index + size);
+    }
+
+    void pushInt(int value) {
+        if (value >= -1 && value <= 5) {
+            put(ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            put(BIPUSH);
+            put(value & 0xff);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            put(SIPUSH);
+            putShort(value);
+        } else {
+            put(LDC_W);
+            putShort(owner.integer(value));
+        }
+        grow(1);
+    }
+
+    void pushLong(long value) {
+        if (value == 0 || value == 1) {
+            put(LCONST_0 + (int) value);
+        } else {
+            put(LDC2_W);
+            putShort(owner.longConstant(value));
+        }
+        grow(2);
+    }
+
+    void pushDouble(double value) {
+        if (Double.doubleToRawLongBits(value) == 0L || value == 1d) {
+            put(DCONST_0 + (int) value);
+        } else {
+            put(LDC2_W);
+            putShort(owner.doubleConstant(value));
+        }
+        grow(2);
+    }
+
+    /**
+     * Writes a call, the change of the stack is worked out from the descriptor
+     */
+    void invoke(int opcode, String className, String name, String descriptor) {
+        put(opcode);
+        putShort(owner.method(className, name, descriptor));
+        int stack = returnSize(descriptor) - argumentsSize(descriptor);
+        grow(opcode == INVOKESTATIC ? stack : stack - 1);
+    }
+
+    void getField(String className, String name, String descriptor) {
+        put(GETFIELD);
+        putShort(owner.field(className, name, descriptor));
+        grow(returnSize("()" + descriptor) - 1);
+    }
+
+    /**
+     * Writes checkcast or anewarray
+     */
+    void type(int opcode, String className) {
+        put(opcode);
+        putShort(owner.classReference(className));
+    }
+
+    void jump(int opcode, Label target) throws JitException {
+        int start = length;
+        put(opcode);
+        if (opcode >= IF_ICMPEQ && opcode <= IF_ICMPLE) {
+            grow(-2);
+        } else if (opcode != GOTO) {
+            grow(-1);
+        }
+        if (target.isMarked()) {
+            putShort(offset(start, target.position));
+        } else {
+            target.branches.add(start);
+            putShort(0);
+        }
+        target.depth = depth;
+    }
+
+    /**
+     * Places the label at the current position, the depth of the stack becomes the one of
+     * the branches to the label
+     */
+    void mark(Label label) throws JitException {
+        label.position = length;
+        if (label.depth >= 0) {
+            depth = label.depth;
+        } else {
+            label.depth = depth;
+        }
+        for (int start : label.branches) {
+            int offset = offset(start, length);
+            code[start + 1] = (byte) (offset >> 8);
+            code[start + 2] = (byte) offset;
+        }
+        label.branches.clear();
+    }
+
+    /**
+     * Marks the start of an exception handler, the thrown object is on the stack
+     */
+    void markHandler(Label label) throws JitException {
+        label.depth = 1;
+        mark(label);
+    }
+
+    /**
+     * Any throwable raised by the code between start and end goes to the handler
+     */
+    void addHandler(Label start, Label end, Label handler) {
+        handlers.add(new int[]{start.position, end.position, handler.position});
+    }
+
+    int getLength() {
+        return length;
+    }
+
+    int getMaxStack() {
+        return maxStack;
+    }
+
+    int getMaxLocals() {
+        return maxLocals;
+    }
+
+    byte[] getCode() {
+        byte[] result = new byte[length];
+        System.arraycopy(code, 0, result, 0, length);
+        return result;
+    }
+
+    ArrayList<int[]> getHandlers() {
+        return handlers;
+    }
+
+    private int offset(int from, int to) throws JitException {
+        int offset = to - from;
+        if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE) {
+            throw new JitException("branch too far");
+        }
+        return offset;
+    }
+
+    private void grow(int stack) {
+        depth += stack;
+        maxStack = Math.max(maxStack, depth);
+    }
+
+    private void put(int b) {
+        if (length == code.length) {
+            byte[] larger = new byte[code.length * 2];
+            System.arraycopy(code, 0, larger, 0, length);
+            code = larger;
+        }
+        code[length++] = (byte) b;
+    }
+
+    private void putShort(int s) {
+        put(s >> 8);
+        put(s);
+    }
+
+    private static int argumentsSize(String descriptor) {
+        int size = 0;
+        int i = 1;
+        while (descriptor.charAt(i) != ')') {
+            char c = descriptor.charAt(i);
+            size += c == 'J' || c == 'D' ? 2 : 1;
+            i = skipType(descriptor, i);
+        }
+        return size;
+    }
+
+    private static int returnSize(String descriptor) {
+        char c = descriptor.charAt(descriptor.indexOf(')') + 1);
+        return c == 'V' ? 0 : c == 'J' || c == 'D' ? 2 : 1;
+    }
+
+    /**
+     * @return index following the type which starts at i
+     */
+    private static int skipType(String descriptor, int i) {
+        while (descriptor.charAt(i) == '[') {
+            i++;
+        }
+        if (descriptor.charAt(i) == 'L') {
+            return descriptor.indexOf(';', i) + 1;
+        }
+        return i + 1;
+    }
+}
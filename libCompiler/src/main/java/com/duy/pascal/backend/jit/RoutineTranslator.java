@@ -0,0 +1,1172 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.jit;
+
+import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
+import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
+import com.duy.pascal.backend.ast.instructions.BreakInstruction;
+import com.duy.pascal.backend.ast.instructions.CompoundStatement;
+import com.duy.pascal.backend.ast.instructions.ContinueInstruction;
+import com.duy.pascal.backend.ast.instructions.Executable;
+import com.duy.pascal.backend.ast.instructions.ExitInstruction;
+import com.duy.pascal.backend.ast.instructions.NopeInstruction;
+import com.duy.pascal.backend.ast.instructions.TailCall;
+import com.duy.pascal.backend.ast.instructions.assign_statement.AssignStatement;
+import com.duy.pascal.backend.ast.instructions.conditional.IfStatement;
+import com.duy.pascal.backend.ast.instructions.conditional.RepeatInstruction;
+import com.duy.pascal.backend.ast.instructions.conditional.WhileStatement;
+import com.duy.pascal.backend.ast.instructions.conditional.forstatement.ForNumberStatement;
+import com.duy.pascal.backend.ast.runtime_value.operators.BinaryOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.UnaryOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.number.BoolBiOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.number.BoolUniOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.number.DoubleBiOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.number.DoubleUniOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.number.IntegerBiOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.number.IntegerUniOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.number.LongBiOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.number.LongUniOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.value.AssignableValue;
+import com.duy.pascal.backend.ast.runtime_value.value.InlinedCall;
+import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
+import com.duy.pascal.backend.ast.runtime_value.value.SimpleFunctionCall;
+import com.duy.pascal.backend.ast.runtime_value.value.access.ConstantAccess;
+import com.duy.pascal.backend.ast.runtime_value.value.access.PrimitiveArrayIndexAccess;
+import com.duy.pascal.backend.ast.runtime_value.value.access.VariableAccess;
+import com.duy.pascal.backend.ast.variablecontext.VariableContext;
+import com.duy.pascal.backend.declaration.lang.function.AbstractCallableFunction;
+import com.duy.pascal.backend.declaration.lang.function.FunctionDeclaration;
+import com.duy.pascal.backend.declaration.lang.types.ArgumentType;
+import com.duy.pascal.backend.declaration.lang.types.BasicType;
+import com.duy.pascal.backend.declaration.lang.types.OperatorTypes;
+import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
+import com.duy.pascal.backend.declaration.lang.types.Type;
+import com.duy.pascal.backend.declaration.lang.types.converter.NumberToIntType;
+import com.duy.pascal.backend.declaration.lang.types.converter.NumberToLongType;
+import com.duy.pascal.backend.declaration.lang.types.converter.NumberToRealType;
+import com.duy.pascal.backend.declaration.lang.value.VariableDeclaration;
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.backend.parse_exception.ParsingException;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+import static com.duy.pascal.backend.jit.MethodCode.*;
+
+/**
+ * Translates the tree of one routine to a subclass of {@link CompiledRoutine}. The routine
+ * becomes a method whose JVM parameters and locals are the parameters and local variables of
+ * the routine, typed int, long, double or boolean, and a recursive call becomes a direct call
+ * of this method. Global variables are read and written in the frame of the program, other
+ * routines are called through {@link JitSupport#call}.
+ * <p>
+ * A node the translator does not know raises a {@link JitException}, the routine is then
+ * run by the tree interpreter
+ */
+class RoutineTranslator {
+    private static final String OBJECT = "java/lang/Object";
+    private static final String OBJECT_ARRAY = "[Ljava/lang/Object;";
+    private static final String COMPILED = internalName(CompiledRoutine.class);
+    private static final String SUPPORT = internalName(JitSupport.class);
+    private static final String CONTEXT = internalName(VariableContext.class);
+    private static final String MAIN = internalName(RuntimeExecutableCodeUnit.class);
+    private static final String LINE = internalName(LineInfo.class);
+    private static final String CALLABLE = internalName(AbstractCallableFunction.class);
+    private static final String FUNCTION = internalName(FunctionDeclaration.class);
+    private static final String BODY = "body";
+
+    /**
+     * JVM locals of the body holding the receiver, the frame of the program and the program
+     */
+    private static final int THIS = 0;
+    private static final int GLOBALS = 1;
+    private static final int PROGRAM = 2;
+
+    private final FunctionDeclaration function;
+    /**
+     * scope of the global variables
+     */
+    private final ExpressionContext globals;
+    private final ClassFileWriter writer;
+
+    private final ArrayList<Object> constants = new ArrayList<>();
+    private final IdentityHashMap<Object, Integer> constantIndexes = new IdentityHashMap<>();
+
+    /**
+     * kind and JVM local of each slot of the frame of the routine
+     */
+    private Kind[] slotKinds;
+    private int[] slotLocals;
+    private Kind[] argumentKinds;
+    /**
+     * kind of the result, null for a procedure
+     */
+    private Kind resultKind;
+    private String bodyDescriptor;
+
+    private MethodCode code;
+    private int nextLocal;
+    private int constantsLocal;
+    private int throwableLocal;
+    /**
+     * loops of the body being translated, the innermost last
+     */
+    private ArrayList<Loop> loops = new ArrayList<>();
+    /**
+     * targets of exit, the end of the routine then the end of each inlined call being translated
+     */
+    private final ArrayList<Label> exits = new ArrayList<>();
+    private final ArrayList<RecursiveCall> recursiveCalls = new ArrayList<>();
+    /**
+     * start of the body, where the local variables are initialized, target of the tail calls
+     */
+    private final Label start = new Label();
+
+    RoutineTranslator(FunctionDeclaration function, ExpressionContext globals, String className) {
+        this.function = function;
+        this.globals = globals;
+        this.writer = new ClassFileWriter(className, COMPILED);
+    }
+
+    private static String internalName(Class<?> c) {
+        return c.getName().replace('.', '/');
+    }
+
+    private static String descriptor(String internalName) {
+        return "L" + internalName + ";";
+    }
+
+    /**
+     * @return the kind of the values of a type, null for the types which are not translated
+     */
+    private static Kind kindOf(Type type) {
+        if (type == BasicType.Integer) {
+            return Kind.INT;
+        } else if (type == BasicType.Long) {
+            return Kind.LONG;
+        } else if (type == BasicType.Double) {
+            return Kind.DOUBLE;
+        } else if (type == BasicType.Boolean) {
+            return Kind.BOOLEAN;
+        }
+        return null;
+    }
+
+    /**
+     * Values on the stack of the JVM
+     */
+    private enum Kind {
+        INT("I", ILOAD, ISTORE, IRETURN, 1, "java/lang/Integer", "intValue"),
+        LONG("J", LLOAD, LSTORE, LRETURN, 2, "java/lang/Long", "longValue"),
+        DOUBLE("D", DLOAD, DSTORE, DRETURN, 2, "java/lang/Double", "doubleValue"),
+        BOOLEAN("Z", ILOAD, ISTORE, IRETURN, 1, "java/lang/Boolean", "booleanValue"),
+        /**
+         * any other value, only passed to a routine or used as an array
+         */
+        OBJECT("Ljava/lang/Object;", ALOAD, ASTORE, ARETURN, 1, null, null);
+
+        final String descriptor;
+        final int load;
+        final int store;
+        final int ret;
+        final int size;
+        final String boxClass;
+        final String unboxMethod;
+
+        Kind(String descriptor, int load, int store, int ret, int size, String boxClass,
+             String unboxMethod) {
+            this.descriptor = descriptor;
+            this.load = load;
+            this.store = store;
+            this.ret = ret;
+            this.size = size;
+            this.boxClass = boxClass;
+            this.unboxMethod = unboxMethod;
+        }
+    }
+
+    private static class Loop {
+        private final Label breakLabel;
+        private final Label continueLabel;
+
+        Loop(Label breakLabel, Label continueLabel) {
+            this.breakLabel = breakLabel;
+            this.continueLabel = continueLabel;
+        }
+    }
+
+    /**
+     * Recursive call whose handler, which gives back the stack depth when the call throws,
+     * is written after the body
+     */
+    private static class RecursiveCall {
+        private final Label start;
+        private final Label end;
+        private final LineInfo line;
+
+        RecursiveCall(Label start, Label end, LineInfo line) {
+            this.start = start;
+            this.end = end;
+            this.line = line;
+        }
+    }
+
+    Object[] getConstants() {
+        return constants.toArray();
+    }
+
+    /**
+     * @return the class file of the compiled routine
+     */
+    byte[] translate() throws JitException {
+        mapFrame();
+        writeBody();
+        writeRun();
+        writeConstructor();
+        return writer.toByteArray();
+    }
+
+    /**
+     * Gives a JVM local to each parameter and local variable of the routine
+     */
+    private void mapFrame() throws JitException {
+        RuntimeType[] argumentTypes = function.argumentTypes;
+        ArrayList<VariableDeclaration> variables = function.declaration.variables;
+        int size = argumentTypes.length + variables.size();
+        slotKinds = new Kind[size];
+        slotLocals = new int[size];
+        argumentKinds = new Kind[argumentTypes.length];
+        nextLocal = PROGRAM + 1;
+        StringBuilder descriptor = new StringBuilder("(")
+                .append(descriptor(CONTEXT)).append(descriptor(MAIN));
+        for (int i = 0; i < argumentTypes.length; i++) {
+            if (argumentTypes[i].writable) {
+                throw new JitException("var parameter");
+            }
+            Kind kind = kindOf(argumentTypes[i].declType);
+            if (kind == null) {
+                throw new JitException("parameter of type " + argumentTypes[i].declType);
+            }
+            argumentKinds[i] = kind;
+            descriptor.append(kind.descriptor);
+            slotKinds[i] = kind;
+            slotLocals[i] = newLocal(kind);
+        }
+        for (int i = 0; i < variables.size(); i++) {
+            Kind kind = kindOf(variables.get(i).getType());
+            if (kind == null) {
+                throw new JitException("variable of type " + variables.get(i).getType());
+            }
+            int slot = argumentTypes.length + i;
+            slotKinds[slot] = kind;
+            slotLocals[slot] = newLocal(kind);
+        }
+        if (!function.isProcedure()) {
+            resultKind = kindOf(function.returnType());
+            if (resultKind == null) {
+                throw new JitException("result of type " + function.returnType());
+            }
+        }
+        descriptor.append(')').append(resultKind == null ? "V" : resultKind.descriptor);
+        bodyDescriptor = descriptor.toString();
+    }
+
+    private int newLocal(Kind kind) {
+        int local = nextLocal;
+        nextLocal += kind.size;
+        return local;
+    }
+
+    private void writeBody() throws JitException {
+        int parameters = PROGRAM + 1;
+        for (Kind kind : argumentKinds) {
+            parameters += kind.size;
+        }
+        code = new MethodCode(writer, parameters);
+        constantsLocal = nextLocal++;
+        throwableLocal = nextLocal++;
+
+        code.local(ALOAD, THIS, 1);
+        code.getField(COMPILED, "constants", OBJECT_ARRAY);
+        code.local(ASTORE, constantsLocal, -1);
+        code.mark(start);
+        safepoint(function.getLineNumber());
+
+        ArrayList<VariableDeclaration> variables = function.declaration.variables;
+        for (int i = 0; i < variables.size(); i++) {
+            VariableDeclaration variable = variables.get(i);
+            Object value = variable.getInitialValue();
+            if (value == null) {
+                value = variable.getType().initialize();
+            }
+            int slot = argumentKinds.length + i;
+            pushConstant(value, slotKinds[slot]);
+            code.local(slotKinds[slot].store, slotLocals[slot], -slotKinds[slot].size);
+        }
+
+        Label exit = new Label();
+        exits.add(exit);
+        statement(function.instructions);
+        code.mark(exit);
+        if (resultKind == null) {
+            code.op(RETURN, 0);
+        } else {
+            int slot = function.getResultSlot();
+            code.local(resultKind.load, slotLocals[slot], resultKind.size);
+            code.op(resultKind.ret, -resultKind.size);
+        }
+
+        for (RecursiveCall call : recursiveCalls) {
+            Label handler = new Label();
+            code.markHandler(handler);
+            code.local(ASTORE, throwableLocal, -1);
+            code.local(ALOAD, PROGRAM, 1);
+            code.local(ALOAD, throwableLocal, 1);
+            pushLine(call.line);
+            code.invoke(INVOKESTATIC, SUPPORT, "unwind", "(" + descriptor(MAIN)
+                    + "Ljava/lang/Throwable;" + descriptor(LINE) + ")Ljava/lang/Throwable;");
+            code.op(ATHROW, -1);
+            code.addHandler(call.start, call.end, handler);
+        }
+        if (code.getLength() > 0xffff) {
+            throw new JitException("routine too large");
+        }
+        writer.addMethod(ClassFileWriter.ACC_PUBLIC | ClassFileWriter.ACC_FINAL, BODY,
+                bodyDescriptor, code);
+    }
+
+    /**
+     * Writes the entry called by {@link CompiledRoutine#invoke}, which unboxes the arguments
+     * and boxes the result
+     */
+    private void writeRun() {
+        code = new MethodCode(writer, 4);
+        code.local(ALOAD, THIS, 1);
+        code.local(ALOAD, GLOBALS, 1);
+        code.local(ALOAD, PROGRAM, 1);
+        for (int i = 0; i < argumentKinds.length; i++) {
+            code.local(ALOAD, 3, 1);
+            code.pushInt(i);
+            code.op(AALOAD, -1);
+            unbox(argumentKinds[i]);
+        }
+        code.invoke(INVOKEVIRTUAL, writer.getName(), BODY, bodyDescriptor);
+        if (resultKind == null) {
+            code.op(ACONST_NULL, 1);
+        } else {
+            box(resultKind);
+        }
+        code.op(ARETURN, -1);
+        writer.addMethod(ClassFileWriter.ACC_PROTECTED, "run", "(" + descriptor(CONTEXT)
+                + descriptor(MAIN) + OBJECT_ARRAY + ")Ljava/lang/Object;", code);
+    }
+
+    private void writeConstructor() {
+        String descriptor = "(" + descriptor(FUNCTION) + OBJECT_ARRAY + ")V";
+        code = new MethodCode(writer, 3);
+        code.local(ALOAD, 0, 1);
+        code.local(ALOAD, 1, 1);
+        code.local(ALOAD, 2, 1);
+        code.invoke(INVOKESPECIAL, COMPILED, "<init>", descriptor);
+        code.op(RETURN, 0);
+        writer.addMethod(ClassFileWriter.ACC_PUBLIC, "<init>", descriptor, code);
+    }
+
+    private void statement(Executable node) throws JitException {
+        if (node instanceof CompoundStatement) {
+            for (Executable child : ((CompoundStatement) node).getInstructions()) {
+                statement(child);
+            }
+        } else if (node instanceof AssignStatement) {
+            assign((AssignStatement) node);
+        } else if (node instanceof IfStatement) {
+            ifStatement((IfStatement) node);
+        } else if (node instanceof WhileStatement) {
+            whileStatement((WhileStatement) node);
+        } else if (node instanceof RepeatInstruction) {
+            repeatStatement((RepeatInstruction) node);
+        } else if (node instanceof ForNumberStatement) {
+            forStatement((ForNumberStatement) node);
+        } else if (node instanceof BreakInstruction) {
+            //outside of a loop break and continue leave the body
+            code.jump(GOTO, loops.isEmpty() ? exits.get(exits.size() - 1)
+                    : loops.get(loops.size() - 1).breakLabel);
+        } else if (node instanceof ContinueInstruction) {
+            code.jump(GOTO, loops.isEmpty() ? exits.get(exits.size() - 1)
+                    : loops.get(loops.size() - 1).continueLabel);
+        } else if (node instanceof ExitInstruction) {
+            code.jump(GOTO, exits.get(exits.size() - 1));
+        } else if (node instanceof NopeInstruction) {
+            //nothing to do
+        } else if (node instanceof InlinedCall) {
+            inlinedBody((InlinedCall) node);
+        } else if (node instanceof TailCall) {
+            tailCall((TailCall) node);
+        } else if (node instanceof SimpleFunctionCall) {
+            Kind kind = call((SimpleFunctionCall) node);
+            if (kind != null) {
+                code.op(kind.size == 2 ? POP2 : POP, -kind.size);
+            }
+        } else {
+            throw new JitException("statement " + node);
+        }
+    }
+
+    private void assign(AssignStatement node) throws JitException {
+        AssignableValue left = node.getLeft();
+        if (left instanceof VariableAccess) {
+            VariableAccess access = (VariableAccess) left;
+            Kind kind = beginStore(access);
+            value(node.getValue(), kind);
+            endStore(access, kind);
+        } else if (left instanceof PrimitiveArrayIndexAccess) {
+            Kind kind = element((PrimitiveArrayIndexAccess) left);
+            value(node.getValue(), kind);
+            code.op(kind == Kind.INT ? IASTORE : kind == Kind.LONG ? LASTORE
+                    : kind == Kind.DOUBLE ? DASTORE : BASTORE, -2 - kind.size);
+        } else {
+            throw new JitException("assignment to " + left);
+        }
+    }
+
+    private void ifStatement(IfStatement node) throws JitException {
+        Label otherwise = new Label();
+        branch(node.getCondition(), otherwise, false);
+        statement(node.getInstruction());
+        if (node.getElseInstruction() == null) {
+            code.mark(otherwise);
+        } else {
+            Label end = new Label();
+            code.jump(GOTO, end);
+            code.mark(otherwise);
+            statement(node.getElseInstruction());
+            code.mark(end);
+        }
+    }
+
+    private void whileStatement(WhileStatement node) throws JitException {
+        Label condition = new Label();
+        Label end = new Label();
+        code.mark(condition);
+        branch(node.getCondition(), end, false);
+        safepoint(node.getLineNumber());
+        loops.add(new Loop(end, condition));
+        statement(node.getCommand());
+        loops.remove(loops.size() - 1);
+        code.jump(GOTO, condition);
+        code.mark(end);
+    }
+
+    private void repeatStatement(RepeatInstruction node) throws JitException {
+        Label start = new Label();
+        Label condition = new Label();
+        Label end = new Label();
+        code.mark(start);
+        safepoint(node.getLineNumber());
+        loops.add(new Loop(end, condition));
+        statement(node.getCommand());
+        loops.remove(loops.size() - 1);
+        code.mark(condition);
+        branch(node.getCondition(), start, false);
+        code.mark(end);
+    }
+
+    /**
+     * Same steps as {@link ForNumberStatement}: the bounds are evaluated once, the counter is
+     * kept in a JVM local and stored into the loop variable before each iteration
+     */
+    private void forStatement(ForNumberStatement node) throws JitException {
+        if (!(node.getTempVar() instanceof VariableAccess)) {
+            throw new JitException("loop variable " + node.getTempVar());
+        }
+        VariableAccess counter = (VariableAccess) node.getTempVar();
+        Kind kind = kindOf(counter);
+        if (kind != Kind.INT && kind != Kind.LONG) {
+            throw new JitException("loop variable of kind " + kind);
+        }
+        int index = newLocal(kind);
+        int last = newLocal(kind);
+        value(node.getFirst(), kind);
+        code.local(kind.store, index, -kind.size);
+        value(node.getLast(), kind);
+        code.local(kind.store, last, -kind.size);
+
+        Label start = new Label();
+        Label next = new Label();
+        Label end = new Label();
+        code.local(kind.load, index, kind.size);
+        code.local(kind.load, last, kind.size);
+        compare(kind, node.isDownto() ? IF_ICMPLT : IF_ICMPGT, end);
+
+        code.mark(start);
+        Kind stored = beginStore(counter);
+        code.local(kind.load, index, kind.size);
+        endStore(counter, stored);
+        safepoint(node.getLineNumber());
+        loops.add(new Loop(end, next));
+        statement(node.getCommand());
+        loops.remove(loops.size() - 1);
+
+        code.mark(next);
+        code.local(kind.load, index, kind.size);
+        code.local(kind.load, last, kind.size);
+        compare(kind, IF_ICMPEQ, end);
+        code.local(kind.load, index, kind.size);
+        if (kind == Kind.INT) {
+            code.pushInt(node.isDownto() ? -1 : 1);
+            code.op(IADD, -1);
+        } else {
+            code.pushLong(node.isDownto() ? -1 : 1);
+            code.op(LADD, -2);
+        }
+        code.local(kind.store, index, -kind.size);
+        code.jump(GOTO, start);
+        code.mark(end);
+    }
+
+    /**
+     * Jumps if the comparison of the two int or long values on the stack holds
+     *
+     * @param condition one of the if_icmp instructions
+     */
+    private void compare(Kind kind, int condition, Label target) throws JitException {
+        if (kind == Kind.INT || kind == Kind.BOOLEAN) {
+            code.jump(condition, target);
+        } else {
+            code.op(LCMP, -3);
+            code.jump(condition - IF_ICMPEQ + IFEQ, target);
+        }
+    }
+
+    /**
+     * Translates the copied body of a routine, exit, break and continue outside of its own
+     * loops only leave the copied body as in {@link InlinedCall}
+     */
+    private void inlinedBody(InlinedCall node) throws JitException {
+        Label end = new Label();
+        ArrayList<Loop> outerLoops = loops;
+        loops = new ArrayList<>();
+        exits.add(end);
+        statement(node.getBody());
+        exits.remove(exits.size() - 1);
+        loops = outerLoops;
+        code.mark(end);
+    }
+
+    /**
+     * The arguments are pushed on the stack before any parameter is written, as they may
+     * read the parameters, then the body starts over
+     */
+    private void tailCall(TailCall node) throws JitException {
+        RuntimeValue[] arguments = node.getArguments();
+        for (int i = 0; i < arguments.length; i++) {
+            value(arguments[i], argumentKinds[i]);
+        }
+        for (int i = arguments.length - 1; i >= 0; i--) {
+            Kind kind = argumentKinds[i];
+            code.local(kind.store, slotLocals[i], -kind.size);
+        }
+        code.jump(GOTO, start);
+    }
+
+    /**
+     * Translates an expression, the value is left on the stack
+     *
+     * @return kind of the value
+     */
+    private Kind value(RuntimeValue node) throws JitException {
+        if (node instanceof ConstantAccess) {
+            Object value = ((ConstantAccess) node).getValue();
+            Kind kind = value instanceof Integer ? Kind.INT : value instanceof Long ? Kind.LONG
+                    : value instanceof Double ? Kind.DOUBLE
+                    : value instanceof Boolean ? Kind.BOOLEAN : Kind.OBJECT;
+            pushConstant(value, kind);
+            return kind;
+        } else if (node instanceof VariableAccess) {
+            return load((VariableAccess) node);
+        } else if (node instanceof PrimitiveArrayIndexAccess) {
+            Kind kind = element((PrimitiveArrayIndexAccess) node);
+            code.op(kind == Kind.INT ? IALOAD : kind == Kind.LONG ? LALOAD
+                    : kind == Kind.DOUBLE ? DALOAD : BALOAD, kind.size - 2);
+            return kind;
+        } else if (node instanceof InlinedCall) {
+            InlinedCall call = (InlinedCall) node;
+            if (call.getResult() == null) {
+                throw new JitException("value of procedure " + call);
+            }
+            inlinedBody(call);
+            return value(call.getResult());
+        } else if (node instanceof SimpleFunctionCall) {
+            Kind kind = call((SimpleFunctionCall) node);
+            if (kind == null) {
+                throw new JitException("value of procedure " + node);
+            }
+            return kind;
+        } else if (node instanceof BinaryOperatorEval) {
+            return binary((BinaryOperatorEval) node);
+        } else if (node instanceof UnaryOperatorEval) {
+            return unary((UnaryOperatorEval) node);
+        } else if (node instanceof NumberToIntType) {
+            value(((NumberToIntType) node).getOther(), Kind.INT);
+            return Kind.INT;
+        } else if (node instanceof NumberToLongType) {
+            value(((NumberToLongType) node).getOther(), Kind.LONG);
+            return Kind.LONG;
+        } else if (node instanceof NumberToRealType) {
+            value(((NumberToRealType) node).getOther(), Kind.DOUBLE);
+            return Kind.DOUBLE;
+        }
+        throw new JitException("expression " + node);
+    }
+
+    /**
+     * Translates an expression and converts its value as {@link Number#intValue()} and the
+     * other methods of {@link Number} used by the interpreter do
+     */
+    private void value(RuntimeValue node, Kind kind) throws JitException {
+        convert(value(node), kind);
+    }
+
+    private void convert(Kind from, Kind to) throws JitException {
+        if (from == to) {
+            return;
+        }
+        if (from == Kind.INT && to == Kind.LONG) {
+            code.op(I2L, 1);
+        } else if (from == Kind.INT && to == Kind.DOUBLE) {
+            code.op(I2D, 1);
+        } else if (from == Kind.LONG && to == Kind.INT) {
+            code.op(L2I, -1);
+        } else if (from == Kind.LONG && to == Kind.DOUBLE) {
+            code.op(L2D, 0);
+        } else if (from == Kind.DOUBLE && to == Kind.INT) {
+            code.op(D2I, -1);
+        } else if (from == Kind.DOUBLE && to == Kind.LONG) {
+            code.op(D2L, 0);
+        } else if (to == Kind.OBJECT) {
+            box(from);
+        } else {
+            throw new JitException("conversion from " + from + " to " + to);
+        }
+    }
+
+    private Kind binary(BinaryOperatorEval node) throws JitException {
+        OperatorTypes operator = node.getOperatorType();
+        if (node instanceof BoolBiOperatorEval || isComparison(operator)) {
+            return condition(node);
+        }
+        Kind kind = numberKind(node);
+        RuntimeValue operon1 = node.getOperon1();
+        RuntimeValue operon2 = node.getOperon2();
+        LineInfo line = node.getLineNumber();
+        switch (operator) {
+            case PLUS:
+                return arithmetic(kind, operon1, operon2, IADD, LADD, DADD);
+            case MINUS:
+                return arithmetic(kind, operon1, operon2, ISUB, LSUB, DSUB);
+            case MULTIPLY:
+                return arithmetic(kind, operon1, operon2, IMUL, LMUL, DMUL);
+            case AND:
+                return arithmetic(integral(kind), operon1, operon2, IAND, LAND, -1);
+            case OR:
+                return arithmetic(integral(kind), operon1, operon2, IOR, LOR, -1);
+            case XOR:
+                return arithmetic(integral(kind), operon1, operon2, IXOR, LXOR, -1);
+            case SHIFTLEFT:
+            case SHIFTRIGHT:
+                value(operon1, integral(kind));
+                value(operon2, Kind.INT);
+                if (kind == Kind.INT) {
+                    code.op(operator == OperatorTypes.SHIFTLEFT ? ISHL : ISHR, -1);
+                } else {
+                    code.op(operator == OperatorTypes.SHIFTLEFT ? LSHL : LSHR, -1);
+                }
+                return kind;
+            case DIV:
+            case MOD:
+                value(operon1, integral(kind));
+                value(operon2, kind);
+                pushLine(line);
+                String name = operator == OperatorTypes.DIV ? "div" : "mod";
+                code.invoke(INVOKESTATIC, SUPPORT, name, "(" + kind.descriptor + kind.descriptor
+                        + descriptor(LINE) + ")" + kind.descriptor);
+                return kind;
+            case DIVIDE:
+                //the operands are converted to the kind of the node first, as operate does
+                value(operon1, kind);
+                convert(kind, Kind.DOUBLE);
+                value(operon2, kind);
+                convert(kind, Kind.DOUBLE);
+                if (kind == Kind.LONG) {
+                    //the interpreter does not check the divisor of longs
+                    code.op(DDIV, -2);
+                } else {
+                    pushLine(line);
+                    code.invoke(INVOKESTATIC, SUPPORT, "divide",
+                            "(DD" + descriptor(LINE) + ")D");
+                }
+                return Kind.DOUBLE;
+            default:
+                throw new JitException("operator " + operator);
+        }
+    }
+
+    private Kind arithmetic(Kind kind, RuntimeValue operon1, RuntimeValue operon2,
+                            int intOpcode, int longOpcode, int doubleOpcode) throws JitException {
+        value(operon1, kind);
+        value(operon2, kind);
+        if (kind == Kind.INT) {
+            code.op(intOpcode, -1);
+        } else if (kind == Kind.LONG) {
+            code.op(longOpcode, -2);
+        } else {
+            code.op(doubleOpcode, -2);
+        }
+        return kind;
+    }
+
+    private static boolean isComparison(OperatorTypes operator) {
+        switch (operator) {
+            case EQUALS:
+            case NOTEQUAL:
+            case LESSTHAN:
+            case LESSEQ:
+            case GREATERTHAN:
+            case GREATEREQ:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return kind of the operands of an arithmetic or comparison node
+     */
+    private static Kind numberKind(BinaryOperatorEval node) throws JitException {
+        if (node instanceof IntegerBiOperatorEval) {
+            return Kind.INT;
+        } else if (node instanceof LongBiOperatorEval) {
+            return Kind.LONG;
+        } else if (node instanceof DoubleBiOperatorEval) {
+            return Kind.DOUBLE;
+        }
+        throw new JitException("operator node " + node);
+    }
+
+    private static Kind integral(Kind kind) throws JitException {
+        if (kind == Kind.DOUBLE) {
+            throw new JitException("integer operator on reals");
+        }
+        return kind;
+    }
+
+    private Kind unary(UnaryOperatorEval node) throws JitException {
+        OperatorTypes operator = node.operator;
+        if (node instanceof BoolUniOperatorEval && operator == OperatorTypes.NOT) {
+            return condition(node);
+        }
+        Kind kind;
+        int negate;
+        if (node instanceof IntegerUniOperatorEval) {
+            kind = Kind.INT;
+            negate = INEG;
+        } else if (node instanceof LongUniOperatorEval) {
+            kind = Kind.LONG;
+            negate = LNEG;
+        } else if (node instanceof DoubleUniOperatorEval) {
+            kind = Kind.DOUBLE;
+            negate = DNEG;
+        } else {
+            throw new JitException("operator node " + node);
+        }
+        if (operator != OperatorTypes.PLUS && operator != OperatorTypes.MINUS) {
+            throw new JitException("operator " + operator);
+        }
+        value(node.operon, kind);
+        if (operator == OperatorTypes.MINUS) {
+            code.op(negate, 0);
+        }
+        return kind;
+    }
+
+    /**
+     * Translates a boolean expression to 0 or 1 on the stack
+     */
+    private Kind condition(RuntimeValue node) throws JitException {
+        Label yes = new Label();
+        Label end = new Label();
+        branch(node, yes, true);
+        code.pushInt(0);
+        code.jump(GOTO, end);
+        code.mark(yes);
+        code.pushInt(1);
+        code.mark(end);
+        return Kind.BOOLEAN;
+    }
+
+    /**
+     * Jumps to the target if the boolean expression has the given value, and and or are
+     * evaluated in short circuit as in the interpreter
+     */
+    private void branch(RuntimeValue node, Label target, boolean jumpIf) throws JitException {
+        if (node instanceof BoolUniOperatorEval
+                && ((BoolUniOperatorEval) node).operator == OperatorTypes.NOT) {
+            branch(((BoolUniOperatorEval) node).operon, target, !jumpIf);
+        } else if (node instanceof BoolBiOperatorEval) {
+            BoolBiOperatorEval operator = (BoolBiOperatorEval) node;
+            RuntimeValue operon1 = operator.getOperon1();
+            RuntimeValue operon2 = operator.getOperon2();
+            switch (operator.getOperatorType()) {
+                case AND:
+                case OR:
+                    //jump on the first operand when it decides the value
+                    boolean decides = operator.getOperatorType() == OperatorTypes.OR;
+                    if (decides == jumpIf) {
+                        branch(operon1, target, jumpIf);
+                        branch(operon2, target, jumpIf);
+                    } else {
+                        Label skip = new Label();
+                        branch(operon1, skip, decides);
+                        branch(operon2, target, jumpIf);
+                        code.mark(skip);
+                    }
+                    break;
+                case EQUALS:
+                    value(operon1, Kind.BOOLEAN);
+                    value(operon2, Kind.BOOLEAN);
+                    code.jump(jumpIf ? IF_ICMPEQ : IF_ICMPNE, target);
+                    break;
+                case NOTEQUAL:
+                case XOR:
+                    value(operon1, Kind.BOOLEAN);
+                    value(operon2, Kind.BOOLEAN);
+                    code.jump(jumpIf ? IF_ICMPNE : IF_ICMPEQ, target);
+                    break;
+                default:
+                    throw new JitException("operator " + operator.getOperatorType());
+            }
+        } else if (node instanceof BinaryOperatorEval
+                && isComparison(((BinaryOperatorEval) node).getOperatorType())) {
+            comparison((BinaryOperatorEval) node, target, jumpIf);
+        } else if (node instanceof ConstantAccess
+                && ((ConstantAccess) node).getValue() instanceof Boolean) {
+            if (((ConstantAccess) node).getValue().equals(jumpIf)) {
+                code.jump(GOTO, target);
+            }
+        } else {
+            value(node, Kind.BOOLEAN);
+            code.jump(jumpIf ? IFNE : IFEQ, target);
+        }
+    }
+
+    private void comparison(BinaryOperatorEval node, Label target, boolean jumpIf)
+            throws JitException {
+        Kind kind = numberKind(node);
+        OperatorTypes operator = node.getOperatorType();
+        value(node.getOperon1(), kind);
+        value(node.getOperon2(), kind);
+        int condition;
+        switch (operator) {
+            case EQUALS:
+                condition = jumpIf ? IF_ICMPEQ : IF_ICMPNE;
+                break;
+            case NOTEQUAL:
+                condition = jumpIf ? IF_ICMPNE : IF_ICMPEQ;
+                break;
+            case LESSTHAN:
+                condition = jumpIf ? IF_ICMPLT : IF_ICMPGE;
+                break;
+            case LESSEQ:
+                condition = jumpIf ? IF_ICMPLE : IF_ICMPGT;
+                break;
+            case GREATERTHAN:
+                condition = jumpIf ? IF_ICMPGT : IF_ICMPLE;
+                break;
+            default:
+                condition = jumpIf ? IF_ICMPGE : IF_ICMPLT;
+                break;
+        }
+        if (kind == Kind.DOUBLE) {
+            //a comparison with NaN is false, dcmpg gives 1 and dcmpl gives -1 for NaN
+            boolean less = operator == OperatorTypes.LESSTHAN || operator == OperatorTypes.LESSEQ;
+            code.op(less ? DCMPG : DCMPL, -3);
+            code.jump(condition - IF_ICMPEQ + IFEQ, target);
+        } else {
+            compare(kind, condition, target);
+        }
+    }
+
+    /**
+     * Calls a procedure or a function, a call of the routine itself goes straight to the
+     * compiled body
+     *
+     * @return kind of the result left on the stack, null if nothing is left
+     */
+    private Kind call(SimpleFunctionCall node) throws JitException {
+        AbstractCallableFunction target = node.getFunction();
+        RuntimeValue[] arguments = node.arguments;
+        ArgumentType[] types = target.argumentTypes();
+        if (types.length != arguments.length) {
+            throw new JitException("call with variable arguments " + node);
+        }
+        for (ArgumentType type : types) {
+            if (!(type instanceof RuntimeType) || ((RuntimeType) type).writable) {
+                throw new JitException("call with var parameter " + node);
+            }
+        }
+        LineInfo line = node.getLineNumber();
+        if (target == function) {
+            return recursiveCall(arguments, line);
+        }
+        if (target instanceof FunctionDeclaration
+                && ((FunctionDeclaration) target).declaration.getParentContext() != globals) {
+            throw new JitException("call of nested routine " + node);
+        }
+
+        pushConstant(target, CALLABLE);
+        code.local(ALOAD, GLOBALS, 1);
+        code.local(ALOAD, PROGRAM, 1);
+        code.pushInt(arguments.length);
+        code.type(ANEWARRAY, OBJECT);
+        for (int i = 0; i < arguments.length; i++) {
+            code.op(DUP, 1);
+            code.pushInt(i);
+            Kind kind = kindOf(((RuntimeType) types[i]).declType);
+            if (kind == null) {
+                kind = value(arguments[i]);
+            } else {
+                value(arguments[i], kind);
+            }
+            convert(kind, Kind.OBJECT);
+            code.op(AASTORE, -3);
+        }
+        pushLine(line);
+        code.invoke(INVOKESTATIC, SUPPORT, "call", "(" + descriptor(CALLABLE)
+                + descriptor(CONTEXT) + descriptor(MAIN) + OBJECT_ARRAY + descriptor(LINE)
+                + ")Ljava/lang/Object;");
+        Kind result = kindOf(target.returnType());
+        if (result == null) {
+            return Kind.OBJECT;
+        }
+        unbox(result);
+        return result;
+    }
+
+    private Kind recursiveCall(RuntimeValue[] arguments, LineInfo line) throws JitException {
+        code.local(ALOAD, THIS, 1);
+        code.local(ALOAD, GLOBALS, 1);
+        code.local(ALOAD, PROGRAM, 1);
+        for (int i = 0; i < arguments.length; i++) {
+            value(arguments[i], argumentKinds[i]);
+        }
+        code.local(ALOAD, PROGRAM, 1);
+        pushLine(line);
+        code.invoke(INVOKEVIRTUAL, MAIN, "incStack", "(" + descriptor(LINE) + ")V");
+        Label start = new Label();
+        Label end = new Label();
+        code.mark(start);
+        code.invoke(INVOKEVIRTUAL, writer.getName(), BODY, bodyDescriptor);
+        code.mark(end);
+        code.local(ALOAD, PROGRAM, 1);
+        code.invoke(INVOKEVIRTUAL, MAIN, "decStack", "()V");
+        recursiveCalls.add(new RecursiveCall(start, end, line));
+        return resultKind;
+    }
+
+    /**
+     * @return kind of a parameter, local or global variable
+     */
+    private Kind kindOf(VariableAccess access) throws JitException {
+        int slot = access.getSlot();
+        ExpressionContext context = access.getContext();
+        if (slot >= 0 && context == function.declaration && slot < slotKinds.length) {
+            return slotKinds[slot];
+        }
+        if (slot >= 0 && context == globals) {
+            try {
+                Kind kind = kindOf(access.getRuntimeType(globals).declType);
+                return kind == null ? Kind.OBJECT : kind;
+            } catch (ParsingException e) {
+                throw new JitException(e.getMessage());
+            }
+        }
+        throw new JitException("variable " + access);
+    }
+
+    private boolean isLocal(VariableAccess access) {
+        return access.getContext() == function.declaration;
+    }
+
+    private Kind load(VariableAccess access) throws JitException {
+        Kind kind = kindOf(access);
+        if (isLocal(access)) {
+            code.local(kind.load, slotLocals[access.getSlot()], kind.size);
+        } else {
+            code.local(ALOAD, GLOBALS, 1);
+            code.pushInt(access.getSlot());
+            code.invoke(INVOKEVIRTUAL, CONTEXT, "getSlotValue", "(I)Ljava/lang/Object;");
+            unbox(kind);
+        }
+        return kind;
+    }
+
+    /**
+     * Pushes what a store into the variable needs before the value
+     *
+     * @return kind of the value to store
+     */
+    private Kind beginStore(VariableAccess access) throws JitException {
+        Kind kind = kindOf(access);
+        if (kind == Kind.OBJECT) {
+            throw new JitException("assignment of " + access);
+        }
+        if (!isLocal(access)) {
+            code.local(ALOAD, GLOBALS, 1);
+            code.pushInt(access.getSlot());
+        }
+        return kind;
+    }
+
+    private void endStore(VariableAccess access, Kind kind) {
+        if (isLocal(access)) {
+            code.local(kind.store, slotLocals[access.getSlot()], -kind.size);
+        } else {
+            box(kind);
+            code.invoke(INVOKEVIRTUAL, CONTEXT, "setSlotValue", "(ILjava/lang/Object;)V");
+        }
+    }
+
+    /**
+     * Pushes the java array and the checked position of an element
+     *
+     * @return kind of the elements
+     */
+    private Kind element(PrimitiveArrayIndexAccess node) throws JitException {
+        if (node.isEnumIndex()) {
+            throw new JitException("array indexed by enum " + node);
+        }
+        Kind kind;
+        String arrayType;
+        switch (node.getKind()) {
+            case INT:
+                kind = Kind.INT;
+                arrayType = "[I";
+                break;
+            case LONG:
+                kind = Kind.LONG;
+                arrayType = "[J";
+                break;
+            case DOUBLE:
+                kind = Kind.DOUBLE;
+                arrayType = "[D";
+                break;
+            case BOOLEAN:
+                kind = Kind.BOOLEAN;
+                arrayType = "[Z";
+                break;
+            default:
+                throw new JitException("array of " + node.getKind());
+        }
+        if (value(node.getContainer()) != Kind.OBJECT) {
+            throw new JitException("array " + node);
+        }
+        code.type(CHECKCAST, arrayType);
+        code.op(DUP, 1);
+        value(node.getIndex(), Kind.INT);
+        code.pushInt(node.getOffset());
+        pushLine(node.getLineNumber());
+        code.invoke(INVOKESTATIC, SUPPORT, "position", "(Ljava/lang/Object;II"
+                + descriptor(LINE) + ")I");
+        return kind;
+    }
+
+    private void safepoint(LineInfo line) {
+        code.local(ALOAD, PROGRAM, 1);
+        pushLine(line);
+        code.invoke(INVOKEVIRTUAL, MAIN, "safepoint", "(" + descriptor(LINE) + ")V");
+    }
+
+    private void box(Kind kind) {
+        if (kind != Kind.OBJECT) {
+            code.invoke(INVOKESTATIC, kind.boxClass, "valueOf",
+                    "(" + kind.descriptor + ")L" + kind.boxClass + ";");
+        }
+    }
+
+    private void unbox(Kind kind) {
+        if (kind == Kind.OBJECT) {
+            return;
+        }
+        String owner = kind == Kind.BOOLEAN ? kind.boxClass : "java/lang/Number";
+        code.type(CHECKCAST, owner);
+        code.invoke(INVOKEVIRTUAL, owner, kind.unboxMethod, "()" + kind.descriptor);
+    }
+
+    private void pushLine(LineInfo line) {
+        pushConstant(line, LINE);
+    }
+
+    /**
+     * Pushes a constant of the given kind, converted as the interpreter would
+     */
+    private void pushConstant(Object value, Kind kind) throws JitException {
+        if (kind == Kind.OBJECT) {
+            pushConstant(value, OBJECT);
+        } else if (kind == Kind.BOOLEAN) {
+            if (!(value instanceof Boolean)) {
+                throw new JitException("boolean constant " + value);
+            }
+            code.pushInt((Boolean) value ? 1 : 0);
+        } else {
+            if (!(value instanceof Number)) {
+                throw new JitException("number constant " + value);
+            }
+            Number number = (Number) value;
+            if (kind == Kind.INT) {
+                code.pushInt(number.intValue());
+            } else if (kind == Kind.LONG) {
+                code.pushLong(number.longValue());
+            } else {
+                code.pushDouble(number.doubleValue());
+            }
+        }
+    }
+
+    /**
+     * Pushes an object kept in the constants of the compiled routine
+     *
+     * @param type internal name of the class of the object
+     */
+    private void pushConstant(Object value, String type) {
+        if (value == null) {
+            code.op(ACONST_NULL, 1);
+            return;
+        }
+        Integer index = constantIndexes.get(value);
+        if (index == null) {
+            index = constants.size();
+            constants.add(value);
+            constantIndexes.put(value, index);
+        }
+        code.local(ALOAD, constantsLocal, 1);
+        code.pushInt(index);
+        code.op(AALOAD, -1);
+        if (!type.equals(OBJECT)) {
+            code.type(CHECKCAST, type);
+        }
+    }
+}
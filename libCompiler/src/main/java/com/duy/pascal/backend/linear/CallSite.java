@@ -0,0 +1,48 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.linear;
+
+import com.duy.pascal.backend.declaration.lang.function.AbstractCallableFunction;
+
+/**
+ * Operands of a {@link Opcodes#CALL} instruction
+ */
+final class CallSite {
+    final AbstractCallableFunction function;
+    /**
+     * true for a call of the routine itself, which runs in a new set of registers without
+     * boxing the arguments
+     */
+    final boolean recursive;
+    final Kind[] argumentKinds;
+    final int[] argumentRegisters;
+    /**
+     * kind of the register receiving the result, null if the result is not used
+     */
+    final Kind resultKind;
+    final int resultRegister;
+
+    CallSite(AbstractCallableFunction function, boolean recursive, Kind[] argumentKinds,
+             int[] argumentRegisters, Kind resultKind, int resultRegister) {
+        this.function = function;
+        this.recursive = recursive;
+        this.argumentKinds = argumentKinds;
+        this.argumentRegisters = argumentRegisters;
+        this.resultKind = resultKind;
+        this.resultRegister = resultRegister;
+    }
+}
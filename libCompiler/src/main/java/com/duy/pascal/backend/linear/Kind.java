@@ -0,0 +1,59 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.linear;
+
+import com.duy.pascal.backend.declaration.lang.types.BasicType;
+import com.duy.pascal.backend.declaration.lang.types.Type;
+
+/**
+ * Kind of a value of {@link LinearRoutine}, each kind is kept in one register file
+ */
+enum Kind {
+    INT(LinearRoutine.INTS),
+    LONG(LinearRoutine.LONGS),
+    DOUBLE(LinearRoutine.DOUBLES),
+    /**
+     * kept as 0 or 1 in the integer registers
+     */
+    BOOLEAN(LinearRoutine.INTS),
+    /**
+     * any other value, arrays and arguments of routines
+     */
+    OBJECT(LinearRoutine.OBJECTS);
+
+    final int file;
+
+    Kind(int file) {
+        this.file = file;
+    }
+
+    /**
+     * @return the kind of the values of a type, null for the types kept as objects
+     */
+    static Kind of(Type type) {
+        if (type == BasicType.Integer) {
+            return INT;
+        } else if (type == BasicType.Long) {
+            return LONG;
+        } else if (type == BasicType.Double) {
+            return DOUBLE;
+        } else if (type == BasicType.Boolean) {
+            return BOOLEAN;
+        }
+        return null;
+    }
+}
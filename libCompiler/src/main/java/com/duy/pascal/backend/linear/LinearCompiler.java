@@ -0,0 +1,1059 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.linear;
+
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.backend.ast.codeunit.CodeUnit;
+import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
+import com.duy.pascal.backend.ast.instructions.BreakInstruction;
+import com.duy.pascal.backend.ast.instructions.CompoundStatement;
+import com.duy.pascal.backend.ast.instructions.ContinueInstruction;
+import com.duy.pascal.backend.ast.instructions.Executable;
+import com.duy.pascal.backend.ast.instructions.ExitInstruction;
+import com.duy.pascal.backend.ast.instructions.NopeInstruction;
+import com.duy.pascal.backend.ast.instructions.TailCall;
+import com.duy.pascal.backend.ast.instructions.assign_statement.AssignStatement;
+import com.duy.pascal.backend.ast.instructions.conditional.IfStatement;
+import com.duy.pascal.backend.ast.instructions.conditional.RepeatInstruction;
+import com.duy.pascal.backend.ast.instructions.conditional.WhileStatement;
+import com.duy.pascal.backend.ast.instructions.conditional.forstatement.ForNumberStatement;
+import com.duy.pascal.backend.ast.runtime_value.operators.BinaryOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.UnaryOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.number.BoolBiOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.number.BoolUniOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.number.DoubleBiOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.number.DoubleUniOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.number.IntegerBiOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.number.IntegerUniOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.number.LongBiOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.number.LongUniOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.value.AssignableValue;
+import com.duy.pascal.backend.ast.runtime_value.value.InlinedCall;
+import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
+import com.duy.pascal.backend.ast.runtime_value.value.SimpleFunctionCall;
+import com.duy.pascal.backend.ast.runtime_value.value.access.ConstantAccess;
+import com.duy.pascal.backend.ast.runtime_value.value.access.PrimitiveArrayIndexAccess;
+import com.duy.pascal.backend.ast.runtime_value.value.access.VariableAccess;
+import com.duy.pascal.backend.config.ExecutionBackend;
+import com.duy.pascal.backend.declaration.lang.function.AbstractCallableFunction;
+import com.duy.pascal.backend.declaration.lang.function.FunctionDeclaration;
+import com.duy.pascal.backend.declaration.lang.types.ArgumentType;
+import com.duy.pascal.backend.declaration.lang.types.OperatorTypes;
+import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
+import com.duy.pascal.backend.declaration.lang.types.converter.NumberToIntType;
+import com.duy.pascal.backend.declaration.lang.types.converter.NumberToLongType;
+import com.duy.pascal.backend.declaration.lang.types.converter.NumberToRealType;
+import com.duy.pascal.backend.declaration.lang.value.VariableDeclaration;
+import com.duy.pascal.backend.declaration.program.PascalProgramDeclaration;
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.backend.parse_exception.ParsingException;
+import com.duy.pascal.frontend.DLog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static com.duy.pascal.backend.linear.Opcodes.*;
+
+/**
+ * Lowers the tree of one routine to a {@link LinearRoutine}. The parameters and local
+ * variables of the routine are the first registers of their kind, the values of the
+ * expressions are kept in temporary registers which are reused by the next statement.
+ * Control flow becomes jumps, and and or are evaluated in short circuit as in the tree.
+ * <p>
+ * The routine must be declared in the program itself and its parameters and local variables
+ * must be integer, int64, real or boolean, the same routines as {@link
+ * com.duy.pascal.backend.jit.JitCompiler} compiles. A node the compiler does not know raises
+ * a {@link LoweringException}, the routine is then run by the tree
+ */
+public class LinearCompiler {
+    private static final String TAG = "LinearCompiler";
+
+    private final FunctionDeclaration function;
+    /**
+     * scope of the global variables
+     */
+    private final ExpressionContext globals;
+
+    private int[] code = new int[64];
+    private LineInfo[] lines = new LineInfo[64];
+    private int length = 0;
+    /**
+     * line given to the next instructions
+     */
+    private LineInfo line;
+
+    private final ArrayList<Long> longConstants = new ArrayList<>();
+    private final ArrayList<Double> doubleConstants = new ArrayList<>();
+    private final ArrayList<Object> objectConstants = new ArrayList<>();
+
+    /**
+     * next free register and number of registers of each file
+     */
+    private final int[] next = new int[4];
+    private final int[] counts = new int[4];
+
+    private Kind[] slotKinds;
+    private int[] slotRegisters;
+    private Kind[] argumentKinds;
+    private int[] argumentRegisters;
+    private Kind resultKind;
+
+    /**
+     * loops of the body being lowered, the innermost last
+     */
+    private ArrayList<Loop> loops = new ArrayList<>();
+    /**
+     * targets of exit, the end of the routine then the end of each inlined call being lowered
+     */
+    private final ArrayList<Label> exits = new ArrayList<>();
+    /**
+     * start of the routine, where the local variables are initialized, target of the tail calls
+     */
+    private final Label start = new Label();
+
+    private LinearCompiler(FunctionDeclaration function, ExpressionContext globals) {
+        this.function = function;
+        this.globals = globals;
+        this.line = function.getLineNumber();
+    }
+
+    /**
+     * @return the lowered routine, null if it can not be lowered
+     */
+    @Nullable
+    public static LinearRoutine compile(FunctionDeclaration function) {
+        CodeUnit root = function.declaration.root();
+        if (!(root instanceof PascalProgramDeclaration)
+                || function.declaration.getParentContext() != root.getContext()
+                || function.instructions == null) {
+            return null;
+        }
+        try {
+            return new LinearCompiler(function, root.getContext()).lower();
+        } catch (LoweringException e) {
+            DLog.d(TAG, "lower " + function.getName() + ": " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Position in the code that a jump can target
+     */
+    private static class Label {
+        private int position = -1;
+        /**
+         * operands to patch with the position once it is known
+         */
+        private final ArrayList<Integer> uses = new ArrayList<>();
+    }
+
+    private static class Loop {
+        private final Label breakLabel;
+        private final Label continueLabel;
+
+        Loop(Label breakLabel, Label continueLabel) {
+            this.breakLabel = breakLabel;
+            this.continueLabel = continueLabel;
+        }
+    }
+
+    /**
+     * Register holding the value of an expression
+     */
+    private static class Operand {
+        private final Kind kind;
+        private final int register;
+
+        Operand(Kind kind, int register) {
+            this.kind = kind;
+            this.register = register;
+        }
+    }
+
+    private LinearRoutine lower() throws LoweringException {
+        mapFrame();
+        mark(start);
+        ArrayList<VariableDeclaration> variables = function.declaration.variables;
+        for (int i = 0; i < variables.size(); i++) {
+            VariableDeclaration variable = variables.get(i);
+            Object value = variable.getInitialValue();
+            if (value == null) {
+                value = variable.getType().initialize();
+            }
+            int slot = argumentKinds.length + i;
+            constant(value, slotKinds[slot], slotRegisters[slot]);
+        }
+
+        Label exit = new Label();
+        exits.add(exit);
+        statement(function.instructions);
+        mark(exit);
+        line = function.getLineNumber();
+        emit(RETURN);
+
+        int resultRegister = resultKind == null ? -1
+                : slotRegisters[function.getResultSlot()];
+        double[] doubles = new double[doubleConstants.size()];
+        for (int i = 0; i < doubles.length; i++) {
+            doubles[i] = doubleConstants.get(i);
+        }
+        long[] longs = new long[longConstants.size()];
+        for (int i = 0; i < longs.length; i++) {
+            longs[i] = longConstants.get(i);
+        }
+        return new LinearRoutine(function, Arrays.copyOf(code, length),
+                Arrays.copyOf(lines, length), longs, doubles, objectConstants.toArray(),
+                counts.clone(), argumentKinds, argumentRegisters, resultKind, resultRegister,
+                function.declaration.root().getConfig().getBackend()
+                        == ExecutionBackend.STACKLESS);
+    }
+
+    /**
+     * Gives a register to each parameter and local variable of the routine
+     */
+    private void mapFrame() throws LoweringException {
+        RuntimeType[] argumentTypes = function.argumentTypes;
+        ArrayList<VariableDeclaration> variables = function.declaration.variables;
+        int size = argumentTypes.length + variables.size();
+        slotKinds = new Kind[size];
+        slotRegisters = new int[size];
+        argumentKinds = new Kind[argumentTypes.length];
+        argumentRegisters = new int[argumentTypes.length];
+        for (int i = 0; i < argumentTypes.length; i++) {
+            if (argumentTypes[i].writable) {
+                throw new LoweringException("var parameter");
+            }
+            Kind kind = Kind.of(argumentTypes[i].declType);
+            if (kind == null) {
+                throw new LoweringException("parameter of type " + argumentTypes[i].declType);
+            }
+            argumentKinds[i] = kind;
+            slotKinds[i] = kind;
+            slotRegisters[i] = temp(kind);
+            argumentRegisters[i] = slotRegisters[i];
+        }
+        for (int i = 0; i < variables.size(); i++) {
+            Kind kind = Kind.of(variables.get(i).getType());
+            if (kind == null) {
+                throw new LoweringException("variable of type " + variables.get(i).getType());
+            }
+            int slot = argumentTypes.length + i;
+            slotKinds[slot] = kind;
+            slotRegisters[slot] = temp(kind);
+        }
+        if (!function.isProcedure()) {
+            resultKind = Kind.of(function.returnType());
+            if (resultKind == null) {
+                throw new LoweringException("result of type " + function.returnType());
+            }
+        }
+    }
+
+    private void statement(Executable node) throws LoweringException {
+        if (node instanceof CompoundStatement) {
+            for (Executable child : ((CompoundStatement) node).getInstructions()) {
+                statement(child);
+            }
+            return;
+        }
+        //the temporary registers of a statement are free after it
+        int[] mark = next.clone();
+        line = node.getLineNumber();
+        if (node instanceof AssignStatement) {
+            assign((AssignStatement) node);
+        } else if (node instanceof IfStatement) {
+            ifStatement((IfStatement) node);
+        } else if (node instanceof WhileStatement) {
+            whileStatement((WhileStatement) node);
+        } else if (node instanceof RepeatInstruction) {
+            repeatStatement((RepeatInstruction) node);
+        } else if (node instanceof ForNumberStatement) {
+            forStatement((ForNumberStatement) node);
+        } else if (node instanceof BreakInstruction) {
+            //outside of a loop break and continue leave the body
+            jump(GOTO, loops.isEmpty() ? exits.get(exits.size() - 1)
+                    : loops.get(loops.size() - 1).breakLabel);
+        } else if (node instanceof ContinueInstruction) {
+            jump(GOTO, loops.isEmpty() ? exits.get(exits.size() - 1)
+                    : loops.get(loops.size() - 1).continueLabel);
+        } else if (node instanceof ExitInstruction) {
+            jump(GOTO, exits.get(exits.size() - 1));
+        } else if (node instanceof NopeInstruction) {
+            //nothing to do
+        } else if (node instanceof InlinedCall) {
+            inlinedBody((InlinedCall) node);
+        } else if (node instanceof TailCall) {
+            tailCall((TailCall) node);
+        } else if (node instanceof SimpleFunctionCall) {
+            call((SimpleFunctionCall) node, null, -1);
+        } else {
+            throw new LoweringException("statement " + node);
+        }
+        System.arraycopy(mark, 0, next, 0, mark.length);
+    }
+
+    private void assign(AssignStatement node) throws LoweringException {
+        AssignableValue left = node.getLeft();
+        if (left instanceof VariableAccess) {
+            VariableAccess access = (VariableAccess) left;
+            Kind kind = kindOf(access);
+            if (kind == Kind.OBJECT) {
+                throw new LoweringException("assignment of " + access);
+            }
+            if (isLocal(access)) {
+                //the value is computed straight into the register of the variable
+                value(node.getValue(), kind, slotRegisters[access.getSlot()]);
+            } else {
+                int value = value(node.getValue(), kind, -1);
+                emit(G_STORE_I + storeIndex(kind), value, access.getSlot());
+            }
+        } else if (left instanceof PrimitiveArrayIndexAccess) {
+            PrimitiveArrayIndexAccess access = (PrimitiveArrayIndexAccess) left;
+            Kind kind = elementKind(access);
+            int array = array(access);
+            int index = value(access.getIndex(), Kind.INT, -1);
+            int value = value(node.getValue(), kind, -1);
+            line = access.getLineNumber();
+            emit(A_STORE_I + storeIndex(kind), array, index, access.getOffset(), value);
+        } else {
+            throw new LoweringException("assignment to " + left);
+        }
+    }
+
+    private void ifStatement(IfStatement node) throws LoweringException {
+        Label otherwise = new Label();
+        branch(node.getCondition(), otherwise, false);
+        statement(node.getInstruction());
+        if (node.getElseInstruction() == null) {
+            mark(otherwise);
+        } else {
+            Label end = new Label();
+            jump(GOTO, end);
+            mark(otherwise);
+            statement(node.getElseInstruction());
+            mark(end);
+        }
+    }
+
+    private void whileStatement(WhileStatement node) throws LoweringException {
+        Label condition = new Label();
+        Label end = new Label();
+        mark(condition);
+        branch(node.getCondition(), end, false);
+        line = node.getLineNumber();
+        emit(SAFEPOINT);
+        loops.add(new Loop(end, condition));
+        statement(node.getCommand());
+        loops.remove(loops.size() - 1);
+        jump(GOTO, condition);
+        mark(end);
+    }
+
+    private void repeatStatement(RepeatInstruction node) throws LoweringException {
+        Label start = new Label();
+        Label condition = new Label();
+        Label end = new Label();
+        mark(start);
+        emit(SAFEPOINT);
+        loops.add(new Loop(end, condition));
+        statement(node.getCommand());
+        loops.remove(loops.size() - 1);
+        mark(condition);
+        line = node.getLineNumber();
+        //the back edge is a goto, which is what the routine counts
+        branch(node.getCondition(), end, true);
+        jump(GOTO, start);
+        mark(end);
+    }
+
+    /**
+     * Same steps as {@link ForNumberStatement}: the bounds are evaluated once, the counter is
+     * kept in a register and stored into the loop variable before each iteration
+     */
+    private void forStatement(ForNumberStatement node) throws LoweringException {
+        if (!(node.getTempVar() instanceof VariableAccess)) {
+            throw new LoweringException("loop variable " + node.getTempVar());
+        }
+        VariableAccess counter = (VariableAccess) node.getTempVar();
+        Kind kind = kindOf(counter);
+        if (kind != Kind.INT && kind != Kind.LONG) {
+            throw new LoweringException("loop variable of kind " + kind);
+        }
+        int base = kind == Kind.INT ? 0 : 1;
+        int index = value(node.getFirst(), kind, temp(kind));
+        int last = value(node.getLast(), kind, temp(kind));
+        int step = temp(kind);
+        constant(node.isDownto() ? -1 : 1, kind, step);
+
+        Label start = new Label();
+        Label next = new Label();
+        Label end = new Label();
+        line = node.getLineNumber();
+        jump(compareOpcode(kind, node.isDownto() ? OperatorTypes.LESSTHAN
+                : OperatorTypes.GREATERTHAN, true), index, last, end);
+
+        mark(start);
+        if (isLocal(counter)) {
+            emit(I_MOVE + base, slotRegisters[counter.getSlot()], index);
+        } else {
+            emit(G_STORE_I + base, index, counter.getSlot());
+        }
+        emit(SAFEPOINT);
+        loops.add(new Loop(end, next));
+        statement(node.getCommand());
+        loops.remove(loops.size() - 1);
+
+        mark(next);
+        line = node.getLineNumber();
+        jump(compareOpcode(kind, OperatorTypes.EQUALS, true), index, last, end);
+        emit(kind == Kind.INT ? I_ADD : L_ADD, index, index, step);
+        jump(GOTO, start);
+        mark(end);
+    }
+
+    /**
+     * Lowers the copied body of a routine, exit, break and continue outside of its own loops
+     * only leave the copied body as in {@link InlinedCall}
+     */
+    private void inlinedBody(InlinedCall node) throws LoweringException {
+        Label end = new Label();
+        ArrayList<Loop> outerLoops = loops;
+        loops = new ArrayList<>();
+        exits.add(end);
+        statement(node.getBody());
+        exits.remove(exits.size() - 1);
+        loops = outerLoops;
+        mark(end);
+    }
+
+    /**
+     * The arguments are computed into temporary registers before any parameter is written,
+     * as they may read the parameters, then the routine starts over
+     */
+    private void tailCall(TailCall node) throws LoweringException {
+        RuntimeValue[] arguments = node.getArguments();
+        int[] values = new int[arguments.length];
+        for (int i = 0; i < arguments.length; i++) {
+            values[i] = value(arguments[i], argumentKinds[i], temp(argumentKinds[i]));
+        }
+        for (int i = 0; i < arguments.length; i++) {
+            emit(move(argumentKinds[i]), argumentRegisters[i], values[i]);
+        }
+        line = node.getLineNumber();
+        emit(SAFEPOINT);
+        jump(GOTO, start);
+    }
+
+    /**
+     * Lowers an expression and converts its value as {@link Number#intValue()} and the other
+     * methods of {@link Number} used by the tree do
+     *
+     * @param target register which receives the value, -1 for any register
+     * @return register holding the value
+     */
+    private int value(RuntimeValue node, Kind kind, int target) throws LoweringException {
+        Operand operand = operand(node, kind, target);
+        if (operand.kind != kind) {
+            int register = target >= 0 ? target : temp(kind);
+            convert(operand, kind, register);
+            return register;
+        }
+        if (target >= 0 && operand.register != target) {
+            emit(move(kind), target, operand.register);
+            return target;
+        }
+        return operand.register;
+    }
+
+    /**
+     * Lowers an expression, the value is computed into the target when its kind is the
+     * wanted one
+     */
+    private Operand operand(RuntimeValue node, Kind wanted, int target) throws LoweringException {
+        if (node instanceof ConstantAccess) {
+            Object value = ((ConstantAccess) node).getValue();
+            Kind kind = value instanceof Integer ? Kind.INT : value instanceof Long ? Kind.LONG
+                    : value instanceof Double ? Kind.DOUBLE
+                    : value instanceof Boolean ? Kind.BOOLEAN : Kind.OBJECT;
+            int register = destination(kind, wanted, target);
+            constant(value, kind, register);
+            return new Operand(kind, register);
+        } else if (node instanceof VariableAccess) {
+            VariableAccess access = (VariableAccess) node;
+            Kind kind = kindOf(access);
+            if (isLocal(access)) {
+                //read in place, value moves it when a target is given
+                return new Operand(kind, slotRegisters[access.getSlot()]);
+            }
+            int register = destination(kind, wanted, target);
+            emit(G_LOAD_I + loadIndex(kind), register, access.getSlot());
+            return new Operand(kind, register);
+        } else if (node instanceof PrimitiveArrayIndexAccess) {
+            PrimitiveArrayIndexAccess access = (PrimitiveArrayIndexAccess) node;
+            Kind kind = elementKind(access);
+            int array = array(access);
+            int index = value(access.getIndex(), Kind.INT, -1);
+            int register = destination(kind, wanted, target);
+            line = access.getLineNumber();
+            emit(A_LOAD_I + storeIndex(kind), register, array, index, access.getOffset());
+            return new Operand(kind, register);
+        } else if (node instanceof InlinedCall) {
+            InlinedCall call = (InlinedCall) node;
+            if (call.getResult() == null) {
+                throw new LoweringException("value of procedure " + call);
+            }
+            inlinedBody(call);
+            return operand(call.getResult(), wanted, target);
+        } else if (node instanceof SimpleFunctionCall) {
+            return call((SimpleFunctionCall) node, wanted, target);
+        } else if (node instanceof BinaryOperatorEval) {
+            return binary((BinaryOperatorEval) node, wanted, target);
+        } else if (node instanceof UnaryOperatorEval) {
+            return unary((UnaryOperatorEval) node, wanted, target);
+        } else if (node instanceof NumberToIntType) {
+            return new Operand(Kind.INT, value(((NumberToIntType) node).getOther(), Kind.INT,
+                    destination(Kind.INT, wanted, target)));
+        } else if (node instanceof NumberToLongType) {
+            return new Operand(Kind.LONG, value(((NumberToLongType) node).getOther(), Kind.LONG,
+                    destination(Kind.LONG, wanted, target)));
+        } else if (node instanceof NumberToRealType) {
+            return new Operand(Kind.DOUBLE, value(((NumberToRealType) node).getOther(),
+                    Kind.DOUBLE, destination(Kind.DOUBLE, wanted, target)));
+        }
+        throw new LoweringException("expression " + node);
+    }
+
+    /**
+     * @return the target if the value has the wanted kind, a new temporary register if not
+     */
+    private int destination(Kind kind, Kind wanted, int target) {
+        return kind == wanted && target >= 0 ? target : temp(kind);
+    }
+
+    private void convert(Operand from, Kind to, int register) throws LoweringException {
+        Kind kind = from.kind;
+        int src = from.register;
+        if (kind == Kind.INT && to == Kind.LONG) {
+            emit(I2L, register, src);
+        } else if (kind == Kind.INT && to == Kind.DOUBLE) {
+            emit(I2D, register, src);
+        } else if (kind == Kind.LONG && to == Kind.INT) {
+            emit(L2I, register, src);
+        } else if (kind == Kind.LONG && to == Kind.DOUBLE) {
+            emit(L2D, register, src);
+        } else if (kind == Kind.DOUBLE && to == Kind.INT) {
+            emit(D2I, register, src);
+        } else if (kind == Kind.DOUBLE && to == Kind.LONG) {
+            emit(D2L, register, src);
+        } else {
+            throw new LoweringException("conversion from " + kind + " to " + to);
+        }
+    }
+
+    private Operand binary(BinaryOperatorEval node, Kind wanted, int target)
+            throws LoweringException {
+        OperatorTypes operator = node.getOperatorType();
+        if (node instanceof BoolBiOperatorEval || isComparison(operator)) {
+            return condition(node, wanted, target);
+        }
+        Kind kind = numberKind(node);
+        RuntimeValue operon1 = node.getOperon1();
+        RuntimeValue operon2 = node.getOperon2();
+        int opcode;
+        switch (operator) {
+            case PLUS:
+                opcode = kind == Kind.INT ? I_ADD : kind == Kind.LONG ? L_ADD : D_ADD;
+                break;
+            case MINUS:
+                opcode = kind == Kind.INT ? I_SUB : kind == Kind.LONG ? L_SUB : D_SUB;
+                break;
+            case MULTIPLY:
+                opcode = kind == Kind.INT ? I_MUL : kind == Kind.LONG ? L_MUL : D_MUL;
+                break;
+            case DIV:
+                opcode = integral(kind) == Kind.INT ? I_DIV : L_DIV;
+                break;
+            case MOD:
+                opcode = integral(kind) == Kind.INT ? I_MOD : L_MOD;
+                break;
+            case AND:
+                opcode = integral(kind) == Kind.INT ? I_AND : L_AND;
+                break;
+            case OR:
+                opcode = integral(kind) == Kind.INT ? I_OR : L_OR;
+                break;
+            case XOR:
+                opcode = integral(kind) == Kind.INT ? I_XOR : L_XOR;
+                break;
+            case SHIFTLEFT:
+            case SHIFTRIGHT: {
+                int a = value(operon1, integral(kind), -1);
+                int b = value(operon2, Kind.INT, -1);
+                int register = destination(kind, wanted, target);
+                line = node.getLineNumber();
+                if (kind == Kind.INT) {
+                    emit(operator == OperatorTypes.SHIFTLEFT ? I_SHL : I_SHR, register, a, b);
+                } else {
+                    emit(operator == OperatorTypes.SHIFTLEFT ? L_SHL : L_SHR, register, a, b);
+                }
+                return new Operand(kind, register);
+            }
+            case DIVIDE: {
+                //the operands are converted to the kind of the node, then divided as reals
+                int a = value(operon1, kind, -1);
+                int b = value(operon2, kind, -1);
+                int register = destination(Kind.DOUBLE, wanted, target);
+                line = node.getLineNumber();
+                emit(kind == Kind.INT ? I_DIVIDE : kind == Kind.LONG ? L_DIVIDE : D_DIVIDE,
+                        register, a, b);
+                return new Operand(Kind.DOUBLE, register);
+            }
+            default:
+                throw new LoweringException("operator " + operator);
+        }
+        int a = value(operon1, kind, -1);
+        int b = value(operon2, kind, -1);
+        int register = destination(kind, wanted, target);
+        line = node.getLineNumber();
+        emit(opcode, register, a, b);
+        return new Operand(kind, register);
+    }
+
+    private static boolean isComparison(OperatorTypes operator) {
+        switch (operator) {
+            case EQUALS:
+            case NOTEQUAL:
+            case LESSTHAN:
+            case LESSEQ:
+            case GREATERTHAN:
+            case GREATEREQ:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return kind of the operands of an arithmetic or comparison node
+     */
+    private static Kind numberKind(BinaryOperatorEval node) throws LoweringException {
+        if (node instanceof IntegerBiOperatorEval) {
+            return Kind.INT;
+        } else if (node instanceof LongBiOperatorEval) {
+            return Kind.LONG;
+        } else if (node instanceof DoubleBiOperatorEval) {
+            return Kind.DOUBLE;
+        }
+        throw new LoweringException("operator node " + node);
+    }
+
+    private static Kind integral(Kind kind) throws LoweringException {
+        if (kind == Kind.DOUBLE) {
+            throw new LoweringException("integer operator on reals");
+        }
+        return kind;
+    }
+
+    private Operand unary(UnaryOperatorEval node, Kind wanted, int target)
+            throws LoweringException {
+        OperatorTypes operator = node.operator;
+        if (node instanceof BoolUniOperatorEval && operator == OperatorTypes.NOT) {
+            int operand = value(node.operon, Kind.BOOLEAN, -1);
+            int register = destination(Kind.BOOLEAN, wanted, target);
+            emit(Z_NOT, register, operand);
+            return new Operand(Kind.BOOLEAN, register);
+        }
+        Kind kind;
+        int negate;
+        if (node instanceof IntegerUniOperatorEval) {
+            kind = Kind.INT;
+            negate = I_NEG;
+        } else if (node instanceof LongUniOperatorEval) {
+            kind = Kind.LONG;
+            negate = L_NEG;
+        } else if (node instanceof DoubleUniOperatorEval) {
+            kind = Kind.DOUBLE;
+            negate = D_NEG;
+        } else {
+            throw new LoweringException("operator node " + node);
+        }
+        if (operator == OperatorTypes.PLUS) {
+            return new Operand(kind, value(node.operon, kind, kind == wanted ? target : -1));
+        } else if (operator != OperatorTypes.MINUS) {
+            throw new LoweringException("operator " + operator);
+        }
+        int operand = value(node.operon, kind, -1);
+        int register = destination(kind, wanted, target);
+        emit(negate, register, operand);
+        return new Operand(kind, register);
+    }
+
+    /**
+     * Lowers a boolean expression to 0 or 1 in a register
+     */
+    private Operand condition(RuntimeValue node, Kind wanted, int target)
+            throws LoweringException {
+        Label yes = new Label();
+        Label end = new Label();
+        branch(node, yes, true);
+        //the register is written after the operands are read, it may be one of them
+        int register = destination(Kind.BOOLEAN, wanted, target);
+        emit(I_CONST, register, 0);
+        jump(GOTO, end);
+        mark(yes);
+        emit(I_CONST, register, 1);
+        mark(end);
+        return new Operand(Kind.BOOLEAN, register);
+    }
+
+    /**
+     * Jumps to the target if the boolean expression has the given value, and and or are
+     * evaluated in short circuit as in the tree
+     */
+    private void branch(RuntimeValue node, Label target, boolean jumpIf)
+            throws LoweringException {
+        if (node instanceof BoolUniOperatorEval
+                && ((BoolUniOperatorEval) node).operator == OperatorTypes.NOT) {
+            branch(((BoolUniOperatorEval) node).operon, target, !jumpIf);
+        } else if (node instanceof BoolBiOperatorEval) {
+            BoolBiOperatorEval operator = (BoolBiOperatorEval) node;
+            RuntimeValue operon1 = operator.getOperon1();
+            RuntimeValue operon2 = operator.getOperon2();
+            switch (operator.getOperatorType()) {
+                case AND:
+                case OR:
+                    //jump on the first operand when it decides the value
+                    boolean decides = operator.getOperatorType() == OperatorTypes.OR;
+                    if (decides == jumpIf) {
+                        branch(operon1, target, jumpIf);
+                        branch(operon2, target, jumpIf);
+                    } else {
+                        Label skip = new Label();
+                        branch(operon1, skip, decides);
+                        branch(operon2, target, jumpIf);
+                        mark(skip);
+                    }
+                    break;
+                case EQUALS:
+                case NOTEQUAL:
+                case XOR: {
+                    int a = value(operon1, Kind.BOOLEAN, -1);
+                    int b = value(operon2, Kind.BOOLEAN, -1);
+                    boolean equal = operator.getOperatorType() == OperatorTypes.EQUALS;
+                    jump(equal == jumpIf ? I_JEQ : I_JNE, a, b, target);
+                    break;
+                }
+                default:
+                    throw new LoweringException("operator " + operator.getOperatorType());
+            }
+        } else if (node instanceof BinaryOperatorEval
+                && isComparison(((BinaryOperatorEval) node).getOperatorType())) {
+            comparison((BinaryOperatorEval) node, target, jumpIf);
+        } else if (node instanceof ConstantAccess
+                && ((ConstantAccess) node).getValue() instanceof Boolean) {
+            if (((ConstantAccess) node).getValue().equals(jumpIf)) {
+                jump(GOTO, target);
+            }
+        } else {
+            int register = value(node, Kind.BOOLEAN, -1);
+            jump(jumpIf ? JNZ : JZ, register, target);
+        }
+    }
+
+    private void comparison(BinaryOperatorEval node, Label target, boolean jumpIf)
+            throws LoweringException {
+        Kind kind = numberKind(node);
+        OperatorTypes operator = node.getOperatorType();
+        int a = value(node.getOperon1(), kind, -1);
+        int b = value(node.getOperon2(), kind, -1);
+        line = node.getLineNumber();
+        if (jumpIf || kind != Kind.DOUBLE) {
+            jump(compareOpcode(kind, operator, jumpIf), a, b, target);
+        } else {
+            //a comparison with NaN is false, so its negation can not be a jump
+            Label skip = new Label();
+            jump(compareOpcode(kind, operator, true), a, b, skip);
+            jump(GOTO, target);
+            mark(skip);
+        }
+    }
+
+    /**
+     * @param holds true for the jump taken when the comparison holds, false for the jump
+     *              taken when it does not, only for integers
+     */
+    private static int compareOpcode(Kind kind, OperatorTypes operator, boolean holds) {
+        int condition;
+        switch (operator) {
+            case EQUALS:
+                condition = 0;
+                break;
+            case NOTEQUAL:
+                condition = 1;
+                break;
+            case LESSTHAN:
+                condition = 2;
+                break;
+            case GREATEREQ:
+                condition = 3;
+                break;
+            case GREATERTHAN:
+                condition = 4;
+                break;
+            default:
+                condition = 5;
+                break;
+        }
+        if (!holds) {
+            //the conditions come in pairs of opposites
+            condition ^= 1;
+        }
+        int base = kind == Kind.LONG ? L_JEQ : kind == Kind.DOUBLE ? D_JEQ : I_JEQ;
+        return base + condition;
+    }
+
+    /**
+     * Calls a procedure or a function
+     *
+     * @param wanted kind of the result, null if the result is not used
+     */
+    private Operand call(SimpleFunctionCall node, @Nullable Kind wanted, int target)
+            throws LoweringException {
+        AbstractCallableFunction callee = node.getFunction();
+        RuntimeValue[] arguments = node.arguments;
+        ArgumentType[] types = callee.argumentTypes();
+        if (types.length != arguments.length) {
+            throw new LoweringException("call with variable arguments " + node);
+        }
+        for (ArgumentType type : types) {
+            if (!(type instanceof RuntimeType) || ((RuntimeType) type).writable) {
+                throw new LoweringException("call with var parameter " + node);
+            }
+        }
+        boolean recursive = callee == function;
+        if (!recursive && callee instanceof FunctionDeclaration
+                && ((FunctionDeclaration) callee).declaration.getParentContext() != globals) {
+            throw new LoweringException("call of nested routine " + node);
+        }
+        Kind[] kinds = new Kind[arguments.length];
+        int[] registers = new int[arguments.length];
+        for (int i = 0; i < arguments.length; i++) {
+            Kind kind = recursive ? argumentKinds[i]
+                    : Kind.of(((RuntimeType) types[i]).declType);
+            if (kind == null) {
+                Operand operand = operand(arguments[i], Kind.OBJECT, -1);
+                kinds[i] = operand.kind;
+                registers[i] = operand.register;
+            } else {
+                kinds[i] = kind;
+                registers[i] = value(arguments[i], kind, -1);
+            }
+        }
+        Kind result = null;
+        int register = -1;
+        if (wanted != null) {
+            result = recursive ? resultKind : Kind.of(callee.returnType());
+            if (result == null) {
+                if (recursive || callee.returnType() == null) {
+                    throw new LoweringException("value of procedure " + node);
+                }
+                result = Kind.OBJECT;
+            }
+            register = destination(result, wanted, target);
+        }
+        line = node.getLineNumber();
+        emit(CALL, objectConstant(new CallSite(callee, recursive, kinds, registers, result,
+                register)));
+        return result == null ? null : new Operand(result, register);
+    }
+
+    /**
+     * @return kind of a parameter, local or global variable
+     */
+    private Kind kindOf(VariableAccess access) throws LoweringException {
+        int slot = access.getSlot();
+        ExpressionContext context = access.getContext();
+        if (slot >= 0 && context == function.declaration && slot < slotKinds.length) {
+            return slotKinds[slot];
+        }
+        if (slot >= 0 && context == globals) {
+            try {
+                Kind kind = Kind.of(access.getRuntimeType(globals).declType);
+                return kind == null ? Kind.OBJECT : kind;
+            } catch (ParsingException e) {
+                throw new LoweringException(e.getMessage());
+            }
+        }
+        throw new LoweringException("variable " + access);
+    }
+
+    private boolean isLocal(VariableAccess access) {
+        return access.getContext() == function.declaration;
+    }
+
+    private static Kind elementKind(PrimitiveArrayIndexAccess node) throws LoweringException {
+        if (node.isEnumIndex()) {
+            throw new LoweringException("array indexed by enum " + node);
+        }
+        switch (node.getKind()) {
+            case INT:
+                return Kind.INT;
+            case LONG:
+                return Kind.LONG;
+            case DOUBLE:
+                return Kind.DOUBLE;
+            case BOOLEAN:
+                return Kind.BOOLEAN;
+            default:
+                throw new LoweringException("array of " + node.getKind());
+        }
+    }
+
+    /**
+     * @return O register holding the java array
+     */
+    private int array(PrimitiveArrayIndexAccess node) throws LoweringException {
+        Operand container = operand(node.getContainer(), Kind.OBJECT, -1);
+        if (container.kind != Kind.OBJECT) {
+            throw new LoweringException("array " + node);
+        }
+        return container.register;
+    }
+
+    /**
+     * @return offset of the kind from the integer variant of G_LOAD_I and the like
+     */
+    private static int loadIndex(Kind kind) {
+        switch (kind) {
+            case INT:
+                return 0;
+            case LONG:
+                return 1;
+            case DOUBLE:
+                return 2;
+            case BOOLEAN:
+                return 3;
+            default:
+                return 4;
+        }
+    }
+
+    private static int storeIndex(Kind kind) throws LoweringException {
+        if (kind == Kind.OBJECT) {
+            throw new LoweringException("store of an object");
+        }
+        return loadIndex(kind);
+    }
+
+    private static int move(Kind kind) {
+        switch (kind.file) {
+            case LinearRoutine.INTS:
+                return I_MOVE;
+            case LinearRoutine.LONGS:
+                return L_MOVE;
+            case LinearRoutine.DOUBLES:
+                return D_MOVE;
+            default:
+                return O_MOVE;
+        }
+    }
+
+    /**
+     * Loads a constant, converted as the tree would
+     */
+    private void constant(Object value, Kind kind, int register) throws LoweringException {
+        if (kind == Kind.OBJECT) {
+            emit(O_CONST, register, objectConstant(value));
+        } else if (kind == Kind.BOOLEAN) {
+            if (!(value instanceof Boolean)) {
+                throw new LoweringException("boolean constant " + value);
+            }
+            emit(I_CONST, register, (Boolean) value ? 1 : 0);
+        } else {
+            if (!(value instanceof Number)) {
+                throw new LoweringException("number constant " + value);
+            }
+            Number number = (Number) value;
+            if (kind == Kind.INT) {
+                emit(I_CONST, register, number.intValue());
+            } else if (kind == Kind.LONG) {
+                longConstants.add(number.longValue());
+                emit(L_CONST, register, longConstants.size() - 1);
+            } else {
+                doubleConstants.add(number.doubleValue());
+                emit(D_CONST, register, doubleConstants.size() - 1);
+            }
+        }
+    }
+
+    private int objectConstant(Object value) {
+        objectConstants.add(value);
+        return objectConstants.size() - 1;
+    }
+
+    private int temp(Kind kind) {
+        int register = next[kind.file]++;
+        counts[kind.file] = Math.max(counts[kind.file], next[kind.file]);
+        return register;
+    }
+
+    private void emit(int... words) {
+        if (length + words.length > code.length) {
+            int size = Math.max(code.length * 2, length + words.length);
+            code = Arrays.copyOf(code, size);
+            lines = Arrays.copyOf(lines, size);
+        }
+        lines[length] = line;
+        System.arraycopy(words, 0, code, length, words.length);
+        length += words.length;
+    }
+
+    /**
+     * Writes a jump whose last operand is the position of the label
+     */
+    private void jump(int opcode, Label target) {
+        jump(opcode, new int[0], target);
+    }
+
+    private void jump(int opcode, int register, Label target) {
+        jump(opcode, new int[]{register}, target);
+    }
+
+    private void jump(int opcode, int a, int b, Label target) {
+        jump(opcode, new int[]{a, b}, target);
+    }
+
+    private void jump(int opcode, int[] registers, Label target) {
+        int[] words = new int[registers.length + 2];
+        words[0] = opcode;
+        System.arraycopy(registers, 0, words, 1, registers.length);
+        words[words.length - 1] = target.position;
+        if (target.position < 0) {
+            target.uses.add(length + words.length - 1);
+        }
+        emit(words);
+    }
+
+    private void mark(Label label) {
+        label.position = length;
+        for (int use : label.uses) {
+            code[use] = length;
+        }
+        label.uses.clear();
+    }
+}
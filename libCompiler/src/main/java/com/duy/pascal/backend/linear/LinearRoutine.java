@@ -0,0 +1,776 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.linear;
+
+import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
+import com.duy.pascal.backend.ast.runtime_value.value.NullValue;
+import com.duy.pascal.backend.ast.variablecontext.VariableContext;
+import com.duy.pascal.backend.config.ExecutionBackend;
+import com.duy.pascal.backend.declaration.lang.function.FunctionDeclaration;
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.backend.parse_exception.operator.DivisionByZeroException;
+import com.duy.pascal.backend.runtime_exception.IndexOutOfBoundsException;
+import com.duy.pascal.backend.runtime_exception.MethodCallException;
+import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
+import com.duy.pascal.backend.runtime_exception.StackOverflowException;
+import com.duy.pascal.backend.runtime_exception.UnhandledPascalException;
+import com.duy.pascal.backend.runtime_exception.internal.MethodReflectionException;
+
+import java.lang.reflect.InvocationTargetException;
+
+import static com.duy.pascal.backend.linear.Opcodes.*;
+
+/**
+ * Procedure or function lowered by {@link LinearCompiler} to an array of instructions over
+ * typed registers. The parameters and local variables of the routine are registers, the
+ * instructions are run by one dispatch loop and an error raised by the java code of an
+ * instruction is wrapped once, with the line of the instruction.
+ * <p>
+ * In a program run by {@link ExecutionBackend#STACKLESS} a call of a lowered routine does not
+ * nest java calls: the registers of the caller are kept in a {@link Frame} in the heap and the
+ * loop goes on with the code of the callee
+ */
+public final class LinearRoutine {
+    static final int INTS = 0;
+    static final int LONGS = 1;
+    static final int DOUBLES = 2;
+    static final int OBJECTS = 3;
+
+    private static final int[] NO_INTS = new int[0];
+    private static final long[] NO_LONGS = new long[0];
+    private static final double[] NO_DOUBLES = new double[0];
+    private static final Object[] NO_OBJECTS = new Object[0];
+    /**
+     * estimated bytes of a frame besides its registers: the frame, its register files and
+     * their headers
+     */
+    private static final long FRAME_BYTES = 128;
+
+    private final FunctionDeclaration function;
+    private final int[] code;
+    /**
+     * line of each instruction, indexed as the code
+     */
+    private final LineInfo[] lines;
+    private final long[] longConstants;
+    private final double[] doubleConstants;
+    /**
+     * objects passed to routines and the {@link CallSite}s
+     */
+    private final Object[] objectConstants;
+    /**
+     * size of each register file
+     */
+    private final int[] registerCounts;
+    private final Kind[] argumentKinds;
+    private final int[] argumentRegisters;
+    /**
+     * kind of the result, null for a procedure
+     */
+    private final Kind resultKind;
+    private final int resultRegister;
+    /**
+     * true if calls of lowered routines push heap frames, see {@link ExecutionBackend#STACKLESS}
+     */
+    private final boolean stackless;
+    /**
+     * estimated bytes of the registers of one call, counted in the heap budget
+     */
+    private final long frameSize;
+
+    LinearRoutine(FunctionDeclaration function, int[] code, LineInfo[] lines,
+                  long[] longConstants, double[] doubleConstants, Object[] objectConstants,
+                  int[] registerCounts, Kind[] argumentKinds, int[] argumentRegisters,
+                  Kind resultKind, int resultRegister, boolean stackless) {
+        this.function = function;
+        this.code = code;
+        this.lines = lines;
+        this.longConstants = longConstants;
+        this.doubleConstants = doubleConstants;
+        this.objectConstants = objectConstants;
+        this.registerCounts = registerCounts;
+        this.argumentKinds = argumentKinds;
+        this.argumentRegisters = argumentRegisters;
+        this.resultKind = resultKind;
+        this.resultRegister = resultRegister;
+        this.stackless = stackless;
+        this.frameSize = FRAME_BYTES + 4L * registerCounts[INTS] + 8L * registerCounts[LONGS]
+                + 8L * registerCounts[DOUBLES] + 4L * registerCounts[OBJECTS];
+    }
+
+    public FunctionDeclaration getFunction() {
+        return function;
+    }
+
+    /**
+     * @return number of ints of the code
+     */
+    public int getCodeLength() {
+        return code.length;
+    }
+
+    /**
+     * Runs the routine in place of {@link FunctionDeclaration#call}
+     *
+     * @param globals frame of the program, which holds the global variables
+     * @return value of the function, null for a procedure
+     */
+    public Object invoke(VariableContext globals, RuntimeExecutableCodeUnit<?> main,
+                         Object[] arguments) throws RuntimePascalException {
+        Registers registers = new Registers(registerCounts);
+        for (int k = 0; k < argumentKinds.length; k++) {
+            registers.set(argumentKinds[k], argumentRegisters[k], arguments[k]);
+        }
+        run(globals, main, registers);
+        return resultKind == null ? null : registers.get(resultKind, resultRegister);
+    }
+
+    /**
+     * Register files of one call
+     */
+    private static final class Registers {
+        private final int[] ints;
+        private final long[] longs;
+        private final double[] doubles;
+        private final Object[] objects;
+
+        Registers(int[] counts) {
+            ints = counts[INTS] == 0 ? NO_INTS : new int[counts[INTS]];
+            longs = counts[LONGS] == 0 ? NO_LONGS : new long[counts[LONGS]];
+            doubles = counts[DOUBLES] == 0 ? NO_DOUBLES : new double[counts[DOUBLES]];
+            objects = counts[OBJECTS] == 0 ? NO_OBJECTS : new Object[counts[OBJECTS]];
+        }
+
+        Object get(Kind kind, int register) {
+            switch (kind) {
+                case INT:
+                    return ints[register];
+                case LONG:
+                    return longs[register];
+                case DOUBLE:
+                    return doubles[register];
+                case BOOLEAN:
+                    return ints[register] != 0;
+                default:
+                    return objects[register];
+            }
+        }
+
+        /**
+         * Stores a boxed value, converted as {@link Number#intValue()} and the other methods
+         * of {@link Number} used by the tree do
+         */
+        void set(Kind kind, int register, Object value) {
+            switch (kind) {
+                case INT:
+                    ints[register] = ((Number) value).intValue();
+                    break;
+                case LONG:
+                    longs[register] = ((Number) value).longValue();
+                    break;
+                case DOUBLE:
+                    doubles[register] = ((Number) value).doubleValue();
+                    break;
+                case BOOLEAN:
+                    ints[register] = (Boolean) value ? 1 : 0;
+                    break;
+                default:
+                    objects[register] = value;
+                    break;
+            }
+        }
+
+        /**
+         * Copies a register of another set into this one
+         */
+        void copy(Kind kind, int register, Registers from, int fromRegister) {
+            switch (kind.file) {
+                case INTS:
+                    ints[register] = from.ints[fromRegister];
+                    break;
+                case LONGS:
+                    longs[register] = from.longs[fromRegister];
+                    break;
+                case DOUBLES:
+                    doubles[register] = from.doubles[fromRegister];
+                    break;
+                default:
+                    objects[register] = from.objects[fromRegister];
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Call suspended while a routine it called runs in the same loop
+     */
+    private static final class Frame {
+        private final LinearRoutine routine;
+        private final Registers registers;
+        private final Frame caller;
+        /**
+         * position of the call instruction
+         */
+        private final int pc;
+        private final int ticks;
+
+        Frame(LinearRoutine routine, Registers registers, Frame caller, int pc, int ticks) {
+            this.routine = routine;
+            this.registers = registers;
+            this.caller = caller;
+            this.pc = pc;
+            this.ticks = ticks;
+        }
+    }
+
+    private void run(VariableContext globals, RuntimeExecutableCodeUnit<?> main,
+                     Registers registers) throws RuntimePascalException {
+        LinearRoutine routine = this;
+        int[] code = this.code;
+        int[] i = registers.ints;
+        long[] l = registers.longs;
+        double[] d = registers.doubles;
+        Object[] o = registers.objects;
+        //calls suspended by this loop, the innermost first
+        Frame frame = null;
+        //heap budget taken by the suspended calls
+        long reserved = 0;
+        //backward gotos and recursive calls, counted for the compiler to bytecode
+        int ticks = 0;
+        int pc = 0;
+        try {
+            while (true) {
+                switch (code[pc]) {
+                    case I_CONST:
+                        i[code[pc + 1]] = code[pc + 2];
+                        pc += 3;
+                        break;
+                    case L_CONST:
+                        l[code[pc + 1]] = routine.longConstants[code[pc + 2]];
+                        pc += 3;
+                        break;
+                    case D_CONST:
+                        d[code[pc + 1]] = routine.doubleConstants[code[pc + 2]];
+                        pc += 3;
+                        break;
+                    case O_CONST:
+                        o[code[pc + 1]] = routine.objectConstants[code[pc + 2]];
+                        pc += 3;
+                        break;
+                    case I_MOVE:
+                        i[code[pc + 1]] = i[code[pc + 2]];
+                        pc += 3;
+                        break;
+                    case L_MOVE:
+                        l[code[pc + 1]] = l[code[pc + 2]];
+                        pc += 3;
+                        break;
+                    case D_MOVE:
+                        d[code[pc + 1]] = d[code[pc + 2]];
+                        pc += 3;
+                        break;
+                    case O_MOVE:
+                        o[code[pc + 1]] = o[code[pc + 2]];
+                        pc += 3;
+                        break;
+
+                    case I_ADD:
+                        i[code[pc + 1]] = i[code[pc + 2]] + i[code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case I_SUB:
+                        i[code[pc + 1]] = i[code[pc + 2]] - i[code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case I_MUL:
+                        i[code[pc + 1]] = i[code[pc + 2]] * i[code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case I_DIV: {
+                        int divisor = i[code[pc + 3]];
+                        if (divisor == 0) {
+                            throw new DivisionByZeroException(routine.lines[pc]);
+                        }
+                        i[code[pc + 1]] = i[code[pc + 2]] / divisor;
+                        pc += 4;
+                        break;
+                    }
+                    case I_MOD:
+                        i[code[pc + 1]] = i[code[pc + 2]] % i[code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case I_AND:
+                        i[code[pc + 1]] = i[code[pc + 2]] & i[code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case I_OR:
+                        i[code[pc + 1]] = i[code[pc + 2]] | i[code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case I_XOR:
+                        i[code[pc + 1]] = i[code[pc + 2]] ^ i[code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case I_SHL:
+                        i[code[pc + 1]] = i[code[pc + 2]] << i[code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case I_SHR:
+                        i[code[pc + 1]] = i[code[pc + 2]] >> i[code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case L_ADD:
+                        l[code[pc + 1]] = l[code[pc + 2]] + l[code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case L_SUB:
+                        l[code[pc + 1]] = l[code[pc + 2]] - l[code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case L_MUL:
+                        l[code[pc + 1]] = l[code[pc + 2]] * l[code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case L_DIV:
+                        l[code[pc + 1]] = l[code[pc + 2]] / l[code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case L_MOD:
+                        l[code[pc + 1]] = l[code[pc + 2]] % l[code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case L_AND:
+                        l[code[pc + 1]] = l[code[pc + 2]] & l[code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case L_OR:
+                        l[code[pc + 1]] = l[code[pc + 2]] | l[code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case L_XOR:
+                        l[code[pc + 1]] = l[code[pc + 2]] ^ l[code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case L_SHL:
+                        l[code[pc + 1]] = l[code[pc + 2]] << i[code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case L_SHR:
+                        l[code[pc + 1]] = l[code[pc + 2]] >> i[code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case D_ADD:
+                        d[code[pc + 1]] = d[code[pc + 2]] + d[code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case D_SUB:
+                        d[code[pc + 1]] = d[code[pc + 2]] - d[code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case D_MUL:
+                        d[code[pc + 1]] = d[code[pc + 2]] * d[code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case I_DIVIDE: {
+                        int divisor = i[code[pc + 3]];
+                        if (divisor == 0) {
+                            throw new DivisionByZeroException(routine.lines[pc]);
+                        }
+                        d[code[pc + 1]] = (double) i[code[pc + 2]] / (double) divisor;
+                        pc += 4;
+                        break;
+                    }
+                    case L_DIVIDE:
+                        d[code[pc + 1]] = (double) l[code[pc + 2]] / (double) l[code[pc + 3]];
+                        pc += 4;
+                        break;
+                    case D_DIVIDE: {
+                        double divisor = d[code[pc + 3]];
+                        if (divisor == 0) {
+                            throw new DivisionByZeroException(routine.lines[pc]);
+                        }
+                        d[code[pc + 1]] = d[code[pc + 2]] / divisor;
+                        pc += 4;
+                        break;
+                    }
+
+                    case I_NEG:
+                        i[code[pc + 1]] = -i[code[pc + 2]];
+                        pc += 3;
+                        break;
+                    case L_NEG:
+                        l[code[pc + 1]] = -l[code[pc + 2]];
+                        pc += 3;
+                        break;
+                    case D_NEG:
+                        d[code[pc + 1]] = -d[code[pc + 2]];
+                        pc += 3;
+                        break;
+                    case Z_NOT:
+                        i[code[pc + 1]] = i[code[pc + 2]] ^ 1;
+                        pc += 3;
+                        break;
+                    case I2L:
+                        l[code[pc + 1]] = i[code[pc + 2]];
+                        pc += 3;
+                        break;
+                    case I2D:
+                        d[code[pc + 1]] = i[code[pc + 2]];
+                        pc += 3;
+                        break;
+                    case L2I:
+                        i[code[pc + 1]] = (int) l[code[pc + 2]];
+                        pc += 3;
+                        break;
+                    case L2D:
+                        d[code[pc + 1]] = l[code[pc + 2]];
+                        pc += 3;
+                        break;
+                    case D2I:
+                        i[code[pc + 1]] = (int) d[code[pc + 2]];
+                        pc += 3;
+                        break;
+                    case D2L:
+                        l[code[pc + 1]] = (long) d[code[pc + 2]];
+                        pc += 3;
+                        break;
+
+                    case GOTO: {
+                        int target = code[pc + 1];
+                        if (target <= pc) {
+                            ticks++;
+                        }
+                        pc = target;
+                        break;
+                    }
+                    case JZ:
+                        pc = i[code[pc + 1]] == 0 ? code[pc + 2] : pc + 3;
+                        break;
+                    case JNZ:
+                        pc = i[code[pc + 1]] != 0 ? code[pc + 2] : pc + 3;
+                        break;
+                    case I_JEQ:
+                        pc = i[code[pc + 1]] == i[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                        break;
+                    case I_JNE:
+                        pc = i[code[pc + 1]] != i[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                        break;
+                    case I_JLT:
+                        pc = i[code[pc + 1]] < i[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                        break;
+                    case I_JGE:
+                        pc = i[code[pc + 1]] >= i[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                        break;
+                    case I_JGT:
+                        pc = i[code[pc + 1]] > i[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                        break;
+                    case I_JLE:
+                        pc = i[code[pc + 1]] <= i[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                        break;
+                    case L_JEQ:
+                        pc = l[code[pc + 1]] == l[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                        break;
+                    case L_JNE:
+                        pc = l[code[pc + 1]] != l[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                        break;
+                    case L_JLT:
+                        pc = l[code[pc + 1]] < l[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                        break;
+                    case L_JGE:
+                        pc = l[code[pc + 1]] >= l[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                        break;
+                    case L_JGT:
+                        pc = l[code[pc + 1]] > l[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                        break;
+                    case L_JLE:
+                        pc = l[code[pc + 1]] <= l[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                        break;
+                    case D_JEQ:
+                        pc = d[code[pc + 1]] == d[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                        break;
+                    case D_JNE:
+                        pc = d[code[pc + 1]] != d[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                        break;
+                    case D_JLT:
+                        pc = d[code[pc + 1]] < d[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                        break;
+                    case D_JGE:
+                        pc = d[code[pc + 1]] >= d[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                        break;
+                    case D_JGT:
+                        pc = d[code[pc + 1]] > d[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                        break;
+                    case D_JLE:
+                        pc = d[code[pc + 1]] <= d[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                        break;
+
+                    case G_LOAD_I:
+                        i[code[pc + 1]] = ((Number) globals.getSlotValue(code[pc + 2])).intValue();
+                        pc += 3;
+                        break;
+                    case G_LOAD_L:
+                        l[code[pc + 1]] = ((Number) globals.getSlotValue(code[pc + 2])).longValue();
+                        pc += 3;
+                        break;
+                    case G_LOAD_D:
+                        d[code[pc + 1]] = ((Number) globals.getSlotValue(code[pc + 2])).doubleValue();
+                        pc += 3;
+                        break;
+                    case G_LOAD_Z:
+                        i[code[pc + 1]] = (Boolean) globals.getSlotValue(code[pc + 2]) ? 1 : 0;
+                        pc += 3;
+                        break;
+                    case G_LOAD_O:
+                        o[code[pc + 1]] = globals.getSlotValue(code[pc + 2]);
+                        pc += 3;
+                        break;
+                    case G_STORE_I:
+                        globals.setSlotValue(code[pc + 2], i[code[pc + 1]]);
+                        pc += 3;
+                        break;
+                    case G_STORE_L:
+                        globals.setSlotValue(code[pc + 2], l[code[pc + 1]]);
+                        pc += 3;
+                        break;
+                    case G_STORE_D:
+                        globals.setSlotValue(code[pc + 2], d[code[pc + 1]]);
+                        pc += 3;
+                        break;
+                    case G_STORE_Z:
+                        globals.setSlotValue(code[pc + 2], i[code[pc + 1]] != 0);
+                        pc += 3;
+                        break;
+
+                    case A_LOAD_I: {
+                        int[] array = (int[]) o[code[pc + 2]];
+                        i[code[pc + 1]] = array[position(array.length, i[code[pc + 3]], code[pc + 4], routine.lines[pc])];
+                        pc += 5;
+                        break;
+                    }
+                    case A_LOAD_L: {
+                        long[] array = (long[]) o[code[pc + 2]];
+                        l[code[pc + 1]] = array[position(array.length, i[code[pc + 3]], code[pc + 4], routine.lines[pc])];
+                        pc += 5;
+                        break;
+                    }
+                    case A_LOAD_D: {
+                        double[] array = (double[]) o[code[pc + 2]];
+                        d[code[pc + 1]] = array[position(array.length, i[code[pc + 3]], code[pc + 4], routine.lines[pc])];
+                        pc += 5;
+                        break;
+                    }
+                    case A_LOAD_Z: {
+                        boolean[] array = (boolean[]) o[code[pc + 2]];
+                        i[code[pc + 1]] = array[position(array.length, i[code[pc + 3]], code[pc + 4], routine.lines[pc])] ? 1 : 0;
+                        pc += 5;
+                        break;
+                    }
+                    case A_STORE_I: {
+                        int[] array = (int[]) o[code[pc + 1]];
+                        array[position(array.length, i[code[pc + 2]], code[pc + 3], routine.lines[pc])] = i[code[pc + 4]];
+                        pc += 5;
+                        break;
+                    }
+                    case A_STORE_L: {
+                        long[] array = (long[]) o[code[pc + 1]];
+                        array[position(array.length, i[code[pc + 2]], code[pc + 3], routine.lines[pc])] = l[code[pc + 4]];
+                        pc += 5;
+                        break;
+                    }
+                    case A_STORE_D: {
+                        double[] array = (double[]) o[code[pc + 1]];
+                        array[position(array.length, i[code[pc + 2]], code[pc + 3], routine.lines[pc])] = d[code[pc + 4]];
+                        pc += 5;
+                        break;
+                    }
+                    case A_STORE_Z: {
+                        boolean[] array = (boolean[]) o[code[pc + 1]];
+                        array[position(array.length, i[code[pc + 2]], code[pc + 3], routine.lines[pc])] = i[code[pc + 4]] != 0;
+                        pc += 5;
+                        break;
+                    }
+
+                    case SAFEPOINT:
+                        main.safepoint(routine.lines[pc]);
+                        pc += 1;
+                        break;
+                    case CALL: {
+                        CallSite site = (CallSite) routine.objectConstants[code[pc + 1]];
+                        LineInfo line = routine.lines[pc];
+                        if (site.recursive) {
+                            ticks++;
+                        }
+                        LinearRoutine callee = routine.stackless ? target(routine, site) : null;
+                        if (callee == null) {
+                            if (site.recursive) {
+                                routine.callSelf(site, globals, main, registers, line);
+                            } else {
+                                call(site, globals, main, registers, line);
+                            }
+                            pc += 2;
+                            break;
+                        }
+                        main.incHeapStack(callee.frameSize, line);
+                        reserved += callee.frameSize;
+                        Registers calleeRegisters;
+                        try {
+                            calleeRegisters = new Registers(callee.registerCounts);
+                            frame = new Frame(routine, registers, frame, pc, ticks);
+                        } catch (OutOfMemoryError e) {
+                            throw new StackOverflowException(line);
+                        }
+                        for (int k = 0; k < callee.argumentKinds.length; k++) {
+                            calleeRegisters.copy(callee.argumentKinds[k],
+                                    callee.argumentRegisters[k], registers,
+                                    site.argumentRegisters[k]);
+                        }
+                        main.safepoint(callee.function.getLineNumber());
+                        routine = callee;
+                        registers = calleeRegisters;
+                        code = callee.code;
+                        i = registers.ints;
+                        l = registers.longs;
+                        d = registers.doubles;
+                        o = registers.objects;
+                        ticks = 0;
+                        pc = 0;
+                        break;
+                    }
+                    case RETURN: {
+                        if (ticks > 0 && main.isJit()) {
+                            routine.function.addBackEdges(ticks);
+                        }
+                        if (frame == null) {
+                            return;
+                        }
+                        //back to the suspended caller
+                        LinearRoutine callee = routine;
+                        Registers calleeRegisters = registers;
+                        routine = frame.routine;
+                        registers = frame.registers;
+                        code = routine.code;
+                        i = registers.ints;
+                        l = registers.longs;
+                        d = registers.doubles;
+                        o = registers.objects;
+                        ticks = frame.ticks;
+                        pc = frame.pc;
+                        frame = frame.caller;
+                        main.decHeapStack(callee.frameSize);
+                        reserved -= callee.frameSize;
+                        CallSite site = (CallSite) routine.objectConstants[code[pc + 1]];
+                        if (site.resultKind != null) {
+                            registers.copy(site.resultKind, site.resultRegister,
+                                    calleeRegisters, callee.resultRegister);
+                        }
+                        pc += 2;
+                        break;
+                    }
+                    default:
+                        throw new IllegalStateException("opcode " + code[pc]);
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new UnhandledPascalException(routine.lines[pc], e);
+        } finally {
+            if (reserved > 0) {
+                main.decHeapStack(reserved);
+            }
+        }
+    }
+
+    /**
+     * @return the lowered routine called by the site, null if it runs through {@link
+     * FunctionDeclaration#call}
+     */
+    private static LinearRoutine target(LinearRoutine caller, CallSite site)
+            throws RuntimePascalException {
+        if (site.recursive) {
+            return caller;
+        }
+        if (site.function instanceof FunctionDeclaration) {
+            return ((FunctionDeclaration) site.function).prepareLinear();
+        }
+        return null;
+    }
+
+    /**
+     * @return position of the element in the java array
+     */
+    private static int position(int length, int index, int offset, LineInfo line)
+            throws IndexOutOfBoundsException {
+        int position = index - offset;
+        if (position < 0 || position >= length) {
+            throw new IndexOutOfBoundsException(line, index, offset, offset + length - 1);
+        }
+        return position;
+    }
+
+    /**
+     * Calls the routine itself in new registers, with the checks of a call of the tree
+     */
+    private void callSelf(CallSite site, VariableContext globals,
+                          RuntimeExecutableCodeUnit<?> main, Registers caller, LineInfo line)
+            throws RuntimePascalException {
+        Registers callee = new Registers(registerCounts);
+        for (int k = 0; k < argumentKinds.length; k++) {
+            callee.copy(argumentKinds[k], argumentRegisters[k], caller, site.argumentRegisters[k]);
+        }
+        main.incStack(line);
+        try {
+            main.safepoint(function.getLineNumber());
+            run(globals, main, callee);
+        } catch (StackOverflowError e) {
+            throw new StackOverflowException(line);
+        } finally {
+            main.decStack();
+        }
+        if (site.resultKind != null) {
+            caller.copy(site.resultKind, site.resultRegister, callee, resultRegister);
+        }
+    }
+
+    /**
+     * Calls another routine with boxed arguments, as {@link
+     * com.duy.pascal.backend.ast.runtime_value.value.SimpleFunctionCall} does
+     */
+    private static void call(CallSite site, VariableContext globals,
+                             RuntimeExecutableCodeUnit<?> main, Registers registers,
+                             LineInfo line) throws RuntimePascalException {
+        Object[] arguments = new Object[site.argumentKinds.length];
+        for (int k = 0; k < arguments.length; k++) {
+            arguments[k] = registers.get(site.argumentKinds[k], site.argumentRegisters[k]);
+        }
+        Object result;
+        main.incStack(line);
+        try {
+            result = site.function.call(globals, main, arguments);
+        } catch (IllegalArgumentException | IllegalAccessException e) {
+            throw new MethodReflectionException(line, e);
+        } catch (InvocationTargetException e) {
+            throw new MethodCallException(line, e.getTargetException(), site.function);
+        } catch (StackOverflowError e) {
+            throw new StackOverflowException(line);
+        } finally {
+            main.decStack();
+        }
+        if (site.resultKind != null) {
+            registers.set(site.resultKind, site.resultRegister,
+                    result == null ? NullValue.get() : result);
+        }
+    }
+}
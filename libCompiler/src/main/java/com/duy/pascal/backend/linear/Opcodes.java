@@ -0,0 +1,169 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.linear;
+
+/**
+ * Instructions of {@link LinearRoutine}. An instruction is its opcode followed by its operands,
+ * registers are indexes in the register file of their kind: I for integer and boolean, L for
+ * int64, D for real and O for any other value. A jump target is the index of an instruction.
+ * The comments give the operands of each instruction
+ */
+final class Opcodes {
+    /**
+     * dst, value
+     */
+    static final int I_CONST = 0;
+    /**
+     * dst, index of the constant
+     */
+    static final int L_CONST = 1;
+    static final int D_CONST = 2;
+    static final int O_CONST = 3;
+    /**
+     * dst, src
+     */
+    static final int I_MOVE = 4;
+    static final int L_MOVE = 5;
+    static final int D_MOVE = 6;
+    static final int O_MOVE = 7;
+
+    /**
+     * dst, a, b, the second operand of a long shift is an I register
+     */
+    static final int I_ADD = 10;
+    static final int I_SUB = 11;
+    static final int I_MUL = 12;
+    static final int I_DIV = 13;
+    static final int I_MOD = 14;
+    static final int I_AND = 15;
+    static final int I_OR = 16;
+    static final int I_XOR = 17;
+    static final int I_SHL = 18;
+    static final int I_SHR = 19;
+    static final int L_ADD = 20;
+    static final int L_SUB = 21;
+    static final int L_MUL = 22;
+    static final int L_DIV = 23;
+    static final int L_MOD = 24;
+    static final int L_AND = 25;
+    static final int L_OR = 26;
+    static final int L_XOR = 27;
+    static final int L_SHL = 28;
+    static final int L_SHR = 29;
+    static final int D_ADD = 30;
+    static final int D_SUB = 31;
+    static final int D_MUL = 32;
+    /**
+     * D dst, operands of the kind of the prefix
+     */
+    static final int I_DIVIDE = 33;
+    static final int L_DIVIDE = 34;
+    static final int D_DIVIDE = 35;
+
+    /**
+     * dst, src
+     */
+    static final int I_NEG = 40;
+    static final int L_NEG = 41;
+    static final int D_NEG = 42;
+    static final int Z_NOT = 43;
+    static final int I2L = 44;
+    static final int I2D = 45;
+    static final int L2I = 46;
+    static final int L2D = 47;
+    static final int D2I = 48;
+    static final int D2L = 49;
+
+    /**
+     * target
+     */
+    static final int GOTO = 50;
+    /**
+     * I register, target
+     */
+    static final int JZ = 51;
+    static final int JNZ = 52;
+    /**
+     * a, b, target: jumps if the comparison of a and b holds. The conditions follow the order
+     * of {@link #I_JEQ} to {@link #I_JLE} for each kind
+     */
+    static final int I_JEQ = 53;
+    static final int I_JNE = 54;
+    static final int I_JLT = 55;
+    static final int I_JGE = 56;
+    static final int I_JGT = 57;
+    static final int I_JLE = 58;
+    static final int L_JEQ = 59;
+    static final int L_JNE = 60;
+    static final int L_JLT = 61;
+    static final int L_JGE = 62;
+    static final int L_JGT = 63;
+    static final int L_JLE = 64;
+    static final int D_JEQ = 65;
+    static final int D_JNE = 66;
+    static final int D_JLT = 67;
+    static final int D_JGE = 68;
+    static final int D_JGT = 69;
+    static final int D_JLE = 70;
+
+    /**
+     * dst, slot of the global variable
+     */
+    static final int G_LOAD_I = 80;
+    static final int G_LOAD_L = 81;
+    static final int G_LOAD_D = 82;
+    static final int G_LOAD_Z = 83;
+    static final int G_LOAD_O = 84;
+    /**
+     * src, slot of the global variable
+     */
+    static final int G_STORE_I = 85;
+    static final int G_STORE_L = 86;
+    static final int G_STORE_D = 87;
+    static final int G_STORE_Z = 88;
+
+    /**
+     * dst, O register of the array, I register of the index, lowest index
+     */
+    static final int A_LOAD_I = 90;
+    static final int A_LOAD_L = 91;
+    static final int A_LOAD_D = 92;
+    static final int A_LOAD_Z = 93;
+    /**
+     * O register of the array, I register of the index, lowest index, src
+     */
+    static final int A_STORE_I = 94;
+    static final int A_STORE_L = 95;
+    static final int A_STORE_D = 96;
+    static final int A_STORE_Z = 97;
+
+    /**
+     * no operand, the line is the one of the instruction
+     */
+    static final int SAFEPOINT = 100;
+    /**
+     * index of the {@link CallSite} in the object constants
+     */
+    static final int CALL = 101;
+    /**
+     * no operand
+     */
+    static final int RETURN = 102;
+
+    private Opcodes() {
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.optimizer;
+
+import com.duy.pascal.backend.ast.expressioncontext.ExpressionContextMixin;
+import com.duy.pascal.backend.ast.instructions.Executable;
+import com.duy.pascal.backend.ast.runtime_value.value.FunctionCall;
+import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
+import com.duy.pascal.backend.ast.runtime_value.value.access.ConstantAccess;
+import com.duy.pascal.backend.ast.runtime_value.value.access.VariableAccess;
+import com.duy.pascal.backend.config.Optimization;
+import com.duy.pascal.backend.declaration.lang.types.Type;
+import com.duy.pascal.backend.declaration.lang.value.VariableDeclaration;
+import com.duy.pascal.backend.parse_exception.ParsingException;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Replaces each expression whose value is known before the program runs with a
+ * {@link ConstantAccess}. Constants are already known to the expressions, a scalar global
+ * variable is known if no statement of the program assigns it or passes it by reference.
+ * Expressions which call a function are never folded, the compile time value of a call runs the
+ * function, which may read input or draw a random number
+ */
+public class ConstantPropagationPass extends OptimizationPass {
+    private final ExpressionContextMixin globals;
+    private final boolean closedProgram;
+
+    /**
+     * @param globals       scope of the global variables of the program
+     * @param closedProgram true if every statement that can assign a global variable is in
+     *                      the routines given to {@link #run(List)}
+     */
+    public ConstantPropagationPass(ExpressionContextMixin globals, boolean closedProgram) {
+        this.globals = globals;
+        this.closedProgram = closedProgram;
+    }
+
+    private static boolean isScalarValue(Object value) {
+        return value instanceof Number || value instanceof Boolean
+                || value instanceof Character || value instanceof String;
+    }
+
+    @Override
+    public Optimization getOptimization() {
+        return Optimization.CONSTANT_PROPAGATION;
+    }
+
+    @Override
+    public void run(List<RoutineBody> routines) {
+        IdentityHashMap<VariableDeclaration, Object> values = new IdentityHashMap<>();
+        if (closedProgram) {
+            for (VariableDeclaration variable : globals.variables) {
+                if (isScalar(variable.getType())) {
+                    Object value = variable.getInitialValue();
+                    if (value == null) {
+                        value = variable.getType().initialize();
+                    }
+                    if (isScalarValue(value)) {
+                        values.put(variable, value);
+                    }
+                }
+            }
+            WriteScanner scanner = new WriteScanner(values);
+            for (RoutineBody routine : routines) {
+                scanner.rewrite(routine.getCode(), TreeRewriter.Slot.STATEMENT);
+            }
+        }
+        for (RoutineBody routine : routines) {
+            Folder folder = new Folder(routine.getContext(), values);
+            routine.setCode((Executable) folder.rewrite(routine.getCode(), TreeRewriter.Slot.STATEMENT));
+        }
+    }
+
+    private VariableDeclaration globalOf(VariableAccess access) {
+        if (access.getContext() != globals) {
+            return null;
+        }
+        return globals.getVariableDefinitionLocal(access.getName());
+    }
+
+    /**
+     * Forgets the variables which are assigned somewhere
+     */
+    private class WriteScanner extends TreeRewriter {
+        private final IdentityHashMap<VariableDeclaration, Object> values;
+
+        WriteScanner(IdentityHashMap<VariableDeclaration, Object> values) {
+            this.values = values;
+        }
+
+        @Override
+        protected Object leave(Object node, Slot slot) {
+            if (isOpaque(node)) {
+                values.clear();
+            } else if (node instanceof VariableAccess && slot == Slot.TARGET) {
+                VariableDeclaration variable = globalOf((VariableAccess) node);
+                if (variable != null) {
+                    values.remove(variable);
+                }
+            }
+            return node;
+        }
+    }
+
+    private class Folder extends TreeRewriter {
+        private final ExpressionContextMixin context;
+        private final IdentityHashMap<VariableDeclaration, Object> values;
+        /**
+         * number of calls seen when each node on the path from the root was entered
+         */
+        private final ArrayList<Integer> callsBefore = new ArrayList<>();
+        private int calls = 0;
+
+        Folder(ExpressionContextMixin context, IdentityHashMap<VariableDeclaration, Object> values) {
+            this.context = context;
+            this.values = values;
+        }
+
+        @Override
+        protected boolean enter(Object node, Slot slot) {
+            callsBefore.add(calls);
+            return true;
+        }
+
+        @Override
+        protected Object leave(Object node, Slot slot) {
+            if (node instanceof FunctionCall || isOpaque(node)) {
+                calls++;
+            }
+            boolean hasCall = calls > callsBefore.remove(callsBefore.size() - 1);
+            if (hasCall || !(node instanceof RuntimeValue) || node instanceof ConstantAccess
+                    || slot != Slot.VALUE) {
+                return node;
+            }
+            RuntimeValue value = (RuntimeValue) node;
+            try {
+                Object constant;
+                if (node instanceof VariableAccess) {
+                    VariableDeclaration variable = globalOf((VariableAccess) node);
+                    constant = variable == null ? null : values.get(variable);
+                } else {
+                    constant = value.compileTimeValue(context);
+                }
+                if (constant == null || !isScalarValue(constant)) {
+                    return node;
+                }
+                Type type = value.getRuntimeType(context).declType;
+                changed();
+                return new ConstantAccess<>(constant, type, value.getLineNumber());
+            } catch (ParsingException e) {
+                //the expression fails at runtime, keep it so the error is raised there
+                return node;
+            } catch (RuntimeException e) {
+                return node;
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.optimizer;
+
+import com.duy.pascal.backend.ast.instructions.Executable;
+import com.duy.pascal.backend.ast.instructions.NopeInstruction;
+import com.duy.pascal.backend.ast.instructions.case_statement.CaseInstruction;
+import com.duy.pascal.backend.ast.instructions.conditional.IfStatement;
+import com.duy.pascal.backend.ast.instructions.conditional.WhileStatement;
+import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
+import com.duy.pascal.backend.ast.runtime_value.value.access.ConstantAccess;
+import com.duy.pascal.backend.config.Optimization;
+
+import java.util.List;
+
+/**
+ * Replaces an if or case statement whose condition is a constant by the branch which is
+ * taken, and removes while loops whose condition is false. Works best after
+ * {@link ConstantPropagationPass}
+ */
+public class DeadBranchEliminationPass extends OptimizationPass {
+
+    private static Object constantOf(RuntimeValue value) {
+        return value instanceof ConstantAccess ? ((ConstantAccess) value).getValue() : null;
+    }
+
+    @Override
+    public Optimization getOptimization() {
+        return Optimization.DEAD_BRANCH_ELIMINATION;
+    }
+
+    @Override
+    public void run(List<RoutineBody> routines) {
+        for (RoutineBody routine : routines) {
+            routine.setCode((Executable) new Eliminator().rewrite(routine.getCode(), TreeRewriter.Slot.STATEMENT));
+        }
+    }
+
+    private Executable takenBranch(Object node) {
+        if (node instanceof IfStatement) {
+            IfStatement statement = (IfStatement) node;
+            Object condition = constantOf(statement.getCondition());
+            if (condition instanceof Boolean) {
+                if ((Boolean) condition) {
+                    return statement.getInstruction();
+                }
+                Executable elseInstruction = statement.getElseInstruction();
+                return elseInstruction != null ? elseInstruction
+                        : new NopeInstruction(statement.getLineNumber());
+            }
+        } else if (node instanceof WhileStatement) {
+            WhileStatement statement = (WhileStatement) node;
+            if (Boolean.FALSE.equals(constantOf(statement.getCondition()))) {
+                return new NopeInstruction(statement.getLineNumber());
+            }
+        } else if (node instanceof CaseInstruction) {
+            CaseInstruction statement = (CaseInstruction) node;
+            Object value = constantOf(statement.getSwitchValue());
+            if (value != null) {
+                return statement.getBranch(value);
+            }
+        }
+        return null;
+    }
+
+    private class Eliminator extends TreeRewriter {
+        @Override
+        protected Object leave(Object node, Slot slot) {
+            Executable branch = takenBranch(node);
+            if (branch == null || !slot.accepts(branch)) {
+                return node;
+            }
+            changed();
+            return branch;
+        }
+    }
+}
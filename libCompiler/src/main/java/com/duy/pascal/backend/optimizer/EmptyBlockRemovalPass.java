@@ -0,0 +1,83 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.optimizer;
+
+import com.duy.pascal.backend.ast.instructions.CompoundStatement;
+import com.duy.pascal.backend.ast.instructions.Executable;
+import com.duy.pascal.backend.ast.instructions.NopeInstruction;
+import com.duy.pascal.backend.config.Optimization;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * Removes the statements which do nothing from blocks, merges a block nested in another
+ * block into it and replaces a block holding a single statement by this statement
+ */
+public class EmptyBlockRemovalPass extends OptimizationPass {
+
+    @Override
+    public Optimization getOptimization() {
+        return Optimization.EMPTY_BLOCK_REMOVAL;
+    }
+
+    @Override
+    public void run(List<RoutineBody> routines) {
+        for (RoutineBody routine : routines) {
+            routine.setCode((Executable) new Remover().rewrite(routine.getCode(), TreeRewriter.Slot.STATEMENT));
+        }
+    }
+
+    private class Remover extends TreeRewriter {
+        @Override
+        protected Object leave(Object node, Slot slot) {
+            if (!(node instanceof CompoundStatement)) {
+                return node;
+            }
+            CompoundStatement block = (CompoundStatement) node;
+            LinkedList<Executable> instructions = block.getInstructions();
+            ListIterator<Executable> iterator = instructions.listIterator();
+            while (iterator.hasNext()) {
+                Executable instruction = iterator.next();
+                if (instruction instanceof NopeInstruction) {
+                    iterator.remove();
+                    changed();
+                } else if (instruction instanceof CompoundStatement) {
+                    iterator.remove();
+                    for (Executable inner : ((CompoundStatement) instruction).getInstructions()) {
+                        iterator.add(inner);
+                    }
+                    changed();
+                }
+            }
+            Executable replacement;
+            if (instructions.isEmpty()) {
+                replacement = new NopeInstruction(block.getLineNumber());
+            } else if (instructions.size() == 1) {
+                replacement = instructions.getFirst();
+            } else {
+                return node;
+            }
+            if (!slot.accepts(replacement)) {
+                return node;
+            }
+            changed();
+            return replacement;
+        }
+    }
+}
@@ -0,0 +1,491 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.optimizer;
+
+import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
+import com.duy.pascal.backend.ast.expressioncontext.ExpressionContextMixin;
+import com.duy.pascal.backend.ast.instructions.CompoundStatement;
+import com.duy.pascal.backend.ast.instructions.Executable;
+import com.duy.pascal.backend.ast.instructions.ExitInstruction;
+import com.duy.pascal.backend.ast.instructions.NopeInstruction;
+import com.duy.pascal.backend.ast.instructions.assign_statement.AssignStatement;
+import com.duy.pascal.backend.ast.instructions.conditional.IfStatement;
+import com.duy.pascal.backend.ast.runtime_value.operators.BinaryOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.UnaryOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.number.BoolBiOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.number.BoolUniOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.number.CharBiOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.number.DoubleBiOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.number.DoubleUniOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.number.IntegerBiOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.number.IntegerUniOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.number.LongBiOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.number.LongUniOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.pointer.DerefEval;
+import com.duy.pascal.backend.ast.runtime_value.value.AssignableValue;
+import com.duy.pascal.backend.ast.runtime_value.value.InlinedCall;
+import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
+import com.duy.pascal.backend.ast.runtime_value.value.SimpleFunctionCall;
+import com.duy.pascal.backend.ast.runtime_value.value.access.ConstantAccess;
+import com.duy.pascal.backend.ast.runtime_value.value.access.VariableAccess;
+import com.duy.pascal.backend.ast.runtime_value.value.boxing.GetAddress;
+import com.duy.pascal.backend.config.Optimization;
+import com.duy.pascal.backend.declaration.lang.function.FunctionDeclaration;
+import com.duy.pascal.backend.declaration.lang.function.MethodDeclaration;
+import com.duy.pascal.backend.declaration.lang.types.PointerType;
+import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
+import com.duy.pascal.backend.declaration.lang.types.Type;
+import com.duy.pascal.backend.declaration.lang.types.converter.CharToIntType;
+import com.duy.pascal.backend.declaration.lang.types.converter.NumberToCharType;
+import com.duy.pascal.backend.declaration.lang.types.converter.NumberToIntType;
+import com.duy.pascal.backend.declaration.lang.types.converter.NumberToLongType;
+import com.duy.pascal.backend.declaration.lang.types.converter.NumberToRealType;
+import com.duy.pascal.backend.declaration.lang.value.VariableDeclaration;
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.backend.parse_exception.ParsingException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Replaces the calls of small procedures and functions with a copy of their body. A routine
+ * is copied if it was not declared inside {$INLINE OFF}, calls no procedure or function of
+ * the program, so it is not recursive, has scalar value parameters and local variables, uses
+ * only its own variables and the global ones, and its body is made of assignments, if
+ * statements, arithmetic and calls of library functions.
+ * <p>
+ * The parameters and local variables become hidden variables of the caller. A var parameter
+ * is replaced by the variable passed, or by a hidden pointer when an element of an array or a
+ * field is passed, and a value parameter which is never assigned is replaced by the constant
+ * or the variable passed when this does not change the order of evaluation. The copied nodes
+ * keep the lines of the routine, so a runtime error is reported where it was before
+ */
+public class InliningPass extends OptimizationPass {
+    /**
+     * prefix of the hidden variables, can not start an identifier of a program
+     */
+    private static final String PREFIX = "$inline";
+    /**
+     * largest body copied at a call, in nodes
+     */
+    private static final int MAX_SIZE = 40;
+
+    private final ExpressionContextMixin globals;
+
+    /**
+     * @param globals scope of the global variables of the program
+     */
+    public InliningPass(ExpressionContextMixin globals) {
+        this.globals = globals;
+    }
+
+    private static boolean isCopyable(Object node) {
+        if (node instanceof SimpleFunctionCall) {
+            return ((SimpleFunctionCall) node).getFunction() instanceof MethodDeclaration;
+        }
+        return node instanceof CompoundStatement || node instanceof AssignStatement
+                || node instanceof IfStatement || node instanceof NopeInstruction
+                || node instanceof ExitInstruction
+                || node instanceof ConstantAccess || node instanceof VariableAccess
+                || node instanceof GetAddress
+                || node instanceof IntegerBiOperatorEval || node instanceof LongBiOperatorEval
+                || node instanceof DoubleBiOperatorEval || node instanceof BoolBiOperatorEval
+                || node instanceof CharBiOperatorEval
+                || node instanceof IntegerUniOperatorEval || node instanceof LongUniOperatorEval
+                || node instanceof DoubleUniOperatorEval || node instanceof BoolUniOperatorEval
+                || node instanceof NumberToIntType || node instanceof NumberToLongType
+                || node instanceof NumberToRealType || node instanceof NumberToCharType
+                || node instanceof CharToIntType;
+    }
+
+    /**
+     * @return true if evaluating the argument later than the call would give the same value,
+     * provided the routine does not write the variable
+     */
+    private static boolean isSimple(RuntimeValue argument) {
+        return argument instanceof ConstantAccess || argument instanceof VariableAccess
+                || (argument instanceof GetAddress
+                && ((GetAddress) argument).getTarget() instanceof VariableAccess);
+    }
+
+    @Override
+    public Optimization getOptimization() {
+        return Optimization.INLINING;
+    }
+
+    @Override
+    public void run(List<RoutineBody> routines) {
+        IdentityHashMap<FunctionDeclaration, Template> templates = new IdentityHashMap<>();
+        for (RoutineBody routine : routines) {
+            FunctionDeclaration function = routine.getFunction();
+            if (function != null) {
+                Template template = createTemplate(function, routine.getCode());
+                if (template != null) {
+                    templates.put(function, template);
+                }
+            }
+        }
+        if (templates.isEmpty()) {
+            return;
+        }
+        for (RoutineBody routine : routines) {
+            CallReplacer replacer = new CallReplacer(routine.getContext(), templates);
+            routine.setCode((Executable) replacer.rewrite(routine.getCode(), TreeRewriter.Slot.STATEMENT));
+        }
+    }
+
+    /**
+     * @return the body of the function if it can be copied into its callers, null otherwise
+     */
+    private Template createTemplate(FunctionDeclaration function, Executable body) {
+        if (!function.isInline() || function.declaration.root() != globals.root()) {
+            return null;
+        }
+        for (RuntimeType argument : function.argumentTypes) {
+            if (!argument.writable && !isScalar(argument.declType)) {
+                return null;
+            }
+        }
+        for (VariableDeclaration variable : function.declaration.variables) {
+            if (!isScalar(variable.getType())) {
+                return null;
+            }
+        }
+        Checker checker = new Checker(function);
+        checker.rewrite(body, TreeRewriter.Slot.STATEMENT);
+        if (!checker.copyable || checker.size > MAX_SIZE) {
+            return null;
+        }
+        return new Template(function, body, checker.written, checker.writesOutside);
+    }
+
+    private static class Template {
+        private final FunctionDeclaration function;
+        private final Executable body;
+        /**
+         * slots of the parameters and local variables assigned by the body
+         */
+        private final HashSet<Integer> written;
+        /**
+         * true if the body assigns a global variable or a var parameter
+         */
+        private final boolean writesOutside;
+
+        Template(FunctionDeclaration function, Executable body, HashSet<Integer> written,
+                 boolean writesOutside) {
+            this.function = function;
+            this.body = body;
+            this.written = written;
+            this.writesOutside = writesOutside;
+        }
+    }
+
+    /**
+     * Checks that each node of a body can be copied and finds the variables it assigns
+     */
+    private class Checker extends TreeRewriter {
+        private final FunctionDeclaration function;
+        private final HashSet<Integer> written = new HashSet<>();
+        private boolean writesOutside = false;
+        private boolean copyable = true;
+        private int size = 0;
+
+        Checker(FunctionDeclaration function) {
+            this.function = function;
+        }
+
+        @Override
+        protected Object leave(Object node, Slot slot) {
+            size++;
+            if (!isCopyable(node)) {
+                copyable = false;
+            } else if (node instanceof VariableAccess) {
+                VariableAccess access = (VariableAccess) node;
+                ExpressionContext context = access.getContext();
+                if (access.getSlot() < 0
+                        || (context != function.declaration && context != globals)) {
+                    copyable = false;
+                } else if (slot == Slot.TARGET) {
+                    int index = access.getSlot();
+                    if (context == globals || (index < function.argumentTypes.length
+                            && function.argumentTypes[index].writable)) {
+                        writesOutside = true;
+                    } else {
+                        written.add(index);
+                    }
+                }
+            }
+            return node;
+        }
+    }
+
+    /**
+     * Replaces each call of a routine which has a template with a copy of its body
+     */
+    private class CallReplacer extends TreeRewriter {
+        private final ExpressionContextMixin context;
+        private final IdentityHashMap<FunctionDeclaration, Template> templates;
+
+        CallReplacer(ExpressionContextMixin context,
+                     IdentityHashMap<FunctionDeclaration, Template> templates) {
+            this.context = context;
+            this.templates = templates;
+        }
+
+        @Override
+        protected Object leave(Object node, Slot slot) {
+            if (!(node instanceof SimpleFunctionCall)
+                    || slot == Slot.TARGET) {
+                return node;
+            }
+            Template template = templates.get(((SimpleFunctionCall) node).getFunction());
+            if (template == null) {
+                return node;
+            }
+            try {
+                InlinedCall inlined = inline((SimpleFunctionCall) node, template);
+                if (inlined == null) {
+                    return node;
+                }
+                changed();
+                return inlined;
+            } catch (ParsingException e) {
+                return node;
+            }
+        }
+
+        private InlinedCall inline(SimpleFunctionCall call, Template template)
+                throws ParsingException {
+            FunctionDeclaration function = template.function;
+            RuntimeValue[] arguments = call.arguments;
+            if (arguments.length != function.argumentTypes.length) {
+                return null;
+            }
+            LineInfo line = call.getLineNumber();
+            CompoundStatement body = new CompoundStatement(line);
+            HashMap<Integer, Binding> bindings = new HashMap<>();
+
+            boolean simple = true;
+            for (RuntimeValue argument : arguments) {
+                simple &= isSimple(argument);
+            }
+            for (int i = 0; i < arguments.length; i++) {
+                RuntimeType type = function.argumentTypes[i];
+                RuntimeValue argument = arguments[i];
+                if (type.writable) {
+                    if (!(argument instanceof GetAddress)) {
+                        return null;
+                    }
+                    AssignableValue target = ((GetAddress) argument).getTarget();
+                    if (target instanceof VariableAccess) {
+                        bindings.put(i, new Binding(target, false));
+                    } else {
+                        //evaluate the indexes once, as the call does
+                        VariableAccess pointer = declare(new PointerType(type.declType), line);
+                        body.addCommand(new AssignStatement(pointer, argument, line));
+                        bindings.put(i, new Binding(pointer, true));
+                    }
+                } else if (!template.written.contains(i) && (argument instanceof ConstantAccess
+                        || (argument instanceof VariableAccess && simple
+                        && !template.writesOutside))) {
+                    bindings.put(i, new Binding(argument, false));
+                } else {
+                    VariableAccess hidden = declare(type.declType, line);
+                    body.addCommand(new AssignStatement(hidden, argument, line));
+                    bindings.put(i, new Binding(hidden, false));
+                }
+            }
+
+            ArrayList<VariableDeclaration> variables = function.declaration.variables;
+            int offset = function.argumentNames.length;
+            for (int i = 0; i < variables.size(); i++) {
+                VariableDeclaration variable = variables.get(i);
+                Type type = variable.getType();
+                Object value = variable.getInitialValue();
+                if (value == null) {
+                    value = type.initialize();
+                }
+                VariableAccess hidden = declare(type, line);
+                body.addCommand(new AssignStatement(hidden,
+                        new ConstantAccess<>(value, type, line), line));
+                bindings.put(offset + i, new Binding(hidden, false));
+            }
+
+            Copier copier = new Copier(function.declaration, bindings);
+            body.addCommand(copier.copyStatement(template.body));
+            RuntimeValue result = function.isProcedure() ? null
+                    : bindings.get(function.getResultSlot()).create(line);
+            return new InlinedCall(function.getName(), body, result, function.returnType(), line);
+        }
+
+        private VariableAccess declare(Type type, LineInfo line) {
+            String name = PREFIX + context.variables.size();
+            context.declareVariable(new VariableDeclaration(name, type, line));
+            return new VariableAccess(name, line, context);
+        }
+    }
+
+    /**
+     * What a parameter or a local variable of the routine is replaced with
+     */
+    private static class Binding {
+        /**
+         * a constant, or a variable of the caller
+         */
+        private final RuntimeValue value;
+        /**
+         * true if the variable holds a pointer to the parameter
+         */
+        private final boolean deref;
+
+        Binding(RuntimeValue value, boolean deref) {
+            this.value = value;
+            this.deref = deref;
+        }
+
+        RuntimeValue create(LineInfo line) {
+            if (value instanceof ConstantAccess) {
+                return value;
+            }
+            VariableAccess access = (VariableAccess) value;
+            VariableAccess copy = new VariableAccess(access.getName(), line, access.getContext());
+            return deref ? new DerefEval(copy, line) : copy;
+        }
+    }
+
+    /**
+     * Copies the nodes accepted by {@link #isCopyable(Object)}, the variables of the routine
+     * are replaced by their binding
+     */
+    private static class Copier {
+        private final ExpressionContext routine;
+        private final HashMap<Integer, Binding> bindings;
+
+        Copier(ExpressionContext routine, HashMap<Integer, Binding> bindings) {
+            this.routine = routine;
+            this.bindings = bindings;
+        }
+
+        Executable copyStatement(Executable node) throws ParsingException {
+            if (node == null) {
+                return null;
+            }
+            if (node instanceof CompoundStatement) {
+                CompoundStatement block = new CompoundStatement(node.getLineNumber());
+                for (Executable statement : ((CompoundStatement) node).getInstructions()) {
+                    block.addCommand(copyStatement(statement));
+                }
+                return block;
+            }
+            if (node instanceof AssignStatement) {
+                AssignStatement assign = (AssignStatement) node;
+                return new AssignStatement((AssignableValue) copyValue(assign.getLeft()),
+                        copyValue(assign.getValue()), assign.getLineNumber());
+            }
+            if (node instanceof IfStatement) {
+                IfStatement statement = (IfStatement) node;
+                return new IfStatement(copyValue(statement.getCondition()),
+                        copyStatement(statement.getInstruction()),
+                        copyStatement(statement.getElseInstruction()), statement.getLineNumber());
+            }
+            if (node instanceof SimpleFunctionCall) {
+                return (SimpleFunctionCall) copyValue((SimpleFunctionCall) node);
+            }
+            //nope and exit have no children
+            return node;
+        }
+
+        RuntimeValue copyValue(RuntimeValue node) throws ParsingException {
+            if (node instanceof ConstantAccess) {
+                return node;
+            }
+            if (node instanceof VariableAccess) {
+                VariableAccess access = (VariableAccess) node;
+                if (access.getContext() == routine) {
+                    return bindings.get(access.getSlot()).create(access.getLineNumber());
+                }
+                return new VariableAccess(access.getName(), access.getLineNumber(),
+                        access.getContext());
+            }
+            if (node instanceof GetAddress) {
+                return new GetAddress((AssignableValue) copyValue(((GetAddress) node).getTarget()));
+            }
+            if (node instanceof SimpleFunctionCall) {
+                SimpleFunctionCall call = (SimpleFunctionCall) node;
+                RuntimeValue[] arguments = new RuntimeValue[call.arguments.length];
+                for (int i = 0; i < arguments.length; i++) {
+                    arguments[i] = copyValue(call.arguments[i]);
+                }
+                return new SimpleFunctionCall(call.getFunction(), arguments, call.getLineNumber());
+            }
+            if (node instanceof BinaryOperatorEval) {
+                BinaryOperatorEval operator = (BinaryOperatorEval) node;
+                RuntimeValue operon1 = copyValue(operator.getOperon1());
+                RuntimeValue operon2 = copyValue(operator.getOperon2());
+                LineInfo line = operator.getLineNumber();
+                if (node instanceof IntegerBiOperatorEval) {
+                    return IntegerBiOperatorEval.create(operon1, operon2,
+                            operator.getOperatorType(), line);
+                } else if (node instanceof LongBiOperatorEval) {
+                    return LongBiOperatorEval.create(operon1, operon2,
+                            operator.getOperatorType(), line);
+                } else if (node instanceof DoubleBiOperatorEval) {
+                    return DoubleBiOperatorEval.create(operon1, operon2,
+                            operator.getOperatorType(), line);
+                } else if (node instanceof BoolBiOperatorEval) {
+                    return new BoolBiOperatorEval(operon1, operon2,
+                            operator.getOperatorType(), line);
+                } else {
+                    return new CharBiOperatorEval(operon1, operon2,
+                            operator.getOperatorType(), line);
+                }
+            }
+            if (node instanceof UnaryOperatorEval) {
+                UnaryOperatorEval operator = (UnaryOperatorEval) node;
+                RuntimeValue operon = copyValue(operator.operon);
+                if (node instanceof IntegerUniOperatorEval) {
+                    return new IntegerUniOperatorEval(operon, operator.operator, operator.line);
+                } else if (node instanceof LongUniOperatorEval) {
+                    return new LongUniOperatorEval(operon, operator.operator, operator.line);
+                } else if (node instanceof DoubleUniOperatorEval) {
+                    return new DoubleUniOperatorEval(operon, operator.operator, operator.line);
+                } else {
+                    return new BoolUniOperatorEval(operon, operator.operator, operator.line);
+                }
+            }
+            if (node instanceof NumberToIntType) {
+                return new NumberToIntType(copyValue(((NumberToIntType) node).getOther()));
+            }
+            if (node instanceof NumberToLongType) {
+                return new NumberToLongType(copyValue(((NumberToLongType) node).getOther()));
+            }
+            if (node instanceof NumberToRealType) {
+                return new NumberToRealType(copyValue(((NumberToRealType) node).getOther()));
+            }
+            if (node instanceof NumberToCharType) {
+                return new NumberToCharType(copyValue(((NumberToCharType) node).getOther()));
+            }
+            if (node instanceof CharToIntType) {
+                return new CharToIntType(copyValue(((CharToIntType) node).getOther()));
+            }
+            throw new IllegalArgumentException("Can not copy " + node);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.optimizer;
+
+import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
+import com.duy.pascal.backend.ast.expressioncontext.ExpressionContextMixin;
+import com.duy.pascal.backend.ast.instructions.CompoundStatement;
+import com.duy.pascal.backend.ast.instructions.Executable;
+import com.duy.pascal.backend.ast.instructions.TailCall;
+import com.duy.pascal.backend.ast.instructions.assign_statement.AssignStatement;
+import com.duy.pascal.backend.ast.instructions.conditional.WhileStatement;
+import com.duy.pascal.backend.ast.instructions.conditional.forstatement.ForNumberStatement;
+import com.duy.pascal.backend.ast.runtime_value.operators.BinaryOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.number.BoolBiOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.number.DoubleBiOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.number.IntegerBiOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.number.LongBiOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.value.ClassConstructorCall;
+import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
+import com.duy.pascal.backend.ast.runtime_value.value.SimpleFunctionCall;
+import com.duy.pascal.backend.ast.runtime_value.value.access.ArrayIndexAccess;
+import com.duy.pascal.backend.ast.runtime_value.value.access.ClassFunctionCall;
+import com.duy.pascal.backend.ast.runtime_value.value.access.ConstantAccess;
+import com.duy.pascal.backend.ast.runtime_value.value.access.FieldAccess;
+import com.duy.pascal.backend.ast.runtime_value.value.access.PrimitiveArrayIndexAccess;
+import com.duy.pascal.backend.ast.runtime_value.value.access.SetIndexAccess;
+import com.duy.pascal.backend.ast.runtime_value.value.access.StringIndex;
+import com.duy.pascal.backend.ast.runtime_value.value.access.VariableAccess;
+import com.duy.pascal.backend.config.Optimization;
+import com.duy.pascal.backend.declaration.lang.function.FunctionDeclaration;
+import com.duy.pascal.backend.declaration.lang.types.OperatorTypes;
+import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
+import com.duy.pascal.backend.declaration.lang.types.Type;
+import com.duy.pascal.backend.declaration.lang.value.VariableDeclaration;
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.backend.parse_exception.ParsingException;
+
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Moves arithmetic whose operands do not change inside a for or while loop out of the loop.
+ * The value is computed once into a hidden local variable before the loop, so only
+ * operators that can not fail are moved, the loop may run zero times. A loop that calls a
+ * procedure or a method, or writes through a pointer or a var parameter, is left untouched
+ * because it may change any variable
+ */
+public class LoopInvariantHoistingPass extends OptimizationPass {
+    /**
+     * prefix of the hidden variables, can not start an identifier of a program
+     */
+    private static final String PREFIX = "$invariant";
+
+    private static final EnumSet<OperatorTypes> SAFE_OPERATORS = EnumSet.of(
+            OperatorTypes.PLUS, OperatorTypes.MINUS, OperatorTypes.MULTIPLY,
+            OperatorTypes.AND, OperatorTypes.OR, OperatorTypes.XOR,
+            OperatorTypes.SHIFTLEFT, OperatorTypes.SHIFTRIGHT,
+            OperatorTypes.EQUALS, OperatorTypes.NOTEQUAL,
+            OperatorTypes.LESSTHAN, OperatorTypes.LESSEQ,
+            OperatorTypes.GREATERTHAN, OperatorTypes.GREATEREQ);
+
+    private static boolean isSafeOperator(RuntimeValue value) {
+        return (value instanceof IntegerBiOperatorEval || value instanceof LongBiOperatorEval
+                || value instanceof DoubleBiOperatorEval || value instanceof BoolBiOperatorEval)
+                && SAFE_OPERATORS.contains(((BinaryOperatorEval) value).getOperatorType());
+    }
+
+    /**
+     * @return true if the variable is a var parameter, writing it may change any variable
+     */
+    private static boolean isReferenceArgument(VariableAccess access) {
+        ExpressionContext context = access.getContext();
+        if (!(context instanceof FunctionDeclaration.FunctionExpressionContext)) {
+            return false;
+        }
+        RuntimeType[] arguments = ((FunctionDeclaration.FunctionExpressionContext) context)
+                .function.argumentTypes;
+        int slot = access.getSlot();
+        return arguments != null && slot < arguments.length && arguments[slot].writable;
+    }
+
+    @Override
+    public Optimization getOptimization() {
+        return Optimization.LOOP_INVARIANT_HOISTING;
+    }
+
+    @Override
+    public void run(List<RoutineBody> routines) {
+        for (RoutineBody routine : routines) {
+            Hoister hoister = new Hoister(routine.getContext());
+            routine.setCode((Executable) hoister.rewrite(routine.getCode(), TreeRewriter.Slot.STATEMENT));
+        }
+    }
+
+    /**
+     * Finds the variables written by a loop
+     */
+    private static class LoopScanner extends TreeRewriter {
+        private final IdentityHashMap<ExpressionContext, HashSet<Integer>> written
+                = new IdentityHashMap<>();
+        private boolean unsafe = false;
+
+        @Override
+        protected Object leave(Object node, Slot slot) {
+            if (isOpaque(node) || node instanceof ClassFunctionCall
+                    || node instanceof ClassConstructorCall || node instanceof TailCall
+                    || (node instanceof SimpleFunctionCall
+                    && ((SimpleFunctionCall) node).getFunction() instanceof FunctionDeclaration)) {
+                unsafe = true;
+            } else if (slot == Slot.TARGET) {
+                if (node instanceof VariableAccess) {
+                    VariableAccess access = (VariableAccess) node;
+                    if (access.getSlot() < 0 || isReferenceArgument(access)) {
+                        unsafe = true;
+                    } else {
+                        HashSet<Integer> slots = written.get(access.getContext());
+                        if (slots == null) {
+                            slots = new HashSet<>();
+                            written.put(access.getContext(), slots);
+                        }
+                        slots.add(access.getSlot());
+                    }
+                } else if (!(node instanceof ArrayIndexAccess
+                        || node instanceof PrimitiveArrayIndexAccess
+                        || node instanceof SetIndexAccess || node instanceof FieldAccess
+                        || node instanceof StringIndex)) {
+                    //pointer dereference or unknown target, can be any variable
+                    unsafe = true;
+                }
+            }
+            return node;
+        }
+
+        boolean isUnchanged(VariableAccess access) {
+            if (access.getSlot() < 0 || isReferenceArgument(access)) {
+                return false;
+            }
+            HashSet<Integer> slots = written.get(access.getContext());
+            return slots == null || !slots.contains(access.getSlot());
+        }
+    }
+
+    private class Hoister extends TreeRewriter {
+        private final ExpressionContextMixin context;
+
+        Hoister(ExpressionContextMixin context) {
+            this.context = context;
+        }
+
+        @Override
+        protected Object leave(Object node, Slot slot) {
+            Executable body;
+            if (node instanceof ForNumberStatement) {
+                body = ((ForNumberStatement) node).getCommand();
+            } else if (node instanceof WhileStatement) {
+                body = (Executable) node;
+            } else {
+                return node;
+            }
+            if (slot != Slot.STATEMENT) {
+                return node;
+            }
+            LoopScanner scanner = new LoopScanner();
+            scanner.rewrite(node, slot);
+            if (scanner.unsafe) {
+                return node;
+            }
+            LineInfo line = ((Executable) node).getLineNumber();
+            CompoundStatement block = new CompoundStatement(line);
+            new Replacer(context, scanner, block).rewrite(body, Slot.STATEMENT);
+            if (block.getInstructions().isEmpty()) {
+                return node;
+            }
+            block.addCommand((Executable) node);
+            return block;
+        }
+    }
+
+    /**
+     * Replaces the largest invariant expressions of a loop by hidden variables, the
+     * assignments of these variables are added to a block
+     */
+    private class Replacer extends TreeRewriter {
+        private final ExpressionContextMixin context;
+        private final LoopScanner scanner;
+        private final CompoundStatement block;
+        private final IdentityHashMap<Object, Boolean> hoisted = new IdentityHashMap<>();
+
+        Replacer(ExpressionContextMixin context, LoopScanner scanner, CompoundStatement block) {
+            this.context = context;
+            this.scanner = scanner;
+            this.block = block;
+        }
+
+        @Override
+        protected boolean enter(Object node, Slot slot) {
+            if (node instanceof BinaryOperatorEval && slot == Slot.VALUE
+                    && isInvariant((RuntimeValue) node) && readsVariable((RuntimeValue) node)) {
+                hoisted.put(node, Boolean.TRUE);
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        protected Object leave(Object node, Slot slot) {
+            if (!hoisted.containsKey(node)) {
+                return node;
+            }
+            RuntimeValue value = (RuntimeValue) node;
+            Type type;
+            try {
+                type = value.getRuntimeType(context).declType;
+            } catch (ParsingException e) {
+                return node;
+            }
+            String name = PREFIX + context.variables.size();
+            LineInfo line = value.getLineNumber();
+            context.declareVariable(new VariableDeclaration(name, type, line));
+            block.addCommand(new AssignStatement(new VariableAccess(name, line, context), value, line));
+            changed();
+            return new VariableAccess(name, line, context);
+        }
+
+        private boolean isInvariant(RuntimeValue value) {
+            if (value instanceof ConstantAccess) {
+                Object constant = ((ConstantAccess) value).getValue();
+                return constant instanceof Number || constant instanceof Boolean;
+            }
+            if (value instanceof VariableAccess) {
+                VariableAccess access = (VariableAccess) value;
+                try {
+                    return scanner.isUnchanged(access)
+                            && isScalar(access.getRuntimeType(context).declType);
+                } catch (ParsingException e) {
+                    return false;
+                }
+            }
+            if (isSafeOperator(value)) {
+                BinaryOperatorEval operator = (BinaryOperatorEval) value;
+                return isInvariant(operator.getOperon1()) && isInvariant(operator.getOperon2());
+            }
+            return false;
+        }
+
+        private boolean readsVariable(RuntimeValue value) {
+            if (value instanceof VariableAccess) {
+                return true;
+            }
+            if (value instanceof BinaryOperatorEval) {
+                BinaryOperatorEval operator = (BinaryOperatorEval) value;
+                return readsVariable(operator.getOperon1()) || readsVariable(operator.getOperon2());
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.optimizer;
+
+import com.duy.pascal.backend.config.Optimization;
+import com.duy.pascal.backend.declaration.lang.types.BasicType;
+import com.duy.pascal.backend.declaration.lang.types.Type;
+
+import java.util.List;
+
+/**
+ * One transformation of the {@link PassManager} pipeline. A pass must keep the behaviour of
+ * the program, it only runs on programs which are not debugged
+ */
+public abstract class OptimizationPass {
+    private int changes = 0;
+
+    public abstract Optimization getOptimization();
+
+    public abstract void run(List<RoutineBody> routines);
+
+    /**
+     * Counts one rewrite of the tree, used to measure the effect of the pass
+     */
+    protected void changed() {
+        changes++;
+    }
+
+    public int getChanges() {
+        return changes;
+    }
+
+    /**
+     * @return true for the types whose values are immutable and can not hold a reference to
+     * a variable, such values can be shared between nodes
+     */
+    static boolean isScalar(Type type) {
+        return type == BasicType.Boolean || type == BasicType.Character
+                || type == BasicType.Byte || type == BasicType.Short
+                || type == BasicType.Integer || type == BasicType.Long
+                || type == BasicType.Float || type == BasicType.Double;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.optimizer;
+
+import com.duy.pascal.backend.ast.expressioncontext.ExpressionContextMixin;
+import com.duy.pascal.backend.config.Optimization;
+import com.duy.pascal.backend.declaration.lang.function.AbstractFunction;
+import com.duy.pascal.backend.declaration.lang.function.FunctionDeclaration;
+import com.duy.pascal.backend.declaration.lang.types.PascalClassType;
+import com.duy.pascal.backend.declaration.lang.types.Type;
+import com.duy.pascal.backend.declaration.program.PascalProgramDeclaration;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Runs the enabled {@link Optimization}s over the main program and every procedure and
+ * function declared by the program, in the order of the enum. The passes work on the tree
+ * built by the parser and replace its nodes in place
+ */
+public class PassManager {
+    private final ArrayList<OptimizationPass> passes = new ArrayList<>();
+    private final EnumSet<Optimization> enabled;
+    private long time = 0;
+
+    public PassManager(EnumSet<Optimization> enabled) {
+        this.enabled = enabled;
+    }
+
+    private static OptimizationPass createPass(Optimization optimization,
+                                               ExpressionContextMixin globals,
+                                               boolean closedProgram) {
+        switch (optimization) {
+            case INLINING:
+                return new InliningPass(globals);
+            case CONSTANT_PROPAGATION:
+                return new ConstantPropagationPass(globals, closedProgram);
+            case DEAD_BRANCH_ELIMINATION:
+                return new DeadBranchEliminationPass();
+            case EMPTY_BLOCK_REMOVAL:
+                return new EmptyBlockRemovalPass();
+            case LOOP_INVARIANT_HOISTING:
+                return new LoopInvariantHoistingPass();
+            case STRENGTH_REDUCTION:
+                return new StrengthReductionPass();
+            case TAIL_CALL_ELIMINATION:
+                return new TailCallEliminationPass();
+            default:
+                throw new IllegalArgumentException(optimization.toString());
+        }
+    }
+
+    /**
+     * @return false if some statements of the program were not found, a class method or a
+     * body which is not parsed yet
+     */
+    private static boolean collect(ExpressionContextMixin context, List<RoutineBody> routines,
+                                   IdentityHashMap<FunctionDeclaration, Boolean> seen) {
+        boolean closed = true;
+        for (AbstractFunction function : context.getCallableFunctions().values()) {
+            if (!(function instanceof FunctionDeclaration) || seen.containsKey(function)) {
+                continue;
+            }
+            FunctionDeclaration declaration = (FunctionDeclaration) function;
+            seen.put(declaration, Boolean.TRUE);
+            if (declaration.instructions != null) {
+                routines.add(new RoutineBody(declaration.declaration, declaration,
+                        declaration.instructions));
+            } else if (declaration.hasBody()) {
+                //the parse of the body is deferred
+                closed = false;
+            }
+            closed &= collect(declaration.declaration, routines, seen);
+        }
+        for (Type type : context.getTypedefs().values()) {
+            if (type instanceof PascalClassType) {
+                closed = false;
+            }
+        }
+        return closed;
+    }
+
+    public void optimize(PascalProgramDeclaration program) {
+        if (program.main == null || enabled.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        ExpressionContextMixin globals = program.getContext();
+        List<RoutineBody> routines = new ArrayList<>();
+        routines.add(new RoutineBody(globals, null, program.main));
+        boolean closed = collect(globals, routines, new IdentityHashMap<FunctionDeclaration, Boolean>());
+
+        for (Optimization optimization : enabled) {
+            OptimizationPass pass = createPass(optimization, globals, closed);
+            pass.run(routines);
+            passes.add(pass);
+        }
+
+        for (RoutineBody routine : routines) {
+            if (routine.getFunction() == null) {
+                program.main = routine.getCode();
+            } else {
+                routine.getFunction().instructions = routine.getCode();
+            }
+        }
+        time = System.nanoTime() - start;
+    }
+
+    /**
+     * @return number of rewrites done by the pass, 0 if it did not run
+     */
+    public int getChanges(Optimization optimization) {
+        for (OptimizationPass pass : passes) {
+            if (pass.getOptimization() == optimization) {
+                return pass.getChanges();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return time spent in {@link #optimize(PascalProgramDeclaration)}, in nanoseconds
+     */
+    public long getTime() {
+        return time;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.optimizer;
+
+import com.duy.pascal.backend.ast.expressioncontext.ExpressionContextMixin;
+import com.duy.pascal.backend.ast.instructions.Executable;
+import com.duy.pascal.backend.declaration.lang.function.FunctionDeclaration;
+
+/**
+ * Statements of the main program or of a function, with the scope they are executed in
+ */
+public class RoutineBody {
+    private final ExpressionContextMixin context;
+    /**
+     * null for the main program
+     */
+    private final FunctionDeclaration function;
+    private Executable code;
+
+    RoutineBody(ExpressionContextMixin context, FunctionDeclaration function, Executable code) {
+        this.context = context;
+        this.function = function;
+        this.code = code;
+    }
+
+    public ExpressionContextMixin getContext() {
+        return context;
+    }
+
+    public FunctionDeclaration getFunction() {
+        return function;
+    }
+
+    public Executable getCode() {
+        return code;
+    }
+
+    public void setCode(Executable code) {
+        this.code = code;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.optimizer;
+
+import com.duy.pascal.backend.ast.instructions.Executable;
+import com.duy.pascal.backend.ast.runtime_value.operators.number.IntegerBiOperatorEval;
+import com.duy.pascal.backend.ast.runtime_value.operators.number.LongBiOperatorEval;
+import com.duy.pascal.backend.config.Optimization;
+
+import java.util.List;
+
+/**
+ * Replaces {@code x * 2^k}, {@code 2^k * x} and {@code x div 2^k} on integers with shifts.
+ * Works best after {@link ConstantPropagationPass}, which turns named constants and
+ * constant expressions into literals
+ */
+public class StrengthReductionPass extends OptimizationPass {
+
+    @Override
+    public Optimization getOptimization() {
+        return Optimization.STRENGTH_REDUCTION;
+    }
+
+    @Override
+    public void run(List<RoutineBody> routines) {
+        for (RoutineBody routine : routines) {
+            routine.setCode((Executable) new Reducer().rewrite(routine.getCode(), TreeRewriter.Slot.STATEMENT));
+        }
+    }
+
+    private class Reducer extends TreeRewriter {
+        @Override
+        protected Object leave(Object node, Slot slot) {
+            Object reduced = null;
+            if (node instanceof IntegerBiOperatorEval) {
+                reduced = ((IntegerBiOperatorEval) node).reduceStrength();
+            } else if (node instanceof LongBiOperatorEval) {
+                reduced = ((LongBiOperatorEval) node).reduceStrength();
+            }
+            if (reduced == null || !slot.accepts(reduced)) {
+                return node;
+            }
+            changed();
+            return reduced;
+        }
+    }
+}
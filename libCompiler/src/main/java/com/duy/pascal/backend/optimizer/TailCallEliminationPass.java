@@ -0,0 +1,161 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.optimizer;
+
+import com.duy.pascal.backend.ast.instructions.CompoundStatement;
+import com.duy.pascal.backend.ast.instructions.Executable;
+import com.duy.pascal.backend.ast.instructions.ExitInstruction;
+import com.duy.pascal.backend.ast.instructions.TailCall;
+import com.duy.pascal.backend.ast.instructions.assign_statement.AssignStatement;
+import com.duy.pascal.backend.ast.instructions.conditional.IfStatement;
+import com.duy.pascal.backend.ast.instructions.conditional.RepeatInstruction;
+import com.duy.pascal.backend.ast.instructions.conditional.WhileStatement;
+import com.duy.pascal.backend.ast.instructions.conditional.forstatement.ForNumberStatement;
+import com.duy.pascal.backend.ast.runtime_value.value.SimpleFunctionCall;
+import com.duy.pascal.backend.ast.runtime_value.value.access.VariableAccess;
+import com.duy.pascal.backend.config.Optimization;
+import com.duy.pascal.backend.declaration.lang.function.FunctionDeclaration;
+import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
+
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Replaces the calls of a procedure or function to itself in tail position with a
+ * {@link TailCall}, which rebinds the parameters and runs the body again instead of pushing a
+ * new frame. A call is in tail position when it is the last statement of the body, or is
+ * followed by exit, and for a function when its result is assigned to the result of the
+ * function. The last statement of a block and both branches of an if statement in tail
+ * position are in tail position too.
+ * <p>
+ * Routines with a var parameter are left alone, the variable passed by the call could be a
+ * local variable of the frame that is restarted
+ */
+public class TailCallEliminationPass extends OptimizationPass {
+
+    @Override
+    public Optimization getOptimization() {
+        return Optimization.TAIL_CALL_ELIMINATION;
+    }
+
+    @Override
+    public void run(List<RoutineBody> routines) {
+        for (RoutineBody routine : routines) {
+            FunctionDeclaration function = routine.getFunction();
+            if (function == null || hasVarParameter(function)) {
+                continue;
+            }
+            IdentityHashMap<Object, SimpleFunctionCall> calls = new IdentityHashMap<>();
+            find(function, routine.getCode(), true, calls);
+            if (!calls.isEmpty()) {
+                Replacer replacer = new Replacer(function, calls);
+                routine.setCode((Executable) replacer.rewrite(routine.getCode(), TreeRewriter.Slot.STATEMENT));
+            }
+        }
+    }
+
+    private static boolean hasVarParameter(FunctionDeclaration function) {
+        for (RuntimeType argument : function.argumentTypes) {
+            if (argument.writable) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Collects the statements which are tail calls, with the call they make
+     *
+     * @param tail true if nothing runs after the statement in the routine
+     */
+    private static void find(FunctionDeclaration function, Executable node, boolean tail,
+                             IdentityHashMap<Object, SimpleFunctionCall> calls) {
+        if (node instanceof CompoundStatement) {
+            LinkedList<Executable> instructions = ((CompoundStatement) node).getInstructions();
+            Executable[] block = instructions.toArray(new Executable[instructions.size()]);
+            for (int i = 0; i < block.length; i++) {
+                boolean last = i == block.length - 1;
+                find(function, block[i], (tail && last)
+                        || (!last && block[i + 1] instanceof ExitInstruction), calls);
+            }
+        } else if (node instanceof IfStatement) {
+            IfStatement statement = (IfStatement) node;
+            find(function, statement.getInstruction(), tail, calls);
+            find(function, statement.getElseInstruction(), tail, calls);
+        } else if (node instanceof WhileStatement) {
+            //the body of a loop is followed by the next iteration
+            find(function, ((WhileStatement) node).getCommand(), false, calls);
+        } else if (node instanceof RepeatInstruction) {
+            find(function, ((RepeatInstruction) node).getCommand(), false, calls);
+        } else if (node instanceof ForNumberStatement) {
+            find(function, ((ForNumberStatement) node).getCommand(), false, calls);
+        } else if (tail) {
+            SimpleFunctionCall call = selfCall(function, node);
+            if (call != null) {
+                calls.put(node, call);
+            }
+        }
+    }
+
+    /**
+     * @return the call of the routine made by the statement, if the statement does nothing
+     * else than the call and keeping its result
+     */
+    private static SimpleFunctionCall selfCall(FunctionDeclaration function, Executable node) {
+        Object call;
+        if (function.isProcedure()) {
+            call = node;
+        } else if (node instanceof AssignStatement
+                && ((AssignStatement) node).getLeft() instanceof VariableAccess) {
+            VariableAccess left = (VariableAccess) ((AssignStatement) node).getLeft();
+            if (left.getContext() != function.declaration
+                    || left.getSlot() != function.getResultSlot()) {
+                return null;
+            }
+            call = ((AssignStatement) node).getValue();
+        } else {
+            return null;
+        }
+        if (!(call instanceof SimpleFunctionCall)
+                || ((SimpleFunctionCall) call).getFunction() != function
+                || ((SimpleFunctionCall) call).arguments.length != function.argumentTypes.length) {
+            return null;
+        }
+        return (SimpleFunctionCall) call;
+    }
+
+    private class Replacer extends TreeRewriter {
+        private final FunctionDeclaration function;
+        private final IdentityHashMap<Object, SimpleFunctionCall> calls;
+
+        Replacer(FunctionDeclaration function, IdentityHashMap<Object, SimpleFunctionCall> calls) {
+            this.function = function;
+            this.calls = calls;
+        }
+
+        @Override
+        protected Object leave(Object node, Slot slot) {
+            SimpleFunctionCall call = calls.get(node);
+            if (call == null || slot != Slot.STATEMENT) {
+                return node;
+            }
+            changed();
+            return new TailCall(function, call.arguments, ((Executable) node).getLineNumber());
+        }
+    }
+}
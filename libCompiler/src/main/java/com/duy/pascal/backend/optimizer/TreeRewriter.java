@@ -0,0 +1,125 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.optimizer;
+
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
+import com.duy.pascal.backend.ast.instructions.Executable;
+import com.duy.pascal.backend.ast.runtime_value.value.AssignableValue;
+import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
+
+import java.util.IdentityHashMap;
+
+/**
+ * Walks the statements and expressions of a routine through {@link RewritableNode}. Children
+ * are visited before their parent. A node shared by several parents is visited once and gets
+ * the same replacement wherever the slot accepts it, the other slots keep the node
+ */
+abstract class TreeRewriter implements ChildRewriter {
+    private final IdentityHashMap<Object, Object> visited = new IdentityHashMap<>();
+
+    /**
+     * @return true if the children of the node are unknown, a pass must assume the node may
+     * read or write any variable and call any routine
+     */
+    static boolean isOpaque(Object node) {
+        return !(node instanceof RewritableNode);
+    }
+
+    /**
+     * Called before the children of a node are visited
+     *
+     * @return false to leave the children of the node untouched
+     */
+    protected boolean enter(Object node, Slot slot) {
+        return true;
+    }
+
+    /**
+     * Called after the children of a node were visited
+     *
+     * @param slot what the parent does with the node
+     * @return the replacement of the node, or the node itself. The replacement must be
+     * accepted by the slot
+     */
+    protected abstract Object leave(Object node, Slot slot);
+
+    public Object rewrite(Object node, Slot slot) {
+        if (node == null) {
+            return null;
+        }
+        if (visited.containsKey(node)) {
+            Object result = visited.get(node);
+            return slot.accepts(result) ? result : node;
+        }
+        visited.put(node, node);
+        if (enter(node, slot) && node instanceof RewritableNode) {
+            ((RewritableNode) node).rewriteChildren(this);
+        }
+        Object result = leave(node, slot);
+        if (!slot.accepts(result)) {
+            throw new IllegalStateException(getClass().getSimpleName() + " replaced " + node
+                    + " with " + result + ", which can not be a " + slot);
+        }
+        visited.put(node, result);
+        return result;
+    }
+
+    @Override
+    public RuntimeValue value(RuntimeValue child) {
+        return (RuntimeValue) rewrite(child, Slot.VALUE);
+    }
+
+    @Override
+    public AssignableValue target(AssignableValue child) {
+        return (AssignableValue) rewrite(child, Slot.TARGET);
+    }
+
+    @Override
+    public Executable statement(Executable child) {
+        return (Executable) rewrite(child, Slot.STATEMENT);
+    }
+
+    /**
+     * What the parent does with a node
+     */
+    enum Slot {
+        /**
+         * the value of the node is read
+         */
+        VALUE,
+        /**
+         * the node is written, see {@link ChildRewriter#target(AssignableValue)}
+         */
+        TARGET,
+        /**
+         * the node is executed
+         */
+        STATEMENT;
+
+        boolean accepts(Object node) {
+            switch (this) {
+                case VALUE:
+                    return node instanceof RuntimeValue;
+                case TARGET:
+                    return node instanceof AssignableValue;
+                default:
+                    return node instanceof Executable;
+            }
+        }
+    }
+}
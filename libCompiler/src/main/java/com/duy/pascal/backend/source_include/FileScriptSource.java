@@ -36,6 +36,13 @@ public class FileScriptSource implements ScriptSource {
         return result;
     }
 
+    /**
+     * @return the file which holds the source content, it may not exist
+     */
+    public File getFile(String scriptname) {
+        return new File(directory, scriptname);
+    }
+
     @Override
     public Reader read(String scriptname) {
         try {
@@ -19,6 +19,8 @@ package com.duy.pascal.backend.system_function.builtin;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -42,7 +44,6 @@ import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
 public class AddressFunction implements IMethodDeclaration {
 
     private ArgumentType[] argumentTypes = {new RuntimeType(new PointerType(BasicType.create(Object.class)), true)};
-    private PointerType pointerType;
 
     @Override
     public String getName() {
@@ -52,9 +53,7 @@ public class AddressFunction implements IMethodDeclaration {
     @Override
     public FunctionCall generateCall(LineInfo line, RuntimeValue[] arguments,
                                      ExpressionContext f) throws ParsingException {
-        RuntimeValue pointer = arguments[0];
-        this.pointerType = (PointerType) pointer.getRuntimeType(f).declType;
-        return new AddressFunctionCall(pointer, line);
+        return new AddressFunctionCall(arguments[0], line);
     }
 
     @Override
@@ -69,7 +68,7 @@ public class AddressFunction implements IMethodDeclaration {
 
     @Override
     public Type returnType() {
-        return pointerType;
+        return ((RuntimeType) argumentTypes[0]).declType;
     }
 
     @Override
@@ -77,7 +76,7 @@ public class AddressFunction implements IMethodDeclaration {
         return null;
     }
 
-    private class AddressFunctionCall extends FunctionCall {
+    private class AddressFunctionCall extends FunctionCall implements RewritableNode {
 
         private RuntimeValue pointer;
         private LineInfo line;
@@ -142,5 +141,10 @@ public class AddressFunction implements IMethodDeclaration {
         protected String getFunctionName() {
             return "addr";
         }
+
+        @Override
+        public void rewriteChildren(ChildRewriter rewriter) {
+            pointer = rewriter.value(pointer);
+        }
     }
 }
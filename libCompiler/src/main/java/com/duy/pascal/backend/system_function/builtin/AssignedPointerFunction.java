@@ -19,6 +19,8 @@ package com.duy.pascal.backend.system_function.builtin;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -77,7 +79,7 @@ public class AssignedPointerFunction implements IMethodDeclaration {
         return null;
     }
 
-    private class AssignedCall extends FunctionCall {
+    private class AssignedCall extends FunctionCall implements RewritableNode {
 
         private RuntimeValue value;
         private RuntimeType type;
@@ -133,5 +135,10 @@ public class AssignedPointerFunction implements IMethodDeclaration {
                 throws RuntimePascalException {
             return NullSafety.isNullValue(value.getValue(f, main));
         }
+
+        @Override
+        public void rewriteChildren(ChildRewriter rewriter) {
+            value = rewriter.value(value);
+        }
     }
 }
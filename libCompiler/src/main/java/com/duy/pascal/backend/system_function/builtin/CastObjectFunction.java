@@ -19,6 +19,8 @@ package com.duy.pascal.backend.system_function.builtin;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -80,7 +82,7 @@ public class CastObjectFunction implements IMethodDeclaration {
         return null;
     }
 
-    private class InstanceObjectCall extends FunctionCall {
+    private class InstanceObjectCall extends FunctionCall implements RewritableNode {
         private RuntimeValue value;
         private Class<?> storageClass;
         private LineInfo line;
@@ -138,5 +140,10 @@ public class CastObjectFunction implements IMethodDeclaration {
             return null;
         }
 
+        @Override
+        public void rewriteChildren(ChildRewriter rewriter) {
+            value = rewriter.value(value);
+            pointer = rewriter.value(pointer);
+        }
     }
 }
@@ -19,6 +19,8 @@ package com.duy.pascal.backend.system_function.builtin;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -34,6 +36,7 @@ import com.duy.pascal.backend.declaration.lang.types.BasicType;
 import com.duy.pascal.backend.declaration.lang.types.Type;
 import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
 import com.duy.pascal.backend.declaration.lang.types.set.ArrayType;
+import com.duy.pascal.backend.declaration.lang.types.set.PrimitiveArrayKind;
 
 import java.lang.reflect.Array;
 
@@ -47,8 +50,6 @@ public class CopyFunction implements IMethodDeclaration {
             new RuntimeType(BasicType.Integer, false),
             new RuntimeType(BasicType.Integer, false)};
 
-    private ArrayType type;
-
     @Override
     public String getName() {
         return "copy";
@@ -59,7 +60,6 @@ public class CopyFunction implements IMethodDeclaration {
                                      ExpressionContext f) throws ParsingException {
         RuntimeValue array = arguments[0];
         RuntimeType type = array.getRuntimeType(f);
-        this.type = (ArrayType) type.declType;
         return new LengthCall(array, type.declType, arguments[1], arguments[2], line);
     }
 
@@ -83,13 +83,13 @@ public class CopyFunction implements IMethodDeclaration {
         return null;
     }
 
-    private class LengthCall extends FunctionCall {
+    private class LengthCall extends FunctionCall implements RewritableNode {
 
-        private final RuntimeValue index;
-        private final RuntimeValue count;
+        private RuntimeValue index;
+        private RuntimeValue count;
         private final ArrayType type;
         private final LineInfo line;
-        private final RuntimeValue array;
+        private RuntimeValue array;
 
         public LengthCall(RuntimeValue array, Type type, RuntimeValue index,
                           RuntimeValue count, LineInfo line) {
@@ -143,7 +143,7 @@ public class CopyFunction implements IMethodDeclaration {
         @Override
         public Object getValueImpl(@NonNull VariableContext f, @NonNull RuntimeExecutableCodeUnit<?> main)
                 throws RuntimePascalException {
-            Object[] array = (Object[]) this.array.getValue(f, main);
+            Object[] array = PrimitiveArrayKind.toObjectArray(this.array.getValue(f, main));
             int from = (int) index.getValue(f, main);
             int count = (int) this.count.getValue(f, main);
             if (array.length == 0) return array;
@@ -151,5 +151,12 @@ public class CopyFunction implements IMethodDeclaration {
             System.arraycopy(array, from, o, 0, count);
             return o;
         }
+
+        @Override
+        public void rewriteChildren(ChildRewriter rewriter) {
+            array = rewriter.value(array);
+            index = rewriter.value(index);
+            count = rewriter.value(count);
+        }
     }
 }
@@ -19,6 +19,8 @@ package com.duy.pascal.backend.system_function.builtin;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -72,7 +74,7 @@ public class ExitFunction implements IMethodDeclaration {
         return null;
     }
 
-    private class ExitCall extends FunctionCall {
+    private class ExitCall extends FunctionCall implements RewritableNode {
 
         private LineInfo line;
         private RuntimeValue value;
@@ -136,5 +138,10 @@ public class ExitFunction implements IMethodDeclaration {
             }
             return ExecutionResult.EXIT;
         }
+
+        @Override
+        public void rewriteChildren(ChildRewriter rewriter) {
+            value = rewriter.value(value);
+        }
     }
 }
@@ -19,6 +19,8 @@ package com.duy.pascal.backend.system_function.builtin;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -69,7 +71,7 @@ public class ExitNoneFunction implements IMethodDeclaration {
         return null;
     }
 
-    private class ExitNoneCall extends FunctionCall {
+    private class ExitNoneCall extends FunctionCall implements RewritableNode {
 
         private LineInfo line;
 
@@ -120,5 +122,9 @@ public class ExitNoneFunction implements IMethodDeclaration {
                 throws RuntimePascalException {
             return ExecutionResult.EXIT;
         }
+
+        @Override
+        public void rewriteChildren(ChildRewriter rewriter) {
+        }
     }
 }
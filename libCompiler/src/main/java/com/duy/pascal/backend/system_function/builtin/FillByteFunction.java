@@ -19,6 +19,8 @@ package com.duy.pascal.backend.system_function.builtin;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -37,6 +39,8 @@ import com.duy.pascal.backend.declaration.lang.types.set.ArrayType;
 import com.duy.pascal.backend.declaration.lang.types.set.EnumGroupType;
 import com.duy.pascal.backend.declaration.lang.types.subrange.IntegerRange;
 
+import java.lang.reflect.Array;
+
 public class FillByteFunction implements IMethodDeclaration {
 
 
@@ -78,7 +82,7 @@ public class FillByteFunction implements IMethodDeclaration {
         return null;
     }
 
-    private static class FillCharCall extends FunctionCall {
+    private static class FillCharCall extends FunctionCall implements RewritableNode {
 
         private RuntimeValue value;
         private LineInfo line;
@@ -134,9 +138,10 @@ public class FillByteFunction implements IMethodDeclaration {
             Type declType = type.declType;
             if (declType instanceof ArrayType) {
                 IntegerRange bounds = ((ArrayType) declType).getBound();
-                Object[] value = (Object[]) this.value.getValue(f, main);
-                int size = value.length - 1;
-                return bounds.getFirst() + size - 1;
+                Object value = this.value.getValue(f, main);
+                int size = Array.getLength(value) - 1;
+                int first = bounds == null ? 0 : bounds.getFirst();
+                return first + size - 1;
             } else if (BasicType.Byte.equals(declType)) {
                 return Byte.MAX_VALUE;
             } else if (BasicType.Short.equals(declType)) {
@@ -157,5 +162,10 @@ public class FillByteFunction implements IMethodDeclaration {
             }
             return null;
         }
+
+        @Override
+        public void rewriteChildren(ChildRewriter rewriter) {
+            value = rewriter.value(value);
+        }
     }
 }
@@ -19,6 +19,8 @@ package com.duy.pascal.backend.system_function.builtin;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -72,7 +74,7 @@ public class FillCharFunction implements IMethodDeclaration {
         return null;
     }
 
-    private static class FillCharCall extends FunctionCall {
+    private static class FillCharCall extends FunctionCall implements RewritableNode {
 
         private final RuntimeValue[] arguments;
         private LineInfo line;
@@ -158,5 +160,12 @@ public class FillCharFunction implements IMethodDeclaration {
             }
             return null;
         }
+
+        @Override
+        public void rewriteChildren(ChildRewriter rewriter) {
+            for (int i = 0; i < arguments.length; i++) {
+                arguments[i] = rewriter.value(arguments[i]);
+            }
+        }
     }
 }
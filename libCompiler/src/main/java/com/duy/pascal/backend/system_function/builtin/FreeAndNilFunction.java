@@ -19,6 +19,8 @@ package com.duy.pascal.backend.system_function.builtin;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -78,7 +80,7 @@ public class FreeAndNilFunction implements IMethodDeclaration {
         return null;
     }
 
-    private class AssignedCall extends FunctionCall {
+    private class AssignedCall extends FunctionCall implements RewritableNode {
 
         private RuntimeValue value;
         private RuntimeType type;
@@ -136,5 +138,10 @@ public class FreeAndNilFunction implements IMethodDeclaration {
             value.set(NullValue.get());
             return null;
         }
+
+        @Override
+        public void rewriteChildren(ChildRewriter rewriter) {
+            value = rewriter.value(value);
+        }
     }
 }
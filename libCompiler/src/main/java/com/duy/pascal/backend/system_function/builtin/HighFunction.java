@@ -19,6 +19,8 @@ package com.duy.pascal.backend.system_function.builtin;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -37,8 +39,9 @@ import com.duy.pascal.backend.declaration.lang.types.set.ArrayType;
 import com.duy.pascal.backend.declaration.lang.types.set.EnumGroupType;
 import com.duy.pascal.backend.declaration.lang.types.subrange.IntegerRange;
 
+import java.lang.reflect.Array;
+
 public class HighFunction implements IMethodDeclaration {
-    private RuntimeType runtimeType;
     private ArgumentType[] argumentTypes = {new RuntimeType(BasicType.create(Object.class), false)};
 
     @Override
@@ -50,8 +53,7 @@ public class HighFunction implements IMethodDeclaration {
     public FunctionCall generateCall(LineInfo line, RuntimeValue[] arguments,
                                      ExpressionContext f) throws ParsingException {
         RuntimeValue value = arguments[0];
-        this.runtimeType = value.getRuntimeType(f);
-        return new HighCall(value, line);
+        return new HighCall(value, value.getRuntimeType(f), line);
     }
 
     @Override
@@ -66,15 +68,7 @@ public class HighFunction implements IMethodDeclaration {
 
     @Override
     public Type returnType() {
-        if (runtimeType != null) {
-            if (runtimeType.declType instanceof ArrayType) {
-                return BasicType.Integer;
-            } else {
-                return BasicType.create(Object.class);
-            }
-        } else {
-            return BasicType.create(Object.class);
-        }
+        return BasicType.create(Object.class);
     }
 
     @Override
@@ -82,19 +76,24 @@ public class HighFunction implements IMethodDeclaration {
         return null;
     }
 
-    private class HighCall extends FunctionCall {
+    private class HighCall extends FunctionCall implements RewritableNode {
 
         private RuntimeValue value;
+        private RuntimeType runtimeType;
         private LineInfo line;
 
-        HighCall(RuntimeValue value, LineInfo line) {
+        HighCall(RuntimeValue value, RuntimeType runtimeType, LineInfo line) {
             this.value = value;
+            this.runtimeType = runtimeType;
             this.line = line;
         }
 
         @Override
         public RuntimeType getRuntimeType(ExpressionContext f) throws ParsingException {
-            return new RuntimeType(HighFunction.this.returnType(), false);
+            if (runtimeType.declType instanceof ArrayType) {
+                return new RuntimeType(BasicType.Integer, false);
+            }
+            return new RuntimeType(BasicType.create(Object.class), false);
         }
 
         @NonNull
@@ -116,13 +115,13 @@ public class HighFunction implements IMethodDeclaration {
         @Override
         public RuntimeValue compileTimeExpressionFold(CompileTimeContext context)
                 throws ParsingException {
-            return new HighCall(value, line);
+            return new HighCall(value, runtimeType, line);
         }
 
         @Override
         public Executable compileTimeConstantTransform(CompileTimeContext c)
                 throws ParsingException {
-            return new HighCall(value, line);
+            return new HighCall(value, runtimeType, line);
         }
 
         @Override
@@ -137,8 +136,8 @@ public class HighFunction implements IMethodDeclaration {
             Type declType = runtimeType.declType;
             if (declType instanceof ArrayType) {
                 IntegerRange bounds = ((ArrayType) declType).getBound();
-                Object[] value = (Object[]) this.value.getValue(f, main);
-                int size = value.length;
+                Object value = this.value.getValue(f, main);
+                int size = Array.getLength(value);
                 if (bounds == null) {
                     return size - 1;
                 } else {
@@ -164,5 +163,10 @@ public class HighFunction implements IMethodDeclaration {
             }
             return null;
         }
+
+        @Override
+        public void rewriteChildren(ChildRewriter rewriter) {
+            value = rewriter.value(value);
+        }
     }
 }
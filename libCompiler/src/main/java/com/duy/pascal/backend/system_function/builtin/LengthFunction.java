@@ -19,6 +19,8 @@ package com.duy.pascal.backend.system_function.builtin;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -37,6 +39,8 @@ import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
 import com.duy.pascal.backend.declaration.lang.types.set.ArrayType;
 import com.duy.pascal.backend.declaration.lang.types.set.EnumGroupType;
 
+import java.lang.reflect.Array;
+
 /**
  * length of one dimension array
  */
@@ -78,7 +82,7 @@ public class LengthFunction implements IMethodDeclaration {
         return null;
     }
 
-    private class LengthCall extends FunctionCall {
+    private class LengthCall extends FunctionCall implements RewritableNode {
 
         private Type type;
         private LineInfo line;
@@ -133,7 +137,7 @@ public class LengthFunction implements IMethodDeclaration {
                 throws RuntimePascalException {
             Object value = array.getValue(f, main);
             if (type instanceof ArrayType) {
-                return ((ArrayType) type).getBound().getSize();
+                return Array.getLength(value);
             } else if (value instanceof StringBuilder) {
                 return ((StringBuilder) value).length();
             } else if (value instanceof String) {
@@ -147,5 +151,10 @@ public class LengthFunction implements IMethodDeclaration {
                                 new ArrayType<>(BasicType.create(Object.class), null)}, type);
             }
         }
+
+        @Override
+        public void rewriteChildren(ChildRewriter rewriter) {
+            array = rewriter.value(array);
+        }
     }
 }
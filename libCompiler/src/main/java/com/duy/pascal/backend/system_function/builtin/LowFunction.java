@@ -19,6 +19,8 @@ package com.duy.pascal.backend.system_function.builtin;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -73,7 +75,7 @@ public class LowFunction implements IMethodDeclaration {
         return null;
     }
 
-    private class LowCall extends FunctionCall {
+    private class LowCall extends FunctionCall implements RewritableNode {
 
         private LineInfo line;
         private RuntimeType type;
@@ -151,5 +153,9 @@ public class LowFunction implements IMethodDeclaration {
             }
             return null;
         }
+
+        @Override
+        public void rewriteChildren(ChildRewriter rewriter) {
+        }
     }
 }
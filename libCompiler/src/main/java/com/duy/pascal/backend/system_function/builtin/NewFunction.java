@@ -19,6 +19,8 @@ package com.duy.pascal.backend.system_function.builtin;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -75,7 +77,7 @@ public class NewFunction implements IMethodDeclaration {
         return "Dynamically allocate memory for variable";
     }
 
-    private class NewCall extends FunctionCall {
+    private class NewCall extends FunctionCall implements RewritableNode {
 
         private RuntimeValue value;
         private RuntimeType type;
@@ -155,5 +157,10 @@ public class NewFunction implements IMethodDeclaration {
             }*/
             return null;
         }
+
+        @Override
+        public void rewriteChildren(ChildRewriter rewriter) {
+            value = rewriter.value(value);
+        }
     }
 }
@@ -19,6 +19,8 @@ package com.duy.pascal.backend.system_function.builtin;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -80,7 +82,7 @@ public class NewInstanceObject implements IMethodDeclaration {
 
     }
 
-    private class InstanceObjectCall extends FunctionCall {
+    private class InstanceObjectCall extends FunctionCall implements RewritableNode {
         private RuntimeValue pointer;
         private RuntimeType type;
         private LineInfo line;
@@ -159,5 +161,9 @@ public class NewInstanceObject implements IMethodDeclaration {
             return null;
         }
 
+        @Override
+        public void rewriteChildren(ChildRewriter rewriter) {
+            pointer = rewriter.value(pointer);
+        }
     }
 }
@@ -20,6 +20,8 @@ package com.duy.pascal.backend.system_function.builtin;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -38,11 +40,10 @@ import com.duy.pascal.backend.declaration.lang.types.PointerType;
 import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
 import com.duy.pascal.backend.declaration.lang.types.VarargsType;
 import com.duy.pascal.backend.declaration.lang.types.set.ArrayType;
-import com.duy.pascal.backend.declaration.lang.types.subrange.IntegerSubrangeType;
+import com.duy.pascal.backend.declaration.lang.types.set.PrimitiveArrayKind;
 import com.duy.pascal.frontend.debug.CallStack;
 
 import java.lang.reflect.Array;
-import java.util.Arrays;
 
 public class SetLengthFunction implements IMethodDeclaration {
 
@@ -84,7 +85,7 @@ public class SetLengthFunction implements IMethodDeclaration {
         return null;
     }
 
-    private class SetLengthCall extends FunctionCall {
+    private class SetLengthCall extends FunctionCall implements RewritableNode {
 
         private RuntimeValue array;
         private RuntimeType runtimeType;
@@ -148,14 +149,12 @@ public class SetLengthFunction implements IMethodDeclaration {
 
             PascalReference r = (PascalReference) array.getValue(f, main);
             if (type instanceof ArrayType) {
-                Object[] old = (Object[]) r.get();
-                System.out.println(Arrays.toString(old));
+                Object[] old = PrimitiveArrayKind.toObjectArray(r.get());
 
                 Object[] array = (Object[]) Array.newInstance(
                         ((ArrayType) type).getElementType().getStorageClass(), ranges[0]);
 
-                //set bound from 0 to range[0]
-                ((ArrayType) type).setBound(new IntegerSubrangeType(0, ranges[0]));
+                //the length is kept by the array itself, the type is shared by every run
                 //set default value for all element of array
                 setInitValue(array, ((ArrayType) type).getElementType(), ranges, 0, old);
                 r.set(array);
@@ -192,7 +191,6 @@ public class SetLengthFunction implements IMethodDeclaration {
                     return;
                 }
                 ArrayType arrayType = (ArrayType) elementType;
-                arrayType.setBound(new IntegerSubrangeType(0, ranges[index + 1]));
                 for (int i = 0; i < ranges[index]; i++) {
                     array[i] = Array.newInstance(arrayType.getElementType().getStorageClass(),
                             ranges[index + 1]);
@@ -213,5 +211,11 @@ public class SetLengthFunction implements IMethodDeclaration {
                 }
             }
         }
+
+        @Override
+        public void rewriteChildren(ChildRewriter rewriter) {
+            array = rewriter.value(array);
+            size = rewriter.value(size);
+        }
     }
 }
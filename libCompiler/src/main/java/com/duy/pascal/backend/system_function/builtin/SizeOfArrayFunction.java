@@ -19,6 +19,8 @@ package com.duy.pascal.backend.system_function.builtin;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -73,7 +75,7 @@ public class SizeOfArrayFunction implements IMethodDeclaration {
         return null;
     }
 
-    private class SizeOfArrayCall extends FunctionCall {
+    private class SizeOfArrayCall extends FunctionCall implements RewritableNode {
 
         private LineInfo line;
         private RuntimeValue array;
@@ -139,5 +141,10 @@ public class SizeOfArrayFunction implements IMethodDeclaration {
             }
             return 0;
         }
+
+        @Override
+        public void rewriteChildren(ChildRewriter rewriter) {
+            array = rewriter.value(array);
+        }
     }
 }
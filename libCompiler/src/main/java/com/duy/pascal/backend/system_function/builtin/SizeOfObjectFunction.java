@@ -19,6 +19,8 @@ package com.duy.pascal.backend.system_function.builtin;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -74,7 +76,7 @@ public class SizeOfObjectFunction implements IMethodDeclaration {
         return null;
     }
 
-    private class SizeOfObjectCall extends FunctionCall {
+    private class SizeOfObjectCall extends FunctionCall implements RewritableNode {
 
         private LineInfo line;
         private RuntimeValue array;
@@ -145,5 +147,10 @@ public class SizeOfObjectFunction implements IMethodDeclaration {
             }
             return 0;
         }
+
+        @Override
+        public void rewriteChildren(ChildRewriter rewriter) {
+            array = rewriter.value(array);
+        }
     }
 }
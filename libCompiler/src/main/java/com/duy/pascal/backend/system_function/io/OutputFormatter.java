@@ -22,13 +22,12 @@ import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
 import com.duy.pascal.backend.ast.runtime_value.value.boxing.ArrayBoxer;
 import com.duy.pascal.backend.ast.runtime_value.value.RecordValue;
 import com.duy.pascal.backend.runtime_exception.RuntimePascalException;
+import com.duy.pascal.backend.declaration.lang.types.set.PrimitiveArrayKind;
 
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.Arrays;
 import java.util.Locale;
-import java.util.Map;
-import java.util.Set;
 
 /**
  * Created by Duy on 09-Jun-17.
@@ -52,11 +51,14 @@ public class OutputFormatter {
 
     public static String getValueOutput(Object value) {
         if (value instanceof Object[]) return Arrays.toString((Object[]) value);
+        if (value != null && value.getClass().isArray()) {
+            return Arrays.toString(PrimitiveArrayKind.toObjectArray(value));
+        }
         if (value instanceof RecordValue) {
-            Set<Map.Entry<String, Object>> entries = ((RecordValue) value).getVariableMap().entrySet();
+            RecordValue record = (RecordValue) value;
             StringBuilder res = new StringBuilder();
-            for (Map.Entry<String, Object> entry : entries) {
-                res.append(entry.getValue()).append("\n");
+            for (int i = 0; i < record.getVariables().size(); i++) {
+                res.append(record.getField(i)).append("\n");
             }
             return res.toString();
         }
@@ -65,8 +67,8 @@ public class OutputFormatter {
 
     public static StringBuilder formatDecimal(int decimal, Object value) {
 
-        StringBuilder out = new StringBuilder(value instanceof Object[] ?
-                Arrays.toString((Object[]) value) : String.valueOf(value));
+        StringBuilder out = new StringBuilder(value != null && value.getClass().isArray() ?
+                Arrays.toString(PrimitiveArrayKind.toObjectArray(value)) : String.valueOf(value));
 
         StringBuilder pattern = new StringBuilder("#0.");
         for (int j = 0; j < decimal; j++) pattern.append("0");
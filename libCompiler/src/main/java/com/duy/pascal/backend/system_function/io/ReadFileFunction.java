@@ -19,6 +19,8 @@ package com.duy.pascal.backend.system_function.io;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -81,7 +83,7 @@ public class ReadFileFunction implements IMethodDeclaration {
         return null;
     }
 
-    private class ReadFileCall extends FunctionCall {
+    private class ReadFileCall extends FunctionCall implements RewritableNode {
         private RuntimeValue args;
         private LineInfo line;
         private RuntimeValue filePreference;
@@ -134,7 +136,7 @@ public class ReadFileFunction implements IMethodDeclaration {
         @SuppressWarnings("unchecked")
         public Object getValueImpl(@NonNull VariableContext f, @NonNull RuntimeExecutableCodeUnit<?> main)
                 throws RuntimePascalException {
-            FileLib fileLib = main.getDeclaration().getContext().getFileHandler();
+            FileLib fileLib = main.getFileHandler();
 
             PascalReference[] values = (PascalReference[]) args.getValue(f, main);
             PascalReference<File> file = (PascalReference<File>) filePreference.getValue(f, main);
@@ -144,5 +146,10 @@ public class ReadFileFunction implements IMethodDeclaration {
             return null;
         }
 
+        @Override
+        public void rewriteChildren(ChildRewriter rewriter) {
+            filePreference = rewriter.value(filePreference);
+            args = rewriter.value(args);
+        }
     }
 }
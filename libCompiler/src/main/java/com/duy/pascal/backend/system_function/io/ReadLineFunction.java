@@ -19,6 +19,8 @@ package com.duy.pascal.backend.system_function.io;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -78,7 +80,7 @@ public class ReadLineFunction implements IMethodDeclaration {
         return null;
     }
 
-    private class ReadLineCall extends FunctionCall {
+    private class ReadLineCall extends FunctionCall implements RewritableNode {
         private RuntimeValue args;
         private LineInfo line;
 
@@ -129,7 +131,7 @@ public class ReadLineFunction implements IMethodDeclaration {
         @SuppressWarnings("unchecked")
         public Object getValueImpl(@NonNull VariableContext f, @NonNull RuntimeExecutableCodeUnit<?> main)
                 throws RuntimePascalException {
-            IOLib ioHandler = main.getDeclaration().getContext().getIOHandler();
+            IOLib ioHandler = main.getIOHandler();
             PascalReference[] values = (PascalReference[]) args.getValue(f, main);
             ioHandler.readlnz(values);
             if (main.isDebug()) main.getDebugListener().onVariableChange(new CallStack(f));
@@ -137,5 +139,9 @@ public class ReadLineFunction implements IMethodDeclaration {
             return null;
         }
 
+        @Override
+        public void rewriteChildren(ChildRewriter rewriter) {
+            args = rewriter.value(args);
+        }
     }
 }
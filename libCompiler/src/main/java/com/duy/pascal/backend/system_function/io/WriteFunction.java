@@ -19,6 +19,8 @@ package com.duy.pascal.backend.system_function.io;
 
 import android.support.annotation.NonNull;
 
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
@@ -77,7 +79,7 @@ public class WriteFunction implements IMethodDeclaration {
         return null;
     }
 
-    private class ReadCall extends FunctionCall {
+    private class ReadCall extends FunctionCall implements RewritableNode {
         private RuntimeValue args;
         private LineInfo line;
 
@@ -128,7 +130,7 @@ public class WriteFunction implements IMethodDeclaration {
         @SuppressWarnings("unchecked")
         public Object getValueImpl(@NonNull VariableContext f, @NonNull RuntimeExecutableCodeUnit<?> main)
                 throws RuntimePascalException {
-            IOLib ioHandler = main.getDeclaration().getContext().getIOHandler();
+            IOLib ioHandler = main.getIOHandler();
 
             ArrayBoxer arrayBoxer = (ArrayBoxer) args;
             Object[] values = (Object[]) arrayBoxer.getValue(f, main);
@@ -138,5 +140,9 @@ public class WriteFunction implements IMethodDeclaration {
             return null;
         }
 
+        @Override
+        public void rewriteChildren(ChildRewriter rewriter) {
+            args = rewriter.value(args);
+        }
     }
 }
@@ -0,0 +1,56 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.tokenizer;
+
+/**
+ * Canonical form of an identifier, there is one symbol per identifier ignoring case while
+ * the symbol is in use. Scopes are keyed by symbols, which hash to their id and compare by
+ * identity, so a lookup never lower cases nor hashes the name
+ */
+public final class Symbol {
+    private final String name;
+    private final int id;
+
+    Symbol(String name, int id) {
+        this.name = name;
+        this.id = id;
+    }
+
+    /**
+     * @return name in lower case
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return number of the symbol, unique among the symbols in use
+     */
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public int hashCode() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.tokenizer;
+
+import android.support.annotation.NonNull;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Interns identifiers for every compilation, a unit parsed once is shared by the programs
+ * which use it, so the table is global. Each spelling is lower cased once.
+ * <p>
+ * Symbols are held weakly, a symbol and its spellings are dropped once no token or scope
+ * refers to it, so the names typed in the editor do not stay in the table. Lookups do not
+ * lock, the parser threads intern names at the same time
+ */
+public class SymbolTable {
+    private static final ReferenceQueue<Symbol> QUEUE = new ReferenceQueue<>();
+    /**
+     * symbols keyed by their name in lower case
+     */
+    private static final ConcurrentHashMap<String, Entry> SYMBOLS = new ConcurrentHashMap<>();
+    /**
+     * symbols keyed by the other spellings met in the sources
+     */
+    private static final ConcurrentHashMap<String, Entry> SPELLINGS = new ConcurrentHashMap<>();
+    private static final AtomicInteger IDS = new AtomicInteger();
+
+    private SymbolTable() {
+    }
+
+    @NonNull
+    public static Symbol intern(@NonNull String identifier) {
+        expunge();
+        Symbol symbol = get(SYMBOLS, identifier);
+        if (symbol != null) {
+            return symbol;
+        }
+        symbol = get(SPELLINGS, identifier);
+        if (symbol != null) {
+            return symbol;
+        }
+        String name = identifier.toLowerCase();
+        symbol = canonical(name);
+        if (!name.equals(identifier)) {
+            SPELLINGS.put(identifier, new Entry(symbol, identifier, SPELLINGS));
+        }
+        return symbol;
+    }
+
+    /**
+     * @return number of symbols in the table, including the ones not yet collected
+     */
+    public static int size() {
+        expunge();
+        return SYMBOLS.size();
+    }
+
+    private static Symbol canonical(String name) {
+        while (true) {
+            Entry entry = SYMBOLS.get(name);
+            Symbol symbol = entry == null ? null : entry.get();
+            if (symbol != null) {
+                return symbol;
+            }
+            Symbol created = new Symbol(name, IDS.getAndIncrement());
+            Entry fresh = new Entry(created, name, SYMBOLS);
+            if (entry == null ? SYMBOLS.putIfAbsent(name, fresh) == null
+                    : SYMBOLS.replace(name, entry, fresh)) {
+                return created;
+            }
+        }
+    }
+
+    private static Symbol get(ConcurrentHashMap<String, Entry> map, String key) {
+        Entry entry = map.get(key);
+        return entry == null ? null : entry.get();
+    }
+
+    /**
+     * Removes the entries of the symbols which were collected
+     */
+    private static void expunge() {
+        Entry entry;
+        while ((entry = (Entry) QUEUE.poll()) != null) {
+            entry.map.remove(entry.key, entry);
+        }
+    }
+
+    private static class Entry extends WeakReference<Symbol> {
+        private final String key;
+        private final ConcurrentHashMap<String, Entry> map;
+
+        Entry(Symbol symbol, String key, ConcurrentHashMap<String, Entry> map) {
+            super(symbol, QUEUE);
+            this.key = key;
+            this.map = map;
+        }
+    }
+}
@@ -11,6 +11,8 @@ import com.duy.pascal.backend.declaration.lang.types.BasicType;
 import com.duy.pascal.backend.declaration.lang.types.Type;
 import com.duy.pascal.backend.declaration.lang.types.JavaClassBasedType;
 import com.duy.pascal.backend.declaration.lang.types.PointerType;
+import com.duy.pascal.backend.tokenizer.Symbol;
+import com.duy.pascal.backend.tokenizer.SymbolTable;
 
 
 public class WordToken extends Token implements NamedEntity {
@@ -20,9 +22,12 @@ public class WordToken extends Token implements NamedEntity {
 
     private String originalName;
 
+    private final Symbol symbol;
+
     public WordToken(LineInfo line, String s) {
         super(line);
-        this.name = s.toLowerCase();
+        this.symbol = SymbolTable.intern(s);
+        this.name = symbol.getName();
         this.originalName = s;
         this.line.setLength(name.length());
     }
@@ -43,6 +48,10 @@ public class WordToken extends Token implements NamedEntity {
         return null;
     }
 
+    public Symbol getSymbol() {
+        return symbol;
+    }
+
     public String getOriginalName() {
         return originalName;
     }
@@ -69,7 +78,7 @@ public class WordToken extends Token implements NamedEntity {
     public Type toBasicType(ExpressionContext context)
             throws TypeIdentifierExpectException {
         Type returnType = null;
-        String name = this.name.toLowerCase().intern();
+        String name = this.name;
         if (name.equalsIgnoreCase("integer")
                 || name.equalsIgnoreCase("byte")
                 || name.equalsIgnoreCase("word")
@@ -1,6 +1,9 @@
 package com.duy.pascal.backend.tokens.grouping;
 
+import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
+import com.duy.pascal.backend.ast.instructions.CompoundStatement;
 import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.backend.parse_exception.ParsingException;
 import com.duy.pascal.backend.tokens.Token;
 
 public class BeginEndToken extends GrouperToken {
@@ -9,6 +12,22 @@ public class BeginEndToken extends GrouperToken {
         super(line);
     }
 
+    /**
+     * Parse the statements of this block
+     */
+    public CompoundStatement getCompoundStatement(ExpressionContext context)
+            throws ParsingException {
+        CompoundStatement statement = new CompoundStatement(getLineNumber());
+        while (hasNext()) {
+            statement.addCommand(getNextCommand(context));
+            if (hasNext()) {
+                assertNextSemicolon();
+            }
+        }
+        statement.setEndLine(getEndLine());
+        return statement;
+    }
+
     @Override
     public String toCode() {
         StringBuilder builder = new StringBuilder("begin ");
@@ -7,7 +7,6 @@ import android.support.annotation.Nullable;
 import com.duy.pascal.backend.ast.expressioncontext.ClassExpressionContext;
 import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.backend.ast.instructions.BreakInstruction;
-import com.duy.pascal.backend.ast.instructions.CompoundStatement;
 import com.duy.pascal.backend.ast.instructions.ContinueInstruction;
 import com.duy.pascal.backend.ast.instructions.Executable;
 import com.duy.pascal.backend.ast.instructions.ExitInstruction;
@@ -108,9 +107,8 @@ import com.duy.pascal.backend.tokens.value.ValueToken;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static com.duy.pascal.backend.declaration.lang.types.set.ArrayType.getArrayConstant;
@@ -119,12 +117,12 @@ import static com.duy.pascal.backend.declaration.lang.types.set.EnumGroupType.ge
 public abstract class GrouperToken extends Token {
     private static final String TAG = GrouperToken.class.getSimpleName();
     public Token next = null;
-    protected LinkedBlockingQueue<Token> queue;
+    protected TokenBuffer queue;
     protected LineInfo endLine;
 
     public GrouperToken(LineInfo line) {
         super(line);
-        queue = new LinkedBlockingQueue<>();
+        queue = new TokenBuffer();
     }
 
     /**
@@ -168,7 +166,7 @@ public abstract class GrouperToken extends Token {
         if (groupConstant.hasNext()) {
             if (elementType instanceof ArrayType) {
                 GrouperToken child = (GrouperToken) groupConstant.take();
-                Object[] array = getArrayConstant(context, child,
+                Object array = getArrayConstant(context, child,
                         (ArrayType) elementType).getValue();
 
                 assertNextCommaForNextConstant(context, groupConstant, elementType);
@@ -201,10 +199,10 @@ public abstract class GrouperToken extends Token {
                             new AtomicReference<>(((SetType) elementType).getElementType());
                     BracketedToken bracketedToken = (BracketedToken) groupConstant.take();
 
-                    ConstantAccess<LinkedList> constant = SetType.getSetConstant(context,
+                    ConstantAccess<Collection> constant = SetType.getSetConstant(context,
                             bracketedToken, elementTypeReference);
 
-                    LinkedList setConstant = constant.getValue();
+                    Collection setConstant = constant.getValue();
 
                     assertNextCommaForNextConstant(context, groupConstant, elementType);
 
@@ -254,6 +252,13 @@ public abstract class GrouperToken extends Token {
         }
     }
 
+    /**
+     * Tokens that have not been taken yet, iterating does not consume them
+     */
+    public Iterable<Token> getRemainingTokens() {
+        return queue;
+    }
+
     public LineInfo getEndLine() {
         return endLine;
     }
@@ -264,14 +269,7 @@ public abstract class GrouperToken extends Token {
 
     private Token getNext() throws GroupingException {
         if (next == null) {
-            while (true) {
-                try {
-                    next = queue.take();
-                } catch (InterruptedException e) {
-                    continue;
-                }
-                break;
-            }
+            next = pollQueue();
         }
         exceptionCheck(next);
         if (next instanceof CommentToken) {
@@ -291,15 +289,34 @@ public abstract class GrouperToken extends Token {
         }
     }
 
-    public void put(Token t) {
-        while (true) {
-            try {
-                queue.put(t);
-            } catch (InterruptedException e) {
-                continue;
-            }
-            break;
+    /**
+     * @return next child, the lexer always closes a grouper with an {@link EOFToken} or an
+     * exception token, the end line is used if the grouper was not closed
+     */
+    private Token pollQueue() {
+        Token token = queue.poll();
+        if (token == null) {
+            queue.add(new EOFToken(endLine != null ? endLine : line));
+            token = queue.poll();
         }
+        return token;
+    }
+
+    public void put(Token t) {
+        queue.add(t);
+    }
+
+    /**
+     * @return position of the next token, pass it to {@link #reset(int)} to parse again
+     * from this token
+     */
+    public int mark() {
+        return next != null ? queue.mark() - 1 : queue.mark();
+    }
+
+    public void reset(int mark) {
+        queue.reset(mark);
+        next = null;
     }
 
     public abstract String toCode();
@@ -310,27 +327,16 @@ public abstract class GrouperToken extends Token {
         if (result instanceof EOFToken) {
             throw new ExpectedAnotherTokenException(result.getLineNumber());
         }
-        while (true) {
-            try {
-                next = queue.take();
-                exceptionCheck(next);
-
-                return result;
-            } catch (InterruptedException ignored) {
-            }
-        }
+        next = pollQueue();
+        exceptionCheck(next);
+        return result;
     }
 
     public Token takeEOF() throws GroupingException {
         Token result = getNext();
-        while (true) {
-            try {
-                next = queue.take();
-                exceptionCheck(next);
-                return result;
-            } catch (InterruptedException ignored) {
-            }
-        }
+        next = pollQueue();
+        exceptionCheck(next);
+        return result;
     }
 
     public Token peek() throws GroupingException {
@@ -560,17 +566,17 @@ public abstract class GrouperToken extends Token {
                         }
                     }
                 } else {
+                    int slot = -1;
                     if (runtimeType.declType instanceof RecordType) {
-                        VariableDeclaration field =
-                                ((RecordType) runtimeType.declType).findField(((WordToken) next).getName());
-                        if (field == null) { //can not find field
+                        slot = ((RecordType) runtimeType.declType).indexOfField(((WordToken) next).getName());
+                        if (slot < 0) { //can not find field
                             // TODO: 03-Jun-17 declare field
                             throw new UnknownFieldException(next.getLineNumber(),
                                     (RecordType) runtimeType.getRawType(),
                                     ((WordToken) next).getName(), context);
                         }
                     }
-                    term = new FieldAccess(term, (WordToken) next);
+                    term = new FieldAccess(term, (WordToken) next, slot);
 
                     //access pointer value
                     if (peek() instanceof OperatorToken && ((OperatorToken) peek()).type == OperatorTypes.DEREF) {
@@ -884,17 +890,7 @@ public abstract class GrouperToken extends Token {
 
         } else if (next instanceof BeginEndToken) {
 
-            CompoundStatement beginEndPreprocessed = new CompoundStatement(lineNumber);
-            BeginEndToken castToken = (BeginEndToken) next;
-
-            while (castToken.hasNext()) {
-                beginEndPreprocessed.addCommand(castToken.getNextCommand(context));
-                if (castToken.hasNext()) {
-                    castToken.assertNextSemicolon();
-                }
-            }
-            beginEndPreprocessed.setEndLine(((BeginEndToken) next).getEndLine());
-            return beginEndPreprocessed;
+            return ((BeginEndToken) next).getCompoundStatement(context);
 
         } else if (next instanceof ForToken) {
             return ForStatement.generateForStatement(this, context, lineNumber);
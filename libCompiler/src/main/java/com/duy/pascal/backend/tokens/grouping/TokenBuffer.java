@@ -0,0 +1,113 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.tokens.grouping;
+
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.backend.tokens.Token;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Children of a {@link GrouperToken}. The lexer fills the buffer completely before the
+ * parser reads it, both on the same thread, so this is a plain array with a read cursor,
+ * the cursor can be saved and restored to backtrack.
+ */
+public class TokenBuffer implements Iterable<Token> {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private Token[] tokens = new Token[INITIAL_CAPACITY];
+    private int size = 0;
+    private int position = 0;
+
+    public void add(Token token) {
+        if (size == tokens.length) {
+            Token[] grown = new Token[tokens.length * 2];
+            System.arraycopy(tokens, 0, grown, 0, size);
+            tokens = grown;
+        }
+        tokens[size++] = token;
+    }
+
+    /**
+     * @return the next token and move the cursor, null if every token was read
+     */
+    @Nullable
+    public Token poll() {
+        return position < size ? tokens[position++] : null;
+    }
+
+    /**
+     * @return position of the cursor, pass it to {@link #reset(int)} to read again from here
+     */
+    public int mark() {
+        return position;
+    }
+
+    public void reset(int mark) {
+        if (mark < 0 || mark > size) {
+            throw new IndexOutOfBoundsException("mark " + mark + ", size " + size);
+        }
+        position = mark;
+    }
+
+    /**
+     * @return number of tokens which are not read
+     */
+    public int remaining() {
+        return size - position;
+    }
+
+    /**
+     * Iterates over the tokens which are not read, without moving the cursor
+     */
+    @Override
+    public Iterator<Token> iterator() {
+        return new Iterator<Token>() {
+            private int index = position;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public Token next() {
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+                return tokens[index++];
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = position; i < size; i++) {
+            if (i > position) builder.append(", ");
+            builder.append(tokens[i]);
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -21,6 +21,7 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
+import com.duy.pascal.backend.declaration.lang.types.set.PrimitiveArrayKind;
 import com.duy.pascal.frontend.view.exec_screen.console.TextConsole;
 
 import java.lang.reflect.Array;
@@ -152,13 +153,13 @@ public class ArrayUtil {
 
     public static String toString(@Nullable Object value) {
         if (value == null) return "";
-        if (value instanceof Object[]) {
+        if (value.getClass().isArray()) {
             StringBuilder result = new StringBuilder();
-            Object[] arr = (Object[]) value;
+            Object[] arr = PrimitiveArrayKind.toObjectArray(value);
             if (arr.length == 0) {
                 return "[]";
             }
-            if (arr[0] instanceof Object[]) {
+            if (arr[0] != null && arr[0].getClass().isArray()) {
                 for (Object o : arr) {
                     result.append(toString(o)).append(",");
                 }
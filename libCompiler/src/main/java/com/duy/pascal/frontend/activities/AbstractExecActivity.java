@@ -23,7 +23,10 @@ import android.os.Message;
 import android.support.annotation.Nullable;
 import android.widget.Toast;
 
+import com.duy.pascal.backend.config.BodyParseMode;
 import com.duy.pascal.backend.config.DebugMode;
+import com.duy.pascal.backend.config.ExecutionMode;
+import com.duy.pascal.backend.config.Optimization;
 import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.backend.declaration.program.PascalProgramDeclaration;
 import com.duy.pascal.backend.builtin_libraries.io.IOLib;
@@ -44,6 +47,7 @@ import com.duy.pascal.frontend.view.exec_screen.console.ConsoleView;
 import java.io.File;
 import java.io.FileReader;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.duy.pascal.frontend.alogrithm.InputData.MAX_INPUT;
@@ -141,13 +145,26 @@ public abstract class AbstractExecActivity extends RunnableActivity {
                 try {
                     ArrayList<ScriptSource> searchPath = new ArrayList<>();
                     searchPath.add(new FileScriptSource(new File(filePath).getParent()));
-                    PascalProgramDeclaration pascalProgram = PascalCompiler.loadPascal(
-                            new File(programFile).getName(),
-                            new FileReader(programFile),
-                            searchPath,
-                            AbstractExecActivity.this);
+                    PascalProgramDeclaration pascalProgram;
+                    if (isEnableDebug()) {
+                        //the debugger steps through the statements as they are written
+                        pascalProgram = PascalCompiler.loadPascal(
+                                new File(programFile).getName(),
+                                new FileReader(programFile),
+                                searchPath,
+                                AbstractExecActivity.this,
+                                BodyParseMode.EAGER,
+                                EnumSet.noneOf(Optimization.class));
+                    } else {
+                        pascalProgram = PascalCompiler.loadPascal(
+                                new File(programFile).getName(),
+                                new FileReader(programFile),
+                                searchPath,
+                                AbstractExecActivity.this);
+                    }
 
-                    program = pascalProgram.generate();
+                    program = pascalProgram.generate(isEnableDebug()
+                            ? ExecutionMode.INSTRUMENTED : ExecutionMode.RELEASE);
 
                     //set stack size for the program
                     long maxStackSize = getPreferences().getMaxStackSize();
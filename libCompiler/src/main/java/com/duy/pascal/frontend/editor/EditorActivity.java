@@ -43,7 +43,6 @@ import android.widget.Toast;
 
 import com.duy.pascal.BasePascalApplication;
 import com.duy.pascal.backend.declaration.lang.function.AbstractFunction;
-import com.duy.pascal.backend.declaration.lang.value.ConstantDefinition;
 import com.duy.pascal.backend.declaration.lang.function.FunctionDeclaration;
 import com.duy.pascal.backend.declaration.lang.value.VariableDeclaration;
 import com.duy.pascal.backend.ast.codeunit.CodeUnit;
@@ -76,8 +75,6 @@ import com.duy.pascal.frontend.theme.fragment.ThemeFontActivity;
 import com.duy.pascal.frontend.view.exec_screen.console.ConsoleView;
 import com.flask.colorpicker.builder.ColorPickerClickListener;
 import com.flask.colorpicker.builder.ColorPickerDialogBuilder;
-import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.ListMultimap;
 
 import org.jetbrains.annotations.NotNull;
 
@@ -86,7 +83,6 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 public class EditorActivity extends BaseEditorActivity implements
         DrawerLayout.DrawerListener, DialogFragmentFixExpectToken.OnSelectExpectListener {
@@ -344,12 +340,9 @@ public class EditorActivity extends BaseEditorActivity implements
             if (fragment != null && fragment.getEditor() != null) {
                 ArrayList<InfoItem> data = new ArrayList<>();
 
-                ArrayListMultimap<String, AbstractFunction> callableFunctions = program.getCallableFunctions();
-                for (String name : callableFunctions.keySet()) {
-                    for (AbstractFunction f : callableFunctions.get(name)) {
-                        data.add(new InfoItem(StructureType.TYPE_FUNCTION,
-                                f.getName(), f.getDescription(), f.toString()));
-                    }
+                for (AbstractFunction f : program.getCallableFunctions().values()) {
+                    data.add(new InfoItem(StructureType.TYPE_FUNCTION,
+                            f.getName(), f.getDescription(), f.toString()));
                 }
 
                 data.addAll(program.getListNameConstants());
@@ -702,11 +695,10 @@ public class EditorActivity extends BaseEditorActivity implements
         com.duy.pascal.frontend.structure.viewholder.StructureItem node = new com.duy.pascal.frontend.structure.viewholder.StructureItem(type, nameOfNode);
         String tab = "";
         for (int i = 0; i < depth; i++) tab += "\t";
-        Map<String, ConstantDefinition> constants = context.getConstants();
         ArrayList<InfoItem> listNameConstants = context.getListNameConstants();
         for (InfoItem name : listNameConstants) {
             node.addNode(new com.duy.pascal.frontend.structure.viewholder.StructureItem(StructureType.TYPE_CONST,
-                    name + " = " + constants.get(name.getName().toLowerCase()).getValue()));
+                    name + " = " + context.getConstantDefinitionLocal(name.getName()).getValue()));
         }
 
         ArrayList<String> libraries = context.getLibrariesNames();
@@ -723,10 +715,9 @@ public class EditorActivity extends BaseEditorActivity implements
                     variableDeclaration.getName() + ": " + variableDeclaration.getType()));
         }
 
-        ListMultimap<String, AbstractFunction> callableFunctions = context.getCallableFunctions();
         ArrayList<InfoItem> listNameFunctions = context.getListNameFunctions();
         for (InfoItem name : listNameFunctions) {
-            List<AbstractFunction> abstractFunctions = callableFunctions.get(name.getName().toLowerCase());
+            List<AbstractFunction> abstractFunctions = context.getCallableFunctionsLocal(name.getName());
             for (AbstractFunction function : abstractFunctions) {
                 if (function instanceof FunctionDeclaration) {
                     FunctionDeclaration functionInPascal = (FunctionDeclaration) function;
@@ -22,6 +22,7 @@ import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.Point;
 import android.graphics.Rect;
+import android.os.AsyncTask;
 import android.os.Handler;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
@@ -47,7 +48,7 @@ import android.view.inputmethod.InputMethodManager;
 import android.widget.ScrollView;
 import android.widget.Scroller;
 
-import com.duy.pascal.backend.core.PascalCompiler;
+import com.duy.pascal.backend.core.IncrementalCompiler;
 import com.duy.pascal.backend.linenumber.LineInfo;
 import com.duy.pascal.backend.parse_exception.ParsingException;
 import com.duy.pascal.backend.source_include.ScriptSource;
@@ -58,7 +59,6 @@ import com.duy.pascal.frontend.editor.highlight.Highlighter;
 import com.duy.pascal.frontend.theme.util.CodeTheme;
 import com.duy.pascal.frontend.theme.util.CodeThemeUtils;
 
-import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -76,6 +76,10 @@ public class HighlightEditor extends CodeSuggestsEditText
      * Then show to edit text if there are errors
      */
     private final Runnable compileProgram = new CompileRunnable();
+    private final IncrementalCompiler mCompiler =
+            new IncrementalCompiler("temp", new ArrayList<ScriptSource>());
+    @Nullable
+    private CompileTask mCompileTask;
     public boolean showLines = true;
     public boolean wordWrap = true;
     public LineInfo lineError = null;
@@ -914,21 +918,51 @@ public class HighlightEditor extends CodeSuggestsEditText
     private class CompileRunnable implements Runnable {
         @Override
         public void run() {
+            //a newer text is here, the result of the last check is not needed
+            if (mCompileTask != null) {
+                mCompileTask.cancel(true);
+            }
+            mCompileTask = new CompileTask();
+            mCompileTask.execute(getCleanText());
+        }
+
+
+    }
+
+    /**
+     * Checks the text in background, only the bodies that were edited since the last check
+     * are parsed again
+     */
+    private class CompileTask extends AsyncTask<String, Void, ParsingException> {
+        private boolean success;
+
+        @Override
+        protected ParsingException doInBackground(String... params) {
             try {
-                PascalCompiler.loadPascal("temp", new StringReader(getCleanText()),
-                        new ArrayList<ScriptSource>(), null);
+                ParsingException error = mCompiler.check(params[0]);
+                success = error == null;
+                return error;
+            } catch (InterruptedException e) {
+                return null;
+            } catch (Exception e) {
+                //the parser failed, start again from the full text next time
+                mCompiler.reset();
+                return null;
+            }
+        }
+
+        @Override
+        protected void onPostExecute(ParsingException e) {
+            if (success) {
                 lineError = null;
-            } catch (ParsingException e) {
+            } else if (e != null) {
                 if (e.getLineInfo() != null) {
                     synchronized (objectThread) {
                         lineError = e.getLineInfo();
                     }
                 }
                 e.printStackTrace();
-            } catch (Exception ignored) {
             }
         }
-
-
     }
 }
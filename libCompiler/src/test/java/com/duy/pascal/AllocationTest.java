@@ -0,0 +1,114 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal;
+
+import com.duy.pascal.backend.ast.ChildRewriter;
+import com.duy.pascal.backend.ast.RewritableNode;
+import com.duy.pascal.backend.ast.instructions.Executable;
+import com.duy.pascal.backend.ast.runtime_value.value.AssignableValue;
+import com.duy.pascal.backend.ast.runtime_value.value.DirectAssignableValue;
+import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
+import com.duy.pascal.backend.config.BodyParseMode;
+import com.duy.pascal.backend.config.Optimization;
+import com.duy.pascal.backend.core.PascalCompiler;
+import com.duy.pascal.backend.source_include.ScriptSource;
+import com.duy.pascal.interpreter.BaseTestCase;
+
+import java.io.File;
+import java.io.FileReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Assignments to variables, array elements and fields store their value without a
+ * reference. Also prints the number of bytes allocated by the current thread while
+ * compiling and running a program, compare the output before and after a change of the
+ * interpreter
+ */
+public class AllocationTest extends BaseTestCase {
+
+    @Override
+    public String getDirTest() {
+        return "test_performance";
+    }
+
+    public void testAssign() {
+        measure("test_assign.pas", 1000000);
+    }
+
+    public void testArithmetic() {
+        measure("test_arith.pas", 1000000);
+    }
+
+    public void testAssignmentsStoreDirectly() throws Exception {
+        File file = new File(dir + "test_assign.pas");
+        Executable main = PascalCompiler.loadPascal(file.getName(), new FileReader(file),
+                new ArrayList<ScriptSource>(), Interperter.createHandler(file, new StringBuilder()),
+                BodyParseMode.EAGER, EnumSet.noneOf(Optimization.class)).main;
+        List<AssignableValue> targets = new ArrayList<>();
+        collectTargets(main, targets);
+        //s, i, a[], p.x, p.y and s again
+        assertEquals(6, targets.size());
+        for (AssignableValue target : targets) {
+            assertTrue(target.getClass().getSimpleName(), target instanceof DirectAssignableValue);
+        }
+    }
+
+    private static void collectTargets(Object node, final List<AssignableValue> targets) {
+        if (!(node instanceof RewritableNode)) {
+            return;
+        }
+        ((RewritableNode) node).rewriteChildren(new ChildRewriter() {
+            @Override
+            public RuntimeValue value(RuntimeValue child) {
+                collectTargets(child, targets);
+                return child;
+            }
+
+            @Override
+            public AssignableValue target(AssignableValue child) {
+                targets.add(child);
+                collectTargets(child, targets);
+                return child;
+            }
+
+            @Override
+            public Executable statement(Executable child) {
+                collectTargets(child, targets);
+                return child;
+            }
+        });
+    }
+
+    private void measure(String file, long iterations) {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            run(file);
+            return;
+        }
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        long id = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(id);
+        run(file);
+        long allocated = threadBean.getThreadAllocatedBytes(id) - before;
+        System.out.println(file + ": " + allocated + " bytes, "
+                + (allocated / iterations) + " bytes/op");
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal;
+
+import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
+import com.duy.pascal.backend.config.ExecutionBackend;
+import com.duy.pascal.backend.config.ExecutionMode;
+import com.duy.pascal.backend.config.ProgramConfig;
+import com.duy.pascal.backend.declaration.program.PascalProgramDeclaration;
+import com.duy.pascal.interpreter.BaseTestCase;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.Scanner;
+import java.util.concurrent.CountDownLatch;
+
+import static com.duy.pascal.ProgramRunner.load;
+
+/**
+ * A program parsed once and run many times, one after the other and at the same time on
+ * several threads. Every run has its own globals, units and console
+ */
+public class ConcurrentRunTest extends BaseTestCase {
+    private static final int RUNS = 64;
+    private static final ProgramRunner.Setup COMPILED = new ProgramRunner.Setup() {
+        @Override
+        public void configure(ProgramConfig config) {
+            config.setJit(true);
+            config.setBackend(ExecutionBackend.TREE);
+        }
+    };
+    private static final ProgramRunner.Setup LINEAR = new ProgramRunner.Setup() {
+        @Override
+        public void configure(ProgramConfig config) {
+            config.setJit(false);
+            config.setBackend(ExecutionBackend.LINEAR);
+        }
+    };
+
+    @Override
+    public String getDirTest() {
+        return "test_concurrent";
+    }
+
+    public void testSequentialRuns() throws Exception {
+        File file = new File(dir + "test_concurrent.pas");
+        PascalProgramDeclaration program = load(file, new StringBuilder(), null, COMPILED);
+        String expected = IOUtils.streamToString(new FileInputStream(dir + "test_concurrent.out"))
+                .toString();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(expected.replaceAll("\\s", ""),
+                    run(program, file, 3).replaceAll("\\s", ""));
+        }
+    }
+
+    public void testConcurrentRunsCompiled() throws Exception {
+        checkConcurrent(COMPILED);
+    }
+
+    public void testConcurrentRunsLinear() throws Exception {
+        checkConcurrent(LINEAR);
+    }
+
+    /**
+     * Starts all the runs together, each with its own input, then compares their output with
+     * the one of the same input run alone
+     */
+    private void checkConcurrent(ProgramRunner.Setup setup) throws Exception {
+        File file = new File(dir + "test_concurrent.pas");
+        PascalProgramDeclaration program = load(file, new StringBuilder(), null, setup);
+        final StringBuilder[] outputs = new StringBuilder[RUNS];
+        final Throwable[] errors = new Throwable[RUNS];
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            outputs[i] = new StringBuilder();
+            final RuntimeExecutableCodeUnit<PascalProgramDeclaration> run = program.generate(
+                    ExecutionMode.RELEASE, Interperter.createHandler(file, outputs[i],
+                            new Scanner((i + 1) + "\n")));
+            final int index = i;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        run.run();
+                    } catch (Throwable e) {
+                        errors[index] = e;
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int i = 0; i < RUNS; i++) {
+            assertNull("run " + i, errors[i]);
+            assertEquals("run " + i, run(program, file, i + 1), outputs[i].toString());
+        }
+    }
+
+    private static String run(PascalProgramDeclaration program, File file, int n)
+            throws Exception {
+        StringBuilder output = new StringBuilder();
+        program.generate(ExecutionMode.RELEASE, Interperter.createHandler(file, output,
+                new Scanner(n + "\n"))).run();
+        return output.toString();
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.util.Pair;
+
+import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
+import com.duy.pascal.backend.ast.instructions.Executable;
+import com.duy.pascal.backend.ast.runtime_value.value.AssignableValue;
+import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
+import com.duy.pascal.backend.ast.variablecontext.VariableContext;
+import com.duy.pascal.backend.config.DebugMode;
+import com.duy.pascal.backend.config.ExecutionMode;
+import com.duy.pascal.backend.config.ProgramConfig;
+import com.duy.pascal.backend.debugable.DebugListener;
+import com.duy.pascal.backend.declaration.lang.function.AbstractCallableFunction;
+import com.duy.pascal.backend.declaration.program.PascalProgramDeclaration;
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.frontend.debug.CallStack;
+import com.duy.pascal.interpreter.BaseTestCase;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.duy.pascal.ProgramRunner.load;
+
+/**
+ * A program generated in {@link ExecutionMode#RELEASE} never calls its debug listener, even
+ * with debugging enabled, one generated in {@link ExecutionMode#INSTRUMENTED} does
+ */
+public class ExecutionModeTest extends BaseTestCase {
+    private static final long TIMEOUT = 20000;
+    private static final ProgramRunner.Setup DEFAULT = new ProgramRunner.Setup() {
+        @Override
+        public void configure(ProgramConfig config) {
+        }
+    };
+
+    @Override
+    public String getDirTest() {
+        return "test_debug";
+    }
+
+    public void testReleaseNeverCallsListener() throws Exception {
+        CountingListener listener = new CountingListener();
+        RuntimeExecutableCodeUnit<PascalProgramDeclaration> program =
+                generate(ExecutionMode.RELEASE, listener);
+        assertFalse(program.isDebug());
+        program.run();
+        assertEquals(0, listener.calls.get());
+    }
+
+    public void testInstrumentedCallsListener() throws Exception {
+        CountingListener listener = new CountingListener();
+        final RuntimeExecutableCodeUnit<PascalProgramDeclaration> program =
+                generate(ExecutionMode.INSTRUMENTED, listener);
+        assertTrue(program.isDebug());
+        final Throwable[] error = new Throwable[1];
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    program.run();
+                } catch (Throwable e) {
+                    error[0] = e;
+                }
+            }
+        });
+        thread.start();
+        //the program waits on every step, keep stepping until it ends
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (thread.isAlive() && System.currentTimeMillis() < deadline) {
+            program.resume();
+            thread.join(1);
+        }
+        assertFalse("program did not stop", thread.isAlive());
+        assertNull(error[0]);
+        assertTrue(listener.calls.get() > 0);
+        assertEquals(1, listener.endProgram.get());
+    }
+
+    private RuntimeExecutableCodeUnit<PascalProgramDeclaration> generate(
+            ExecutionMode mode, DebugListener listener) throws Exception {
+        File file = new File(dir + "test_step.pas");
+        RuntimeExecutableCodeUnit<PascalProgramDeclaration> program =
+                load(file, new StringBuilder(), null, DEFAULT).generate(mode);
+        program.setDebugListener(listener);
+        program.setDebugMode(DebugMode.STEP_INFO);
+        program.enableDebug();
+        return program;
+    }
+
+    private static class CountingListener implements DebugListener {
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicInteger endProgram = new AtomicInteger();
+
+        @Override
+        public void onLine(Executable executable, LineInfo lineInfo) {
+            calls.incrementAndGet();
+        }
+
+        @Override
+        public void onLine(RuntimeValue executable, LineInfo lineInfo) {
+            calls.incrementAndGet();
+        }
+
+        @Override
+        public void onNewMessage(String msg) {
+            calls.incrementAndGet();
+        }
+
+        @Override
+        public void onClearDebug() {
+            calls.incrementAndGet();
+        }
+
+        @Override
+        public void onFunctionCall(String name) {
+            calls.incrementAndGet();
+        }
+
+        @Override
+        public void onEvaluatingExpr(LineInfo lineInfo, String expression) {
+            calls.incrementAndGet();
+        }
+
+        @Override
+        public void onEvaluatedExpr(LineInfo lineInfo, String expr, String result) {
+            calls.incrementAndGet();
+        }
+
+        @Override
+        public void onAssignValue(LineInfo lineNumber, AssignableValue left, @NonNull Object old,
+                                  @Nullable Object value, @NonNull VariableContext context) {
+            calls.incrementAndGet();
+        }
+
+        @Override
+        public void onPreFunctionCall(AbstractCallableFunction function,
+                                      @Nullable RuntimeValue[] arguments) {
+            calls.incrementAndGet();
+        }
+
+        @Override
+        public void onFunctionCalled(AbstractCallableFunction function,
+                                     @Nullable RuntimeValue[] arguments, @Nullable Object result) {
+            calls.incrementAndGet();
+        }
+
+        @Override
+        public void onEvalParameterFunction(LineInfo lineInfo, @Nullable String name,
+                                            @Nullable Object value) {
+            calls.incrementAndGet();
+        }
+
+        @Override
+        public void onEndProgram() {
+            calls.incrementAndGet();
+            endProgram.incrementAndGet();
+        }
+
+        @Override
+        public void showMessage(LineInfo pos, String msg) {
+            calls.incrementAndGet();
+        }
+
+        @Override
+        public void onVariableChange(CallStack currentFrame) {
+            calls.incrementAndGet();
+        }
+
+        @Override
+        public void onVariableChange(CallStack currentFrame, Pair<String, Object> value) {
+            calls.incrementAndGet();
+        }
+    }
+}
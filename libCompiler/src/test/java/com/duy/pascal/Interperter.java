@@ -64,76 +64,7 @@ public class Interperter {
         searchPath.add(new FileScriptSource(new File(programPath).getParent()));
         PascalProgramDeclaration pascalProgram = PascalCompiler.loadPascal(
                 new File(programPath).getName(), new FileReader(programPath), searchPath,
-                new IRunnablePascal() {
-                    @Override
-                    public String getCurrentDirectory() {
-                        return programFile.getParent();
-                    }
-
-                    @Override
-                    public Context getApplicationContext() {
-                        return null;
-                    }
-
-                    @Override
-                    public Activity getActivity() {
-                        return null;
-                    }
-
-                    @Override
-                    public void startInput(final IOLib lock) {
-                        if (input == null) {
-                            throw new RuntimeException("can not find input reader");
-                        }
-                        String s = input.nextLine();
-                        lock.setInputBuffer(s);
-                        new Thread(new Runnable() {
-                            @Override
-                            public void run() {
-                                try {
-                                    Thread.sleep(10);
-                                } catch (InterruptedException e) {
-                                    e.printStackTrace();
-                                }
-                                lock.resume();
-                            }
-                        }).start();
-                    }
-
-
-                    @Override
-                    public void print(CharSequence charSequence) {
-                        output.append(charSequence);
-                        System.out.print(charSequence);
-                    }
-
-                    @Override
-                    public ConsoleView getConsoleView() {
-                        return null;
-                    }
-
-                    @Override
-                    public void println(CharSequence charSequence) {
-                        output.append(charSequence);
-                        output.append("\n");
-                        System.out.println(charSequence);
-                    }
-
-                    @Override
-                    public char getKeyBuffer() {
-                        return 0;
-                    }
-
-                    @Override
-                    public boolean keyPressed() {
-                        return false;
-                    }
-
-                    @Override
-                    public void clearConsole() {
-
-                    }
-                });
+                createHandler(programFile, output));
 
         RuntimeExecutableCodeUnit<PascalProgramDeclaration> program = pascalProgram.generate();
         program.run();
@@ -168,6 +99,94 @@ public class Interperter {
         return true;
     }
 
+    /**
+     * Handler which writes the output of a program into the given builder
+     */
+    public static IRunnablePascal createHandler(final File programFile,
+                                                final StringBuilder output) {
+        return createHandler(programFile, output, null);
+    }
+
+    /**
+     * @param reader lines read by the program, null to read the input file of the last
+     *               program run by {@link #runProgram(String)}
+     */
+    public static IRunnablePascal createHandler(final File programFile,
+                                                final StringBuilder output,
+                                                final Scanner reader) {
+        return new IRunnablePascal() {
+            @Override
+            public String getCurrentDirectory() {
+                return programFile.getParent();
+            }
+
+            @Override
+            public Context getApplicationContext() {
+                return null;
+            }
+
+            @Override
+            public Activity getActivity() {
+                return null;
+            }
+
+            @Override
+            public void startInput(final IOLib lock) {
+                Scanner input = reader != null ? reader : Interperter.input;
+                if (input == null) {
+                    throw new RuntimeException("can not find input reader");
+                }
+                String s = input.nextLine();
+                lock.setInputBuffer(s);
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            Thread.sleep(10);
+                        } catch (InterruptedException e) {
+                            e.printStackTrace();
+                        }
+                        lock.resume();
+                    }
+                }).start();
+            }
+
+
+            @Override
+            public void print(CharSequence charSequence) {
+                output.append(charSequence);
+                System.out.print(charSequence);
+            }
+
+            @Override
+            public ConsoleView getConsoleView() {
+                return null;
+            }
+
+            @Override
+            public void println(CharSequence charSequence) {
+                output.append(charSequence);
+                output.append("\n");
+                System.out.println(charSequence);
+            }
+
+            @Override
+            public char getKeyBuffer() {
+                return 0;
+            }
+
+            @Override
+            public boolean keyPressed() {
+                return false;
+            }
+
+            @Override
+            public void clearConsole() {
+
+            }
+        };
+    }
+
     public static boolean checkSyntax(String programPath) {
         System.out.println(programPath);
         final StringBuilder output = new StringBuilder();
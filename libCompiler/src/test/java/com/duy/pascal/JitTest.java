@@ -0,0 +1,76 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal;
+
+import com.duy.pascal.backend.config.ProgramConfig;
+import com.duy.pascal.backend.declaration.program.PascalProgramDeclaration;
+import com.duy.pascal.interpreter.BaseTestCase;
+
+import java.io.File;
+
+import static com.duy.pascal.ProgramRunner.function;
+import static com.duy.pascal.ProgramRunner.load;
+
+/**
+ * Routines compiled to JVM bytecode against the tree interpreter. Runs on the JVM only, Dalvik
+ * can not load the generated classes
+ */
+public class JitTest extends BaseTestCase {
+    private static final ProgramRunner.Setup INTERPRETED = new ProgramRunner.Setup() {
+        @Override
+        public void configure(ProgramConfig config) {
+            config.setJit(false);
+        }
+    };
+    private static final ProgramRunner.Setup COMPILED = new ProgramRunner.Setup() {
+        @Override
+        public void configure(ProgramConfig config) {
+            config.setJit(true);
+        }
+    };
+
+    @Override
+    public String getDirTest() {
+        return "test_jit";
+    }
+
+    public void testJit() {
+        run("test_jit.pas");
+    }
+
+    public void testHotRoutinesAreCompiled() throws Exception {
+        PascalProgramDeclaration program = load(new File(dir + "test_jit.pas"),
+                new StringBuilder(), null, COMPILED);
+        program.generate().run();
+        for (String name : new String[]{"fib", "gcd", "sumsquares", "collatz", "firstdivisor",
+                "isprime", "mean", "fillsieve", "fillsquares"}) {
+            assertTrue(name, function(program, name).isCompiled());
+        }
+    }
+
+    public void testDisabled() throws Exception {
+        PascalProgramDeclaration program = load(new File(dir + "test_jit.pas"),
+                new StringBuilder(), null, INTERPRETED);
+        program.generate().run();
+        assertFalse(function(program, "fib").isCompiled());
+    }
+
+    public void testCorpus() throws Exception {
+        ProgramRunner.compare(new File(dir).getParentFile(), "interpreted", INTERPRETED,
+                "compiled", COMPILED);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal;
+
+import com.duy.pascal.backend.config.ExecutionBackend;
+import com.duy.pascal.backend.config.ProgramConfig;
+import com.duy.pascal.backend.declaration.program.PascalProgramDeclaration;
+import com.duy.pascal.interpreter.BaseTestCase;
+
+import java.io.File;
+
+import static com.duy.pascal.ProgramRunner.function;
+import static com.duy.pascal.ProgramRunner.load;
+
+/**
+ * Routines run by the register interpreter of {@link ExecutionBackend#LINEAR} against the
+ * tree, the compiler to bytecode is off for both
+ */
+public class LinearBackendTest extends BaseTestCase {
+    private static final ProgramRunner.Setup TREE = new ProgramRunner.Setup() {
+        @Override
+        public void configure(ProgramConfig config) {
+            config.setJit(false);
+            config.setBackend(ExecutionBackend.TREE);
+        }
+    };
+    private static final ProgramRunner.Setup LINEAR = new ProgramRunner.Setup() {
+        @Override
+        public void configure(ProgramConfig config) {
+            config.setJit(false);
+            config.setBackend(ExecutionBackend.LINEAR);
+        }
+    };
+
+    @Override
+    public String getDirTest() {
+        return "test_linear";
+    }
+
+    public void testLinear() {
+        run("test_linear.pas");
+    }
+
+    public void testRoutinesAreLowered() throws Exception {
+        PascalProgramDeclaration program = load(new File(dir + "test_linear.pas"),
+                new StringBuilder(), null, LINEAR);
+        program.generate().run();
+        for (String name : new String[]{"ackermann", "nextrandom", "fillvalues", "bubblesort",
+                "issorted", "bits", "mix", "signs", "markflags", "countflags", "distance",
+                "closest", "harmonic", "power", "countsteps", "triangle"}) {
+            assertTrue(name, function(program, name).isLinear());
+            assertFalse(name, function(program, name).isCompiled());
+        }
+    }
+
+    public void testTree() throws Exception {
+        PascalProgramDeclaration program = load(new File(dir + "test_linear.pas"),
+                new StringBuilder(), null, TREE);
+        program.generate().run();
+        assertFalse(function(program, "ackermann").isLinear());
+    }
+
+    public void testCorpus() throws Exception {
+        ProgramRunner.compare(new File(dir).getParentFile(), "tree", TREE, "linear", LINEAR);
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal;
+
+import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
+import com.duy.pascal.backend.config.BodyParseMode;
+import com.duy.pascal.backend.config.ExecutionMode;
+import com.duy.pascal.backend.config.Optimization;
+import com.duy.pascal.backend.core.PascalCompiler;
+import com.duy.pascal.backend.declaration.program.PascalProgramDeclaration;
+import com.duy.pascal.backend.optimizer.PassManager;
+import com.duy.pascal.backend.source_include.FileScriptSource;
+import com.duy.pascal.backend.source_include.ScriptSource;
+import com.duy.pascal.interpreter.BaseTestCase;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.EnumSet;
+
+/**
+ * Effect of the optimization passes on the programs of the benchmark corpus
+ */
+public class OptimizerTest extends BaseTestCase {
+
+    @Override
+    public String getDirTest() {
+        return "test_performance";
+    }
+
+    public void testOptimize() {
+        run("test_optimize.pas");
+    }
+
+    public void testEachPass() throws Exception {
+        for (Optimization optimization : Optimization.values()) {
+            PassManager passes = load("test_optimize.pas", new StringBuilder(),
+                    EnumSet.of(optimization)).getPasses();
+            System.out.println(optimization + ": " + passes.getChanges(optimization) + " changes");
+            assertTrue(optimization.toString(), passes.getChanges(optimization) > 0);
+        }
+    }
+
+    public void testInline() throws Exception {
+        run("test_inline.pas");
+        PassManager passes = load("test_inline.pas", new StringBuilder(),
+                EnumSet.of(Optimization.INLINING)).getPasses();
+        //every call except the ones of minOf, declared inside {$INLINE OFF}
+        assertEquals(10, passes.getChanges(Optimization.INLINING));
+    }
+
+    /**
+     * Inlining and loop invariant hoisting are not default passes, the directives of the
+     * program enable them
+     */
+    public void testDirectivesEnablePasses() throws Exception {
+        File file = new File(dir + "test_inline.pas");
+        PassManager passes = PascalCompiler.loadPascal(file.getName(), new FileReader(file),
+                new ArrayList<ScriptSource>(), Interperter.createHandler(file, new StringBuilder()))
+                .getPasses();
+        //test_inline.pas ends its {$INLINE OFF} block with {$INLINE ON}
+        assertEquals(10, passes.getChanges(Optimization.INLINING));
+
+        String source = IOUtils.streamToString(new FileInputStream(dir + "test_optimize.pas"))
+                .toString();
+        assertEquals(0, loadSource(source).getChanges(Optimization.LOOP_INVARIANT_HOISTING));
+        passes = loadSource("{$OPTIMIZATION HOIST}\n" + source);
+        assertTrue(passes.getChanges(Optimization.LOOP_INVARIANT_HOISTING) > 0);
+        passes = loadSource("{$OPTIMIZATION OFF}\n" + source);
+        for (Optimization optimization : Optimization.values()) {
+            assertEquals(optimization.toString(), 0, passes.getChanges(optimization));
+        }
+    }
+
+    public void testGenerateDoesNotChangeTree() throws Exception {
+        PascalProgramDeclaration program = load("test_optimize.pas", new StringBuilder(),
+                EnumSet.allOf(Optimization.class));
+        Object main = program.main;
+        int variables = program.getContext().getVariables().size();
+        program.generate(ExecutionMode.INSTRUMENTED);
+        program.generate(ExecutionMode.RELEASE);
+        assertSame(main, program.main);
+        assertEquals(variables, program.getContext().getVariables().size());
+    }
+
+    public void testNotOptimizedWithoutPasses() throws Exception {
+        PassManager passes = load("test_optimize.pas", new StringBuilder(),
+                EnumSet.noneOf(Optimization.class)).getPasses();
+        for (Optimization optimization : Optimization.values()) {
+            assertEquals(optimization.toString(), 0, passes.getChanges(optimization));
+        }
+    }
+
+    public void testCorpus() throws Exception {
+        for (File file : new File(dir).listFiles()) {
+            if (!file.getName().endsWith(".pas")) {
+                continue;
+            }
+            StringBuilder plain = new StringBuilder();
+            StringBuilder optimized = new StringBuilder();
+            long before = execute(file.getName(), plain, EnumSet.noneOf(Optimization.class));
+            long after = execute(file.getName(), optimized, EnumSet.allOf(Optimization.class));
+            assertEquals(file.getName(), plain.toString(), optimized.toString());
+            System.out.println(file.getName() + ": " + before / 1000000 + " ms without passes, "
+                    + after / 1000000 + " ms with passes");
+        }
+    }
+
+    /**
+     * @return time spent running the program, in nanoseconds
+     */
+    private long execute(String name, StringBuilder output, EnumSet<Optimization> optimizations)
+            throws Exception {
+        RuntimeExecutableCodeUnit<PascalProgramDeclaration> program
+                = load(name, output, optimizations).generate();
+        long start = System.nanoTime();
+        program.run();
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * @return passes run over the source parsed with the default optimizations
+     */
+    private PassManager loadSource(String source) throws Exception {
+        File file = new File(dir + "test_optimize.pas");
+        return PascalCompiler.loadPascal(file.getName(), new StringReader(source),
+                new ArrayList<ScriptSource>(), Interperter.createHandler(file, new StringBuilder()))
+                .getPasses();
+    }
+
+    private PascalProgramDeclaration load(String name, StringBuilder output,
+                                          EnumSet<Optimization> optimizations) throws Exception {
+        File file = new File(dir + name);
+        ArrayList<ScriptSource> searchPath = new ArrayList<>();
+        searchPath.add(new FileScriptSource(file.getParent()));
+        return PascalCompiler.loadPascal(name, new FileReader(file), searchPath,
+                Interperter.createHandler(file, output), BodyParseMode.EAGER, optimizations);
+    }
+}
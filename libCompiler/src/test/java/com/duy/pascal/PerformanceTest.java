@@ -58,4 +58,9 @@ public class PerformanceTest extends BaseTestCase {
         run("test_for6.pas");
 
     }
+
+    public void testArithmetic() {
+        run("test_arith.pas");
+
+    }
 }
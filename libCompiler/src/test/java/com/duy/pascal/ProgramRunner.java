@@ -0,0 +1,184 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal;
+
+import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
+import com.duy.pascal.backend.config.BodyParseMode;
+import com.duy.pascal.backend.config.ProgramConfig;
+import com.duy.pascal.backend.core.PascalCompiler;
+import com.duy.pascal.backend.declaration.lang.function.FunctionDeclaration;
+import com.duy.pascal.backend.declaration.program.PascalProgramDeclaration;
+import com.duy.pascal.backend.source_include.FileScriptSource;
+import com.duy.pascal.backend.source_include.ScriptSource;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.Scanner;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the programs of test_pascal with two configurations and compares their output
+ */
+class ProgramRunner {
+    /**
+     * directories of test_pascal whose programs are run by the comparisons
+     */
+    static final String[] CORPUS = {"test_jit", "test_linear", "data", "test_performance",
+            "test_loop", "test_function", "test_for_statement", "test_number", "test_statement"};
+    /**
+     * programs which write files or wait for the keyboard
+     */
+    private static final Pattern SKIPPED = Pattern.compile(
+            "\\b(rewrite|append|readkey|keypressed|delay|graph)\\b", Pattern.CASE_INSENSITIVE);
+    /**
+     * input of the programs without .in file, the same for both runs
+     */
+    private static final String INPUT = "5 4 3 2 1\n";
+    private static final int INPUT_LINES = 40;
+    private static final long TIMEOUT = 20000;
+
+    /**
+     * Changes the configuration of a program. The optimizations are read before the program
+     * is parsed, the rest is changed once it is parsed
+     */
+    interface Setup {
+        void configure(ProgramConfig config);
+    }
+
+    /**
+     * Output and time of one run of a program
+     */
+    static class Run {
+        final String output;
+        final long time;
+
+        Run(String output, long time) {
+            this.output = output;
+            this.time = time;
+        }
+    }
+
+    private ProgramRunner() {
+    }
+
+    /**
+     * @return the programs of the corpus, found from the directory of one test
+     */
+    static ArrayList<File> corpus(File root) throws Exception {
+        ArrayList<File> files = new ArrayList<>();
+        for (String name : CORPUS) {
+            File[] list = new File(root, name).listFiles();
+            if (list == null) {
+                continue;
+            }
+            for (File file : list) {
+                if (file.getName().endsWith(".pas")
+                        && !SKIPPED.matcher(IOUtils.streamToString(new FileInputStream(file))).find()) {
+                    files.add(file);
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Runs both configurations of each program of the corpus and checks that they write the
+     * same output
+     */
+    static void compare(File root, String first, Setup firstSetup, String second,
+                        Setup secondSetup) throws Exception {
+        for (File file : corpus(root)) {
+            String name = file.getParentFile().getName() + "/" + file.getName();
+            Run a = execute(file, firstSetup);
+            if (a == null) {
+                System.out.println(name + ": skipped, too long");
+                continue;
+            }
+            Run b = execute(file, secondSetup);
+            TestCase.assertNotNull(name + " did not stop, " + second, b);
+            TestCase.assertEquals(name, a.output, b.output);
+            System.out.println(name + ": " + a.time / 1000000 + " ms " + first + ", "
+                    + b.time / 1000000 + " ms " + second);
+        }
+    }
+
+    static FunctionDeclaration function(PascalProgramDeclaration program, String name) {
+        return (FunctionDeclaration) program.getContext().getCallableFunctionsLocal(name).get(0);
+    }
+
+    /**
+     * @return the output of the program followed by the error which stopped it, null if the
+     * program did not stop in time
+     */
+    static Run execute(File file, Setup setup) throws Exception {
+        final StringBuilder output = new StringBuilder();
+        String name = file.getName();
+        File in = new File(file.getParent(), name.substring(0, name.lastIndexOf('.')) + ".in");
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < INPUT_LINES; i++) {
+            input.append(INPUT);
+        }
+        final RuntimeExecutableCodeUnit<PascalProgramDeclaration> program;
+        try {
+            program = load(file, output, in.exists() ? new Scanner(in)
+                    : new Scanner(input.toString()), setup).generate();
+        } catch (Exception e) {
+            return new Run(e.getClass().getName(), 0);
+        }
+        final Throwable[] error = new Throwable[1];
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    program.run();
+                } catch (Throwable e) {
+                    error[0] = e;
+                }
+            }
+        });
+        long start = System.nanoTime();
+        thread.start();
+        thread.join(TIMEOUT);
+        long time = System.nanoTime() - start;
+        if (thread.isAlive()) {
+            program.terminate();
+            thread.join(TIMEOUT);
+            return null;
+        }
+        if (error[0] != null) {
+            output.append('\n').append(error[0].getClass().getName());
+        }
+        return new Run(output.toString(), time);
+    }
+
+    static PascalProgramDeclaration load(File file, StringBuilder output, Scanner input,
+                                         Setup setup) throws Exception {
+        ArrayList<ScriptSource> searchPath = new ArrayList<>();
+        searchPath.add(new FileScriptSource(file.getParent()));
+        ProgramConfig config = new ProgramConfig();
+        setup.configure(config);
+        PascalProgramDeclaration program = PascalCompiler.loadPascal(file.getName(),
+                new FileReader(file), searchPath, Interperter.createHandler(file, output, input),
+                BodyParseMode.EAGER, config.getOptimizations());
+        setup.configure(program.getConfig());
+        return program;
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal;
+
+import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
+import com.duy.pascal.backend.config.ExecutionBackend;
+import com.duy.pascal.backend.config.ProgramConfig;
+import com.duy.pascal.backend.declaration.program.PascalProgramDeclaration;
+import com.duy.pascal.backend.runtime_exception.ScriptTerminatedException;
+import com.duy.pascal.interpreter.BaseTestCase;
+
+import java.io.File;
+
+import static com.duy.pascal.ProgramRunner.load;
+
+/**
+ * Programs which never end, a tight loop and a routine calling itself, are paused and
+ * terminated while running. Both must stop at the next safepoint, with every backend
+ */
+public class SafepointTest extends BaseTestCase {
+    /**
+     * time given to the program to stop, far longer than one loop iteration or call
+     */
+    private static final long PROMPT = 2000;
+    /**
+     * time the program runs before it is stopped, long enough for routines to get compiled
+     */
+    private static final long RUNNING = 300;
+    private static final ProgramRunner.Setup TREE = new ProgramRunner.Setup() {
+        @Override
+        public void configure(ProgramConfig config) {
+            config.setJit(false);
+            config.setBackend(ExecutionBackend.TREE);
+        }
+    };
+    private static final ProgramRunner.Setup LINEAR = new ProgramRunner.Setup() {
+        @Override
+        public void configure(ProgramConfig config) {
+            config.setJit(false);
+            config.setBackend(ExecutionBackend.LINEAR);
+        }
+    };
+    private static final ProgramRunner.Setup COMPILED = new ProgramRunner.Setup() {
+        @Override
+        public void configure(ProgramConfig config) {
+            config.setJit(true);
+            config.setBackend(ExecutionBackend.TREE);
+        }
+    };
+
+    @Override
+    public String getDirTest() {
+        return "test_safepoint";
+    }
+
+    public void testTerminateLoop() throws Exception {
+        checkTerminate("test_loop.pas", TREE);
+        checkTerminate("test_loop.pas", LINEAR);
+        checkTerminate("test_loop.pas", COMPILED);
+    }
+
+    public void testTerminateRoutine() throws Exception {
+        checkTerminate("test_routine.pas", TREE);
+        checkTerminate("test_routine.pas", LINEAR);
+        checkTerminate("test_routine.pas", COMPILED);
+    }
+
+    public void testPauseLoop() throws Exception {
+        checkPause("test_loop.pas", TREE);
+        checkPause("test_loop.pas", LINEAR);
+        checkPause("test_loop.pas", COMPILED);
+    }
+
+    public void testPauseRoutine() throws Exception {
+        checkPause("test_routine.pas", TREE);
+        checkPause("test_routine.pas", LINEAR);
+        checkPause("test_routine.pas", COMPILED);
+    }
+
+    private void checkTerminate(String name, ProgramRunner.Setup setup) throws Exception {
+        Execution execution = start(name, setup);
+        long start = System.currentTimeMillis();
+        execution.program.terminate();
+        execution.thread.join(PROMPT);
+        assertFalse(name + " did not stop", execution.thread.isAlive());
+        System.out.println(name + ": stopped in " + (System.currentTimeMillis() - start) + " ms");
+        assertTrue(name + " " + execution.error,
+                execution.error instanceof ScriptTerminatedException);
+    }
+
+    /**
+     * The paused program must wait, then end once it is terminated
+     */
+    private void checkPause(String name, ProgramRunner.Setup setup) throws Exception {
+        Execution execution = start(name, setup);
+        execution.program.pause();
+        long deadline = System.currentTimeMillis() + PROMPT;
+        while (execution.thread.getState() != Thread.State.WAITING
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(name + " did not pause", Thread.State.WAITING, execution.thread.getState());
+        execution.program.terminate();
+        execution.thread.join(PROMPT);
+        assertFalse(name + " did not stop", execution.thread.isAlive());
+        assertTrue(name + " " + execution.error,
+                execution.error instanceof ScriptTerminatedException);
+    }
+
+    /**
+     * @return the program running on its own thread for {@link #RUNNING} ms
+     */
+    private Execution start(String name, ProgramRunner.Setup setup) throws Exception {
+        File file = new File(dir + name);
+        final Execution execution = new Execution(
+                load(file, new StringBuilder(), null, setup).generate());
+        execution.thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    execution.program.run();
+                } catch (Throwable e) {
+                    execution.error = e;
+                }
+            }
+        });
+        execution.thread.start();
+        Thread.sleep(RUNNING);
+        assertTrue(name + " ended by itself " + execution.error, execution.thread.isAlive());
+        return execution;
+    }
+
+    private static class Execution {
+        final RuntimeExecutableCodeUnit<PascalProgramDeclaration> program;
+        Thread thread;
+        volatile Throwable error;
+
+        Execution(RuntimeExecutableCodeUnit<PascalProgramDeclaration> program) {
+            this.program = program;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal;
+
+import com.duy.pascal.backend.config.ExecutionBackend;
+import com.duy.pascal.backend.config.ProgramConfig;
+import com.duy.pascal.backend.runtime_exception.StackOverflowException;
+import com.duy.pascal.interpreter.BaseTestCase;
+
+import java.io.File;
+import java.io.FileInputStream;
+
+import static com.duy.pascal.ProgramRunner.execute;
+import static com.duy.pascal.ProgramRunner.load;
+
+/**
+ * Recursion of {@link ExecutionBackend#STACKLESS}, whose depth is bounded by the heap budget
+ * and not by the stack of the thread
+ */
+public class StacklessBackendTest extends BaseTestCase {
+    private static final ProgramRunner.Setup STACKLESS = new ProgramRunner.Setup() {
+        @Override
+        public void configure(ProgramConfig config) {
+            config.setBackend(ExecutionBackend.STACKLESS);
+        }
+    };
+    private static final ProgramRunner.Setup TREE = new ProgramRunner.Setup() {
+        @Override
+        public void configure(ProgramConfig config) {
+            config.setBackend(ExecutionBackend.TREE);
+        }
+    };
+    private static final ProgramRunner.Setup SMALL_BUDGET = new ProgramRunner.Setup() {
+        @Override
+        public void configure(ProgramConfig config) {
+            config.setBackend(ExecutionBackend.STACKLESS);
+            config.setStackBudget(1 << 20);
+        }
+    };
+    /**
+     * line of the recursive call of dfs, counted from 0
+     */
+    private static final int DFS_CALL_LINE = 37;
+
+    @Override
+    public String getDirTest() {
+        return "test_stackless";
+    }
+
+    /**
+     * The program runs on a thread with the default stack, a million nested calls fit
+     */
+    public void testDeepRecursion() throws Exception {
+        ProgramRunner.Run run = execute(new File(dir + "test_stackless.pas"), STACKLESS);
+        assertNotNull(run);
+        String expected = IOUtils.streamToString(new FileInputStream(dir + "test_stackless.out"))
+                .toString();
+        assertEquals(expected.replaceAll("\\s", ""), run.output.replaceAll("\\s", ""));
+    }
+
+    public void testTreeOverflows() throws Exception {
+        ProgramRunner.Run run = execute(new File(dir + "test_stackless.pas"), TREE);
+        assertNotNull(run);
+        assertTrue(run.output, run.output.endsWith(StackOverflowException.class.getName()));
+    }
+
+    public void testBudget() throws Exception {
+        try {
+            load(new File(dir + "test_stackless.pas"), new StringBuilder(), null, SMALL_BUDGET)
+                    .generate().run();
+            fail();
+        } catch (StackOverflowException e) {
+            assertEquals(DFS_CALL_LINE, e.line.getLine());
+        }
+    }
+
+    public void testCorpus() throws Exception {
+        ProgramRunner.compare(new File(dir).getParentFile(), "tree", TREE, "stackless",
+                STACKLESS);
+    }
+}
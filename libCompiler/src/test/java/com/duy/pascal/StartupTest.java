@@ -0,0 +1,80 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal;
+
+import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
+import com.duy.pascal.backend.builtin_libraries.SystemSymbolTable;
+import com.duy.pascal.backend.core.PascalCompiler;
+import com.duy.pascal.backend.declaration.program.PascalProgramDeclaration;
+import com.duy.pascal.backend.source_include.ScriptSource;
+import com.duy.pascal.interpreter.BaseTestCase;
+
+import java.io.File;
+import java.io.FileReader;
+import java.util.ArrayList;
+
+/**
+ * Compiles and runs a small program several times, the first compile builds the system
+ * symbol table and the next ones share it. The times are printed
+ */
+public class StartupTest extends BaseTestCase {
+
+    @Override
+    public String getDirTest() {
+        return "test_performance";
+    }
+
+    public void testStartup() {
+        long start = System.nanoTime();
+        run("test_startup.pas");
+        long first = System.nanoTime() - start;
+
+        int runs = 20;
+        start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            run("test_startup.pas");
+        }
+        long average = (System.nanoTime() - start) / runs;
+        //run checks the output against test_startup.out
+        System.out.println("test_startup.pas: first run " + first / 1000 + " us, then "
+                + average / 1000 + " us/run");
+    }
+
+    public void testSymbolTableIsShared() throws Exception {
+        assertSame(SystemSymbolTable.getInstance(), SystemSymbolTable.getInstance());
+        assertFalse(SystemSymbolTable.getInstance().getFunctions().isEmpty());
+
+        PascalProgramDeclaration first = load();
+        PascalProgramDeclaration second = load();
+        assertSame(first.getContext().getCallableFunctionsLocal("random").get(0),
+                second.getContext().getCallableFunctionsLocal("random").get(0));
+    }
+
+    public void testEveryRunHasItsOwnRandom() throws Exception {
+        PascalProgramDeclaration program = load();
+        RuntimeExecutableCodeUnit<PascalProgramDeclaration> first = program.generate();
+        RuntimeExecutableCodeUnit<PascalProgramDeclaration> second = program.generate();
+        assertSame(first.getSystemLibrary(), first.getSystemLibrary());
+        assertNotSame(first.getSystemLibrary(), second.getSystemLibrary());
+    }
+
+    private PascalProgramDeclaration load() throws Exception {
+        File file = new File(dir + "test_startup.pas");
+        return PascalCompiler.loadPascal(file.getName(), new FileReader(file),
+                new ArrayList<ScriptSource>(), Interperter.createHandler(file, new StringBuilder()));
+    }
+}
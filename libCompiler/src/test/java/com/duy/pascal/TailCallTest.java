@@ -0,0 +1,117 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal;
+
+import com.duy.pascal.backend.config.ExecutionBackend;
+import com.duy.pascal.backend.config.Optimization;
+import com.duy.pascal.backend.config.ProgramConfig;
+import com.duy.pascal.backend.optimizer.PassManager;
+import com.duy.pascal.backend.runtime_exception.StackOverflowException;
+import com.duy.pascal.interpreter.BaseTestCase;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.EnumSet;
+
+import static com.duy.pascal.ProgramRunner.execute;
+import static com.duy.pascal.ProgramRunner.load;
+
+/**
+ * Recursive calls in tail position, which restart the routine instead of pushing a frame.
+ * The program recurses 10^7 times on the thread of the test
+ */
+public class TailCallTest extends BaseTestCase {
+    private static final ProgramRunner.Setup TREE = new ProgramRunner.Setup() {
+        @Override
+        public void configure(ProgramConfig config) {
+            config.setJit(false);
+            config.setBackend(ExecutionBackend.TREE);
+        }
+    };
+    private static final ProgramRunner.Setup LINEAR = new ProgramRunner.Setup() {
+        @Override
+        public void configure(ProgramConfig config) {
+            config.setJit(false);
+            config.setBackend(ExecutionBackend.LINEAR);
+        }
+    };
+    private static final ProgramRunner.Setup COMPILED = new ProgramRunner.Setup() {
+        @Override
+        public void configure(ProgramConfig config) {
+            config.setJit(true);
+            config.setBackend(ExecutionBackend.TREE);
+        }
+    };
+    private static final ProgramRunner.Setup NOT_ELIMINATED = new ProgramRunner.Setup() {
+        @Override
+        public void configure(ProgramConfig config) {
+            config.setJit(false);
+            config.setBackend(ExecutionBackend.TREE);
+            EnumSet<Optimization> optimizations = EnumSet.allOf(Optimization.class);
+            optimizations.remove(Optimization.TAIL_CALL_ELIMINATION);
+            config.setOptimizations(optimizations);
+        }
+    };
+    private static final ProgramRunner.Setup ONLY_ELIMINATION = new ProgramRunner.Setup() {
+        @Override
+        public void configure(ProgramConfig config) {
+            config.setOptimizations(EnumSet.of(Optimization.TAIL_CALL_ELIMINATION));
+        }
+    };
+
+    @Override
+    public String getDirTest() {
+        return "test_tailcall";
+    }
+
+    public void testTree() throws Exception {
+        check(TREE);
+    }
+
+    public void testLinear() throws Exception {
+        check(LINEAR);
+    }
+
+    public void testCompiled() throws Exception {
+        check(COMPILED);
+    }
+
+    public void testNotEliminatedOverflows() throws Exception {
+        ProgramRunner.Run run = execute(new File(dir + "test_tailcall.pas"), NOT_ELIMINATED);
+        assertNotNull(run);
+        assertTrue(run.output, run.output.endsWith(StackOverflowException.class.getName()));
+    }
+
+    public void testCallsAreReplaced() throws Exception {
+        PassManager passes = load(new File(dir + "test_tailcall.pas"), new StringBuilder(), null,
+                ONLY_ELIMINATION).getPasses();
+        //gcd, sumTo, both calls of search, walk and countDown
+        assertEquals(6, passes.getChanges(Optimization.TAIL_CALL_ELIMINATION));
+    }
+
+    /**
+     * Runs the program on the thread of the test, without the time limit of
+     * {@link ProgramRunner#execute}
+     */
+    private void check(ProgramRunner.Setup setup) throws Exception {
+        StringBuilder output = new StringBuilder();
+        load(new File(dir + "test_tailcall.pas"), output, null, setup).generate().run();
+        String expected = IOUtils.streamToString(new FileInputStream(dir + "test_tailcall.out"))
+                .toString();
+        assertEquals(expected.replaceAll("\\s", ""), output.toString().replaceAll("\\s", ""));
+    }
+}
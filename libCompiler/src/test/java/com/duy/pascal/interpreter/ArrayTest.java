@@ -48,4 +48,8 @@ public class ArrayTest extends BaseTestCase {
     public void testParseArrayInFun() {
         run("test_parse_array_in_function.pas");
     }
+
+    public void testPrimitiveArray() {
+        run("test_primitive_array.pas");
+    }
 }
@@ -68,6 +68,10 @@ public class ForStatementTest extends BaseTestCase {
         run("test_for_char.pas");
     }
 
+    public void testForCounter() {
+        run("test_for_counter.pas");
+    }
+
     public void testForRange() {
         run("test_for_in_range.pas");
     }
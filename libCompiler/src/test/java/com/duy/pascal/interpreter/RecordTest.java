@@ -58,4 +58,8 @@ public class RecordTest extends BaseTestCase {
         run("test_const.pas");
     }
 
+    public void testRecordArray() {
+        run("test_record_array.pas");
+    }
+
 }
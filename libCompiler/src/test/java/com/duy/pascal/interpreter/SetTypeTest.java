@@ -35,5 +35,9 @@ public class SetTypeTest extends BaseTestCase {
         run("test_set_operate.pas");
     }
 
+    public void testBitSet() {
+        run("test_bitset.pas");
+    }
+
 
 }
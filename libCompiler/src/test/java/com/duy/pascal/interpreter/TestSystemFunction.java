@@ -34,5 +34,9 @@ public class TestSystemFunction extends BaseTestCase {
     public void testAssigned() {
         run("assigned.pas");
     }
+
+    public void testDirectCall() {
+        run("direct_call.pas");
+    }
 }
 
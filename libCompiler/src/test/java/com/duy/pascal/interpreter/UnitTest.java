@@ -16,6 +16,19 @@
 
 package com.duy.pascal.interpreter;
 
+import com.duy.pascal.IOUtils;
+import com.duy.pascal.backend.declaration.library.PascalUnitCache;
+import com.duy.pascal.backend.declaration.library.PascalUnitDeclaration;
+import com.duy.pascal.backend.source_include.FileScriptSource;
+import com.duy.pascal.backend.source_include.ScriptSource;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+
 /**
  * Created by Duy on 29-May-17.
  */
@@ -29,4 +42,81 @@ public class UnitTest extends BaseTestCase {
     public void testCustomUnit() {
         run("test_create_unit.pas");
     }
+
+    public void testUnitCache() throws Exception {
+        PascalUnitCache cache = PascalUnitCache.getInstance();
+        cache.clear();
+        cache.resetStatistics();
+        ArrayList<ScriptSource> searchPath = new ArrayList<>();
+        searchPath.add(new FileScriptSource(dir));
+
+        PascalUnitDeclaration first = cache.load(searchPath, "calculatearea", null);
+        PascalUnitDeclaration second = cache.load(searchPath, "calculatearea", null);
+        assertNotNull(first);
+        assertSame(first, second);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertNull(cache.load(searchPath, "no_such_unit", null));
+    }
+
+    public void testUnitCacheDropsLeastRecentlyUsed() throws Exception {
+        PascalUnitCache cache = PascalUnitCache.getInstance();
+        cache.clear();
+        cache.resetStatistics();
+        String source = IOUtils.streamToString(new FileInputStream(dir + "calculatearea.pas"))
+                .toString();
+        File temp = File.createTempFile("units", "");
+        assertTrue(temp.delete() && temp.mkdir());
+        try {
+            for (int i = 0; i <= PascalUnitCache.MAX_ENTRIES; i++) {
+                FileWriter writer = new FileWriter(new File(temp, "area" + i + ".pas"));
+                writer.write(source.replace("CalculateArea", "area" + i));
+                writer.close();
+            }
+            ArrayList<ScriptSource> searchPath = new ArrayList<>();
+            searchPath.add(new FileScriptSource(temp));
+            for (int i = 0; i <= PascalUnitCache.MAX_ENTRIES; i++) {
+                assertNotNull(cache.load(searchPath, "area" + i, null));
+            }
+            assertEquals(PascalUnitCache.MAX_ENTRIES, cache.size());
+
+            cache.load(searchPath, "area" + PascalUnitCache.MAX_ENTRIES, null);
+            assertEquals(1, cache.getHitCount());
+            cache.load(searchPath, "area0", null);
+            assertEquals(1, cache.getHitCount());
+            assertEquals(PascalUnitCache.MAX_ENTRIES + 2, cache.getMissCount());
+        } finally {
+            for (File file : temp.listFiles()) {
+                file.delete();
+            }
+            temp.delete();
+        }
+    }
+
+    public void testUnitCacheSkipsSourcesWithoutFile() throws Exception {
+        PascalUnitCache cache = PascalUnitCache.getInstance();
+        cache.clear();
+        cache.resetStatistics();
+        final String source = IOUtils.streamToString(
+                new FileInputStream(dir + "calculatearea.pas")).toString();
+        ArrayList<ScriptSource> searchPath = new ArrayList<>();
+        searchPath.add(new ScriptSource() {
+            @Override
+            public String[] list() {
+                return new String[]{"calculatearea.pas"};
+            }
+
+            @Override
+            public Reader read(String scriptname) {
+                return new StringReader(source);
+            }
+        });
+
+        PascalUnitDeclaration first = cache.load(searchPath, "calculatearea", null);
+        PascalUnitDeclaration second = cache.load(searchPath, "calculatearea", null);
+        assertNotNull(first);
+        assertNotSame(first, second);
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.getMissCount());
+    }
 }
@@ -0,0 +1,59 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.lib;
+
+import com.duy.pascal.backend.builtin_libraries.LibraryRegistry;
+import com.duy.pascal.backend.builtin_libraries.SystemLibrary;
+import com.duy.pascal.backend.builtin_libraries.math.MathLib;
+import com.duy.pascal.backend.declaration.lang.function.MethodDeclaration;
+import com.duy.pascal.frontend.editor.view.adapters.InfoItem;
+
+import junit.framework.TestCase;
+
+import java.util.List;
+
+public class LibraryRegistryTest extends TestCase {
+
+    public void testEntryIsShared() {
+        assertSame(LibraryRegistry.get(MathLib.class), LibraryRegistry.get(MathLib.class));
+    }
+
+    public void testNewInstance() {
+        LibraryRegistry.Entry entry = LibraryRegistry.get(MathLib.class);
+        assertTrue(entry.newInstance(null, null) instanceof MathLib);
+        assertFalse(entry.newDeclarations(entry.newInstance(null, null)).isEmpty());
+    }
+
+    public void testSuggestions() {
+        assertFalse(LibraryRegistry.get(SystemLibrary.class).getInfoItems().isEmpty());
+    }
+
+    /**
+     * The suggestions are read from the table generated at build time, they list the same
+     * methods as the declarations of an import
+     */
+    public void testSuggestionsMatchDeclarations() {
+        LibraryRegistry.Entry entry = LibraryRegistry.get(MathLib.class);
+        List<InfoItem> items = entry.getInfoItems();
+        List<MethodDeclaration> declarations = entry.newDeclarations(entry.newInstance(null, null));
+        assertEquals(items.size(), declarations.size());
+        for (int i = 0; i < items.size(); i++) {
+            assertEquals(items.get(i).getName(), declarations.get(i).getName());
+            assertNotNull(items.get(i).getDescription());
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.parse;
+
+import com.duy.pascal.backend.config.BodyParseMode;
+import com.duy.pascal.backend.core.PascalCompiler;
+import com.duy.pascal.backend.declaration.lang.function.FunctionDeclaration;
+import com.duy.pascal.backend.declaration.program.PascalProgramDeclaration;
+import com.duy.pascal.backend.parse_exception.ParsingException;
+import com.duy.pascal.backend.source_include.ScriptSource;
+import com.duy.pascal.interpreter.BaseTestCase;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+
+/**
+ * Deferred parse of the bodies of procedures and functions
+ */
+public class BodyParseModeTest extends BaseTestCase {
+    private static final String BROKEN = "program broken;\n"
+            + "var x: integer;\n"
+            + "procedure used;\n"
+            + "begin\n"
+            + "  x := 1;\n"
+            + "end;\n"
+            + "procedure unused;\n"
+            + "begin\n"
+            + "  x := y;\n"
+            + "end;\n"
+            + "procedure unused2;\n"
+            + "begin\n"
+            + "  x := z;\n"
+            + "end;\n"
+            + "begin\n"
+            + "  used;\n"
+            + "end.\n";
+
+    @Override
+    public String getDirTest() {
+        return "test_parsing";
+    }
+
+    public void testLazy() throws Exception {
+        PascalProgramDeclaration program = load(BROKEN, BodyParseMode.LAZY);
+        FunctionDeclaration unused = (FunctionDeclaration)
+                program.getContext().getCallableFunctionsLocal("unused").get(0);
+        assertTrue(unused.hasBody());
+        try {
+            unused.compileBody();
+            fail();
+        } catch (ParsingException e) {
+            assertEquals(8, e.getLineInfo().getLine());
+        }
+        FunctionDeclaration used = (FunctionDeclaration)
+                program.getContext().getCallableFunctionsLocal("used").get(0);
+        used.compileBody();
+        assertNotNull(used.instructions);
+    }
+
+    public void testParallelReportsFirstError() throws Exception {
+        ParsingException eager = error(BROKEN, BodyParseMode.EAGER);
+        ParsingException parallel = error(BROKEN, BodyParseMode.PARALLEL);
+        assertNotNull(eager);
+        assertNotNull(parallel);
+        assertEquals(eager.getLineInfo().getLine(), parallel.getLineInfo().getLine());
+        assertEquals(eager.getClass(), parallel.getClass());
+    }
+
+    public void testErrorAfterBodies() throws Exception {
+        String source = BROKEN.replace("end;\nbegin\n  used;", "end;\nvar x: integer;\nbegin\n  used;");
+        assertEquals(error(source, BodyParseMode.EAGER).getLineInfo().getLine(),
+                error(source, BodyParseMode.PARALLEL).getLineInfo().getLine());
+    }
+
+    public void testLaterDeclarationIsNotVisible() throws Exception {
+        String source = "program later;\n"
+                + "var x: integer;\n"
+                + "procedure first;\n"
+                + "begin\n"
+                + "  x := y;\n"
+                + "end;\n"
+                + "var y: integer;\n"
+                + "procedure second;\n"
+                + "begin\n"
+                + "  x := y;\n"
+                + "end;\n"
+                + "begin\n"
+                + "  first;\n"
+                + "end.\n";
+        ParsingException eager = error(source, BodyParseMode.EAGER);
+        ParsingException parallel = error(source, BodyParseMode.PARALLEL);
+        assertNotNull(eager);
+        assertNotNull(parallel);
+        assertEquals(4, eager.getLineInfo().getLine());
+        assertEquals(eager.getLineInfo().getLine(), parallel.getLineInfo().getLine());
+        assertEquals(eager.getClass(), parallel.getClass());
+    }
+
+    public void testLaterRoutineIsNotVisible() throws Exception {
+        String source = "program later;\n"
+                + "procedure first;\n"
+                + "begin\n"
+                + "  second;\n"
+                + "end;\n"
+                + "procedure second;\n"
+                + "begin\n"
+                + "end;\n"
+                + "begin\n"
+                + "  first;\n"
+                + "end.\n";
+        ParsingException eager = error(source, BodyParseMode.EAGER);
+        ParsingException parallel = error(source, BodyParseMode.PARALLEL);
+        assertNotNull(eager);
+        assertNotNull(parallel);
+        assertEquals(eager.getLineInfo().getLine(), parallel.getLineInfo().getLine());
+    }
+
+    public void testManyRoutines() throws Exception {
+        StringBuilder source = new StringBuilder("program many;\nvar x: integer;\n");
+        int count = 2000;
+        for (int i = 0; i < count; i++) {
+            source.append("procedure p").append(i).append(";\nbegin\n");
+            for (int j = 0; j < 10; j++) {
+                source.append("  x := x * ").append(j + 1).append(" + ").append(i).append(" div 3;\n");
+            }
+            source.append("end;\n");
+        }
+        source.append("begin\n  p0;\nend.\n");
+        String program = source.toString();
+
+        for (BodyParseMode mode : BodyParseMode.values()) {
+            load(program, mode); //warm up
+            long start = System.nanoTime();
+            load(program, mode);
+            System.out.println(mode + ": " + count + " routines in "
+                    + (System.nanoTime() - start) / 1000000 + " ms");
+        }
+    }
+
+    private static ParsingException error(String source, BodyParseMode mode) {
+        try {
+            load(source, mode);
+            return null;
+        } catch (ParsingException e) {
+            return e;
+        }
+    }
+
+    private static PascalProgramDeclaration load(String source, BodyParseMode mode)
+            throws ParsingException {
+        return PascalCompiler.loadPascal("test", new StringReader(source),
+                new ArrayList<ScriptSource>(), null, mode);
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.parse;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.Interperter;
+import com.duy.pascal.backend.ast.codeunit.RuntimeExecutableCodeUnit;
+import com.duy.pascal.backend.ast.expressioncontext.CompileTimeContext;
+import com.duy.pascal.backend.ast.expressioncontext.ExpressionContext;
+import com.duy.pascal.backend.ast.instructions.CompoundStatement;
+import com.duy.pascal.backend.ast.instructions.assign_statement.AssignStatement;
+import com.duy.pascal.backend.ast.runtime_value.value.AssignableValue;
+import com.duy.pascal.backend.ast.runtime_value.value.RuntimeValue;
+import com.duy.pascal.backend.ast.runtime_value.value.access.ArrayIndexAccess;
+import com.duy.pascal.backend.ast.runtime_value.value.access.ConstantAccess;
+import com.duy.pascal.backend.ast.runtime_value.value.access.FieldAccess;
+import com.duy.pascal.backend.ast.variablecontext.VariableContext;
+import com.duy.pascal.backend.config.BodyParseMode;
+import com.duy.pascal.backend.config.Optimization;
+import com.duy.pascal.backend.core.PascalCompiler;
+import com.duy.pascal.backend.declaration.lang.types.RuntimeType;
+import com.duy.pascal.backend.declaration.program.PascalProgramDeclaration;
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.backend.source_include.ScriptSource;
+import com.duy.pascal.interpreter.BaseTestCase;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.EnumSet;
+
+/**
+ * The type of an access node is worked out from its children once, then kept. Long chains of
+ * accesses are typed in time proportional to their length
+ */
+public class ExpressionTypingTest extends BaseTestCase {
+    private static final int TERMS = 10000;
+
+    @Override
+    public String getDirTest() {
+        return "test_parsing";
+    }
+
+    public void testLongExpression() throws Exception {
+        final File program = generate(TERMS);
+        final boolean[] parsed = new boolean[1];
+        //deep left nested trees, give the parser enough stack
+        Thread thread = new Thread(null, new Runnable() {
+            @Override
+            public void run() {
+                parsed[0] = parse(program.getPath());
+            }
+        }, "parse", 256 * 1024 * 1024);
+        thread.start();
+        thread.join();
+        program.delete();
+        assertTrue(parsed[0]);
+    }
+
+    public void testTypeIsComputedOnce() throws Exception {
+        PascalProgramDeclaration program = loadAccess();
+        AssignStatement assign = (AssignStatement)
+                ((CompoundStatement) program.main).getInstructions().getFirst();
+        AssignableValue access = assign.getLeft();
+        assertSame(access.getRuntimeType(program.getContext()),
+                access.getRuntimeType(program.getContext()));
+    }
+
+    /**
+     * The parser asks for the type of a node several times, and every access asks its
+     * container. The variable at the bottom of r[1].f must be typed once
+     */
+    public void testChildTypeIsComputedOnce() throws Exception {
+        PascalProgramDeclaration program = loadAccess();
+        ExpressionContext context = program.getContext();
+        LineInfo line = new LineInfo(0, "access.pas");
+        CountingValue variable = new CountingValue(
+                new RuntimeType(context.getVariableDefinition("r").getType(), true), line);
+        ArrayIndexAccess element = new ArrayIndexAccess(variable,
+                new ConstantAccess<>(1, line), 1);
+        FieldAccess field = new FieldAccess(element, "f", line);
+        for (int i = 0; i < 3; i++) {
+            assertNotNull(field.getRuntimeType(context));
+            assertNotNull(element.getRuntimeType(context));
+        }
+        assertEquals(1, variable.count);
+    }
+
+    private PascalProgramDeclaration loadAccess() throws Exception {
+        String source = "program access;\n"
+                + "type rec = record f: integer; end;\n"
+                + "var r: array[1..10] of rec; x: integer;\n"
+                + "begin\n"
+                + "  r[1].f := x;\n"
+                + "end.\n";
+        return PascalCompiler.loadPascal("access.pas",
+                new StringReader(source), new ArrayList<ScriptSource>(),
+                Interperter.createHandler(new File(dir, "access.pas"), new StringBuilder()),
+                BodyParseMode.EAGER, EnumSet.noneOf(Optimization.class));
+    }
+
+    private static File generate(int terms) throws IOException {
+        File file = File.createTempFile("expression" + terms, ".pas");
+        FileWriter writer = new FileWriter(file);
+        try {
+            writer.write("program expression;\n");
+            writer.write("type rec = record f: integer; end;\n");
+            writer.write("var r: array[1..10] of rec; x: integer;\n");
+            writer.write("begin\n");
+            writer.write("  x := r[1].f");
+            for (int i = 1; i < terms; i++) {
+                writer.write(i % 2 == 0 ? " + " : " - ");
+                writer.write("r[" + (i % 10 + 1) + "].f");
+                if (i % 8 == 0) {
+                    writer.write("\n");
+                }
+            }
+            writer.write(";\nend.\n");
+        } finally {
+            writer.close();
+        }
+        return file;
+    }
+
+    /**
+     * A variable which counts how often its type is asked for
+     */
+    private static class CountingValue implements RuntimeValue {
+        private final RuntimeType type;
+        private final LineInfo line;
+        int count;
+
+        CountingValue(RuntimeType type, LineInfo line) {
+            this.type = type;
+            this.line = line;
+        }
+
+        @NonNull
+        @Override
+        public Object getValue(VariableContext f, RuntimeExecutableCodeUnit<?> main) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public RuntimeType getRuntimeType(ExpressionContext f) {
+            count++;
+            return type;
+        }
+
+        @NonNull
+        @Override
+        public LineInfo getLineNumber() {
+            return line;
+        }
+
+        @Override
+        public void setLineNumber(LineInfo lineNumber) {
+        }
+
+        @Nullable
+        @Override
+        public Object compileTimeValue(CompileTimeContext context) {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public RuntimeValue compileTimeExpressionFold(CompileTimeContext context) {
+            return this;
+        }
+
+        @Nullable
+        @Override
+        public AssignableValue asAssignableValue(ExpressionContext f) {
+            return null;
+        }
+    }
+}
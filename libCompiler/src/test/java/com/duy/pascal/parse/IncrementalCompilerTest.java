@@ -0,0 +1,138 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.parse;
+
+import com.duy.pascal.backend.core.IncrementalCompiler;
+import com.duy.pascal.backend.parse_exception.ParsingException;
+import com.duy.pascal.backend.source_include.ScriptSource;
+import com.duy.pascal.interpreter.BaseTestCase;
+
+import java.util.ArrayList;
+
+/**
+ * Edits inside one body are checked without lexing the other lines and parsing the other bodies
+ * again, and give the same error as a full compile
+ */
+public class IncrementalCompilerTest extends BaseTestCase {
+    private static final String HEADER = "program edit;\n"
+            + "var x: integer;\n";
+    private static final String FIRST = "procedure first;\n"
+            + "begin\n"
+            + "  x := x + 1;\n"
+            + "end;\n";
+    private static final String SECOND = "procedure second;\n"
+            + "begin\n"
+            + "  x := x * 2;\n"
+            + "end;\n";
+    private static final String MAIN = "begin\n"
+            + "  first;\n"
+            + "  second;\n"
+            + "  writeln(x);\n"
+            + "end.\n";
+
+    @Override
+    public String getDirTest() {
+        return "test_parsing";
+    }
+
+    public void testEditInsideBody() throws Exception {
+        IncrementalCompiler compiler = newCompiler();
+        assertNull(compiler.check(HEADER + FIRST + SECOND + MAIN));
+        assertEquals(1, compiler.getFullCompileCount());
+
+        String broken = HEADER + FIRST + SECOND.replace("x * 2;", "x * 2;\n  y := 1;") + MAIN;
+        ParsingException error = compiler.check(broken);
+        assertNotNull(error);
+        assertEquals(1, compiler.getIncrementalCompileCount());
+        ParsingException full = newCompiler().check(broken);
+        assertNotNull(full);
+        assertEquals(full.getLineInfo().getLine(), error.getLineInfo().getLine());
+        assertEquals(full.getClass(), error.getClass());
+
+        assertNull(compiler.check(HEADER + FIRST + SECOND + MAIN));
+        assertEquals(2, compiler.getIncrementalCompileCount());
+        assertEquals(1, compiler.getFullCompileCount());
+    }
+
+    /**
+     * Only the lines of the edited body are lexed again and the other bodies are not parsed,
+     * the tokens after the edit move to their new lines
+     */
+    public void testEditLexesOnlyBody() throws Exception {
+        StringBuilder procedures = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            procedures.append(FIRST.replace("first", "p" + i));
+        }
+        String source = HEADER + FIRST + procedures + SECOND + MAIN;
+        int lineCount = source.split("\n", -1).length;
+        IncrementalCompiler compiler = newCompiler();
+        assertNull(compiler.check(source));
+        assertEquals(lineCount, compiler.getLexedLineCount());
+        assertEquals(0, compiler.getSkippedBodyCount());
+
+        //two lines are added to the body of first, it now has five lines from begin to end
+        String edited = source.replace("x := x + 1;\nend;\nprocedure p0",
+                "x := x + 1;\n  x := x + 2;\n  x := x + 3;\nend;\nprocedure p0");
+        assertNull(compiler.check(edited));
+        assertEquals(1, compiler.getIncrementalCompileCount());
+        assertEquals(lineCount + 5, compiler.getLexedLineCount());
+        //p0 ... p19, second and the main program are clean
+        assertEquals(22, compiler.getSkippedBodyCount());
+
+        String broken = edited.replace("x * 2;", "x * 2;\n  y := 1;");
+        assertNotNull(compiler.check(broken));
+        assertEquals(lineCount + 5 + 4, compiler.getLexedLineCount());
+
+        //second comes after the error, it is parsed again with its tokens moved by one line
+        broken = broken.replace("x := x + 3;", "x := x + 3;\n  x := x + 4;");
+        ParsingException error = compiler.check(broken);
+        assertNotNull(error);
+        assertEquals(3, compiler.getIncrementalCompileCount());
+        assertEquals(1, compiler.getFullCompileCount());
+        assertEquals(lineCount + 5 + 4 + 6, compiler.getLexedLineCount());
+        ParsingException full = newCompiler().check(broken);
+        assertNotNull(full);
+        assertEquals(full.getLineInfo().getLine(), error.getLineInfo().getLine());
+        assertEquals(full.getLineInfo().getColumn(), error.getLineInfo().getColumn());
+        assertEquals(full.getClass(), error.getClass());
+    }
+
+    public void testEditDeclaration() throws Exception {
+        IncrementalCompiler compiler = newCompiler();
+        assertNull(compiler.check(HEADER + FIRST + SECOND + MAIN));
+
+        //x is used by every body, they are all checked again
+        ParsingException error = compiler.check(HEADER.replace("x: integer", "y: integer")
+                + FIRST + SECOND + MAIN);
+        assertNotNull(error);
+        assertEquals(2, compiler.getFullCompileCount());
+        assertEquals(0, compiler.getIncrementalCompileCount());
+    }
+
+    public void testUnchangedSource() throws Exception {
+        IncrementalCompiler compiler = newCompiler();
+        String source = HEADER + FIRST + SECOND.replace("x * 2", "x * ") + MAIN;
+        ParsingException error = compiler.check(source);
+        assertNotNull(error);
+        assertSame(error, compiler.check(source));
+        assertEquals(1, compiler.getFullCompileCount());
+    }
+
+    private static IncrementalCompiler newCompiler() {
+        return new IncrementalCompiler("temp", new ArrayList<ScriptSource>());
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.parse;
+
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.backend.tokenizer.Symbol;
+import com.duy.pascal.backend.tokenizer.SymbolTable;
+import com.duy.pascal.backend.tokens.WordToken;
+
+import junit.framework.TestCase;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Identifiers that differ only by case share one symbol
+ */
+public class SymbolTableTest extends TestCase {
+
+    public void testIntern() {
+        Symbol a = SymbolTable.intern("WriteLn");
+        Symbol b = SymbolTable.intern("writeln");
+        assertSame(a, b);
+        assertEquals("writeln", a.getName());
+        assertNotSame(a, SymbolTable.intern("write"));
+    }
+
+    public void testWordTokenName() {
+        WordToken first = new WordToken(new LineInfo(0, ""), "Counter");
+        WordToken second = new WordToken(new LineInfo(1, ""), "COUNTER");
+        assertSame(first.getSymbol(), second.getSymbol());
+        assertSame(first.name, second.name);
+    }
+
+    public void testConcurrentIntern() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<Symbol>[] futures = new Future[8];
+            for (int i = 0; i < futures.length; i++) {
+                final String spelling = i % 2 == 0 ? "SharedName" : "sharedname";
+                futures[i] = executor.submit(new Callable<Symbol>() {
+                    @Override
+                    public Symbol call() throws Exception {
+                        return SymbolTable.intern(spelling);
+                    }
+                });
+            }
+            Symbol expected = futures[0].get();
+            for (Future<Symbol> future : futures) {
+                assertSame(expected, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public void testUnusedSymbolIsCollected() {
+        WeakReference<Symbol> reference = new WeakReference<>(SymbolTable.intern("NeverUsedAgain"));
+        for (int i = 0; i < 20 && reference.get() != null; i++) {
+            System.gc();
+        }
+        assertNull(reference.get());
+        assertEquals("neverusedagain", SymbolTable.intern("NeverUsedAgain").getName());
+    }
+}
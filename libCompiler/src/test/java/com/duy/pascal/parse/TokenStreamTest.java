@@ -0,0 +1,113 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.parse;
+
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.backend.source_include.ScriptSource;
+import com.duy.pascal.backend.tokenizer.NewLexer;
+import com.duy.pascal.backend.tokens.EOFToken;
+import com.duy.pascal.backend.tokens.Token;
+import com.duy.pascal.backend.tokens.WordToken;
+import com.duy.pascal.backend.tokens.grouping.BaseGrouperToken;
+import com.duy.pascal.backend.tokens.grouping.GrouperToken;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.FileReader;
+import java.util.ArrayList;
+
+/**
+ * Backtracking over the children of a grouper, on a small grouper and on the programs of
+ * test_pascal/data. The time to lex and group the programs is printed
+ */
+public class TokenStreamTest extends TestCase {
+
+    public void testMarkReset() throws Exception {
+        LineInfo line = new LineInfo(0, "test");
+        BaseGrouperToken grouper = new BaseGrouperToken(line);
+        grouper.put(new WordToken(line, "a"));
+        grouper.put(new WordToken(line, "b"));
+        grouper.put(new WordToken(line, "c"));
+        grouper.put(new EOFToken(line));
+
+        assertEquals("a", grouper.nextWordValue());
+        int mark = grouper.mark();
+        assertEquals("b", grouper.nextWordValue());
+        assertEquals("c", grouper.nextWordValue());
+        assertFalse(grouper.hasNext());
+
+        grouper.reset(mark);
+        assertEquals("b", grouper.nextWordValue());
+        assertTrue(grouper.hasNext());
+    }
+
+    public void testCorpus() throws Exception {
+        File dir = new File(System.getProperty("user.dir"), "test_pascal" + File.separator + "data");
+        File[] files = dir.listFiles();
+        assertNotNull(dir.getPath(), files);
+        long start = System.nanoTime();
+        long tokens = 0;
+        for (File file : files) {
+            if (!file.getName().endsWith(".pas")) continue;
+            NewLexer lexer = new NewLexer(new FileReader(file), file.getName(),
+                    new ArrayList<ScriptSource>());
+            lexer.parse();
+            GrouperToken program = lexer.getTokenQueue();
+            int mark = program.mark();
+            long topLevel = countTopLevel(program);
+            assertTrue(file.getName(), topLevel > 0);
+            //replay the same tokens, this time with the children of the groupers
+            program.reset(mark);
+            long count = drain(program);
+            assertTrue(file.getName(), count >= topLevel);
+            tokens += count;
+        }
+        long time = System.nanoTime() - start;
+        assertTrue(tokens > 0);
+        System.out.println("test_pascal/data: " + tokens + " tokens in " + time / 1000000 + " ms");
+    }
+
+    private static long countTopLevel(GrouperToken grouper) {
+        long count = 0;
+        try {
+            while (grouper.hasNext()) {
+                grouper.take();
+                count++;
+            }
+        } catch (Exception ignored) {
+            //grouping errors of a file end its tokens
+        }
+        return count;
+    }
+
+    private static long drain(GrouperToken grouper) {
+        long count = 0;
+        try {
+            while (grouper.hasNext()) {
+                Token token = grouper.take();
+                count++;
+                if (token instanceof GrouperToken) {
+                    count += drain((GrouperToken) token);
+                }
+            }
+        } catch (Exception ignored) {
+            //grouping errors of a file end its tokens
+        }
+        return count;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Lists the methods annotated with PascalMethod at build time, so the builtin libraries are
+ * not scanned with reflection when a program imports them or the editor suggests them.
+ * <p>
+ * Writes the class LibraryMethodTable into the package of the builtin libraries, it fills a
+ * map from each library class to its methods, in the order they are declared
+ */
+public class PascalMethodProcessor extends AbstractProcessor {
+    private static final String PASCAL_METHOD =
+            "com.duy.pascal.backend.builtin_libraries.annotations.PascalMethod";
+    private static final String PACKAGE = "com.duy.pascal.backend.builtin_libraries";
+    private static final String TABLE = "LibraryMethodTable";
+
+    private boolean written = false;
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(PASCAL_METHOD);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement annotation = processingEnv.getElementUtils().getTypeElement(PASCAL_METHOD);
+        if (annotation == null || roundEnv.processingOver()) {
+            return false;
+        }
+        //library class name -> expressions creating its methods
+        Map<String, List<String>> libraries = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+            if (element.getKind() != ElementKind.METHOD) {
+                continue;
+            }
+            ExecutableElement method = (ExecutableElement) element;
+            String library = ((TypeElement) method.getEnclosingElement()).getQualifiedName()
+                    .toString();
+            List<String> methods = libraries.get(library);
+            if (methods == null) {
+                methods = new ArrayList<>();
+                libraries.put(library, methods);
+            }
+            methods.add(newMethod(method, annotation));
+        }
+        if (libraries.isEmpty()) {
+            return false;
+        }
+        if (written) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "PascalMethod found in a generated source, " + TABLE + " is already written");
+            return false;
+        }
+        try {
+            write(libraries);
+            written = true;
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Can not write " + TABLE + ": " + e);
+        }
+        return false;
+    }
+
+    /**
+     * @return the expression creating the LibraryMethod of the annotated method
+     */
+    private String newMethod(ExecutableElement method, TypeElement annotation) {
+        StringBuilder parameters = new StringBuilder();
+        for (VariableElement parameter : method.getParameters()) {
+            if (parameters.length() > 0) {
+                parameters.append(", ");
+            }
+            parameters.append(processingEnv.getTypeUtils().erasure(parameter.asType()))
+                    .append(".class");
+        }
+        String description = "";
+        for (AnnotationMirror mirror : method.getAnnotationMirrors()) {
+            if (!mirror.getAnnotationType().asElement().equals(annotation)) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value
+                    : mirror.getElementValues().entrySet()) {
+                if (value.getKey().getSimpleName().contentEquals("description")) {
+                    description = (String) value.getValue().getValue();
+                }
+            }
+        }
+        return "new LibraryMethod(" + literal(method.getSimpleName().toString())
+                + ", new Class<?>[]{" + parameters + "}, " + literal(description) + ")";
+    }
+
+    private String literal(String value) {
+        return processingEnv.getElementUtils().getConstantExpression(value);
+    }
+
+    /**
+     * Each library gets its own method, a single one could pass the size limit of a method
+     */
+    private void write(Map<String, List<String>> libraries) throws IOException {
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(PACKAGE + "." + TABLE);
+        Writer writer = file.openWriter();
+        try {
+            writer.write("package " + PACKAGE + ";\n\n");
+            writer.write("import java.util.Map;\n\n");
+            writer.write("/**\n * Generated by " + getClass().getName()
+                    + " from the PascalMethod annotations, do not edit\n */\n");
+            writer.write("final class " + TABLE + " {\n");
+            writer.write("    private " + TABLE + "() {\n    }\n\n");
+            writer.write("    static void fill(Map<Class<?>, LibraryMethod[]> table) {\n");
+            int index = 0;
+            for (String library : libraries.keySet()) {
+                writer.write("        table.put(" + library + ".class, library" + index + "());\n");
+                index++;
+            }
+            writer.write("    }\n");
+            index = 0;
+            for (List<String> methods : libraries.values()) {
+                writer.write("\n    private static LibraryMethod[] library" + index + "() {\n");
+                writer.write("        return new LibraryMethod[]{\n");
+                for (String method : methods) {
+                    writer.write("                " + method + ",\n");
+                }
+                writer.write("        };\n    }\n");
+                index++;
+            }
+            writer.write("}\n");
+        } finally {
+            writer.close();
+        }
+    }
+}
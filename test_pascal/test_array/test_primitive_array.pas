@@ -0,0 +1,58 @@
+program test_primitive_array;
+const
+    primes: array [1..5] of integer = (2, 3, 5, 7, 11);
+var
+    a, b: array [1..10] of integer;
+    r: array [0..3] of real;
+    c: array [1..3] of char;
+    flags: array [1..4] of boolean;
+    grid: array [1..3, 1..3] of integer;
+    i, j, sum: integer;
+
+procedure fill(var x: array [1..10] of integer; v: integer);
+var
+    k: integer;
+begin
+    for k := 1 to 10 do
+        x[k] := v;
+end;
+
+begin
+    for i := 1 to 10 do
+        a[i] := i * i;
+    sum := 0;
+    for i := 1 to 10 do
+        sum := sum + a[i];
+    writeln(sum);
+
+    b := a;
+    b[1] := 1000;
+    writeln(a[1], ' ', b[1]);
+
+    fill(b, 7);
+    writeln(b[10], ' ', a[10]);
+
+    for i := 0 to 3 do
+        r[i] := i / 2;
+    writeln(trunc(r[3] * 10));
+
+    c[1] := 'a';
+    c[2] := 'b';
+    c[3] := 'c';
+    writeln(c[1], c[2], c[3]);
+
+    flags[2] := true;
+    for i := 1 to 4 do
+        if flags[i] then
+            writeln('flag ', i);
+
+    for i := 1 to 3 do
+        for j := 1 to 3 do
+            grid[i, j] := i * 10 + j;
+    writeln(grid[2, 3] + grid[3, 1]);
+
+    sum := 0;
+    for i := 1 to 5 do
+        sum := sum + primes[i];
+    writeln(sum);
+end.
@@ -0,0 +1,26 @@
+unit tally;
+
+interface
+
+procedure add(n: integer);
+
+function getTotal: integer;
+
+implementation
+
+var
+    total: integer;
+
+procedure add(n: integer);
+begin
+    total := total + n;
+end;
+
+function getTotal: integer;
+begin
+    getTotal := total;
+end;
+
+initialization
+    total := 100;
+end.
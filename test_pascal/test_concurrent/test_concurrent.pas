@@ -0,0 +1,35 @@
+program test_concurrent;
+uses tally;
+
+var
+    seed: array[1..3] of integer = (1, 2, 3);
+    name: string = 'run';
+    values: array of integer;
+    n, i, sum: integer;
+
+function square(x: integer): integer;
+begin
+    square := x * x;
+end;
+
+begin
+    readln(n);
+    for i := 1 to 3 do
+        seed[i] := seed[i] * n;
+    name[1] := 'R';
+
+    setlength(values, n);
+    for i := 0 to length(values) - 1 do
+        values[i] := i;
+    for i := 0 to high(values) do
+        add(values[i]);
+
+    sum := 0;
+    for i := 1 to 20000 do
+        sum := sum + square(i mod 100);
+
+    writeln(n, ' ', seed[1], ' ', seed[2], ' ', seed[3]);
+    writeln(name);
+    writeln(length(values), ' ', sum);
+    writeln(getTotal);
+end.
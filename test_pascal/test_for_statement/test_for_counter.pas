@@ -0,0 +1,34 @@
+var
+  i, s : Integer;
+  l : longint;
+  c : char;
+
+procedure local;
+var
+  k, t : Integer;
+begin
+  t := 0;
+  for k := 10 downto 1 do
+  begin
+    if k = 3 then break;
+    t := t + k;
+  end;
+  writeln(k, ' ', t);
+end;
+
+begin
+  s := 0;
+  for i := 1 to 100 do s := s + i;
+  writeln(i, ' ', s);
+  for i := 5 to 1 do s := 0;
+  writeln(s);
+  l := 0;
+  for i := 3 downto -3 do l := l + i * i;
+  writeln(l);
+  for l := 1 to 5 do
+    if l = 4 then break;
+  writeln(l);
+  for c := 'e' downto 'a' do write(c);
+  writeln;
+  local;
+end.
@@ -0,0 +1,168 @@
+program test_jit;
+
+{$JIT ON}
+{the routines are called, not copied into the program, so that they become hot}
+{$INLINE OFF}
+
+const
+    MAX = 100000;
+
+var
+    sieve: array[1..MAX] of boolean;
+    squares: array[0..99] of longint;
+    total: int64;
+    sum: real;
+    i, count: integer;
+
+function fib(n: integer): integer;
+begin
+    if n < 2 then
+        fib := n
+    else
+        fib := fib(n - 1) + fib(n - 2);
+end;
+
+function gcd(a, b: integer): integer;
+var
+    t: integer;
+begin
+    while b <> 0 do
+    begin
+        t := a mod b;
+        a := b;
+        b := t;
+    end;
+    gcd := a;
+end;
+
+function sumSquares(n: integer): int64;
+var
+    k: integer;
+    s: int64;
+begin
+    s := 0;
+    for k := 1 to n do
+        s := s + k * k;
+    sumSquares := s;
+end;
+
+function collatz(n: int64): integer;
+var
+    steps: integer;
+begin
+    steps := 0;
+    repeat
+        if n mod 2 = 0 then
+            n := n div 2
+        else
+            n := 3 * n + 1;
+        steps := steps + 1;
+    until n = 1;
+    collatz := steps;
+end;
+
+function firstDivisor(n: integer): integer;
+var
+    d: integer;
+begin
+    firstDivisor := n;
+    for d := 2 to n - 1 do
+    begin
+        if d * d > n then
+            break;
+        if n mod d <> 0 then
+            continue;
+        firstDivisor := d;
+        exit;
+    end;
+end;
+
+function isPrime(n: integer): boolean;
+begin
+    isPrime := (n > 1) and (firstDivisor(n) = n);
+end;
+
+function mean(n: integer): real;
+var
+    k: integer;
+    s: real;
+begin
+    s := 0;
+    for k := 1 to n do
+        s := s + k / n;
+    mean := s / n;
+end;
+
+procedure fillSieve;
+var
+    j, k: integer;
+begin
+    for j := 1 to MAX do
+        sieve[j] := true;
+    sieve[1] := false;
+    for j := 2 to MAX do
+        if sieve[j] then
+        begin
+            k := j + j;
+            while k <= MAX do
+            begin
+                sieve[k] := false;
+                k := k + j;
+            end;
+        end;
+end;
+
+procedure fillSquares;
+var
+    j: integer;
+begin
+    for j := 0 to 99 do
+        squares[j] := j * j;
+    total := 0;
+    for j := 99 downto 0 do
+        total := total + squares[j];
+end;
+
+begin
+    writeln(fib(25));
+
+    count := 0;
+    for i := 1 to 20000 do
+        if gcd(i, 360) = 1 then
+            count := count + 1;
+    writeln(count);
+
+    total := 0;
+    for i := 1 to 200 do
+        total := total + sumSquares(i);
+    writeln(total);
+
+    count := 0;
+    for i := 1 to 10000 do
+        count := count + collatz(i);
+    writeln(count);
+
+    count := 0;
+    for i := 1 to 20000 do
+        if isPrime(i) then
+            count := count + 1;
+    writeln(count);
+
+    sum := 0;
+    for i := 1 to 300 do
+        sum := sum + mean(i);
+    writeln(sum:0:4);
+
+    {the first call makes the procedure hot, the second one runs the compiled code}
+    fillSieve;
+    fillSieve;
+    count := 0;
+    for i := 1 to MAX do
+        if sieve[i] then
+            count := count + 1;
+    writeln(count);
+
+    for i := 1 to 50 do
+        fillSquares;
+    writeln(total);
+end.
@@ -0,0 +1,245 @@
+program test_linear;
+
+{the routines are run by the register interpreter, not compiled to bytecode}
+{$BACKEND LINEAR}
+{$JIT OFF}
+{$INLINE OFF}
+
+const
+    SIZE = 1000;
+
+var
+    values: array[1..SIZE] of longint;
+    flags: array[0..63] of boolean;
+    ratios: array[1..10] of real;
+    seed: int64;
+    steps: integer;
+    i, count: integer;
+    total: int64;
+    r: real;
+
+function ackermann(m, n: integer): integer;
+begin
+    if m = 0 then
+        ackermann := n + 1
+    else if n = 0 then
+        ackermann := ackermann(m - 1, 1)
+    else
+        ackermann := ackermann(m - 1, ackermann(m, n - 1));
+end;
+
+function nextRandom: int64;
+begin
+    seed := (seed * 1103515245 + 12345) mod 2147483648;
+    nextRandom := seed;
+end;
+
+procedure fillValues;
+var
+    k: integer;
+begin
+    for k := 1 to SIZE do
+        values[k] := nextRandom mod 1000 - 500;
+end;
+
+procedure bubbleSort;
+var
+    j, k: integer;
+    t: longint;
+    swapped: boolean;
+begin
+    for j := SIZE downto 2 do
+    begin
+        swapped := false;
+        for k := 1 to j - 1 do
+            if values[k] > values[k + 1] then
+            begin
+                t := values[k];
+                values[k] := values[k + 1];
+                values[k + 1] := t;
+                swapped := true;
+            end;
+        if not swapped then
+            break;
+    end;
+end;
+
+function isSorted: boolean;
+var
+    k: integer;
+begin
+    isSorted := true;
+    for k := 2 to SIZE do
+        if values[k - 1] > values[k] then
+        begin
+            isSorted := false;
+            exit;
+        end;
+end;
+
+function bits(n: integer): integer;
+var
+    c: integer;
+begin
+    c := 0;
+    while n <> 0 do
+    begin
+        c := c + (n and 1);
+        n := n shr 1;
+    end;
+    bits := c;
+end;
+
+function mix(a, b: integer): integer;
+begin
+    mix := ((a shl 3) xor b) or (a and (b xor 255));
+end;
+
+function signs(a, b: integer): integer;
+begin
+    signs := (a div b) * 100 + a mod b;
+end;
+
+procedure markFlags;
+var
+    k: integer;
+begin
+    for k := 0 to 63 do
+        flags[k] := (k mod 3 = 0) <> (k mod 5 = 0);
+end;
+
+function countFlags: integer;
+var
+    k, c: integer;
+    inside: boolean;
+begin
+    c := 0;
+    for k := 0 to 63 do
+    begin
+        inside := flags[k] and ((k < 10) or (k > 50));
+        if inside or (k = 33) then
+            c := c + 1;
+    end;
+    countFlags := c;
+end;
+
+function distance(a, b: real): real;
+begin
+    if a < b then
+        distance := b - a
+    else
+        distance := a - b;
+end;
+
+function closest(target: real): integer;
+var
+    k, best: integer;
+begin
+    best := 1;
+    for k := 2 to 10 do
+        if distance(ratios[k], target) < distance(ratios[best], target) then
+            best := k;
+    closest := best;
+end;
+
+function harmonic(n: integer): real;
+var
+    k: integer;
+    h: real;
+begin
+    h := 0;
+    k := n;
+    repeat
+        h := h + 1 / k;
+        k := k - 1;
+    until k = 0;
+    harmonic := h;
+end;
+
+function power(base: int64; e: integer): int64;
+var
+    half: int64;
+begin
+    if e = 0 then
+        power := 1
+    else if e mod 2 = 0 then
+    begin
+        half := power(base, e div 2);
+        power := half * half;
+    end
+    else
+        power := base * power(base, e - 1);
+end;
+
+procedure countSteps(n: integer);
+begin
+    while n > 1 do
+    begin
+        if n mod 2 = 1 then
+            n := 3 * n + 1
+        else
+            n := n div 2;
+        steps := steps + 1;
+    end;
+end;
+
+function triangle(n: integer): integer;
+var
+    a, b, c: integer;
+begin
+    c := 0;
+    for a := 1 to n do
+        for b := a to n do
+        begin
+            if (a + b) mod 7 = 0 then
+                continue;
+            c := c + 1;
+        end;
+    triangle := c;
+end;
+
+begin
+    writeln(ackermann(2, 3));
+
+    seed := 42;
+    fillValues;
+    bubbleSort;
+    if isSorted then
+        writeln('sorted')
+    else
+        writeln('not sorted');
+    writeln(values[1], ' ', values[SIZE div 2], ' ', values[SIZE]);
+
+    count := 0;
+    for i := 0 to 1023 do
+        count := count + bits(i);
+    writeln(count);
+
+    total := 0;
+    for i := 1 to 200 do
+        total := total + mix(i, 200 - i);
+    writeln(total);
+
+    writeln(signs(17, 5), ' ', signs(-17, 5), ' ', signs(17, -5));
+
+    markFlags;
+    writeln(countFlags);
+
+    for i := 1 to 10 do
+        ratios[i] := i / 3;
+    writeln(closest(1.9), ' ', closest(-4), ' ', closest(2.5));
+
+    r := 0;
+    for i := 1 to 100 do
+        r := r + harmonic(i);
+    writeln(r:0:6);
+
+    writeln(power(3, 30), ' ', power(-2, 61));
+
+    steps := 0;
+    for i := 1 to 1000 do
+        countSteps(i);
+    writeln(steps);
+
+    writeln(triangle(60));
+end.
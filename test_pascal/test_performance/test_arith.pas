@@ -0,0 +1,14 @@
+var
+  i, s, c : Integer;
+  l : longint;
+begin
+  for i := 1 to 1000000 do
+  begin
+    s := (s + i * 3) mod 10007;
+    if (i mod 7 = 0) and (i > 10) then c := c + 1;
+    l := (l + i div 3) mod 1000000007;
+  end;
+  WriteLn(s);
+  WriteLn(c);
+  WriteLn(l);
+end.
@@ -0,0 +1,21 @@
+type
+  point = record
+    x, y : Integer;
+  end;
+
+var
+  i, s : Integer;
+  a : array[1..100] of Integer;
+  p : point;
+begin
+  s := 0;
+  for i := 1 to 1000000 do
+  begin
+    a[i mod 100 + 1] := i mod 7;
+    p.x := a[i mod 100 + 1];
+    p.y := p.y + p.x;
+    s += p.x;
+  end;
+  WriteLn(s);
+  WriteLn(p.y);
+end.
@@ -0,0 +1,59 @@
+var
+  a : array[1..5] of integer;
+  x, y, i, total, calls : integer;
+  r : longint;
+
+function maxOf(p, q : integer) : integer;
+begin
+  if p > q then maxOf := p else maxOf := q;
+end;
+
+procedure swap(var p, q : integer);
+var
+  t : integer;
+begin
+  t := p;
+  p := q;
+  q := t;
+end;
+
+function twice(n : longint) : longint;
+begin
+  calls := calls + 1;
+  twice := n * 2;
+end;
+
+{$INLINE OFF}
+function minOf(p, q : integer) : integer;
+begin
+  if p < q then minOf := p else minOf := q;
+end;
+{$INLINE ON}
+
+function counter : integer;
+var
+  c : integer;
+begin
+  c := c + 1;
+  counter := c;
+end;
+
+begin
+  x := 3;
+  y := 8;
+  swap(x, y);
+  WriteLn(x, ' ', y);
+  for i := 1 to 5 do
+    a[i] := 10 - i * 3;
+  swap(a[1], a[5]);
+  WriteLn(a[1], ' ', a[5]);
+  total := 0;
+  for i := 1 to 5 do
+    total := total + maxOf(a[i], minOf(i, 3));
+  WriteLn(total);
+  r := twice(twice(5));
+  WriteLn(r, ' ', calls);
+  WriteLn(counter, ' ', counter);
+  x := maxOf(maxOf(1, 2), maxOf(x, y));
+  WriteLn(x);
+end.
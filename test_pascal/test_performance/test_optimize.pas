@@ -0,0 +1,46 @@
+const
+  N = 100000;
+  TRACE = false;
+var
+  i, s, k, scale, offset : integer;
+  step : integer = 3;
+  l : longint;
+  m : integer;
+
+function maxOf(a, b : integer) : integer;
+begin
+  if a > b then maxOf := a else maxOf := b;
+end;
+
+function gcd(a, b : integer) : integer;
+begin
+  if b = 0 then gcd := a else gcd := gcd(b, a mod b);
+end;
+
+begin
+  scale := 5;
+  offset := 7;
+  for i := 1 to N do
+  begin
+    if TRACE then WriteLn('trace ', i);
+    begin
+    end;
+    s := (s + i * 8 + scale * offset) mod 10007;
+    k := k + i div 4 - step * 2;
+    l := l + (scale + offset) * (i mod 16);
+  end;
+  for i := 1 to 1000 do
+    m := maxOf(m, (i * 7) mod 1000);
+  while TRACE do WriteLn('never');
+  case step of
+    1: WriteLn('one');
+    3: WriteLn('three');
+  else
+    WriteLn('other');
+  end;
+  WriteLn(s);
+  WriteLn(k);
+  WriteLn(l);
+  WriteLn(m);
+  WriteLn(gcd(k, 36000));
+end.
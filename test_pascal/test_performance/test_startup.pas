@@ -0,0 +1,4 @@
+program test_startup;
+begin
+    writeln('hello');
+end.
\ No newline at end of file
@@ -0,0 +1,42 @@
+program test_record_array;
+type
+    point = record
+        X, y: longint;
+    end;
+var
+    pts: array [1..1000] of point;
+    p, q: point;
+    i: integer;
+    sum: longint;
+
+procedure shift(var r: point; d: longint);
+begin
+    r.x := r.x + d;
+    r.y := r.y + d;
+end;
+
+begin
+    for i := 1 to 1000 do
+    begin
+        pts[i].x := i;
+        pts[i].y := 2 * i;
+    end;
+    sum := 0;
+    for i := 1 to 1000 do
+        sum := sum + pts[i].x + pts[i].y;
+    writeln(sum);
+
+    p := pts[10];
+    p.x := 0;
+    writeln(pts[10].x, ' ', p.x);
+
+    shift(pts[10], 5);
+    writeln(pts[10].x, ' ', pts[10].y);
+
+    with q do
+    begin
+        x := 3;
+        y := 4;
+    end;
+    writeln(q.x * q.x + q.y * q.y);
+end.
@@ -0,0 +1,8 @@
+program test_loop;
+var
+    i: integer;
+begin
+    i := 0;
+    while true do
+        i := (i + 1) mod 1000;
+end.
@@ -0,0 +1,14 @@
+program test_routine;
+
+{ calls itself 2^n times }
+function calls(n: integer): integer;
+begin
+    if n = 0 then
+        calls := 1
+    else
+        calls := (calls(n - 1) + calls(n - 1)) mod 7;
+end;
+
+begin
+    writeln(calls(60));
+end.
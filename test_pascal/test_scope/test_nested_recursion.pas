@@ -0,0 +1,27 @@
+program test_nested_recursion;
+var
+    total: integer;
+
+procedure outer(n: integer);
+var
+    depth: integer;
+
+    procedure inner(k: integer; var count: integer);
+    begin
+        depth := depth + 1;
+        count := count + k;
+        if k > 1 then
+            inner(k - 1, count);
+    end;
+
+begin
+    depth := 0;
+    inner(n, total);
+    writeln('depth = ', depth, ' total = ', total);
+end;
+
+begin
+    total := 0;
+    outer(4);
+    outer(3);
+end.
@@ -0,0 +1,34 @@
+program test_bitset;
+type
+    digits = set of 0..9;
+var
+    vowels, letters: set of char;
+    even, odd, all: digits;
+    c: char;
+    i, count: integer;
+
+begin
+    vowels := ['a', 'e', 'i', 'o', 'u'];
+    letters := ['a', 'b', 'c', 'd', 'e'];
+
+    count := 0;
+    for c in vowels * letters do
+        count := count + 1;
+    writeln(count);
+
+    for c in letters - vowels do
+        write(c);
+    writeln;
+
+    writeln('z' in vowels, ' ', 'o' in vowels);
+
+    even := [0, 2, 4, 6, 8];
+    odd := [1, 3, 5, 7, 9];
+    all := even + odd;
+    for i in all do
+        write(i);
+    writeln;
+
+    writeln(even <= all, ' ', all <= even, ' ', even = odd, ' ', even <> odd);
+    writeln(5 in even, ' ', 5 in all);
+end.
@@ -0,0 +1,64 @@
+program test_stackless;
+
+{the calls between routines push frames in the heap instead of nesting java calls}
+{$BACKEND STACKLESS}
+{$INLINE OFF}
+
+const
+    N = 1000000;
+
+var
+    head, next, target, depth: array[1..N] of longint;
+    edges, i, maxDepth: longint;
+    total: int64;
+
+procedure addEdge(a, b: longint);
+begin
+    edges := edges + 1;
+    target[edges] := b;
+    next[edges] := head[a];
+    head[a] := edges;
+end;
+
+procedure visit(v, d: longint);
+begin
+    depth[v] := d;
+    if d > maxDepth then
+        maxDepth := d;
+end;
+
+procedure dfs(v, d: longint);
+var
+    e: longint;
+begin
+    visit(v, d);
+    e := head[v];
+    while e <> 0 do
+    begin
+        dfs(target[e], d + 1);
+        e := next[e];
+    end;
+end;
+
+function sumTo(n: int64): int64;
+begin
+    if n = 0 then
+        sumTo := 0
+    else
+        sumTo := n + sumTo(n - 1);
+end;
+
+begin
+    {a path of N nodes, the depth of the search is N}
+    edges := 0;
+    for i := 2 to N do
+        addEdge(i - 1, i);
+    maxDepth := 0;
+    dfs(1, 0);
+    writeln(maxDepth);
+    total := 0;
+    for i := 1 to N do
+        total := total + depth[i];
+    writeln(total);
+    writeln(sumTo(N));
+end.
@@ -0,0 +1,27 @@
+program test_direct_call;
+var
+    i, sum: integer;
+    l: longint;
+    c: char;
+    d: real;
+begin
+    sum := 0;
+    for i := -5 to 5 do
+        sum := sum + abs(i) + sqr(i);
+    writeln(sum);
+
+    l := 10;
+    inc(l);
+    inc(l, 4);
+    dec(l, 2);
+    writeln(l);
+
+    c := 'a';
+    inc(c);
+    writeln(c, ' ', ord(c), ' ', chr(ord(c) + 1));
+
+    d := sqrt(16.0);
+    writeln(trunc(d), ' ', round(2.6), ' ', succ(3), ' ', pred(3));
+    if odd(3) then
+        writeln('odd');
+end.
\ No newline at end of file
@@ -0,0 +1,112 @@
+program test_tailcall;
+
+{each recursive call is in tail position, so the recursion runs in constant stack}
+
+type
+    PNode = ^TNode;
+    TNode = record
+        value: longint;
+        next: PNode;
+    end;
+
+const
+    N = 10000000;
+    SIZE = 1000;
+
+var
+    sorted: array[1..SIZE] of longint;
+    ring, node, p: PNode;
+    i, found, counted: longint;
+
+function gcd(a, b: int64): int64;
+begin
+    if b = 0 then
+        gcd := a
+    else
+        gcd := gcd(b, a mod b);
+end;
+
+function sumTo(n, acc: int64): int64;
+begin
+    if n = 0 then
+        sumTo := acc
+    else
+        sumTo := sumTo(n - 1, acc + n);
+end;
+
+function search(lo, hi, x: longint): longint;
+var
+    mid: longint;
+begin
+    if lo > hi then
+    begin
+        search := -1;
+        exit;
+    end;
+    mid := (lo + hi) div 2;
+    if sorted[mid] = x then
+        search := mid
+    else if sorted[mid] < x then
+        search := search(mid + 1, hi, x)
+    else
+        search := search(lo, mid - 1, x);
+end;
+
+{adds the values of the next steps nodes of the list}
+function walk(p: PNode; steps, acc: int64): int64;
+begin
+    if steps = 0 then
+    begin
+        walk := acc;
+        exit;
+    end;
+    walk := walk(p^.next, steps - 1, acc + p^.value);
+end;
+
+{counts the even numbers from 1 to n, the call is followed by exit}
+procedure countDown(n: longint);
+begin
+    while n > 0 do
+    begin
+        if n mod 2 = 0 then
+        begin
+            counted := counted + 1;
+            countDown(n - 1);
+            exit;
+        end;
+        n := n - 1;
+    end;
+end;
+
+begin
+    writeln(gcd(1134903170, 701408733));
+    writeln(sumTo(N, 0));
+
+    for i := 1 to SIZE do
+        sorted[i] := 3 * i;
+    found := 0;
+    for i := 1 to 3 * SIZE do
+        if search(1, SIZE, i) > 0 then
+            found := found + 1;
+    writeln(found);
+    writeln(search(1, SIZE, 2997));
+    writeln(search(1, SIZE, 2));
+
+    {a ring of SIZE nodes, walked N steps}
+    new(ring);
+    ring^.value := 1;
+    node := ring;
+    for i := 2 to SIZE do
+    begin
+        new(p);
+        p^.value := i;
+        node^.next := p;
+        node := p;
+    end;
+    node^.next := ring;
+    writeln(walk(ring, N, 0));
+
+    counted := 0;
+    countDown(N);
+    writeln(counted);
+end.